@@ -32,6 +32,29 @@ CREATE TABLE tokens(
     user_id int,
     FOREIGN KEY (user_id) REFERENCES users(id)
 );
+ALTER TABLE tokens ADD COLUMN jti VARCHAR(32);
+ALTER TABLE tokens ADD COLUMN token_hash CHAR(64) UNIQUE;
+ALTER TABLE tokens ADD COLUMN issued_at DATETIME;
+ALTER TABLE tokens ADD COLUMN refresh_token VARCHAR(64) UNIQUE;
+ALTER TABLE tokens ADD COLUMN previous_refresh_token VARCHAR(64);
+ALTER TABLE tokens ADD COLUMN refresh_expiration_date DATETIME;
+CREATE INDEX idx_tokens_previous_refresh_token ON tokens(previous_refresh_token);
+--mọi refresh token đã bị thay thế, giữ đến khi phiên hết hạn refresh
+CREATE TABLE retired_refresh_tokens(
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    refresh_token_hash CHAR(64) NOT NULL UNIQUE,
+    token_id INT NOT NULL,
+    expiration_date DATETIME NOT NULL
+);
+ALTER TABLE tokens DROP COLUMN previous_refresh_token;
+
+--nhật ký token bị thu hồi, mỗi node nạp vào bộ nhớ khi khởi động
+CREATE TABLE token_revocations(
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    jti VARCHAR(32) NOT NULL,
+    expiration_date DATETIME NOT NULL,
+    created_at DATETIME
+);
 
 --hỗ trợ đăng nhập từ Facebook và Google
 CREATE TABLE social_accounts(
@@ -0,0 +1,38 @@
+package com.project.shopapp.Configurations;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Replaces Spring Boot's open-in-view interceptor with one that skips the login route. Under open-in-view
+ * the EntityManager keeps its JDBC connection until the request ends, so a login would hold a Hikari
+ * connection while it waits for BCrypt; without it the user lookup's transaction returns the connection.
+ */
+@Configuration
+public class OpenInViewConfig implements WebMvcConfigurer {
+    private final String apiPrefix;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public OpenInViewConfig(@Value("${api.prefix}") String apiPrefix, EntityManagerFactory entityManagerFactory) {
+        this.apiPrefix = apiPrefix;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Bean
+    public OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor() {
+        OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+        interceptor.setEntityManagerFactory(entityManagerFactory);
+        return interceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addWebRequestInterceptor(openEntityManagerInViewInterceptor())
+                .excludePathPatterns(apiPrefix + "/users/login");
+    }
+}
@@ -0,0 +1,48 @@
+package com.project.shopapp.Configurations;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "rate-limit")
+@Getter
+@Setter
+public class RateLimitProperties {
+    private boolean enabled = true;
+    // buckets untouched for this long are dropped (they would be full again anyway)
+    private long idleEvictSeconds = 600;
+    private Limit perIp = new Limit(200, 100);
+    private Limit perUser = new Limit(200, 100);
+    // evaluated in order, the first matching group applies
+    private List<RouteGroup> routes = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Limit {
+        private int capacity;
+        private double refillPerSecond;
+
+        public Limit() {
+        }
+
+        public Limit(int capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class RouteGroup extends Limit {
+        private String name;
+        // null = any method
+        private String method;
+        // ant pattern relative to the servlet path, api prefix included
+        private String pattern;
+    }
+}
@@ -0,0 +1,41 @@
+package com.project.shopapp.Configurations;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+// Authorizes every request with a single RoutePolicyRegistry lookup
+@Component
+@RequiredArgsConstructor
+public class RouteAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+    private final RoutePolicyRegistry routePolicyRegistry;
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication,
+                                       RequestAuthorizationContext context) {
+        RoutePolicyRegistry.RoutePolicy policy = routePolicyRegistry.match(context.getRequest());
+        if (policy != null && policy.isPublicAccess()) {
+            return new AuthorizationDecision(true);
+        }
+        Authentication current = authentication.get();
+        if (current == null || !current.isAuthenticated() || current instanceof AnonymousAuthenticationToken) {
+            return new AuthorizationDecision(false);
+        }
+        if (policy == null) {
+            return new AuthorizationDecision(true);
+        }
+        for (GrantedAuthority authority : current.getAuthorities()) {
+            if (policy.getAuthorities().contains(authority.getAuthority())) {
+                return new AuthorizationDecision(true);
+            }
+        }
+        return new AuthorizationDecision(false);
+    }
+}
@@ -0,0 +1,97 @@
+package com.project.shopapp.Configurations;
+
+import com.project.shopapp.models.Role;
+import com.project.shopapp.utils.PathTrie;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static org.springframework.http.HttpMethod.*;
+
+/**
+ * Single list of route access rules, read by both JwtTokenFilter ("may this request skip the token?")
+ * and WebSecurityConfig ("which roles may call it?"). Rules are compiled once into a PathTrie,
+ * so each request costs one lookup. First declared rule wins; unlisted routes require a login.
+ */
+@Component
+public class RoutePolicyRegistry {
+    @Getter
+    public static class RoutePolicy {
+        private final boolean publicAccess;
+        private final List<String> roles;
+        // "ROLE_" + role, as produced by User.getAuthorities()
+        private final List<String> authorities;
+
+        private RoutePolicy(boolean publicAccess, List<String> roles) {
+            this.publicAccess = publicAccess;
+            this.roles = roles;
+            this.authorities = roles.stream().map(role -> "ROLE_" + role).toList();
+        }
+
+        public static RoutePolicy permitAll() {
+            return new RoutePolicy(true, List.of());
+        }
+
+        public static RoutePolicy hasAnyRole(String... roles) {
+            return new RoutePolicy(false, List.of(roles));
+        }
+    }
+
+    private final PathTrie<RoutePolicy> routes = new PathTrie<>();
+
+    public RoutePolicyRegistry(@Value("${api.prefix}") String apiPrefix) {
+        RoutePolicy permitAll = RoutePolicy.permitAll();
+        RoutePolicy users = RoutePolicy.hasAnyRole(Role.USER, Role.ADMIN);
+        RoutePolicy admin = RoutePolicy.hasAnyRole(Role.ADMIN);
+
+        routes
+                .add(POST.name(), apiPrefix + "/users/register", permitAll)
+                .add(POST.name(), apiPrefix + "/users/login", permitAll)
+                .add(POST.name(), apiPrefix + "/users/refresh", permitAll)
+                // upload sessions are not part of the public catalog: declared before products/**
+                .add(GET.name(), apiPrefix + "/products/chunked-uploads/**", admin)
+                .add(GET.name(), apiPrefix + "/products**", permitAll)
+                .add(GET.name(), apiPrefix + "/products/**", permitAll)
+                .add(GET.name(), apiPrefix + "/healthcheck/**", permitAll)
+
+                .add(GET.name(), apiPrefix + "/roles**", admin)
+
+                .add(GET.name(), apiPrefix + "/categories**", users)
+                .add(GET.name(), apiPrefix + "/categories/**", users)
+                .add(POST.name(), apiPrefix + "/categories/**", admin)
+                .add(PUT.name(), apiPrefix + "/categories/**", admin)
+                .add(DELETE.name(), apiPrefix + "/categories/**", admin)
+
+                .add(POST.name(), apiPrefix + "/products**", admin)
+                .add(POST.name(), apiPrefix + "/products/**", admin)
+                .add(PUT.name(), apiPrefix + "/products/**", admin)
+                .add(DELETE.name(), apiPrefix + "/products/**", admin)
+
+                .add(POST.name(), apiPrefix + "/orders/**", users)
+                .add(GET.name(), apiPrefix + "/orders/**", users)
+                .add(PUT.name(), apiPrefix + "/orders/**", admin)
+                .add(DELETE.name(), apiPrefix + "/orders/**", admin)
+
+                .add(POST.name(), apiPrefix + "/order_details/**", users)
+                .add(GET.name(), apiPrefix + "/order_details/**", users)
+                .add(PUT.name(), apiPrefix + "/order_details/**", admin)
+                .add(DELETE.name(), apiPrefix + "/order_details/**", admin)
+
+                .add(GET.name(), apiPrefix + "/coupons/**", users)
+
+                .add(GET.name(), apiPrefix + "/metrics/**", admin);
+    }
+
+    // null = no rule, any authenticated user may call it
+    public RoutePolicy match(HttpServletRequest request) {
+        return routes.find(request.getMethod(), request.getServletPath());
+    }
+
+    public boolean isPublic(HttpServletRequest request) {
+        RoutePolicy policy = match(request);
+        return policy != null && policy.isPublicAccess();
+    }
+}
@@ -6,6 +6,7 @@ import org.slf4j.LoggerFactory;
 import com.project.shopapp.exceptions.InvalidParamException;
 import com.project.shopapp.models.Token;
 import com.project.shopapp.repositories.TokenRepository;
+import com.project.shopapp.utils.HashUtils;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.io.Encoders;
@@ -23,7 +24,9 @@ import java.util.function.Function;
 @RequiredArgsConstructor
 public class JwtTokenUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenUtils.class);
+    private static final SecureRandom JTI_RANDOM = new SecureRandom();
     private final TokenRepository tokenRepository;
+    private final TokenRevocationStore tokenRevocationStore;
     @Value("${jwt.expiration}")
     private int expiration;
     @Value("${jwt.secret}")
@@ -38,6 +41,7 @@ public class JwtTokenUtils {
         try {
             String token = Jwts.builder()
                     .setClaims(claims)
+                    .setId(generateJti())
                     .setSubject(user.getPhoneNumber())
                     .setExpiration(new Date(System.currentTimeMillis() + expiration * 1000L))
                     .signWith(getSignInKey(), SignatureAlgorithm.HS256)
@@ -50,6 +54,11 @@ public class JwtTokenUtils {
         }
     }
 
+    // 64 random bits as 16 hex chars: short enough to keep the revocation set small
+    private String generateJti() {
+        return String.format("%016x", JTI_RANDOM.nextLong());
+    }
+
     private Key getSignInKey() {
         byte[] bytes = Decoders.BASE64.decode(secretKey);
         //Keys.hmacShaKeyFor(Decoders.BASE64.decode("TaqlmGv1iEDMRiFp/pHuID1+T84IABfuA0xXh4GhiUI="));
@@ -87,18 +96,28 @@ public class JwtTokenUtils {
         return extractClaim(token, Claims::getSubject);
     }
 
+    public String extractJti(String token) {
+        return extractClaim(token, Claims::getId);
+    }
+
     public boolean validateToken(String token, User userDetails) {
         try {
-            String phoneNumber = extractPhoneNumber(token);
-            Token existingToken = tokenRepository.findByToken(token);
-            if (existingToken == null ||
-                    existingToken.isRevoked() ||
-                    !userDetails.isActive()
-            ) {
+            Claims claims = extractAllClaims(token);
+            String jti = claims.getId();
+            if (jti == null) {
+                // tokens issued before jti existed can only be checked against the tokens table
+                Token existingToken = tokenRepository.findByTokenHash(HashUtils.sha256Hex(token));
+                if (existingToken == null || existingToken.isRevoked()) {
+                    return false;
+                }
+            } else if (tokenRevocationStore.isRevoked(jti)) {
+                return false;
+            }
+            if (!userDetails.isActive()) {
                 return false;
             }
-            return (phoneNumber.equals(userDetails.getUsername()))
-                    && !isTokenExpired(token);
+            return (claims.getSubject().equals(userDetails.getUsername()))
+                    && !claims.getExpiration().before(new Date());
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -0,0 +1,79 @@
+package com.project.shopapp.components;
+
+import com.project.shopapp.exceptions.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts failed logins per phone number and per client IP in fixed windows.
+ * Once a key reaches its limit further attempts are refused before any password is hashed.
+ */
+@Component
+public class LoginAttemptThrottler {
+    @Value("${security.login-throttle.max-failures-per-phone:5}")
+    private int maxFailuresPerPhone;
+    @Value("${security.login-throttle.max-failures-per-ip:50}")
+    private int maxFailuresPerIp;
+    @Value("${security.login-throttle.window-seconds:900}")
+    private long windowSeconds;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final LongAdder throttled = new LongAdder();
+
+    private static class Window {
+        final long startedAt;
+        final AtomicInteger failures = new AtomicInteger();
+
+        Window(long startedAt) {
+            this.startedAt = startedAt;
+        }
+    }
+
+    public void checkAllowed(String phoneNumber, String ip) throws TooManyRequestsException {
+        if (failures("phone:" + phoneNumber) >= maxFailuresPerPhone
+                || failures("ip:" + ip) >= maxFailuresPerIp) {
+            throttled.increment();
+            throw new TooManyRequestsException("Too many failed login attempts, please try again later");
+        }
+    }
+
+    public void recordFailure(String phoneNumber, String ip) {
+        window("phone:" + phoneNumber).failures.incrementAndGet();
+        window("ip:" + ip).failures.incrementAndGet();
+    }
+
+    public void recordSuccess(String phoneNumber) {
+        windows.remove("phone:" + phoneNumber);
+    }
+
+    public long getThrottledCount() {
+        return throttled.sum();
+    }
+
+    @Scheduled(fixedDelayString = "${security.login-throttle.cleanup-interval-ms:60000}")
+    public void removeExpiredWindows() {
+        long now = System.currentTimeMillis();
+        windows.values().removeIf(window -> isExpired(window, now));
+    }
+
+    private int failures(String key) {
+        Window window = windows.get(key);
+        return window == null || isExpired(window, System.currentTimeMillis()) ? 0 : window.failures.get();
+    }
+
+    private Window window(String key) {
+        long now = System.currentTimeMillis();
+        return windows.compute(key, (k, window) ->
+                window == null || isExpired(window, now) ? new Window(now) : window);
+    }
+
+    private boolean isExpired(Window window, long now) {
+        return now - window.startedAt >= windowSeconds * 1000;
+    }
+}
@@ -0,0 +1,112 @@
+package com.project.shopapp.components;
+
+import com.project.shopapp.exceptions.TooManyRequestsException;
+import com.project.shopapp.responses.Metrics.PasswordHashingMetricsResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs BCrypt on a small dedicated pool instead of Tomcat request threads.
+ * The queue is bounded: when it is full the caller gets a TooManyRequestsException right away
+ * (mapped to 429), so a burst of logins cannot starve the threads serving catalog reads.
+ */
+@Component
+@RequiredArgsConstructor
+public class PasswordHashingExecutor {
+    private final PasswordEncoder passwordEncoder;
+
+    // 0 = one thread per core
+    @Value("${security.password-hashing.threads:0}")
+    private int threads;
+    @Value("${security.password-hashing.queue-capacity:64}")
+    private int queueCapacity;
+    @Value("${security.password-hashing.timeout-ms:5000}")
+    private long timeoutMillis;
+
+    private ThreadPoolExecutor executor;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder hashCount = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) throws Exception {
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    public String encode(String rawPassword) throws Exception {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public PasswordHashingMetricsResponse getMetrics() {
+        long count = hashCount.sum();
+        return PasswordHashingMetricsResponse.builder()
+                .poolSize(executor.getPoolSize())
+                .activeThreads(executor.getActiveCount())
+                .queueDepth(executor.getQueue().size())
+                .queueCapacity(queueCapacity)
+                .completed(count)
+                .rejected(rejected.sum())
+                .avgHashMillis(count == 0 ? 0 : hashNanos.sum() / (double) count / 1_000_000)
+                .maxHashMillis(maxHashNanos.get() / 1_000_000.0)
+                .build();
+    }
+
+    private <T> T run(Callable<T> task) throws Exception {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    hashCount.increment();
+                    hashNanos.add(elapsed);
+                    maxHashNanos.accumulateAndGet(elapsed, Math::max);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooManyRequestsException("Server is busy, please try again later");
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new TooManyRequestsException("Server is busy, please try again later");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.project.shopapp.components;
+
+import com.project.shopapp.Configurations.RateLimitProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token buckets. Each bucket is a single AtomicLong holding the token count
+ * (in 1/64 token units, low 22 bits) and the time of the last refill (ms since start, high 42 bits),
+ * updated with a CAS loop. The limit itself is not stored in the bucket, it comes with every call.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimiter {
+    private static final int UNIT_SHIFT = 6;
+    private static final long UNITS_PER_TOKEN = 1L << UNIT_SHIFT;
+    private static final int TOKEN_BITS = 22;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    public static final int MAX_CAPACITY = (int) (TOKEN_MASK >>> UNIT_SHIFT);
+
+    private final RateLimitProperties properties;
+    private final long startMillis = System.currentTimeMillis();
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Takes one token from the bucket for key.
+     * Returns the whole tokens left (>= 0) or, when the bucket is empty,
+     * the negated number of milliseconds until the next token is available.
+     */
+    public long tryAcquire(String key, RateLimitProperties.Limit limit) {
+        long now = System.currentTimeMillis() - startMillis;
+        long capacity = Math.min(limit.getCapacity(), MAX_CAPACITY) * UNITS_PER_TOKEN;
+        long unitsPerSecond = Math.max(1, (long) (limit.getRefillPerSecond() * UNITS_PER_TOKEN));
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(pack(now, capacity)));
+        }
+        while (true) {
+            long state = bucket.get();
+            long last = state >>> TOKEN_BITS;
+            long units = state & TOKEN_MASK;
+            long elapsed = Math.max(0, now - last);
+            long added = elapsed * unitsPerSecond / 1000;
+            long refillTime;
+            if (units + added >= capacity) {
+                units = capacity;
+                refillTime = now;
+            } else {
+                units += added;
+                // only advance the clock by the time the added units are worth, so fractions are not lost
+                refillTime = last + added * 1000 / unitsPerSecond;
+            }
+            if (units < UNITS_PER_TOKEN) {
+                return -Math.max(1, (UNITS_PER_TOKEN - units) * 1000 / unitsPerSecond);
+            }
+            long next = pack(refillTime, units - UNITS_PER_TOKEN);
+            if (bucket.compareAndSet(state, next)) {
+                return (units - UNITS_PER_TOKEN) >>> UNIT_SHIFT;
+            }
+        }
+    }
+
+    // gives back a token taken by tryAcquire, e.g. when another limit then rejected the request
+    public void refund(String key, RateLimitProperties.Limit limit) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            return;
+        }
+        long capacity = Math.min(limit.getCapacity(), MAX_CAPACITY) * UNITS_PER_TOKEN;
+        bucket.getAndUpdate(state -> pack(state >>> TOKEN_BITS,
+                Math.min(capacity, (state & TOKEN_MASK) + UNITS_PER_TOKEN)));
+    }
+
+    // seconds until a bucket holding `remaining` tokens is full again
+    public static long secondsUntilFull(long remaining, RateLimitProperties.Limit limit) {
+        double missing = Math.max(0, limit.getCapacity() - remaining);
+        return (long) Math.ceil(missing / limit.getRefillPerSecond());
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.evict-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long cutoff = System.currentTimeMillis() - startMillis - properties.getIdleEvictSeconds() * 1000;
+        buckets.values().removeIf(bucket -> (bucket.get() >>> TOKEN_BITS) < cutoff);
+    }
+
+    private static long pack(long millis, long units) {
+        return (millis << TOKEN_BITS) | units;
+    }
+}
@@ -0,0 +1,146 @@
+package com.project.shopapp.components;
+
+import com.project.shopapp.models.TokenRevocation;
+import com.project.shopapp.repositories.TokenRevocationRepository;
+import com.project.shopapp.utils.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory set of revoked token ids (jti), so validating a token needs no database I/O.
+ * Revocations are written to the token_revocations log first and every node polls that log,
+ * which keeps the sets of all nodes in sync and lets a restarted node rebuild its state.
+ * Ids are allocated before commit, so a lower id can become visible after a higher one: each poll
+ * re-reads everything created in the last jwt.revocation.poll-overlap-seconds instead of following ids.
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationStore {
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationStore.class);
+    private static final int POLL_BATCH_SIZE = 1000;
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+
+    @Value("${jwt.revocation.expected-revocations:100000}")
+    private int expectedRevocations;
+    // longer than any revoking transaction, plus the clock skew between nodes
+    @Value("${jwt.revocation.poll-overlap-seconds:120}")
+    private long pollOverlapSeconds;
+
+    // jti -> expiration (epoch millis); entries are dropped once the token could no longer be used
+    private final Map<String, Long> revokedIds = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private volatile BloomFilter bloomFilter;
+    private volatile LocalDateTime lastPollStarted;
+
+    @PostConstruct
+    public void load() {
+        lastPollStarted = LocalDateTime.now();
+        List<TokenRevocation> active = tokenRevocationRepository.findByExpirationDateAfter(LocalDateTime.now());
+        synchronized (writeLock) {
+            bloomFilter = new BloomFilter(Math.max(expectedRevocations, active.size() * 2), 0.01);
+            for (TokenRevocation revocation : active) {
+                addLocal(revocation.getJti(), revocation.getExpirationDate());
+            }
+        }
+        logger.info("Loaded {} active token revocations", active.size());
+    }
+
+    // hot path: a Bloom filter miss answers almost every request without touching the map
+    public boolean isRevoked(String jti) {
+        return bloomFilter.mightContain(jti) && revokedIds.containsKey(jti);
+    }
+
+    public void revoke(String jti, LocalDateTime expirationDate) {
+        if (jti == null || isRevoked(jti)) {
+            return;
+        }
+        LocalDateTime expiresAt = expirationDate != null ? expirationDate : LocalDateTime.now();
+        tokenRevocationRepository.save(TokenRevocation.builder()
+                .jti(jti)
+                .expirationDate(expiresAt)
+                .createdAt(LocalDateTime.now())
+                .build());
+        // a rolled back revocation must not stay in the local set
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addRevoked(jti, expiresAt);
+                }
+            });
+        } else {
+            addRevoked(jti, expiresAt);
+        }
+    }
+
+    // pick up revocations written by other nodes
+    @Scheduled(fixedDelayString = "${jwt.revocation.poll-interval-ms:5000}")
+    public void pollRevocationLog() {
+        LocalDateTime started = LocalDateTime.now();
+        LocalDateTime since = lastPollStarted.minusSeconds(pollOverlapSeconds);
+        long afterId = 0;
+        List<TokenRevocation> batch;
+        do {
+            batch = tokenRevocationRepository.findByCreatedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(
+                    since, afterId, PageRequest.of(0, POLL_BATCH_SIZE));
+            for (TokenRevocation revocation : batch) {
+                addRevoked(revocation.getJti(), revocation.getExpirationDate());
+                afterId = revocation.getId();
+            }
+        } while (batch.size() == POLL_BATCH_SIZE);
+        lastPollStarted = started;
+    }
+
+    // expired tokens are rejected by their exp claim anyway, so their ids can be forgotten
+    @Scheduled(fixedDelayString = "${jwt.revocation.prune-interval-ms:3600000}")
+    @Transactional
+    public void pruneExpired() {
+        int deleted = tokenRevocationRepository.deleteExpired(LocalDateTime.now());
+        long now = System.currentTimeMillis();
+        synchronized (writeLock) {
+            revokedIds.values().removeIf(expiresAt -> expiresAt < now);
+            // a Bloom filter cannot forget entries, rebuild it from what is left
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, revokedIds.size() * 2), 0.01);
+            revokedIds.keySet().forEach(rebuilt::add);
+            bloomFilter = rebuilt;
+        }
+        if (deleted > 0) {
+            logger.info("Pruned {} expired token revocations", deleted);
+        }
+    }
+
+    public int size() {
+        return revokedIds.size();
+    }
+
+    // the overlapping polls see most entries again: those are skipped without taking the lock
+    private void addRevoked(String jti, LocalDateTime expirationDate) {
+        if (revokedIds.containsKey(jti)) {
+            return;
+        }
+        synchronized (writeLock) {
+            addLocal(jti, expirationDate);
+        }
+    }
+
+    private void addLocal(String jti, LocalDateTime expirationDate) {
+        revokedIds.put(jti, expirationDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        bloomFilter.add(jti);
+    }
+}
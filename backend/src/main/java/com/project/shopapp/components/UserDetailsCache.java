@@ -0,0 +1,75 @@
+package com.project.shopapp.components;
+
+import com.project.shopapp.models.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Short-lived cache of the User principal used by JwtTokenFilter, keyed by phone number.
+ * Anything that changes what a user is allowed to do must call invalidate() so the change
+ * applies to the very next request instead of after the TTL.
+ */
+@Component
+public class UserDetailsCache {
+    @Value("${security.user-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+    @Value("${security.user-cache.max-size:10000}")
+    private int maxSize;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private record Entry(User user, long expiresAt) {
+    }
+
+    public User get(String phoneNumber, Function<String, User> loader) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(phoneNumber);
+        if (entry != null && entry.expiresAt - now > 0) {
+            return entry.user;
+        }
+        User user = loader.apply(phoneNumber);
+        if (entries.size() >= maxSize) {
+            evict(now);
+        }
+        entries.put(phoneNumber, new Entry(user, now + ttlSeconds * 1_000_000_000L));
+        return user;
+    }
+
+    public void invalidate(String phoneNumber) {
+        if (phoneNumber != null) {
+            entries.remove(phoneNumber);
+        }
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    // drop expired entries first; if the cache is still full drop the ones closest to expiry
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt - now <= 0);
+        int excess = entries.size() - maxSize + Math.max(1, maxSize / 10);
+        if (excess <= 0) {
+            return;
+        }
+        long cutoff = now + ttlSeconds * 1_000_000_000L / 2;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext() && excess > 0) {
+            if (iterator.next().expiresAt - cutoff <= 0) {
+                iterator.remove();
+                excess--;
+            }
+        }
+        iterator = entries.values().iterator();
+        while (iterator.hasNext() && excess > 0) {
+            iterator.next();
+            iterator.remove();
+            excess--;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.project.shopapp.controllers;
+
+import com.project.shopapp.components.LoginAttemptThrottler;
+import com.project.shopapp.components.PasswordHashingExecutor;
+import com.project.shopapp.responses.Metrics.CatalogMetricsResponse;
+import com.project.shopapp.responses.Metrics.ImageCacheMetricsResponse;
+import com.project.shopapp.responses.Metrics.ImageGcMetricsResponse;
+import com.project.shopapp.responses.Metrics.JsonCacheMetricsResponse;
+import com.project.shopapp.responses.Metrics.PasswordHashingMetricsResponse;
+import com.project.shopapp.responses.Metrics.SearchCacheMetricsResponse;
+import com.project.shopapp.services.Catalog.ICatalogService;
+import com.project.shopapp.services.Image.IImageByteCache;
+import com.project.shopapp.services.Image.OrphanImageCollector;
+import com.project.shopapp.services.Product.IJsonResponseCache;
+import com.project.shopapp.services.Search.ISearchResultCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("${api.prefix}/metrics")
+@RequiredArgsConstructor
+public class MetricsController {
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final LoginAttemptThrottler loginAttemptThrottler;
+    private final IImageByteCache imageByteCache;
+    private final OrphanImageCollector orphanImageCollector;
+    private final ICatalogService catalogService;
+    private final ISearchResultCache searchResultCache;
+    private final IJsonResponseCache jsonResponseCache;
+
+    @GetMapping("/password-hashing")
+    public ResponseEntity<PasswordHashingMetricsResponse> getPasswordHashingMetrics() {
+        PasswordHashingMetricsResponse metrics = passwordHashingExecutor.getMetrics();
+        metrics.setThrottledLogins(loginAttemptThrottler.getThrottledCount());
+        return ResponseEntity.ok(metrics);
+    }
+
+    @GetMapping("/image-cache")
+    public ResponseEntity<ImageCacheMetricsResponse> getImageCacheMetrics() {
+        return ResponseEntity.ok(imageByteCache.getMetrics());
+    }
+
+    @GetMapping("/image-gc")
+    public ResponseEntity<ImageGcMetricsResponse> getImageGcMetrics() {
+        return ResponseEntity.ok(orphanImageCollector.getMetrics());
+    }
+
+    @GetMapping("/catalog")
+    public ResponseEntity<CatalogMetricsResponse> getCatalogMetrics() {
+        return ResponseEntity.ok(catalogService.getMetrics());
+    }
+
+    @GetMapping("/search-cache")
+    public ResponseEntity<SearchCacheMetricsResponse> getSearchCacheMetrics() {
+        return ResponseEntity.ok(searchResultCache.getMetrics());
+    }
+
+    @GetMapping("/response-cache")
+    public ResponseEntity<JsonCacheMetricsResponse> getResponseCacheMetrics() {
+        return ResponseEntity.ok(jsonResponseCache.getMetrics());
+    }
+}
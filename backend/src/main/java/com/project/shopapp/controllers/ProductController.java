@@ -3,25 +3,39 @@ package com.project.shopapp.controllers;
 import com.github.javafaker.Faker;
 import com.project.shopapp.components.LocalizationUtils;
 import com.project.shopapp.dtos.*;
+import com.project.shopapp.exceptions.DataNotFoundException;
+import com.project.shopapp.exceptions.TooManyRequestsException;
+import com.project.shopapp.exceptions.UploadOffsetMismatchException;
 import com.project.shopapp.models.Category;
 import com.project.shopapp.models.Product;
 import com.project.shopapp.models.ProductImage;
 import com.project.shopapp.responses.Product.ProductListResponse;
 import com.project.shopapp.responses.Product.ProductResponse;
+import com.project.shopapp.responses.Product.SuggestionResponse;
+import com.project.shopapp.responses.Product.TrendingProductResponse;
+import com.project.shopapp.services.Catalog.ICatalogService;
+import com.project.shopapp.services.Catalog.ProductSort;
 import com.project.shopapp.services.Category.CategoryService;
+import com.project.shopapp.services.Image.IChunkedUploadService;
+import com.project.shopapp.services.Image.IImageDeliveryService;
+import com.project.shopapp.services.Product.IJsonResponseCache;
 import com.project.shopapp.services.Product.IProductService;
+import com.project.shopapp.services.Recommendation.IRecommendationService;
+import com.project.shopapp.services.Suggest.ISuggestService;
+import com.project.shopapp.services.Trending.ITrendingService;
 import com.project.shopapp.utils.MessageKeys;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.io.UrlResource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.util.StringUtils;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.*;
@@ -30,9 +44,6 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.*;
 
 @RestController
@@ -43,6 +54,13 @@ public class ProductController {
     private final IProductService productService;
     private final LocalizationUtils localizationUtils;
     private final CategoryService categoryService;
+    private final IImageDeliveryService imageDeliveryService;
+    private final IChunkedUploadService chunkedUploadService;
+    private final ISuggestService suggestService;
+    private final IRecommendationService recommendationService;
+    private final ITrendingService trendingService;
+    private final ICatalogService catalogService;
+    private final IJsonResponseCache jsonResponseCache;
 
     @PostMapping("")
     @Transactional
@@ -72,40 +90,82 @@ public class ProductController {
     public ResponseEntity<ProductListResponse> getProducts(
             @RequestParam(defaultValue = "") String keyword,
             @RequestParam(defaultValue = "0", name = "category_id") Long categoryId,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int limit
-    ) {
-
-        PageRequest pageRequest = PageRequest.of(
-                page, limit,
-                Sort.by("id").ascending()
-        );
-
-        Page<ProductResponse> pageResult = productService.getAllProducts(keyword, categoryId, pageRequest);
-        List<ProductResponse> products = pageResult.getContent();
-        int totalPages = pageResult.getTotalPages();
+            @RequestParam(defaultValue = "10") int limit,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        // sort: id | price_asc | price_desc | newest | popular
+        ProductSort productSort = ProductSort.fromParam(sort);
+        int pageSize = Math.min(Math.max(limit, 1), 100);
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), pageSize, productSort.toSort());
 
-        ProductListResponse response = ProductListResponse.builder()
-                .products(products)
-                .totalPages(totalPages)
-                .build();
-        return ResponseEntity.ok(response);
+        if (catalogService.isReady()) {
+            // JSON đã mã hoá sẵn theo phiên bản catalog; ETag là hash của nội dung, 304
+            String key = "list:" + keyword + "|" + categoryId + "|" + productSort + "|" + cursor + "|" + pageRequest.getPageNumber() + "|" + pageSize;
+            String version = Long.toHexString(catalogService.getVersion());
+            jsonResponseCache.serve(request, response, key, version,
+                    () -> productService.searchProducts(keyword, categoryId, productSort, cursor, pageRequest));
+            return null;
+        }
+        return ResponseEntity.ok(productService.searchProducts(keyword, categoryId, productSort, cursor, pageRequest));
     }
 
     //http://localhost:8088/api/v1/products/6
     @GetMapping("/{id}")
     public ResponseEntity<?> getProductById(
-            @PathVariable("id") Long productId
+            @PathVariable("id") Long productId,
+            HttpServletRequest request,
+            HttpServletResponse response
     ) {
         try {
-            Product existingProduct = productService.getProductById(productId);
-            return ResponseEntity.ok(ProductResponse.fromProduct(existingProduct));
+            String version = catalogService.productVersion(productId);
+            if (version != null) {
+                jsonResponseCache.serve(request, response, "product:" + productId, version,
+                        () -> catalogService.findProduct(productId));
+                if (response.getStatus() != HttpServletResponse.SC_NOT_FOUND) {
+                    trendingService.productViewed(productId);
+                }
+                return null;
+            }
+            ProductResponse product = productService.getProductResponse(productId);
+            trendingService.productViewed(productId);
+            return ResponseEntity.ok(product);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
 
     }
 
+    //http://localhost:8088/api/v1/products/suggest?q=iph&limit=8
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionResponse>> suggest(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(suggestService.suggest(q, Math.min(Math.max(limit, 1), 10)));
+    }
+
+    //http://localhost:8088/api/v1/products/trending?category_id=2&limit=20
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingProductResponse>> getTrendingProducts(
+            @RequestParam(defaultValue = "0", name = "category_id") Long categoryId,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(trendingService.findTrending(categoryId, Math.min(Math.max(limit, 1), 100)));
+    }
+
+    //http://localhost:8088/api/v1/products/5/related?limit=10
+    @GetMapping("/{id}/related")
+    public ResponseEntity<List<ProductResponse>> getRelatedProducts(
+            @PathVariable("id") Long productId,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(recommendationService.findRelated(productId, Math.min(Math.max(limit, 1), 20)));
+    }
+
     @GetMapping("/by-ids")
     public ResponseEntity<?> getProductsByIds(@RequestParam("ids") String ids) {
         //eg: 1,3,5,7
@@ -171,13 +231,12 @@ public class ProductController {
             @ModelAttribute("files") List<MultipartFile> files
     ){
         try {
-            Product existingProduct = productService.getProductById(productId);
             files = files == null ? new ArrayList<MultipartFile>() : files;
             if(files.size() > ProductImage.MAXIMUM_IMAGES_PER_PRODUCT) {
                 return ResponseEntity.badRequest().body(localizationUtils
                         .getLocalizedMessage(MessageKeys.UPLOAD_IMAGES_MAX_5));
             }
-            List<ProductImage> productImages = new ArrayList<>();
+            List<MultipartFile> imageFiles = new ArrayList<>();
             for (MultipartFile file : files) {
                 if(file.getSize() == 0) {
                     continue;
@@ -187,72 +246,111 @@ public class ProductController {
                     return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
                             .body(localizationUtils.getLocalizedMessage(MessageKeys.UPLOAD_IMAGES_FILE_LARGE));
                 }
-                String contentType = file.getContentType();
-                if(contentType == null || !contentType.startsWith("image/")) {
+                if(!isImageFile(file)) {
                     return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
                             .body(localizationUtils.getLocalizedMessage(MessageKeys.UPLOAD_IMAGES_FILE_MUST_BE_IMAGE));
                 }
-                // Lưu file và cập nhật thumbnail trong database
-                String filename = storeFile(file); // Thay đổi từ storeFiles thành storeFile
-                //lưu vào đối tượng product trong DB
-                ProductImage productImage = productService.createProductImage(
-                        existingProduct.getId(),
-                        ProductImageDTO.builder()
-                                .imageUrl(filename)
-                                .productId(existingProduct.getId())
-                                .build()
-                );
-                productImages.add(productImage);
+                imageFiles.add(file);
             }
+            // kiểm tra hạn mức, ghi file và insert product_images trong một lần gọi
+            List<ProductImage> productImages = productService.createProductImages(productId, imageFiles);
             return ResponseEntity.ok().body(productImages);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
-    private String storeFile(MultipartFile file) throws IOException {
-        if (!isImageFile(file) || file.getOriginalFilename() == null) {
-            throw new IOException("Invalid image format");
+    // Upload nhiều phần (resumable): khởi tạo -> PUT từng chunk với Content-Range -> complete
+    @PostMapping("/{id}/chunked-uploads")
+    public ResponseEntity<?> initiateChunkedUpload(
+            @PathVariable("id") Long productId,
+            @Valid @RequestBody ChunkedUploadDTO chunkedUploadDTO,
+            BindingResult result) {
+        if (result.hasErrors()) {
+            List<String> errorMessages = result.getFieldErrors()
+                    .stream()
+                    .map(FieldError::getDefaultMessage)
+                    .toList();
+            return ResponseEntity.badRequest().body(errorMessages);
         }
-        String filename = StringUtils.cleanPath(file.getOriginalFilename());
-        // Thêm UUID vào trước tên file để tránh trùng lặp
-        String uniqueFilename = UUID.randomUUID().toString() + "_" + filename;
-        // Đường dẫn đến thư mục mà bạn muốn lưu file
-        java.nio.file.Path uploadDir = Paths.get("uploads");
-        // Kiểm tra và tạo thư mục nếu không tồn tại
-        if (!Files.exists(uploadDir)) {
-            Files.createDirectories(uploadDir);
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(chunkedUploadService.initiate(productId, chunkedUploadDTO));
+        } catch (Exception e) {
+            return chunkedUploadError(e);
         }
-        // Đường dẫn đầy đủ đến file
-        java.nio.file.Path destination = Paths.get(uploadDir.toString(), uniqueFilename);
-        // Sao chép file vào thư mục đích
-        Files.copy(file.getInputStream(), destination, StandardCopyOption.REPLACE_EXISTING);
-        return uniqueFilename;
     }
 
-    private boolean isImageFile(MultipartFile file) {
-        String contentType = file.getContentType();
-        return contentType != null && contentType.startsWith("image/");
+    // offset đã nhận, client gửi tiếp từ vị trí này sau khi mất kết nối
+    @GetMapping("/chunked-uploads/{uploadId}")
+    public ResponseEntity<?> getChunkedUpload(@PathVariable String uploadId) {
+        try {
+            return ResponseEntity.ok(chunkedUploadService.getStatus(uploadId));
+        } catch (Exception e) {
+            return chunkedUploadError(e);
+        }
     }
 
-    @GetMapping("/images/{imageName}")
-    public ResponseEntity<?> viewImage(@PathVariable String imageName) {
+    @PutMapping("/chunked-uploads/{uploadId}")
+    public ResponseEntity<?> uploadChunk(
+            @PathVariable String uploadId,
+            @RequestHeader(value = HttpHeaders.CONTENT_RANGE, required = false) String contentRange,
+            HttpServletRequest request) {
+        try {
+            return ResponseEntity.ok(
+                    chunkedUploadService.writeChunk(uploadId, contentRange, request.getInputStream()));
+        } catch (Exception e) {
+            return chunkedUploadError(e);
+        }
+    }
+
+    @PostMapping("/chunked-uploads/{uploadId}/complete")
+    public ResponseEntity<?> completeChunkedUpload(@PathVariable String uploadId) {
         try {
-            java.nio.file.Path imagePath = Paths.get("uploads/" + imageName);
-            UrlResource resource = new UrlResource(imagePath.toUri());
+            return ResponseEntity.ok(chunkedUploadService.complete(uploadId));
+        } catch (Exception e) {
+            return chunkedUploadError(e);
+        }
+    }
 
-            if (resource.exists()) {
-                return ResponseEntity.ok()
-                        .contentType(MediaType.IMAGE_JPEG)
-                        .body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
-            }
+    @DeleteMapping("/chunked-uploads/{uploadId}")
+    public ResponseEntity<?> abortChunkedUpload(@PathVariable String uploadId) {
+        try {
+            chunkedUploadService.abort(uploadId);
+            return ResponseEntity.noContent().build();
         } catch (Exception e) {
-            return ResponseEntity.notFound().build();
+            return chunkedUploadError(e);
         }
     }
 
+    private ResponseEntity<?> chunkedUploadError(Exception e) {
+        if (e instanceof UploadOffsetMismatchException mismatch) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", e.getMessage(), "offset", mismatch.getOffset()));
+        }
+        if (e instanceof DataNotFoundException) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+        if (e instanceof TooManyRequestsException) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(e.getMessage());
+        }
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    private boolean isImageFile(MultipartFile file) {
+        String contentType = file.getContentType();
+        return contentType != null && contentType.startsWith("image/");
+    }
+
+    // ETag / Range / Cache-Control handling lives in ImageDeliveryService
+    @GetMapping("/images/{imageName}")
+    public void viewImage(@PathVariable String imageName,
+                          @RequestParam(required = false) Integer size,
+                          HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+        imageDeliveryService.serveImage(imageName, size, request, response);
+    }
+
 
     // fake date
 //    @PostMapping("/generate-fake")
@@ -1,6 +1,8 @@
 package com.project.shopapp.controllers;
 
 
+import com.project.shopapp.components.LoginAttemptThrottler;
+import com.project.shopapp.exceptions.TooManyRequestsException;
 import com.project.shopapp.models.Token;
 import com.project.shopapp.models.User;
 import com.project.shopapp.responses.User.LoginResponse;
@@ -10,6 +12,7 @@ import com.project.shopapp.services.Token.ITokenService;
 import com.project.shopapp.components.LocalizationUtils;
 import com.project.shopapp.services.User.UserService;
 import com.project.shopapp.utils.MessageKeys;
+import com.project.shopapp.utils.WebUtils;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -19,6 +22,9 @@ import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.*;
 import com.project.shopapp.dtos.*;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
@@ -31,9 +37,9 @@ public class UserController {
     private final UserService userService;
     private final LocalizationUtils localizationUtils;
     private final ITokenService tokenService;
+    private final LoginAttemptThrottler loginAttemptThrottler;
 
     @PostMapping("/register")
-    @Transactional
     public ResponseEntity<RegisterResponse> createUser(
             @Valid @RequestBody UserDTO userDTO,
             BindingResult result
@@ -61,6 +67,9 @@ public class UserController {
 
 
             return ResponseEntity.ok(registerResponse);
+        } catch (TooManyRequestsException e) {
+            registerResponse.setMessage(e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(registerResponse);
         } catch (Exception e) {
             registerResponse.setMessage(e.getMessage());
             return ResponseEntity.badRequest().body(registerResponse);
@@ -68,19 +77,21 @@ public class UserController {
     }
 
     @PostMapping("/login")
-    @Transactional
     public ResponseEntity<LoginResponse> login(
             @Valid @RequestBody UserLoginDTO userLoginDTO,
             HttpServletRequest request
     ) {
         // Kiểm tra thông tin đăng nhập và sinh token
+        String clientIp = WebUtils.getClientIp(request);
         try {
+            loginAttemptThrottler.checkAllowed(userLoginDTO.getPhoneNumber(), clientIp);
             String token = userService.login(
                     userLoginDTO.getPhoneNumber(),
                     userLoginDTO.getPassword(),
                     userLoginDTO.getRoleId() == null ? 1 : userLoginDTO.getRoleId()
             );
 
+            loginAttemptThrottler.recordSuccess(userLoginDTO.getPhoneNumber());
             User userDetail = userService.getUserDetailsFromToken(token);
             Token jwtToken = tokenService.addToken(userDetail, token);
 
@@ -88,11 +99,31 @@ public class UserController {
             return ResponseEntity.ok(LoginResponse.builder()
                     .message(localizationUtils.getLocalizedMessage(MessageKeys.LOGIN_SUCCESSFULLY))
                     .token(jwtToken.getToken())
+                    .refreshToken(jwtToken.getPlainRefreshToken())
                     .tokenType(jwtToken.getTokenType())
                     .username(userDetail.getUsername())
                     .roles(userDetail.getAuthorities().stream().map(item -> item.getAuthority()).toList())
                     .id(userDetail.getId())
                     .build());
+        } catch (TooManyRequestsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(
+                    LoginResponse.builder()
+                            .message(localizationUtils.getLocalizedMessage(MessageKeys.LOGIN_FAILED,
+                                    e.getMessage()))
+                            .build()
+            );
+        } catch (BadCredentialsException e) {
+            // only a wrong phone/password pair counts against the phone and the IP
+            loginAttemptThrottler.recordFailure(userLoginDTO.getPhoneNumber(), clientIp);
+            return ResponseEntity.badRequest().body(
+                    LoginResponse.builder()
+                            .message(localizationUtils.getLocalizedMessage(MessageKeys.LOGIN_FAILED,
+                                    e.getMessage()))
+                            .build()
+            );
+        } catch (DataAccessException | TransactionException e) {
+            // database down or pool exhausted: a 5xx, and nobody is locked out once it is over
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(
                     LoginResponse.builder()
@@ -103,6 +134,32 @@ public class UserController {
         }
     }
 
+    // exchange a refresh token for a new access token (and a new refresh token)
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponse> refreshToken(
+            @Valid @RequestBody RefreshTokenDTO refreshTokenDTO
+    ) {
+        try {
+            Token jwtToken = tokenService.refreshToken(refreshTokenDTO.getRefreshToken());
+            User userDetail = jwtToken.getUser();
+            return ResponseEntity.ok(LoginResponse.builder()
+                    .message(localizationUtils.getLocalizedMessage(MessageKeys.REFRESH_TOKEN_SUCCESSFULLY))
+                    .token(jwtToken.getToken())
+                    .refreshToken(jwtToken.getPlainRefreshToken())
+                    .tokenType(jwtToken.getTokenType())
+                    .username(userDetail.getUsername())
+                    .roles(userDetail.getAuthorities().stream().map(item -> item.getAuthority()).toList())
+                    .id(userDetail.getId())
+                    .build());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                    LoginResponse.builder()
+                            .message(localizationUtils.getLocalizedMessage(MessageKeys.REFRESH_TOKEN_FAILED,
+                                    e.getMessage()))
+                            .build()
+            );
+        }
+    }
 
     //get user detail from token
     @PostMapping("/details")
@@ -0,0 +1,30 @@
+package com.project.shopapp.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChunkedUploadDTO {
+    @JsonProperty("file_name")
+    @NotBlank(message = "File name is required")
+    private String fileName;
+
+    @JsonProperty("content_type")
+    @NotBlank(message = "Content type is required")
+    private String contentType;
+
+    @Min(value = 1, message = "Size must be > 0")
+    private long size;
+
+    // hex SHA-256 of the whole file, checked on complete
+    @NotBlank(message = "sha256 is required")
+    @Pattern(regexp = "[0-9a-fA-F]{64}", message = "sha256 must be 64 hex characters")
+    private String sha256;
+}
@@ -0,0 +1,16 @@
+package com.project.shopapp.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotBlank;
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefreshTokenDTO {
+    @JsonProperty("refresh_token")
+    @NotBlank(message = "Refresh token is required")
+    private String refreshToken;
+}
@@ -0,0 +1,7 @@
+package com.project.shopapp.exceptions;
+
+public class TooManyRequestsException extends Exception {
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
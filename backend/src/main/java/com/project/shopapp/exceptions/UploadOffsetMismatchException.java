@@ -0,0 +1,14 @@
+package com.project.shopapp.exceptions;
+
+public class UploadOffsetMismatchException extends Exception {
+    private final long offset;
+
+    public UploadOffsetMismatchException(String message, long offset) {
+        super(message);
+        this.offset = offset;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+}
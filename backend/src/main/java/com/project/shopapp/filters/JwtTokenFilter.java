@@ -1,6 +1,8 @@
 package com.project.shopapp.filters;
 
+import com.project.shopapp.Configurations.RoutePolicyRegistry;
 import com.project.shopapp.components.JwtTokenUtils;
+import com.project.shopapp.components.UserDetailsCache;
 import com.project.shopapp.models.User;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -10,28 +12,23 @@ import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.util.Pair;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.*;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
 
 @Component
 @RequiredArgsConstructor
 
 public class JwtTokenFilter extends OncePerRequestFilter{
-    @Value("${api.prefix}")
-    private String apiPrefix;
+    private final RoutePolicyRegistry routePolicyRegistry;
     private final UserDetailsService userDetailsService;
     private final JwtTokenUtils jwtTokenUtil;
+    private final UserDetailsCache userDetailsCache;
     private static final Logger log = LoggerFactory.getLogger(JwtTokenFilter.class);
 
     @Override
@@ -53,7 +50,8 @@ public class JwtTokenFilter extends OncePerRequestFilter{
             final String phoneNumber = jwtTokenUtil.extractPhoneNumber(token);
             if (phoneNumber != null
                     && SecurityContextHolder.getContext().getAuthentication() == null) {
-                User userDetails = (User) userDetailsService.loadUserByUsername(phoneNumber);
+                User userDetails = userDetailsCache.get(phoneNumber,
+                        key -> (User) userDetailsService.loadUserByUsername(key));
                 if(jwtTokenUtil.validateToken(token, userDetails)) {
                     UsernamePasswordAuthenticationToken authenticationToken =
                             new UsernamePasswordAuthenticationToken(
@@ -73,29 +71,6 @@ public class JwtTokenFilter extends OncePerRequestFilter{
 
     }
     private boolean isBypassToken(@NonNull HttpServletRequest request) {
-        final List<Pair<String, String>> bypassTokens = Arrays.asList(
-                Pair.of(String.format("%s/users/register", apiPrefix), "POST"),
-                Pair.of(String.format("%s/users/login", apiPrefix), "POST"),
-                Pair.of(String.format("%s/products**",apiPrefix),"GET"),
-                Pair.of(String.format("%s/products/**",apiPrefix),"GET")
-
-
-        );
-
-        String requestPath = request.getServletPath();
-        String requestMethod = request.getMethod();
-
-        log.debug("isBypass? path={} method={} tokens={}", requestPath, requestMethod, bypassTokens);
-
-        AntPathMatcher matcher = new AntPathMatcher(); // so sánh khớp pattern
-        for (Pair<String, String> bypassToken : bypassTokens) {
-            if (matcher.match(bypassToken.getFirst(), requestPath)
-                    && requestMethod.equals(bypassToken.getSecond())) {
-                return true;
-            }
-        }
-
-
-        return false;
+        return routePolicyRegistry.isPublic(request);
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.project.shopapp.filters;
+
+import com.project.shopapp.Configurations.RateLimitProperties;
+import com.project.shopapp.components.RateLimiter;
+import com.project.shopapp.models.User;
+import com.project.shopapp.utils.PathTrie;
+import com.project.shopapp.utils.WebUtils;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Runs right after JwtTokenFilter so the user (if any) is known; see WebSecurityConfig
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+    private PathTrie<RateLimitProperties.RouteGroup> routeGroups;
+
+    @Override
+    protected void initFilterBean() {
+        routeGroups = new PathTrie<>();
+        for (RateLimitProperties.RouteGroup group : properties.getRoutes()) {
+            routeGroups.add(group.getMethod(), group.getPattern(), group);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!properties.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String client = "ip:" + WebUtils.getClientIp(request);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            client = "user:" + user.getId();
+        }
+
+        RateLimitProperties.Limit tightestLimit = null;
+        long tightestRemaining = Long.MAX_VALUE;
+
+        RateLimitProperties.Limit clientLimit = client.startsWith("user:")
+                ? properties.getPerUser() : properties.getPerIp();
+        long remaining = rateLimiter.tryAcquire(client, clientLimit);
+        if (remaining < 0) {
+            reject(response, clientLimit, -remaining);
+            return;
+        }
+        tightestLimit = clientLimit;
+        tightestRemaining = remaining;
+
+        RateLimitProperties.RouteGroup group = findRouteGroup(request);
+        if (group != null) {
+            remaining = rateLimiter.tryAcquire(group.getName() + "|" + client, group);
+            if (remaining < 0) {
+                // a rejected request must not cost the client anything
+                rateLimiter.refund(client, clientLimit);
+                reject(response, group, -remaining);
+                return;
+            }
+            if (remaining < tightestRemaining) {
+                tightestLimit = group;
+                tightestRemaining = remaining;
+            }
+        }
+
+        response.setHeader("RateLimit-Limit", String.valueOf(tightestLimit.getCapacity()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(tightestRemaining));
+        response.setHeader("RateLimit-Reset",
+                String.valueOf(RateLimiter.secondsUntilFull(tightestRemaining, tightestLimit)));
+        filterChain.doFilter(request, response);
+    }
+
+    private RateLimitProperties.RouteGroup findRouteGroup(HttpServletRequest request) {
+        return routeGroups.find(request.getMethod(), request.getServletPath());
+    }
+
+    private void reject(HttpServletResponse response, RateLimitProperties.Limit limit, long retryAfterMillis)
+            throws IOException {
+        long retryAfterSeconds = Math.max(1, (retryAfterMillis + 999) / 1000);
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setHeader("RateLimit-Limit", String.valueOf(limit.getCapacity()));
+        response.setHeader("RateLimit-Remaining", "0");
+        response.setHeader("RateLimit-Reset", String.valueOf(retryAfterSeconds));
+        response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many requests");
+    }
+}
@@ -5,6 +5,9 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @Entity
 @Table(name = "product_images")
 @Getter
@@ -17,6 +20,8 @@ import lombok.*;
 
 public class ProductImage {
     public static final int MAXIMUM_IMAGES_PER_PRODUCT = 6;
+    // widths (px) of the resized copies generated after upload, ascending
+    public static final int[] VARIANT_WIDTHS = {150, 400, 1024};
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -30,5 +35,22 @@ public class ProductImage {
     @JsonProperty("image_url")
     private String imageUrl;
 
+    @JsonProperty("variants")
+    public Map<Integer, String> getVariants() {
+        return variantUrls(imageUrl);
+    }
+
+    // width -> URL (relative to the api prefix) of each resized copy of an uploaded image
+    public static Map<Integer, String> variantUrls(String imageName) {
+        Map<Integer, String> urls = new LinkedHashMap<>();
+        // external URLs (e.g. placeholder thumbnails) have no variants
+        if (imageName == null || imageName.isBlank() || imageName.contains("/") || imageName.contains(":")) {
+            return urls;
+        }
+        for (int width : VARIANT_WIDTHS) {
+            urls.put(width, "/products/images/" + imageName + "?size=" + width);
+        }
+        return urls;
+    }
 
 }
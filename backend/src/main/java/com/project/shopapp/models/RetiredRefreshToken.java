@@ -0,0 +1,32 @@
+package com.project.shopapp.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Every refresh token a session rotated away from; presenting one again means it was copied
+@Entity
+@Table(name = "retired_refresh_tokens")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RetiredRefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // SHA-256 of the retired refresh token
+    @Column(name = "refresh_token_hash", length = 64, nullable = false, unique = true)
+    private String refreshTokenHash;
+
+    // the session (tokens.id) it belonged to; the row may already be gone
+    @Column(name = "token_id", nullable = false)
+    private Long tokenId;
+
+    // the session's refresh expiry: after it the token is rejected anyway and the entry can go
+    @Column(name = "expiration_date", nullable = false)
+    private LocalDateTime expirationDate;
+}
@@ -22,12 +22,33 @@ public class Token {
     @Column(name = "token", length = 255)
     private String token;
 
+    // SHA-256 of the token: fixed length and uniquely indexed, unlike the token itself
+    @Column(name = "token_hash", length = 64, unique = true)
+    private String tokenHash;
+
+    @Column(name = "jti", length = 32)
+    private String jti;
+
     @Column(name = "token_type", length = 50)
     private String tokenType;
 
     @Column(name = "expiration_date")
     private LocalDateTime expirationDate;
 
+    // when the session was opened (login); refreshes keep it, so MAX_TOKENS evicts the oldest login
+    @Column(name = "issued_at")
+    private LocalDateTime issuedAt;
+
+    // SHA-256 of the current refresh token; the plain value is only ever returned to the client
+    @Column(name = "refresh_token", length = 64, unique = true)
+    private String refreshToken;
+
+    @Column(name = "refresh_expiration_date")
+    private LocalDateTime refreshExpirationDate;
+
+    @Transient
+    private String plainRefreshToken;
+
     private boolean revoked;
     private boolean expired;
 
@@ -2,9 +2,21 @@ package com.project.shopapp.repositories;
 
 import com.project.shopapp.models.OrderDetail;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface OrderDetailRepository extends JpaRepository<OrderDetail, Long> {
     List<OrderDetail> findByOrderId(Long orderId);
+
+    // [productId, units sold]
+    @Query("SELECT od.product.id, SUM(od.numberOfProducts) FROM OrderDetail od GROUP BY od.product.id")
+    List<Object[]> sumUnitsSoldByProduct();
+
+    // [orderId, productId] of active orders with from < id <= to, grouped by order
+    @Query("SELECT od.order.id, od.product.id FROM OrderDetail od " +
+            "WHERE od.order.id > :fromOrderId AND od.order.id <= :toOrderId AND od.order.active = true " +
+            "ORDER BY od.order.id")
+    List<Object[]> findOrderLinesBetween(@Param("fromOrderId") Long fromOrderId, @Param("toOrderId") Long toOrderId);
 }
@@ -21,4 +21,8 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     Page<Order> findByKeyword(@Param("keyword") String keyword, Pageable pageable);
     // Lấy order mới nhất của 1 user, theo orderDate giảm dần
     Optional<Order> findTopByUserIdOrderByOrderDateDesc(Long userId);
+
+    // [min id, max id]
+    @Query("SELECT MIN(o.id), MAX(o.id) FROM Order o")
+    List<Object[]> findIdBounds();
 }
@@ -1,10 +1,39 @@
 package com.project.shopapp.repositories;
 
 import com.project.shopapp.models.ProductImage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
-public interface ProductImageRepository extends JpaRepository<ProductImage, Long> {
+public interface ProductImageRepository extends JpaRepository<ProductImage, Long>, ProductImageRepositoryCustom {
     List<ProductImage> findByProductId(Long productId);
+
+    long countByProductId(Long productId);
+
+    long countByImageUrl(String imageUrl);
+
+    // catalog read model: {product id, image id, imageUrl} of the products in (afterProductId, lastProductId]
+    @Query("SELECT pi.product.id, pi.id, pi.imageUrl FROM ProductImage pi " +
+            "WHERE pi.product.id > :afterProductId AND pi.product.id <= :lastProductId ORDER BY pi.product.id, pi.id")
+    List<Object[]> findImageRefsBetween(@Param("afterProductId") Long afterProductId,
+                                        @Param("lastProductId") Long lastProductId);
+
+    @Query("SELECT pi.product.id, pi.id, pi.imageUrl FROM ProductImage pi " +
+            "WHERE pi.product.id IN :productIds ORDER BY pi.product.id, pi.id")
+    List<Object[]> findImageRefsByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    // keyset page of {id, imageUrl}
+    @Query("SELECT pi.id, pi.imageUrl FROM ProductImage pi WHERE pi.id > :afterId ORDER BY pi.id")
+    List<Object[]> findImageUrlsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProductImage pi SET pi.imageUrl = :newUrl WHERE pi.imageUrl = :oldUrl")
+    int renameImage(@Param("oldUrl") String oldUrl, @Param("newUrl") String newUrl);
 }
@@ -0,0 +1,11 @@
+package com.project.shopapp.repositories;
+
+import com.project.shopapp.models.Product;
+import com.project.shopapp.models.ProductImage;
+
+import java.util.List;
+
+public interface ProductImageRepositoryCustom {
+    // one multi-row INSERT for the whole list: IDENTITY ids keep Hibernate from batching saveAll
+    List<ProductImage> insertAll(Product product, List<String> imageUrls);
+}
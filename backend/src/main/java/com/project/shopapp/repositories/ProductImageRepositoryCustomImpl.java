@@ -0,0 +1,50 @@
+package com.project.shopapp.repositories;
+
+import com.project.shopapp.models.Product;
+import com.project.shopapp.models.ProductImage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class ProductImageRepositoryCustomImpl implements ProductImageRepositoryCustom {
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<ProductImage> insertAll(Product product, List<String> imageUrls) {
+        if (imageUrls.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String sql = "INSERT INTO product_images (product_id, image_url) VALUES "
+                + String.join(", ", Collections.nCopies(imageUrls.size(), "(?, ?)"));
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        // runs on the connection of the surrounding JPA transaction
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            int index = 1;
+            for (String imageUrl : imageUrls) {
+                statement.setLong(index++, product.getId());
+                statement.setString(index++, imageUrl);
+            }
+            return statement;
+        }, keyHolder);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        List<ProductImage> images = new ArrayList<>(imageUrls.size());
+        for (int i = 0; i < imageUrls.size(); i++) {
+            images.add(ProductImage.builder()
+                    .id(((Number) keys.get(i).values().iterator().next()).longValue())
+                    .product(product)
+                    .imageUrl(imageUrls.get(i))
+                    .build());
+        }
+        return images;
+    }
+}
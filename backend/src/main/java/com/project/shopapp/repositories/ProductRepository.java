@@ -3,14 +3,19 @@ package com.project.shopapp.repositories;
 import com.project.shopapp.models.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.domain.*;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
     boolean existsByName(String name);
+    boolean existsByThumbnail(String thumbnail);
     Page<Product> findAll(Pageable pageable);//phân trang
 
     @Query("SELECT p FROM Product p WHERE " +
@@ -19,9 +24,49 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     Page<Product> searchProducts
             (@Param("categoryId") Long categoryId,
              @Param("keyword") String keyword, Pageable pageable);
+    // same match as searchProducts, ids only: paging and facets are then done on the in-memory catalog.
+    // Read in id order, one bounded page after another
+    @Query("SELECT p.id FROM Product p WHERE p.id > :afterId " +
+            "AND (p.name LIKE %:keyword% OR p.description LIKE %:keyword%) ORDER BY p.id")
+    List<Long> findIdsByKeywordAfter(@Param("keyword") String keyword, @Param("afterId") long afterId,
+                                     Pageable pageable);
+
     @Query("SELECT p FROM Product p LEFT JOIN FETCH p.productImages WHERE p.id = :productId")
     Optional<Product> getDetailProduct(@Param("productId") Long productId);
 
     @Query("SELECT p FROM Product p WHERE p.id IN :productIds")
     List<Product> findProductsByIds(@Param("productIds") List<Long> productIds);
+
+    // catalog read model: {id, name, price, thumbnail, description, stock_quantity, category id, created_at, updated_at}
+    @Query("SELECT p.id, p.name, p.price, p.thumbnail, p.description, p.stock_quantity, c.id, p.createdAt, p.updatedAt " +
+            "FROM Product p LEFT JOIN p.category c WHERE p.id > :afterId ORDER BY p.id")
+    List<Object[]> findCatalogRowsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT p.id, p.name, p.price, p.thumbnail, p.description, p.stock_quantity, c.id, p.createdAt, p.updatedAt " +
+            "FROM Product p LEFT JOIN p.category c WHERE p.id IN :productIds")
+    List<Object[]> findCatalogRowsByIds(@Param("productIds") Collection<Long> productIds);
+
+    // {id, updatedAt} of the products changed since the given time
+    @Query("SELECT p.id, p.updatedAt FROM Product p WHERE p.updatedAt >= :since")
+    List<Object[]> findUpdateTimesSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT p.id FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // keyset page of {id, thumbnail}
+    @Query("SELECT p.id, p.thumbnail FROM Product p WHERE p.id > :afterId AND p.thumbnail IS NOT NULL ORDER BY p.id")
+    List<Object[]> findThumbnailsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    // bulk updates skip @PreUpdate: updated_at is set here so that other nodes' catalogs see the change
+    @Query("UPDATE Product p SET p.thumbnail = :newName, p.updatedAt = :updatedAt WHERE p.thumbnail = :oldName")
+    int renameThumbnail(@Param("oldName") String oldName, @Param("newName") String newName,
+                        @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Product p SET p.updatedAt = :updatedAt WHERE p.id IN " +
+            "(SELECT pi.product.id FROM ProductImage pi WHERE pi.imageUrl = :imageUrl)")
+    int touchProductsWithImage(@Param("imageUrl") String imageUrl, @Param("updatedAt") LocalDateTime updatedAt);
 }
@@ -0,0 +1,19 @@
+package com.project.shopapp.repositories;
+
+import com.project.shopapp.models.RetiredRefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface RetiredRefreshTokenRepository extends JpaRepository<RetiredRefreshToken, Long> {
+    RetiredRefreshToken findByRefreshTokenHash(String refreshTokenHash);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RetiredRefreshToken r WHERE r.expirationDate < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
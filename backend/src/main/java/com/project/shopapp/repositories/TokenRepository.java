@@ -2,13 +2,48 @@ package com.project.shopapp.repositories;
 
 import com.project.shopapp.models.Token;
 import com.project.shopapp.models.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface TokenRepository  extends JpaRepository<Token, Long> {
     List<Token> findByUser(User user);
 
+    List<Token> findByUserId(Long userId);
+
     Token findByToken(String token);
+
+    Token findByTokenHash(String tokenHash);
+
+    List<Token> findByTokenHashIsNull(Pageable pageable);
+
+    // a session is dead once revoked or once its refresh token (or, without one, its access token) expired
+    @Query("SELECT t.id FROM Token t WHERE t.revoked = true " +
+            "OR t.refreshExpirationDate < :now " +
+            "OR (t.refreshExpirationDate IS NULL AND t.expirationDate < :now)")
+    List<Long> findDeadTokenIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // the opposite of findDeadTokenIds, for one user
+    @Query("SELECT COUNT(t) FROM Token t WHERE t.user.id = :userId AND t.revoked = false " +
+            "AND (t.refreshExpirationDate >= :now " +
+            "OR (t.refreshExpirationDate IS NULL AND t.expirationDate >= :now))")
+    long countLiveSessions(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @Query("SELECT t.tokenHash FROM Token t WHERE t.tokenHash IN :tokenHashes")
+    List<String> findExistingTokenHashes(@Param("tokenHashes") Collection<String> tokenHashes);
+
+    Token findByRefreshToken(String refreshToken);
+
+    @Modifying
+    // compare-and-set: of two requests rotating the same refresh token only one changes the row
+    @Query("UPDATE Token t SET t.refreshToken = :next " +
+            "WHERE t.id = :id AND t.refreshToken = :current AND t.revoked = false")
+    int rotateRefreshToken(@Param("id") Long id, @Param("current") String current, @Param("next") String next);
 }
@@ -0,0 +1,23 @@
+package com.project.shopapp.repositories;
+
+import com.project.shopapp.models.TokenRevocation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+    // keyset page of the entries written since the given time (by any node)
+    List<TokenRevocation> findByCreatedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(
+            LocalDateTime since, Long afterId, Pageable pageable);
+
+    List<TokenRevocation> findByExpirationDateAfter(LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM TokenRevocation r WHERE r.expirationDate < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,13 +1,25 @@
 package com.project.shopapp.repositories;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import com.project.shopapp.models.*;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByPhoneNumber(String phoneNumber);
+    // own short transaction: login calls it outside any transaction and must not keep the connection
+    @Transactional(readOnly = true)
     Optional<User> findByPhoneNumber(String phoneNumber);
     //SELECT * FROM users WHERE phoneNumber=?
+
+    // SELECT ... FOR UPDATE: serializes the logins of one user across nodes until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> lockById(@Param("id") Long id);
 }
 
@@ -0,0 +1,41 @@
+package com.project.shopapp.responses.Metrics;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+public class CatalogMetricsResponse {
+    @JsonProperty("ready")
+    private boolean ready;
+
+    @JsonProperty("storage")
+    private String storage;
+
+    @JsonProperty("products")
+    private int products;
+
+    @JsonProperty("categories")
+    private int categories;
+
+    @JsonProperty("pending_changes")
+    private int pendingChanges;
+
+    @JsonProperty("max_updated_at")
+    private LocalDateTime maxUpdatedAt;
+
+    @JsonProperty("off_heap_allocated_bytes")
+    private long offHeapAllocatedBytes;
+
+    @JsonProperty("off_heap_used_bytes")
+    private long offHeapUsedBytes;
+
+    @JsonProperty("off_heap_dead_bytes")
+    private long offHeapDeadBytes;
+}
@@ -0,0 +1,48 @@
+package com.project.shopapp.responses.Metrics;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+public class ImageCacheMetricsResponse {
+    @JsonProperty("entries")
+    private int entries;
+
+    @JsonProperty("used_bytes")
+    private long usedBytes;
+
+    @JsonProperty("max_bytes")
+    private long maxBytes;
+
+    @JsonProperty("hits")
+    private long hits;
+
+    @JsonProperty("misses")
+    private long misses;
+
+    @JsonProperty("hit_ratio")
+    private double hitRatio;
+
+    @JsonProperty("bypassed")
+    private long bypassed;
+
+    @JsonProperty("admissions")
+    private long admissions;
+
+    @JsonProperty("rejections")
+    private long rejections;
+
+    @JsonProperty("evictions")
+    private long evictions;
+
+    @JsonProperty("bytes_served_from_cache")
+    private long bytesServedFromCache;
+
+    @JsonProperty("bytes_served_from_disk")
+    private long bytesServedFromDisk;
+}
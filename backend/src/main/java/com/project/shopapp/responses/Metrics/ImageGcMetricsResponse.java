@@ -0,0 +1,41 @@
+package com.project.shopapp.responses.Metrics;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+public class ImageGcMetricsResponse {
+    @JsonProperty("mode")
+    private String mode;
+
+    @JsonProperty("cursor")
+    private String cursor;
+
+    @JsonProperty("completed_cycles")
+    private long completedCycles;
+
+    @JsonProperty("referenced_images")
+    private int referencedImages;
+
+    @JsonProperty("files_scanned")
+    private long filesScanned;
+
+    @JsonProperty("orphans_deleted")
+    private long orphansDeleted;
+
+    @JsonProperty("orphans_quarantined")
+    private long orphansQuarantined;
+
+    @JsonProperty("reclaimed_bytes")
+    private long reclaimedBytes;
+
+    @JsonProperty("last_run_at")
+    private LocalDateTime lastRunAt;
+}
@@ -0,0 +1,34 @@
+package com.project.shopapp.responses.Metrics;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+public class JsonCacheMetricsResponse {
+    @JsonProperty("entries")
+    private int entries;
+
+    // encoded bytes held, plain and gzip together
+    @JsonProperty("used_bytes")
+    private long usedBytes;
+
+    @JsonProperty("max_bytes")
+    private long maxBytes;
+
+    @JsonProperty("hits")
+    private long hits;
+
+    @JsonProperty("misses")
+    private long misses;
+
+    @JsonProperty("not_modified")
+    private long notModified;
+
+    @JsonProperty("gzip_responses")
+    private long gzipResponses;
+}
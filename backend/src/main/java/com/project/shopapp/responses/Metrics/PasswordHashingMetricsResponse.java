@@ -0,0 +1,39 @@
+package com.project.shopapp.responses.Metrics;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+public class PasswordHashingMetricsResponse {
+    @JsonProperty("pool_size")
+    private int poolSize;
+
+    @JsonProperty("active_threads")
+    private int activeThreads;
+
+    @JsonProperty("queue_depth")
+    private int queueDepth;
+
+    @JsonProperty("queue_capacity")
+    private int queueCapacity;
+
+    @JsonProperty("completed")
+    private long completed;
+
+    @JsonProperty("rejected")
+    private long rejected;
+
+    @JsonProperty("avg_hash_millis")
+    private double avgHashMillis;
+
+    @JsonProperty("max_hash_millis")
+    private double maxHashMillis;
+
+    @JsonProperty("throttled_logins")
+    private long throttledLogins;
+}
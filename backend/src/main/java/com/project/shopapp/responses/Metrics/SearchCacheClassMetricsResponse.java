@@ -0,0 +1,25 @@
+package com.project.shopapp.responses.Metrics;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+public class SearchCacheClassMetricsResponse {
+    // browse | category | keyword | keyword_category
+    @JsonProperty("query_class")
+    private String queryClass;
+
+    @JsonProperty("hits")
+    private long hits;
+
+    @JsonProperty("misses")
+    private long misses;
+
+    @JsonProperty("hit_ratio")
+    private double hitRatio;
+}
@@ -0,0 +1,34 @@
+package com.project.shopapp.responses.Metrics;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+public class SearchCacheMetricsResponse {
+    @JsonProperty("entries")
+    private int entries;
+
+    @JsonProperty("max_entries")
+    private int maxEntries;
+
+    // entries dropped because a changed product could appear in them
+    @JsonProperty("invalidations")
+    private long invalidations;
+
+    @JsonProperty("expirations")
+    private long expirations;
+
+    // least recently used entries dropped because the cache was full
+    @JsonProperty("evictions")
+    private long evictions;
+
+    @JsonProperty("query_classes")
+    private List<SearchCacheClassMetricsResponse> queryClasses;
+}
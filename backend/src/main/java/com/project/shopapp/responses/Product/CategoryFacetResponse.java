@@ -0,0 +1,17 @@
+package com.project.shopapp.responses.Product;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+@Data
+@NoArgsConstructor
+public class CategoryFacetResponse {
+    @JsonProperty("category_id")
+    private Long categoryId;
+
+    private int count;
+}
@@ -0,0 +1,31 @@
+package com.project.shopapp.responses.Product;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+@Data
+@NoArgsConstructor
+public class ChunkedUploadResponse {
+    @JsonProperty("upload_id")
+    private String uploadId;
+
+    @JsonProperty("product_id")
+    private Long productId;
+
+    // bytes received so far: the next chunk starts here
+    private long offset;
+
+    private long size;
+
+    @JsonProperty("max_chunk_size")
+    private long maxChunkSize;
+
+    @JsonProperty("expires_at")
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,19 @@
+package com.project.shopapp.responses.Product;
+
+import lombok.*;
+
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+@Data
+@NoArgsConstructor
+public class PriceRangeFacetResponse {
+    // inclusive
+    private Float min;
+
+    // exclusive; null for the last, open-ended range
+    private Float max;
+
+    private int count;
+}
@@ -0,0 +1,21 @@
+package com.project.shopapp.responses.Product;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+@Data
+@NoArgsConstructor
+public class ProductFacetsResponse {
+    // matching products per category, ignoring the selected category so the others stay clickable
+    private List<CategoryFacetResponse> categories;
+
+    // matching products (in the selected category) per price range
+    @JsonProperty("price_ranges")
+    private List<PriceRangeFacetResponse> priceRanges;
+}
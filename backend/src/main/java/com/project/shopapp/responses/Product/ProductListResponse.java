@@ -1,5 +1,6 @@
 package com.project.shopapp.responses.Product;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
 
 import java.util.List;
@@ -13,4 +14,11 @@ import java.util.List;
 public class ProductListResponse {
     private List<ProductResponse> products;
     private int totalPages;
+
+    // pass as ?cursor= to get the next page; null on the last page
+    @JsonProperty("next_cursor")
+    private String nextCursor;
+
+    // null when the list was served from the database
+    private ProductFacetsResponse facets;
 }
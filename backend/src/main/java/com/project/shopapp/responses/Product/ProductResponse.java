@@ -9,6 +9,7 @@ import lombok.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Getter
 @Setter
@@ -22,6 +23,8 @@ public class ProductResponse extends BaseResponse {
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "#,###.##")
     private Float price;
     private String thumbnail;
+    @JsonProperty("thumbnail_variants")
+    private Map<Integer, String> thumbnailVariants;
     private String description;
     private Integer stock_quantity;
     @JsonProperty("product_images")
@@ -35,6 +38,7 @@ public class ProductResponse extends BaseResponse {
                 .name(product.getName())
                 .price(product.getPrice())
                 .thumbnail(product.getThumbnail())
+                .thumbnailVariants(ProductImage.variantUrls(product.getThumbnail()))
                 .description(product.getDescription())
                 .stock_quantity(product.getStock_quantity())
                 .categoryId(product.getCategory().getId())
@@ -0,0 +1,21 @@
+package com.project.shopapp.responses.Product;
+
+import lombok.*;
+
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+@Data
+@NoArgsConstructor
+public class SuggestionResponse {
+    private String text;
+
+    // product | category
+    private String type;
+
+    private Long id;
+
+    // units sold (products), or products plus their units sold (categories)
+    private long weight;
+}
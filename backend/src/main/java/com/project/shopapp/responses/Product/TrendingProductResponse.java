@@ -0,0 +1,16 @@
+package com.project.shopapp.responses.Product;
+
+import lombok.*;
+
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+@Data
+@NoArgsConstructor
+public class TrendingProductResponse {
+    private ProductResponse product;
+
+    // views and weighted sales, decayed by trending.half-life-ms
+    private double score;
+}
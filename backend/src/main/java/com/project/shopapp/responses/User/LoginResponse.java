@@ -18,6 +18,9 @@ public class LoginResponse {
     @JsonProperty("token")
     private String token;
 
+    @JsonProperty("refresh_token")
+    private String refreshToken;
+
     @JsonProperty("token_type")
     private String tokenType;
 
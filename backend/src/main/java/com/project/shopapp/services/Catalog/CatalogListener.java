@@ -0,0 +1,16 @@
+package com.project.shopapp.services.Catalog;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Read models derived from the catalog (suggestions, search indexes) implement this to follow it.
+ * Callbacks run on the catalog refresh thread after the new snapshot is published; keep them short.
+ */
+public interface CatalogListener {
+    // a whole snapshot was loaded (startup, or a snapshot file that was caught up)
+    void catalogLoaded(CatalogSnapshot snapshot);
+
+    // upserts are sorted by id; deletedIds are no longer in the snapshot
+    void catalogChanged(CatalogSnapshot snapshot, List<CatalogRow> upserts, Set<Long> deletedIds);
+}
@@ -0,0 +1,131 @@
+package com.project.shopapp.services.Catalog;
+
+import com.project.shopapp.repositories.OrderDetailRepository;
+import com.project.shopapp.repositories.ProductImageRepository;
+import com.project.shopapp.repositories.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Reads products for the catalog read model with column projections only (no entities, no lazy
+ * collections): keyset pages of products, each followed by one query for the images of that page.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogLoader {
+    private final ProductRepository productRepository;
+    private final ProductImageRepository productImageRepository;
+    private final OrderDetailRepository orderDetailRepository;
+
+    @Value("${catalog.load-page-size:10000}")
+    private int pageSize;
+
+    // every product in ascending id order
+    public void loadAll(Consumer<CatalogRow> consumer) {
+        long afterId = 0;
+        List<Object[]> page;
+        do {
+            page = productRepository.findCatalogRowsAfter(afterId, PageRequest.of(0, pageSize));
+            if (page.isEmpty()) {
+                break;
+            }
+            List<CatalogRow> rows = page.stream().map(CatalogLoader::toRow).toList();
+            long lastId = rows.get(rows.size() - 1).getId();
+            attachImages(rows, productImageRepository.findImageRefsBetween(afterId, lastId));
+            rows.forEach(consumer);
+            afterId = lastId;
+        } while (page.size() == pageSize);
+    }
+
+    // the given products that still exist, sorted by id
+    public List<CatalogRow> loadByIds(Collection<Long> productIds) {
+        List<CatalogRow> rows = new ArrayList<>(productIds.size());
+        List<Long> ids = new ArrayList<>(productIds);
+        for (int from = 0; from < ids.size(); from += pageSize) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + pageSize));
+            List<CatalogRow> chunkRows = new ArrayList<>(productRepository.findCatalogRowsByIds(chunk)
+                    .stream().map(CatalogLoader::toRow).toList());
+            attachImages(chunkRows, productImageRepository.findImageRefsByProductIds(chunk));
+            rows.addAll(chunkRows);
+        }
+        rows.sort(Comparator.comparing(CatalogRow::getId));
+        return rows;
+    }
+
+    // id -> updated_at (epoch millis, as in CatalogSnapshot) of the products changed since the given
+    // time; updated_at is also bumped when images change
+    public Map<Long, Long> loadUpdateTimesSince(LocalDateTime since) {
+        List<Object[]> rows = productRepository.findUpdateTimesSince(since);
+        Map<Long, Long> updateTimes = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            updateTimes.put((Long) row[0], CatalogSnapshot.toMillis((LocalDateTime) row[1]));
+        }
+        return updateTimes;
+    }
+
+    // sorted ids of every product, to find the ones deleted since a snapshot was written
+    public long[] loadAllIds() {
+        long[] ids = new long[1024];
+        int count = 0;
+        long afterId = 0;
+        List<Long> page;
+        do {
+            page = productRepository.findIdsAfter(afterId, PageRequest.of(0, pageSize * 10));
+            for (Long id : page) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                ids[count++] = id;
+                afterId = id;
+            }
+        } while (page.size() == pageSize * 10);
+        return Arrays.copyOf(ids, count);
+    }
+
+    private static void attachImages(List<CatalogRow> rows, List<Object[]> images) {
+        Map<Long, CatalogRow> byId = new HashMap<>(rows.size() * 2);
+        rows.forEach(row -> byId.put(row.getId(), row));
+        for (Object[] image : images) {
+            CatalogRow row = byId.get((Long) image[0]);
+            if (row != null) {
+                row.getImageIds().add((Long) image[1]);
+                row.getImageUrls().add((String) image[2]);
+            }
+        }
+    }
+
+    private static CatalogRow toRow(Object[] columns) {
+        return CatalogRow.builder()
+                .id((Long) columns[0])
+                .name((String) columns[1])
+                .price((Float) columns[2])
+                .thumbnail((String) columns[3])
+                .description((String) columns[4])
+                .stockQuantity((Integer) columns[5])
+                .categoryId((Long) columns[6])
+                .createdAt((LocalDateTime) columns[7])
+                .updatedAt((LocalDateTime) columns[8])
+                .build();
+    }
+
+    // product id -> units sold over all orders
+    public LongLongHashIndex loadUnitsSold() {
+        List<Object[]> rows = orderDetailRepository.sumUnitsSoldByProduct();
+        long[] ids = new long[rows.size()];
+        long[] units = new long[rows.size()];
+        int count = 0;
+        for (Object[] row : rows) {
+            if (row[0] != null && row[1] != null) {
+                ids[count] = ((Number) row[0]).longValue();
+                units[count++] = ((Number) row[1]).longValue();
+            }
+        }
+        return new LongLongHashIndex(ids, units, count);
+    }
+}
@@ -0,0 +1,17 @@
+package com.project.shopapp.services.Catalog;
+
+import com.project.shopapp.responses.Product.ProductResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class CatalogPage {
+    private final List<ProductResponse> products;
+    private final long totalElements;
+    private final int totalPages;
+    // null on the last page
+    private final String nextCursor;
+}
@@ -0,0 +1,22 @@
+package com.project.shopapp.services.Catalog;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class CatalogQuery {
+    // null = every product
+    private final List<Long> productIds;
+    // productIds are already in relevance order: keep it when sorting by id
+    private final boolean ranked;
+    private final Long categoryId;
+    @Builder.Default
+    private final ProductSort sort = ProductSort.ID;
+    // next_cursor of the previous page; when set, page is ignored
+    private final String cursor;
+    private final int page;
+    private final int limit;
+}
@@ -0,0 +1,29 @@
+package com.project.shopapp.services.Catalog;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// one product as read from the database for the catalog read model
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CatalogRow {
+    private Long id;
+    private String name;
+    private Float price;
+    private String thumbnail;
+    private String description;
+    private Integer stockQuantity;
+    private Long categoryId;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    @Builder.Default
+    private List<Long> imageIds = new ArrayList<>();
+    @Builder.Default
+    private List<String> imageUrls = new ArrayList<>();
+}
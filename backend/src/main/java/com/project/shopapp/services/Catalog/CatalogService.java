@@ -0,0 +1,646 @@
+package com.project.shopapp.services.Catalog;
+
+import com.project.shopapp.responses.Metrics.CatalogMetricsResponse;
+import com.project.shopapp.responses.Product.CategoryFacetResponse;
+import com.project.shopapp.responses.Product.PriceRangeFacetResponse;
+import com.project.shopapp.responses.Product.ProductFacetsResponse;
+import com.project.shopapp.responses.Product.ProductResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory read model behind GET /products. The whole catalog is loaded once at startup into a
+ * CatalogSnapshot; afterwards changed product ids are collected and applied in small batches on a
+ * single background thread, each batch publishing a new snapshot through one volatile write.
+ * Readers never lock and never hit the database.
+ * The snapshot is also written to catalog.snapshot.path (CatalogSnapshotFile) every few minutes; a
+ * starting node maps that file and only asks MySQL for what changed since, instead of the whole catalog.
+ */
+@Service
+@RequiredArgsConstructor
+public class CatalogService implements ICatalogService {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogService.class);
+
+    private final CatalogLoader catalogLoader;
+    private final List<CatalogListener> listeners;
+
+    @Value("${catalog.enabled:true}")
+    private boolean enabled;
+    // changes arriving within this window are applied together
+    @Value("${catalog.refresh-delay-ms:200}")
+    private long refreshDelayMillis;
+    @Value("${catalog.storage:heap}")
+    private String storage;
+    @Value("${catalog.off-heap.segment-bytes:67108864}")
+    private int offHeapSegmentBytes;
+    @Value("${catalog.snapshot.enabled:true}")
+    private boolean snapshotFileEnabled;
+    @Value("${catalog.snapshot.path:data/catalog.snapshot}")
+    private String snapshotPath;
+    // re-read products updated a little before the snapshot's newest updated_at: clock skew between
+    // nodes and transactions that committed after a later one
+    @Value("${catalog.snapshot.catch-up-margin-seconds:300}")
+    private long catchUpMarginSeconds;
+    // full id comparison against the database, for deletions no updated_at can show
+    @Value("${catalog.reconcile-interval-ms:600000}")
+    private long reconcileIntervalMillis;
+
+    // a failed load or refresh is retried after retry-initial-ms, doubling up to retry-max-ms
+    @Value("${catalog.retry-initial-ms:1000}")
+    private long retryInitialMillis;
+    @Value("${catalog.retry-max-ms:60000}")
+    private long retryMaxMillis;
+
+    // ascending upper bounds of the price facet ranges; the last range is open-ended
+    @Value("${catalog.facets.price-bounds:1000000,5000000,10000000,20000000}")
+    private float[] priceBounds;
+
+    private volatile CatalogSnapshot snapshot;
+    private volatile PriceBuckets priceBuckets;
+    // presorted orders of the latest snapshot (or the one just before it, for a moment)
+    private volatile CatalogSortIndex sortIndex;
+    // bumped whenever a new snapshot or sort order is published
+    private final AtomicLong version = new AtomicLong();
+    private CatalogSnapshot lastWrittenSnapshot;
+    // refresher thread only
+    private LocalDateTime lastSyncStarted;
+    private long lastReconcileMillis;
+    private int reloadFailures;
+    private int refreshFailures;
+    private final Set<Long> pendingChanges = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // rows of each price range, computed once per published snapshot
+    private record PriceBuckets(CatalogSnapshot snapshot, RowSet[] rows) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (enabled) {
+            refresher.execute(this::reload);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        refresher.shutdownNow();
+    }
+
+    @Override
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    @Override
+    public CatalogPage findProducts(CatalogQuery query) {
+        CatalogSortIndex sorted = sortIndex;
+        if (sorted == null || query.getLimit() <= 0) {
+            return null;
+        }
+        // the snapshot the permutations were built for, so rows always agree
+        CatalogSnapshot current = sorted.snapshot();
+        RowSet filter = query.getProductIds() == null ? null : rowsOf(current, query.getProductIds());
+        Long categoryId = query.getCategoryId();
+        if (categoryId != null && categoryId != 0) {
+            RowSet rows = current.rowsOfCategory(categoryId);
+            filter = rows == null ? new RowSet(0) : filter == null ? rows : filter.and(rows);
+        }
+        long total = filter == null ? current.size() : filter.cardinality();
+        ProductSort sort = query.getSort();
+        long offset = (long) query.getPage() * query.getLimit();
+        long[] after = decodeCursor(query.getCursor(), sort);
+        // a page never holds more rows than the catalog
+        int[] rows = new int[Math.min(query.getLimit(), current.size())];
+        int count;
+        if (sort == ProductSort.ID && query.isRanked() && query.getProductIds() != null) {
+            count = rankedPage(current, query.getProductIds(), filter, offset, rows);
+            after = null;
+        } else if (sort == ProductSort.ID) {
+            int row = after != null ? nextRowAfterId(current, after[1])
+                    : filter == null ? (int) Math.min(offset, current.size())
+                    : offset < total ? filter.nth((int) offset) : -1;
+            count = 0;
+            while (row >= 0 && row < current.size() && count < rows.length) {
+                if (filter != null) {
+                    row = filter.next(row);
+                    if (row < 0) {
+                        break;
+                    }
+                }
+                rows[count++] = row++;
+            }
+        } else {
+            count = after != null
+                    ? sorted.collect(sort, filter, after[0], after[1], true, 0, rows)
+                    : sorted.collect(sort, filter, 0, 0, false, offset, rows);
+        }
+        List<ProductResponse> content = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) {
+            content.add(current.toResponse(rows[k]));
+        }
+        boolean more = count > 0 && count == query.getLimit() && (after != null || offset + count < total);
+        String nextCursor = more && !(sort == ProductSort.ID && query.isRanked())
+                ? encodeCursor(sort, sort == ProductSort.ID ? 0 : sorted.keyOf(sort, rows[count - 1]),
+                current.idAt(rows[count - 1]))
+                : null;
+        int totalPages = (int) ((total + query.getLimit() - 1) / query.getLimit());
+        return new CatalogPage(content, total, totalPages, nextCursor);
+    }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    @Override
+    public String productVersion(long productId) {
+        CatalogSnapshot current = snapshot;
+        int row = current == null ? -1 : current.rowOf(productId);
+        if (row < 0 || current.updatedAtMillis(row) == Long.MIN_VALUE) {
+            return null;
+        }
+        return Long.toHexString(productId) + "-" + Long.toHexString(current.updatedAtMillis(row));
+    }
+
+    @Override
+    public String cursorAfter(ProductSort sort, long productId) {
+        CatalogSortIndex sorted = sortIndex;
+        int row = sorted == null ? -1 : sorted.snapshot().rowOf(productId);
+        if (row < 0) {
+            return null;
+        }
+        return encodeCursor(sort, sort == ProductSort.ID ? 0 : sorted.keyOf(sort, row), productId);
+    }
+
+    private static int rankedPage(CatalogSnapshot current, List<Long> productIds, RowSet filter, long offset, int[] rows) {
+        int count = 0;
+        long seen = 0;
+        for (Long productId : productIds) {
+            int row = current.rowOf(productId);
+            if (row < 0 || (filter != null && !filter.contains(row))) {
+                continue;
+            }
+            if (seen++ >= offset) {
+                rows[count++] = row;
+                if (count == rows.length) {
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static int nextRowAfterId(CatalogSnapshot current, long afterId) {
+        int row = current.rowOf(afterId);
+        return row >= 0 ? row + 1 : -row - 1;
+    }
+
+    // opaque "sort:key:id" of the last row of a page
+    private static String encodeCursor(ProductSort sort, long key, long id) {
+        String raw = sort.getParam() + ":" + key + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // {key, id}, or null when there is no cursor or it was issued for another order
+    private static long[] decodeCursor(String cursor, ProductSort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 3 || !parts[0].equals(sort.getParam())) {
+                return null;
+            }
+            return new long[]{Long.parseLong(parts[1]), Long.parseLong(parts[2])};
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public ProductFacetsResponse getFacets(Collection<Long> productIds, Long categoryId) {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        RowSet matching = productIds == null ? null : rowsOf(current, productIds);
+        List<CategoryFacetResponse> categories = new ArrayList<>();
+        for (Long category : current.categoryIds()) {
+            RowSet rows = current.rowsOfCategory(category);
+            int count = matching == null ? rows.cardinality() : matching.andCardinality(rows);
+            if (count > 0) {
+                categories.add(CategoryFacetResponse.builder().categoryId(category).count(count).build());
+            }
+        }
+        categories.sort(Comparator.comparingInt(CategoryFacetResponse::getCount).reversed()
+                .thenComparing(CategoryFacetResponse::getCategoryId));
+
+        RowSet filtered = matching;
+        if (categoryId != null && categoryId != 0) {
+            RowSet rows = current.rowsOfCategory(categoryId);
+            if (rows == null) {
+                filtered = new RowSet(0);
+            } else {
+                filtered = matching == null ? rows : matching.and(rows);
+            }
+        }
+        RowSet[] buckets = priceBuckets(current);
+        List<PriceRangeFacetResponse> priceRanges = new ArrayList<>(buckets.length);
+        for (int i = 0; i < buckets.length; i++) {
+            priceRanges.add(PriceRangeFacetResponse.builder()
+                    .min(i == 0 ? 0f : priceBounds[i - 1])
+                    .max(i < priceBounds.length ? priceBounds[i] : null)
+                    .count(filtered == null ? buckets[i].cardinality() : filtered.andCardinality(buckets[i]))
+                    .build());
+        }
+        return ProductFacetsResponse.builder().categories(categories).priceRanges(priceRanges).build();
+    }
+
+    private static RowSet rowsOf(CatalogSnapshot current, Collection<Long> productIds) {
+        int[] rows = new int[productIds.size()];
+        int count = 0;
+        for (Long productId : productIds) {
+            int row = current.rowOf(productId);
+            if (row >= 0) {
+                rows[count++] = row;
+            }
+        }
+        Arrays.sort(rows, 0, count);
+        int distinct = 0;
+        for (int k = 0; k < count; k++) {
+            if (distinct == 0 || rows[distinct - 1] != rows[k]) {
+                rows[distinct++] = rows[k];
+            }
+        }
+        return RowSet.of(rows, 0, distinct, current.size());
+    }
+
+    private RowSet[] priceBuckets(CatalogSnapshot current) {
+        PriceBuckets cached = priceBuckets;
+        if (cached != null && cached.snapshot() == current) {
+            return cached.rows();
+        }
+        RowSet[] rows = new RowSet[priceBounds.length + 1];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new RowSet(current.size());
+        }
+        for (int row = 0; row < current.size(); row++) {
+            float price = current.priceAt(row);
+            int bucket = 0;
+            while (bucket < priceBounds.length && price >= priceBounds[bucket]) {
+                bucket++;
+            }
+            rows[bucket].add(row);
+        }
+        priceBuckets = new PriceBuckets(current, rows);
+        return rows;
+    }
+
+    @Override
+    public ProductResponse findProduct(long productId) {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        int row = current.rowOf(productId);
+        return row < 0 ? null : current.toResponse(row);
+    }
+
+    @Override
+    public Long categoryOf(long productId) {
+        CatalogSnapshot current = snapshot;
+        int row = current == null ? -1 : current.rowOf(productId);
+        return row < 0 ? null : current.categoryAt(row);
+    }
+
+    @Override
+    public CatalogMetricsResponse getMetrics() {
+        CatalogSnapshot current = snapshot;
+        OffHeapRecordStore records = current == null ? null : current.getRecordStore();
+        return CatalogMetricsResponse.builder()
+                .ready(current != null)
+                .storage(storage)
+                .products(current == null ? 0 : current.size())
+                .categories(current == null ? 0 : current.categoryIds().size())
+                .pendingChanges(pendingChanges.size())
+                .maxUpdatedAt(current == null ? null : current.getMaxUpdatedAt())
+                .offHeapAllocatedBytes(records == null ? 0 : records.getAllocatedBytes())
+                .offHeapUsedBytes(records == null ? 0 : records.getUsedBytes())
+                .offHeapDeadBytes(records == null ? 0 : records.getDeadBytes())
+                .build();
+    }
+
+    @Override
+    public void productChanged(Long productId) {
+        if (!enabled || productId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(productId);
+                }
+            });
+        } else {
+            enqueue(productId);
+        }
+    }
+
+    private void enqueue(Long productId) {
+        pendingChanges.add(productId);
+        if (refreshScheduled.compareAndSet(false, true)) {
+            refresher.schedule(this::applyChanges, refreshDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // nothing is published until the catalog is complete and current; on failure isReady() stays false
+    private void reload() {
+        long started = System.currentTimeMillis();
+        LocalDateTime syncStarted = LocalDateTime.now();
+        CatalogSnapshot loaded;
+        boolean fromFile = false;
+        try {
+            CatalogSnapshot mapped = snapshotFileEnabled ? readSnapshotFile() : null;
+            if (mapped != null) {
+                logger.info("Catalog mapped from {}: {} products in {} ms",
+                        snapshotPath, mapped.size(), System.currentTimeMillis() - started);
+                loaded = catchUp(mapped);
+                fromFile = true;
+            } else {
+                CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder(1024, newRecordStore());
+                catalogLoader.loadAll(builder::add);
+                loaded = builder.build();
+                logger.info("Catalog loaded: {} products in {} ms",
+                        loaded.size(), System.currentTimeMillis() - started);
+            }
+        } catch (RuntimeException e) {
+            long delay = retryDelay(reloadFailures++);
+            logger.error("Cannot load the catalog, serving product lists from the database; retrying in {} ms",
+                    delay, e);
+            refresher.schedule(this::reload, delay, TimeUnit.MILLISECONDS);
+            return;
+        }
+        reloadFailures = 0;
+        snapshot = loaded;
+        sortIndex = CatalogSortIndex.build(loaded, loadUnitsSold());
+        version.incrementAndGet();
+        // later syncs look back from the start of this load, which the loaded rows are current as of
+        lastSyncStarted = syncStarted;
+        lastReconcileMillis = started;
+        notifyLoaded(loaded);
+        if (!fromFile) {
+            writeSnapshotFile();
+        }
+        // changes committed while the full load was running
+        if (!pendingChanges.isEmpty() && refreshScheduled.compareAndSet(false, true)) {
+            refresher.execute(this::applyChanges);
+        }
+    }
+
+    // retry-initial-ms doubled per earlier failure, at most retry-max-ms
+    private long retryDelay(int failures) {
+        long delay = Math.max(1, retryInitialMillis) << Math.min(failures, 20);
+        return Math.min(Math.max(1, retryMaxMillis), delay);
+    }
+
+    // heap | off-heap
+    private OffHeapRecordStore newRecordStore() {
+        return "off-heap".equalsIgnoreCase(storage) ? new OffHeapRecordStore(offHeapSegmentBytes) : null;
+    }
+
+    private CatalogSnapshot readSnapshotFile() {
+        Path path = Paths.get(snapshotPath);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try {
+            return CatalogSnapshotFile.read(path, newRecordStore());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring catalog snapshot {}: {}", snapshotPath, e.getMessage());
+            return null;
+        }
+    }
+
+    // brings a snapshot read from disk up to date: products changed since it was written, and deletions
+    private CatalogSnapshot catchUp(CatalogSnapshot fromFile) {
+        LocalDateTime newest = fromFile.getMaxUpdatedAt();
+        Set<Long> stale = staleIds(fromFile, newest == null ? null : newest.minusSeconds(catchUpMarginSeconds), true);
+        List<CatalogRow> upserts = catalogLoader.loadByIds(stale);
+        Set<Long> deleted = new HashSet<>(stale);
+        upserts.forEach(row -> deleted.remove(row.getId()));
+        CatalogSnapshot current = fromFile.withChanges(upserts, deleted);
+        logger.info("Catalog caught up: {} changed, {} deleted since the snapshot", upserts.size(), deleted.size());
+        return current;
+    }
+
+    /**
+     * Ids whose row in current is out of date: updated since the given time (null = skip) with an
+     * updated_at other than the snapshot's, and with reconcile also every id present on only one side
+     * (inserted without updated_at, or deleted).
+     */
+    private Set<Long> staleIds(CatalogSnapshot current, LocalDateTime since, boolean reconcile) {
+        Set<Long> stale = new HashSet<>();
+        if (since != null) {
+            catalogLoader.loadUpdateTimesSince(since).forEach((id, updatedAt) -> {
+                int row = current.rowOf(id);
+                if (row < 0 || current.updatedAtMillis(row) != updatedAt) {
+                    stale.add(id);
+                }
+            });
+        }
+        if (reconcile) {
+            // both sides are sorted by id: one merge pass
+            long[] existingIds = catalogLoader.loadAllIds();
+            int row = 0;
+            int next = 0;
+            while (row < current.size() || next < existingIds.length) {
+                long snapshotId = row < current.size() ? current.idAt(row) : Long.MAX_VALUE;
+                long existingId = next < existingIds.length ? existingIds[next] : Long.MAX_VALUE;
+                if (snapshotId == existingId) {
+                    row++;
+                    next++;
+                } else if (snapshotId < existingId) {
+                    stale.add(snapshotId);
+                    row++;
+                } else {
+                    stale.add(existingId);
+                    next++;
+                }
+            }
+        }
+        return stale;
+    }
+
+    // picks up writes this node was never told about: other nodes, admin SQL, bulk updates
+    @Scheduled(initialDelayString = "${catalog.sync-interval-ms:30000}",
+            fixedDelayString = "${catalog.sync-interval-ms:30000}")
+    public void scheduleSync() {
+        if (enabled) {
+            refresher.execute(this::sync);
+        }
+    }
+
+    private void sync() {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        LocalDateTime started = LocalDateTime.now();
+        long startedMillis = System.currentTimeMillis();
+        LocalDateTime since = lastSyncStarted != null ? lastSyncStarted : current.getMaxUpdatedAt();
+        boolean reconcile = startedMillis - lastReconcileMillis >= reconcileIntervalMillis;
+        Set<Long> stale;
+        try {
+            stale = staleIds(current, since == null ? null : since.minusSeconds(catchUpMarginSeconds), reconcile);
+        } catch (RuntimeException e) {
+            logger.warn("Cannot sync the catalog with the database: {}", e.getMessage());
+            return;
+        }
+        lastSyncStarted = started;
+        if (reconcile) {
+            lastReconcileMillis = startedMillis;
+        }
+        if (!stale.isEmpty()) {
+            logger.info("Catalog sync: {} products changed outside this node", stale.size());
+            stale.forEach(this::enqueue);
+        }
+    }
+
+    // runs on the refresher thread, so it never races with a snapshot being replaced
+    @Scheduled(initialDelayString = "${catalog.snapshot.write-interval-ms:600000}",
+            fixedDelayString = "${catalog.snapshot.write-interval-ms:600000}")
+    public void scheduleSnapshotWrite() {
+        if (enabled && snapshotFileEnabled) {
+            refresher.execute(this::writeSnapshotFile);
+        }
+    }
+
+    // units sold only reorder the popularity sort, so they are reloaded on a slow schedule
+    @Scheduled(initialDelayString = "${catalog.popularity-refresh-ms:3600000}",
+            fixedDelayString = "${catalog.popularity-refresh-ms:3600000}")
+    public void schedulePopularityRefresh() {
+        if (enabled) {
+            refresher.execute(() -> {
+                CatalogSortIndex sorted = sortIndex;
+                if (sorted != null) {
+                    sortIndex = sorted.withUnitsSold(loadUnitsSold());
+                    version.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    private LongLongHashIndex loadUnitsSold() {
+        try {
+            return catalogLoader.loadUnitsSold();
+        } catch (RuntimeException e) {
+            logger.warn("Cannot load units sold, popularity order falls back to id: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeSnapshotFile() {
+        CatalogSnapshot current = snapshot;
+        if (!snapshotFileEnabled || current == null || current == lastWrittenSnapshot) {
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            CatalogSnapshotFile.write(current, Paths.get(snapshotPath));
+            lastWrittenSnapshot = current;
+            logger.info("Catalog snapshot written: {} products in {} ms",
+                    current.size(), System.currentTimeMillis() - started);
+        } catch (IOException e) {
+            logger.warn("Cannot write catalog snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    private void applyChanges() {
+        refreshScheduled.set(false);
+        CatalogSnapshot current = snapshot;
+        if (current == null || pendingChanges.isEmpty()) {
+            // the full load picks them up when it finishes
+            return;
+        }
+        List<Long> changed = new ArrayList<>(pendingChanges);
+        pendingChanges.removeAll(changed);
+        try {
+            List<CatalogRow> upserts = catalogLoader.loadByIds(changed);
+            Set<Long> deleted = new HashSet<>(changed);
+            upserts.forEach(row -> deleted.remove(row.getId()));
+            CatalogSnapshot next = current.withChanges(upserts, deleted);
+            CatalogSortIndex sorted = sortIndex;
+            sortIndex = sorted != null && sorted.snapshot() == current
+                    ? sorted.withChanges(next, new HashSet<>(changed))
+                    : CatalogSortIndex.build(next, loadUnitsSold());
+            snapshot = next;
+            version.incrementAndGet();
+            notifyChanged(next, upserts, deleted);
+            if (refreshFailures > 0) {
+                logger.info("Catalog refresh recovered after {} failed attempts", refreshFailures);
+                refreshFailures = 0;
+            }
+        } catch (RuntimeException e) {
+            // one warning per outage; the retry backs off instead of reloading the batch every refresh-delay-ms
+            long delay = retryDelay(refreshFailures);
+            if (refreshFailures++ == 0) {
+                logger.warn("Cannot refresh {} catalog entries, retrying with backoff: {}", changed.size(), e.getMessage());
+            } else {
+                logger.debug("Catalog refresh attempt {} failed, next in {} ms", refreshFailures, delay);
+            }
+            pendingChanges.addAll(changed);
+            // enqueue() sees the flag set and does not schedule an earlier attempt
+            refreshScheduled.set(true);
+            refresher.schedule(this::applyChanges, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void notifyLoaded(CatalogSnapshot loaded) {
+        for (CatalogListener listener : listeners) {
+            try {
+                listener.catalogLoaded(loaded);
+            } catch (RuntimeException e) {
+                logger.warn("Catalog listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    private void notifyChanged(CatalogSnapshot changed, List<CatalogRow> upserts, Set<Long> deleted) {
+        for (CatalogListener listener : listeners) {
+            try {
+                listener.catalogChanged(changed, upserts, deleted);
+            } catch (RuntimeException e) {
+                logger.warn("Catalog listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+}
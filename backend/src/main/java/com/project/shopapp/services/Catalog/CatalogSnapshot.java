@@ -0,0 +1,401 @@
+package com.project.shopapp.services.Catalog;
+
+import com.project.shopapp.models.ProductImage;
+import com.project.shopapp.responses.Product.ProductResponse;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Immutable, column-oriented copy of the catalog. Row r of every array is the product ids[r];
+ * rows are sorted by id, so id order needs no index and a product is found by binary search.
+ * The primitive columns (price, stock, category, timestamps) always live in arrays. The strings and
+ * images live either in heap arrays (images CSR-style: imageIds/imageUrls[imageStart[r] .. imageStart[r + 1]))
+ * or, with catalog.storage=off-heap, as records in an OffHeapRecordStore found through a
+ * LongLongHashIndex id -> record address, decoded only for the rows actually returned.
+ * Changes never modify a published snapshot: withChanges builds the next one (copy-on-write).
+ */
+public final class CatalogSnapshot {
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final long NO_TIME = Long.MIN_VALUE;
+    // copy the live records into a fresh store once more than this share of the bytes is dead
+    private static final double MAX_DEAD_RATIO = 0.5;
+
+    final int size;
+    final long[] ids;
+    final float[] prices;
+    final int[] stockQuantities;
+    final long[] categoryIds;
+    final long[] createdAt;
+    final long[] updatedAt;
+    // heap storage
+    private final String[] names;
+    private final String[] thumbnails;
+    private final String[] descriptions;
+    private final int[] imageStart;
+    private final long[] imageIds;
+    private final String[] imageUrls;
+    // off-heap storage
+    private final OffHeapRecordStore records;
+    private final LongLongHashIndex recordIndex;
+
+    private final Map<Long, RowSet> categoryRows;
+    private final long maxUpdatedAt;
+
+    private CatalogSnapshot(Builder builder) {
+        this.size = builder.size;
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.prices = Arrays.copyOf(builder.prices, size);
+        this.stockQuantities = Arrays.copyOf(builder.stockQuantities, size);
+        this.categoryIds = Arrays.copyOf(builder.categoryIds, size);
+        this.createdAt = Arrays.copyOf(builder.createdAt, size);
+        this.updatedAt = Arrays.copyOf(builder.updatedAt, size);
+        this.records = builder.records;
+        if (records == null) {
+            this.names = Arrays.copyOf(builder.names, size);
+            this.thumbnails = Arrays.copyOf(builder.thumbnails, size);
+            this.descriptions = Arrays.copyOf(builder.descriptions, size);
+            this.imageStart = Arrays.copyOf(builder.imageStart, size + 1);
+            this.imageIds = Arrays.copyOf(builder.imageIds, builder.imageCount);
+            this.imageUrls = Arrays.copyOf(builder.imageUrls, builder.imageCount);
+            this.recordIndex = null;
+        } else {
+            this.names = null;
+            this.thumbnails = null;
+            this.descriptions = null;
+            this.imageStart = null;
+            this.imageIds = null;
+            this.imageUrls = null;
+            this.recordIndex = new LongLongHashIndex(builder.ids, builder.addresses, size);
+        }
+
+        // rows grouped by category in one shared array (CSR): start offsets first, then a fill pass
+        Map<Long, int[]> groups = new HashMap<>();
+        long latest = NO_TIME;
+        for (int row = 0; row < size; row++) {
+            groups.computeIfAbsent(categoryIds[row], id -> new int[2])[1]++;
+            latest = Math.max(latest, updatedAt[row]);
+        }
+        int offset = 0;
+        for (int[] group : groups.values()) {
+            group[0] = offset;
+            offset += group[1];
+            group[1] = group[0];
+        }
+        int[] grouped = new int[size];
+        for (int row = 0; row < size; row++) {
+            grouped[groups.get(categoryIds[row])[1]++] = row;
+        }
+        // small categories stay sorted slices of the shared array, only large ones get a bitmap
+        Map<Long, RowSet> rows = new HashMap<>(groups.size() * 2);
+        groups.forEach((categoryId, group) -> rows.put(categoryId, RowSet.of(grouped, group[0], group[1], size)));
+        this.categoryRows = Collections.unmodifiableMap(rows);
+        this.maxUpdatedAt = latest;
+    }
+
+    public static CatalogSnapshot empty() {
+        return new Builder(0, null).build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long idAt(int row) {
+        return ids[row];
+    }
+
+    public float priceAt(int row) {
+        return prices[row];
+    }
+
+    public long categoryAt(int row) {
+        return categoryIds[row];
+    }
+
+    public int stockAt(int row) {
+        return stockQuantities[row];
+    }
+
+    public long createdAtMillis(int row) {
+        return createdAt[row];
+    }
+
+    // NO_TIME (Long.MIN_VALUE) when unknown
+    public long updatedAtMillis(int row) {
+        return updatedAt[row];
+    }
+
+    public String nameAt(int row) {
+        return records == null ? names[row] : records.readName(recordIndex.get(ids[row]));
+    }
+
+    public ProductPayload payloadAt(int row) {
+        if (records != null) {
+            return records.read(recordIndex.get(ids[row]));
+        }
+        int from = imageStart[row];
+        int to = imageStart[row + 1];
+        return new ProductPayload(names[row], thumbnails[row], descriptions[row],
+                Arrays.copyOfRange(imageIds, from, to), Arrays.copyOfRange(imageUrls, from, to));
+    }
+
+    // row of a product id, or a negative value when it is not in the snapshot
+    public int rowOf(long id) {
+        return Arrays.binarySearch(ids, 0, size, id);
+    }
+
+    // rows of a category; null when the category has no products
+    public RowSet rowsOfCategory(long categoryId) {
+        return categoryRows.get(categoryId);
+    }
+
+    public Set<Long> categoryIds() {
+        return categoryRows.keySet();
+    }
+
+    // newest updated_at in the snapshot, null when empty
+    public LocalDateTime getMaxUpdatedAt() {
+        return toDateTime(maxUpdatedAt);
+    }
+
+    // null with heap storage
+    public OffHeapRecordStore getRecordStore() {
+        return records;
+    }
+
+    public ProductResponse toResponse(int row) {
+        ProductPayload payload = payloadAt(row);
+        List<ProductImage> images = new ArrayList<>(payload.getImageIds().length);
+        for (int i = 0; i < payload.getImageIds().length; i++) {
+            images.add(ProductImage.builder().id(payload.getImageIds()[i]).imageUrl(payload.getImageUrls()[i]).build());
+        }
+        ProductResponse response = ProductResponse.builder()
+                .id(ids[row])
+                .name(payload.getName())
+                .price(Float.isNaN(prices[row]) ? null : prices[row])
+                .thumbnail(payload.getThumbnail())
+                .thumbnailVariants(ProductImage.variantUrls(payload.getThumbnail()))
+                .description(payload.getDescription())
+                .stock_quantity(stockQuantities[row])
+                .categoryId(categoryIds[row] == 0 ? null : categoryIds[row])
+                .productImages(images)
+                .build();
+        response.setCreatedAt(toDateTime(createdAt[row]));
+        response.setUpdatedAt(toDateTime(updatedAt[row]));
+        return response;
+    }
+
+    /**
+     * Next snapshot with the given products inserted or replaced (upserts sorted by id) and the
+     * given ids removed. Unchanged rows are copied column by column in one merge pass.
+     */
+    public CatalogSnapshot withChanges(List<CatalogRow> upserts, Set<Long> deletedIds) {
+        OffHeapRecordStore target = records;
+        if (records != null && records.getDeadBytes() > records.getUsedBytes() * MAX_DEAD_RATIO) {
+            target = records.emptyCopy();
+        }
+        Builder builder = new Builder(size + upserts.size(), target);
+        int row = 0;
+        int next = 0;
+        while (row < size || next < upserts.size()) {
+            long existingId = row < size ? ids[row] : Long.MAX_VALUE;
+            long upsertId = next < upserts.size() ? upserts.get(next).getId() : Long.MAX_VALUE;
+            if (upsertId <= existingId) {
+                builder.add(upserts.get(next++));
+                if (upsertId == existingId) {
+                    releaseRecord(row);
+                    row++;
+                }
+            } else {
+                if (deletedIds.contains(existingId)) {
+                    releaseRecord(row);
+                } else {
+                    builder.copy(this, row);
+                }
+                row++;
+            }
+        }
+        return builder.build();
+    }
+
+    private void releaseRecord(int row) {
+        if (records != null) {
+            records.release(recordIndex.get(ids[row]));
+        }
+    }
+
+    static long toMillis(LocalDateTime time) {
+        return time == null ? NO_TIME : time.atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return millis == NO_TIME ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZONE);
+    }
+
+    // appends rows in ascending id order; records == null selects heap storage
+    public static final class Builder {
+        private final OffHeapRecordStore records;
+        private int size;
+        private long[] ids;
+        private float[] prices;
+        private int[] stockQuantities;
+        private long[] categoryIds;
+        private long[] createdAt;
+        private long[] updatedAt;
+        private long[] addresses;
+        private String[] names;
+        private String[] thumbnails;
+        private String[] descriptions;
+        private int[] imageStart;
+        private int imageCount;
+        private long[] imageIds;
+        private String[] imageUrls;
+        // images of the row being added (addImage before addProduct)
+        private final List<Long> pendingImageIds = new ArrayList<>();
+        private final List<String> pendingImageUrls = new ArrayList<>();
+        // names and thumbnails repeat a lot across a supplier's products: keep one instance of each
+        private final Map<String, String> interned = new HashMap<>();
+
+        public Builder(int capacity, OffHeapRecordStore records) {
+            this.records = records;
+            int rows = Math.max(16, capacity);
+            ids = new long[rows];
+            prices = new float[rows];
+            stockQuantities = new int[rows];
+            categoryIds = new long[rows];
+            createdAt = new long[rows];
+            updatedAt = new long[rows];
+            if (records == null) {
+                names = new String[rows];
+                thumbnails = new String[rows];
+                descriptions = new String[rows];
+                imageStart = new int[rows + 1];
+                imageIds = new long[rows];
+                imageUrls = new String[rows];
+            } else {
+                addresses = new long[rows];
+            }
+        }
+
+        public Builder add(CatalogRow product) {
+            for (int i = 0; i < product.getImageIds().size(); i++) {
+                addImage(product.getImageIds().get(i), product.getImageUrls().get(i));
+            }
+            return addProduct(product.getId(), product.getName(),
+                    product.getPrice() == null ? Float.NaN : product.getPrice(),
+                    product.getThumbnail(), product.getDescription(),
+                    product.getStockQuantity() == null ? 0 : product.getStockQuantity(),
+                    product.getCategoryId() == null ? 0 : product.getCategoryId(),
+                    toMillis(product.getCreatedAt()), toMillis(product.getUpdatedAt()));
+        }
+
+        // images of the next product come first, then the product itself closes the row
+        Builder addImage(long imageId, String imageUrl) {
+            pendingImageIds.add(imageId);
+            pendingImageUrls.add(imageUrl);
+            return this;
+        }
+
+        Builder addProduct(long id, String name, float price, String thumbnail, String description,
+                           int stockQuantity, long categoryId, long createdAtMillis, long updatedAtMillis) {
+            long[] rowImageIds = pendingImageIds.stream().mapToLong(Long::longValue).toArray();
+            String[] rowImageUrls = pendingImageUrls.toArray(new String[0]);
+            pendingImageIds.clear();
+            pendingImageUrls.clear();
+            ensureCapacity(rowImageIds.length);
+            if (records == null) {
+                names[size] = intern(name);
+                thumbnails[size] = intern(thumbnail);
+                descriptions[size] = description;
+                System.arraycopy(rowImageIds, 0, imageIds, imageCount, rowImageIds.length);
+                System.arraycopy(rowImageUrls, 0, imageUrls, imageCount, rowImageUrls.length);
+                imageCount += rowImageIds.length;
+                imageStart[size + 1] = imageCount;
+            } else {
+                addresses[size] = records.append(name, thumbnail, description, rowImageIds, rowImageUrls);
+            }
+            return addColumns(id, price, stockQuantity, categoryId, createdAtMillis, updatedAtMillis);
+        }
+
+        Builder copy(CatalogSnapshot source, int row) {
+            if (records != null && records == source.records) {
+                ensureCapacity(0);
+                addresses[size] = source.recordIndex.get(source.ids[row]);
+            } else if (records == null && source.records == null) {
+                int from = source.imageStart[row];
+                int images = source.imageStart[row + 1] - from;
+                ensureCapacity(images);
+                names[size] = source.names[row];
+                thumbnails[size] = source.thumbnails[row];
+                descriptions[size] = source.descriptions[row];
+                System.arraycopy(source.imageIds, from, imageIds, imageCount, images);
+                System.arraycopy(source.imageUrls, from, imageUrls, imageCount, images);
+                imageCount += images;
+                imageStart[size + 1] = imageCount;
+            } else {
+                // storage changed (compaction or another mode): re-encode the payload
+                ProductPayload payload = source.payloadAt(row);
+                for (int i = 0; i < payload.getImageIds().length; i++) {
+                    addImage(payload.getImageIds()[i], payload.getImageUrls()[i]);
+                }
+                return addProduct(source.ids[row], payload.getName(), source.prices[row], payload.getThumbnail(),
+                        payload.getDescription(), source.stockQuantities[row], source.categoryIds[row],
+                        source.createdAt[row], source.updatedAt[row]);
+            }
+            return addColumns(source.ids[row], source.prices[row], source.stockQuantities[row],
+                    source.categoryIds[row], source.createdAt[row], source.updatedAt[row]);
+        }
+
+        public CatalogSnapshot build() {
+            return new CatalogSnapshot(this);
+        }
+
+        private Builder addColumns(long id, float price, int stockQuantity, long categoryId,
+                                   long createdAtMillis, long updatedAtMillis) {
+            ids[size] = id;
+            prices[size] = price;
+            stockQuantities[size] = stockQuantity;
+            categoryIds[size] = categoryId;
+            createdAt[size] = createdAtMillis;
+            updatedAt[size] = updatedAtMillis;
+            size++;
+            return this;
+        }
+
+        private String intern(String value) {
+            if (value == null) {
+                return null;
+            }
+            String existing = interned.putIfAbsent(value, value);
+            return existing == null ? value : existing;
+        }
+
+        private void ensureCapacity(int images) {
+            if (size == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                stockQuantities = Arrays.copyOf(stockQuantities, capacity);
+                categoryIds = Arrays.copyOf(categoryIds, capacity);
+                createdAt = Arrays.copyOf(createdAt, capacity);
+                updatedAt = Arrays.copyOf(updatedAt, capacity);
+                if (records == null) {
+                    names = Arrays.copyOf(names, capacity);
+                    thumbnails = Arrays.copyOf(thumbnails, capacity);
+                    descriptions = Arrays.copyOf(descriptions, capacity);
+                    imageStart = Arrays.copyOf(imageStart, capacity + 1);
+                } else {
+                    addresses = Arrays.copyOf(addresses, capacity);
+                }
+            }
+            if (records == null && imageCount + images > imageIds.length) {
+                int capacity = Math.max(imageIds.length * 2, imageCount + images);
+                imageIds = Arrays.copyOf(imageIds, capacity);
+                imageUrls = Arrays.copyOf(imageUrls, capacity);
+            }
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.project.shopapp.services.Catalog;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Binary file format of a CatalogSnapshot, so a starting node can map the last snapshot instead of
+ * reading the whole catalog from MySQL. Layout (big-endian):
+ * <pre>
+ * header   64 bytes: magic, version, rows, images, written-at millis, section offsets
+ * heap     strings as [int length][UTF-8 bytes]; a string never crosses a 1 GB mapping chunk
+ * index    int[rows + 1] first image of each row
+ * images   16-byte records: image id, heap offset of the URL
+ * records  64-byte records sorted by id: id, price, stock, category id, created_at, updated_at,
+ *          heap offsets of name, thumbnail and description (-1 = null)
+ * </pre>
+ * Record i of a section sits at a fixed position, so any row can be read without scanning.
+ */
+public final class CatalogSnapshotFile {
+    static final long MAGIC = 0x53484F5043415431L; // "SHOPCAT1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 64;
+    static final int IMAGE_RECORD_SIZE = 16;
+    static final long HEAP_CHUNK = 1L << 30;
+
+    private CatalogSnapshotFile() {
+    }
+
+    // writes to a temp file next to target and renames it, so readers only ever see a complete file
+    public static void write(CatalogSnapshot snapshot, Path target) throws IOException {
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), "catalog", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.position(HEADER_SIZE);
+                DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 20));
+                int rows = snapshot.size;
+                HeapWriter heap = new HeapWriter(out);
+                long[] nameRefs = new long[rows];
+                long[] thumbnailRefs = new long[rows];
+                long[] descriptionRefs = new long[rows];
+                int[] imageStart = new int[rows + 1];
+                long[] imageIds = new long[Math.max(16, rows)];
+                long[] urlRefs = new long[imageIds.length];
+                int images = 0;
+                for (int row = 0; row < rows; row++) {
+                    ProductPayload payload = snapshot.payloadAt(row);
+                    nameRefs[row] = heap.write(payload.getName());
+                    thumbnailRefs[row] = heap.write(payload.getThumbnail());
+                    descriptionRefs[row] = heap.write(payload.getDescription());
+                    for (int i = 0; i < payload.getImageIds().length; i++) {
+                        if (images == imageIds.length) {
+                            imageIds = Arrays.copyOf(imageIds, images * 2);
+                            urlRefs = Arrays.copyOf(urlRefs, images * 2);
+                        }
+                        imageIds[images] = payload.getImageIds()[i];
+                        urlRefs[images] = heap.write(payload.getImageUrls()[i]);
+                        images++;
+                    }
+                    imageStart[row + 1] = images;
+                }
+                long heapLength = heap.position;
+                long indexOffset = HEADER_SIZE + heapLength;
+                for (int row = 0; row <= rows; row++) {
+                    out.writeInt(imageStart[row]);
+                }
+                long imagesOffset = indexOffset + 4L * (rows + 1);
+                for (int i = 0; i < images; i++) {
+                    out.writeLong(imageIds[i]);
+                    out.writeLong(urlRefs[i]);
+                }
+                long recordsOffset = imagesOffset + (long) IMAGE_RECORD_SIZE * images;
+                for (int row = 0; row < rows; row++) {
+                    out.writeLong(snapshot.ids[row]);
+                    out.writeFloat(snapshot.prices[row]);
+                    out.writeInt(snapshot.stockQuantities[row]);
+                    out.writeLong(snapshot.categoryIds[row]);
+                    out.writeLong(snapshot.createdAt[row]);
+                    out.writeLong(snapshot.updatedAt[row]);
+                    out.writeLong(nameRefs[row]);
+                    out.writeLong(thumbnailRefs[row]);
+                    out.writeLong(descriptionRefs[row]);
+                }
+                out.flush();
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putLong(MAGIC).putInt(VERSION).putInt(rows).putInt(images).putInt(0)
+                        .putLong(System.currentTimeMillis())
+                        .putLong(heapLength).putLong(indexOffset).putLong(imagesOffset).putLong(recordsOffset)
+                        .flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // records == null loads into heap storage, otherwise the payloads are copied into that store
+    public static CatalogSnapshot read(Path source, OffHeapRecordStore records) throws IOException {
+        MappedCatalog mapped = MappedCatalog.open(source);
+        CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder(mapped.rows, records);
+        for (int row = 0; row < mapped.rows; row++) {
+            for (int i = mapped.imageStart(row); i < mapped.imageStart(row + 1); i++) {
+                builder.addImage(mapped.imageId(i), mapped.imageUrl(i));
+            }
+            builder.addProduct(mapped.id(row), mapped.name(row), mapped.price(row), mapped.thumbnail(row),
+                    mapped.description(row), mapped.stockQuantity(row), mapped.categoryId(row),
+                    mapped.createdAt(row), mapped.updatedAt(row));
+        }
+        return builder.build();
+    }
+
+    private static final class HeapWriter {
+        private final DataOutputStream out;
+        private long position;
+
+        private HeapWriter(DataOutputStream out) {
+            this.out = out;
+        }
+
+        private long write(String value) throws IOException {
+            if (value == null) {
+                return -1;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            long end = position + 4 + bytes.length;
+            if (position / HEAP_CHUNK != (end - 1) / HEAP_CHUNK) {
+                // pad up to the next chunk so the reader can map the heap in independent chunks
+                long padding = HEAP_CHUNK - position % HEAP_CHUNK;
+                for (long i = 0; i < padding; i++) {
+                    out.write(0);
+                }
+                position += padding;
+            }
+            long offset = position;
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            position += 4 + bytes.length;
+            return offset;
+        }
+    }
+
+    /**
+     * Read-only mapping of a snapshot file with random access to every column. The mapped pages are
+     * shared with the OS page cache, cost no heap, and are released when the mapping is garbage collected.
+     */
+    static final class MappedCatalog {
+        final int rows;
+        final int images;
+        final long writtenAt;
+        private final MappedByteBuffer[] heap;
+        // index, images and records sections in one mapping
+        private final MappedByteBuffer body;
+        private final int imagesBase;
+        private final int recordsBase;
+
+        private MappedCatalog(FileChannel channel) throws IOException {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getLong(0) != MAGIC || header.getInt(8) != VERSION) {
+                throw new IOException("Not a catalog snapshot (or an unsupported version)");
+            }
+            rows = header.getInt(12);
+            images = header.getInt(16);
+            writtenAt = header.getLong(24);
+            long heapLength = header.getLong(32);
+            long indexOffset = header.getLong(40);
+            long imagesOffset = header.getLong(48);
+            long recordsOffset = header.getLong(56);
+            long end = recordsOffset + (long) RECORD_SIZE * rows;
+            if (end != channel.size()) {
+                throw new IOException("Truncated catalog snapshot");
+            }
+            if (end - indexOffset > Integer.MAX_VALUE) {
+                throw new IOException("Catalog snapshot too large to map");
+            }
+            int chunks = (int) ((heapLength + HEAP_CHUNK - 1) / HEAP_CHUNK);
+            heap = new MappedByteBuffer[chunks];
+            for (int c = 0; c < chunks; c++) {
+                long start = c * HEAP_CHUNK;
+                heap[c] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + start,
+                        Math.min(HEAP_CHUNK, heapLength - start));
+            }
+            body = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, end - indexOffset);
+            imagesBase = (int) (imagesOffset - indexOffset);
+            recordsBase = (int) (recordsOffset - indexOffset);
+        }
+
+        static MappedCatalog open(Path source) throws IOException {
+            // the mappings stay valid after the channel is closed
+            try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+                return new MappedCatalog(channel);
+            }
+        }
+
+        int imageStart(int row) {
+            return body.getInt(4 * row);
+        }
+
+        long imageId(int image) {
+            return body.getLong(imagesBase + IMAGE_RECORD_SIZE * image);
+        }
+
+        String imageUrl(int image) {
+            return string(body.getLong(imagesBase + IMAGE_RECORD_SIZE * image + 8));
+        }
+
+        long id(int row) {
+            return body.getLong(recordsBase + RECORD_SIZE * row);
+        }
+
+        float price(int row) {
+            return body.getFloat(recordsBase + RECORD_SIZE * row + 8);
+        }
+
+        int stockQuantity(int row) {
+            return body.getInt(recordsBase + RECORD_SIZE * row + 12);
+        }
+
+        long categoryId(int row) {
+            return body.getLong(recordsBase + RECORD_SIZE * row + 16);
+        }
+
+        long createdAt(int row) {
+            return body.getLong(recordsBase + RECORD_SIZE * row + 24);
+        }
+
+        long updatedAt(int row) {
+            return body.getLong(recordsBase + RECORD_SIZE * row + 32);
+        }
+
+        String name(int row) {
+            return string(body.getLong(recordsBase + RECORD_SIZE * row + 40));
+        }
+
+        String thumbnail(int row) {
+            return string(body.getLong(recordsBase + RECORD_SIZE * row + 48));
+        }
+
+        String description(int row) {
+            return string(body.getLong(recordsBase + RECORD_SIZE * row + 56));
+        }
+
+        private String string(long offset) {
+            if (offset < 0) {
+                return null;
+            }
+            MappedByteBuffer chunk = heap[(int) (offset / HEAP_CHUNK)];
+            int position = (int) (offset % HEAP_CHUNK);
+            byte[] bytes = new byte[chunk.getInt(position)];
+            chunk.get(position + 4, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.project.shopapp.services.Catalog;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Rows of one snapshot presorted by price, creation time and units sold. Each order is an int[]
+ * permutation of rows sorted by (32-bit key, row); rows are in id order, so ties go by id. A page in
+ * any order, filtered by a RowSet (category, keyword matches), is a walk along the permutation.
+ * Applying a batch of changes remaps the surviving rows in one pass and merges the few changed rows
+ * back in, instead of sorting the whole catalog again.
+ */
+final class CatalogSortIndex {
+    private static final int PRICE = 0;
+    private static final int CREATED = 1;
+    private static final int POPULARITY = 2;
+    // a filter keeping at most 1/16 of the rows is sorted on its own instead of walking the permutation
+    private static final int SPARSE_FILTER_RATIO = 16;
+
+    private final CatalogSnapshot snapshot;
+    private final LongLongHashIndex unitsSold;
+    private final int[][] orders;
+
+    private CatalogSortIndex(CatalogSnapshot snapshot, LongLongHashIndex unitsSold, int[][] orders) {
+        this.snapshot = snapshot;
+        this.unitsSold = unitsSold;
+        this.orders = orders;
+    }
+
+    static CatalogSortIndex build(CatalogSnapshot snapshot, LongLongHashIndex unitsSold) {
+        CatalogSortIndex index = new CatalogSortIndex(snapshot, unitsSold, new int[3][]);
+        for (int field = 0; field < 3; field++) {
+            index.orders[field] = index.sortedRows(field);
+        }
+        return index;
+    }
+
+    CatalogSnapshot snapshot() {
+        return snapshot;
+    }
+
+    // same snapshot, popularity order recomputed from fresh sales counts
+    CatalogSortIndex withUnitsSold(LongLongHashIndex sold) {
+        CatalogSortIndex index = new CatalogSortIndex(snapshot, sold, orders.clone());
+        index.orders[POPULARITY] = index.sortedRows(POPULARITY);
+        return index;
+    }
+
+    // next is this.snapshot with the products in changedIds inserted, replaced or removed
+    CatalogSortIndex withChanges(CatalogSnapshot next, Collection<Long> changedIds) {
+        Set<Long> changed = changedIds instanceof Set<Long> set ? set : new HashSet<>(changedIds);
+        // old row -> new row for products that did not change, -1 otherwise
+        int[] remap = new int[snapshot.size()];
+        int newRow = 0;
+        for (int row = 0; row < snapshot.size(); row++) {
+            long id = snapshot.idAt(row);
+            while (newRow < next.size() && next.idAt(newRow) < id) {
+                newRow++;
+            }
+            boolean kept = newRow < next.size() && next.idAt(newRow) == id && !changed.contains(id);
+            remap[row] = kept ? newRow : -1;
+        }
+        int[] changedRows = changed.stream()
+                .mapToInt(id -> next.rowOf(id))
+                .filter(row -> row >= 0)
+                .toArray();
+
+        CatalogSortIndex index = new CatalogSortIndex(next, unitsSold, new int[3][]);
+        for (int field = 0; field < 3; field++) {
+            index.orders[field] = index.merge(field, orders[field], remap, changedRows);
+        }
+        return index;
+    }
+
+    // rows of a page in the given order; filter == null keeps every row
+    int collect(ProductSort sort, RowSet filter, long afterKey, long afterId, boolean hasCursor,
+                long skip, int[] page) {
+        int[] order = orders[field(sort)];
+        boolean reversed = sort == ProductSort.PRICE_DESC || sort == ProductSort.NEWEST;
+        if (filter != null && (long) filter.cardinality() * SPARSE_FILTER_RATIO <= order.length) {
+            return collectSparse(field(sort), reversed, filter, afterKey, afterId, hasCursor, skip, page);
+        }
+        int position = hasCursor ? startAfter(order, field(sort), afterKey, afterId, reversed) : 0;
+        int count = 0;
+        long skipped = 0;
+        for (int k = position; k < order.length && count < page.length; k++) {
+            int row = order[reversed ? order.length - 1 - k : k];
+            if (filter != null && !filter.contains(row)) {
+                continue;
+            }
+            if (skipped < skip) {
+                skipped++;
+                continue;
+            }
+            page[count++] = row;
+        }
+        return count;
+    }
+
+    // same result as walking the permutation, but only the filter's rows are keyed and sorted
+    private int collectSparse(int field, boolean reversed, RowSet filter, long afterKey, long afterId,
+                              boolean hasCursor, long skip, int[] page) {
+        long[] composite = new long[filter.cardinality()];
+        int size = 0;
+        for (int row = filter.next(0); row >= 0; row = filter.next(row + 1)) {
+            long key = key(field, row);
+            if (hasCursor) {
+                int cmp = Long.compare(key, afterKey);
+                if (cmp == 0) {
+                    cmp = Long.compare(snapshot.idAt(row), afterId);
+                }
+                if (reversed ? cmp >= 0 : cmp <= 0) {
+                    continue;
+                }
+            }
+            composite[size++] = composite(key, row);
+        }
+        Arrays.sort(composite, 0, size);
+        int count = 0;
+        for (long k = skip; k < size && count < page.length; k++) {
+            page[count++] = (int) composite[reversed ? size - 1 - (int) k : (int) k];
+        }
+        return count;
+    }
+
+    long keyOf(ProductSort sort, int row) {
+        return key(field(sort), row);
+    }
+
+    private static int field(ProductSort sort) {
+        return switch (sort) {
+            case PRICE_ASC, PRICE_DESC -> PRICE;
+            case NEWEST -> CREATED;
+            case POPULAR -> POPULARITY;
+            default -> throw new IllegalArgumentException("Not a presorted order: " + sort);
+        };
+    }
+
+    // unsigned 32-bit key whose ascending order is the order of the field
+    private long key(int field, int row) {
+        switch (field) {
+            case PRICE:
+                int bits = Float.floatToIntBits(snapshot.priceAt(row));
+                bits ^= (bits >> 31) & 0x7fffffff;
+                return (bits ^ 0x80000000) & 0xffffffffL;
+            case CREATED:
+                long seconds = snapshot.createdAtMillis(row) / 1000;
+                return Math.max(0, Math.min(0xffffffffL, seconds));
+            default:
+                // most sold first
+                long sold = unitsSold == null ? 0 : Math.max(0, unitsSold.get(snapshot.idAt(row)));
+                return 0xffffffffL - Math.min(0xffffffffL, sold);
+        }
+    }
+
+    // (key, row) as one long whose signed order is the unsigned order of the key, then the row
+    private static long composite(long key, int row) {
+        return (key ^ 0x80000000L) << 32 | row;
+    }
+
+    private int[] sortedRows(int field) {
+        long[] composite = new long[snapshot.size()];
+        for (int row = 0; row < composite.length; row++) {
+            composite[row] = composite(key(field, row), row);
+        }
+        Arrays.parallelSort(composite);
+        int[] rows = new int[composite.length];
+        for (int k = 0; k < rows.length; k++) {
+            rows[k] = (int) composite[k];
+        }
+        return rows;
+    }
+
+    // old order with rows remapped (relative order is unchanged) merged with the sorted changed rows
+    private int[] merge(int field, int[] oldOrder, int[] remap, int[] changedRows) {
+        long[] inserted = new long[changedRows.length];
+        for (int k = 0; k < changedRows.length; k++) {
+            inserted[k] = composite(key(field, changedRows[k]), changedRows[k]);
+        }
+        Arrays.sort(inserted);
+        int[] merged = new int[snapshot.size()];
+        int size = 0;
+        int next = 0;
+        for (int oldRow : oldOrder) {
+            int row = remap[oldRow];
+            if (row < 0) {
+                continue;
+            }
+            long composite = composite(key(field, row), row);
+            while (next < inserted.length && inserted[next] < composite) {
+                merged[size++] = (int) inserted[next++];
+            }
+            merged[size++] = row;
+        }
+        while (next < inserted.length) {
+            merged[size++] = (int) inserted[next++];
+        }
+        return merged;
+    }
+
+    // first position (in walking order) strictly after (key, id)
+    private int startAfter(int[] order, int field, long afterKey, long afterId, boolean reversed) {
+        int low = 0;
+        int high = order.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int row = order[reversed ? order.length - 1 - mid : mid];
+            int cmp = Long.compare(key(field, row), afterKey);
+            if (cmp == 0) {
+                cmp = Long.compare(snapshot.idAt(row), afterId);
+            }
+            boolean beforeOrAt = reversed ? cmp >= 0 : cmp <= 0;
+            if (beforeOrAt) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,37 @@
+package com.project.shopapp.services.Catalog;
+
+import com.project.shopapp.responses.Metrics.CatalogMetricsResponse;
+import com.project.shopapp.responses.Product.ProductFacetsResponse;
+import com.project.shopapp.responses.Product.ProductResponse;
+
+import java.util.Collection;
+
+public interface ICatalogService {
+    // false until the first snapshot is loaded: callers fall back to the database
+    boolean isReady();
+
+    // one page of products (all, or query.productIds) in query.sort order; null when not ready
+    CatalogPage findProducts(CatalogQuery query);
+
+    ProductResponse findProduct(long productId);
+
+    // category of the product in the current snapshot; null when unknown or not ready
+    Long categoryOf(long productId);
+
+    // changes whenever any product listing could change
+    long getVersion();
+
+    // changes whenever the product's response changes (id and updated_at); null when unknown
+    String productVersion(long productId);
+
+    // next_cursor continuing right after productId in the given order; null when it is not in the catalog
+    String cursorAfter(ProductSort sort, long productId);
+
+    // category and price-range counts over productIds (null = every product); null when not ready
+    ProductFacetsResponse getFacets(Collection<Long> productIds, Long categoryId);
+
+    CatalogMetricsResponse getMetrics();
+
+    // call after a product or its images changed; applied once the surrounding transaction commits
+    void productChanged(Long productId);
+}
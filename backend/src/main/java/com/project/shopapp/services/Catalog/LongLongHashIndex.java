@@ -0,0 +1,52 @@
+package com.project.shopapp.services.Catalog;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing long -> long map over two primitive arrays (no boxing, no per-entry objects).
+ * Built once and then only read, so it can be shared by concurrent readers without locking.
+ */
+public final class LongLongHashIndex {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final long[] keys;
+    private final long[] values;
+    private final int mask;
+
+    // keys must be distinct and never Long.MIN_VALUE
+    public LongLongHashIndex(long[] keys, long[] values, int count) {
+        int capacity = Integer.highestOneBit(Math.max(4, count * 2 - 1)) << 1;
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(this.keys, EMPTY);
+        for (int i = 0; i < count; i++) {
+            int slot = slotOf(keys[i]);
+            while (this.keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            this.keys[slot] = keys[i];
+            this.values[slot] = values[i];
+        }
+    }
+
+    // value of key, or -1
+    public long get(long key) {
+        int slot = slotOf(key);
+        while (true) {
+            long current = keys[slot];
+            if (current == key) {
+                return values[slot];
+            }
+            if (current == EMPTY) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private int slotOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
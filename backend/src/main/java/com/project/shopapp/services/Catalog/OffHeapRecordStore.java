@@ -0,0 +1,139 @@
+package com.project.shopapp.services.Catalog;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Append-only store of ProductPayload records in direct ByteBuffer segments, outside the Java heap,
+ * so millions of names, descriptions and image URLs are not objects the GC has to trace.
+ * A record is addressed by (segment << 32 | position) and decoded only when a page needs it.
+ * Records are never overwritten: a changed product is appended again and the old bytes are counted
+ * as dead; CatalogSnapshot copies the live records into a fresh store once too much is dead.
+ * Only the catalog refresh thread appends; readers reach records through a snapshot published with
+ * a volatile write, which makes the bytes visible to them.
+ */
+public final class OffHeapRecordStore {
+    private final int segmentBytes;
+    private final List<ByteBuffer> segments = new CopyOnWriteArrayList<>();
+    private ByteBuffer current;
+    private long usedBytes;
+    private long deadBytes;
+
+    public OffHeapRecordStore(int segmentBytes) {
+        this.segmentBytes = segmentBytes;
+    }
+
+    public OffHeapRecordStore emptyCopy() {
+        return new OffHeapRecordStore(segmentBytes);
+    }
+
+    public long append(String name, String thumbnail, String description, long[] imageIds, String[] imageUrls) {
+        byte[][] strings = new byte[3 + imageUrls.length][];
+        strings[0] = encode(name);
+        strings[1] = encode(thumbnail);
+        strings[2] = encode(description);
+        int length = 4 + 2;
+        for (int i = 0; i < 3; i++) {
+            length += 4 + (strings[i] == null ? 0 : strings[i].length);
+        }
+        for (int i = 0; i < imageUrls.length; i++) {
+            strings[3 + i] = encode(imageUrls[i]);
+            length += 8 + 4 + (strings[3 + i] == null ? 0 : strings[3 + i].length);
+        }
+        ByteBuffer segment = segmentFor(length);
+        int position = segment.position();
+        segment.putInt(length);
+        putString(segment, strings[0]);
+        putString(segment, strings[1]);
+        putString(segment, strings[2]);
+        segment.putShort((short) imageUrls.length);
+        for (int i = 0; i < imageUrls.length; i++) {
+            segment.putLong(imageIds[i]);
+            putString(segment, strings[3 + i]);
+        }
+        usedBytes += length;
+        return ((long) (segments.size() - 1) << 32) | position;
+    }
+
+    public ProductPayload read(long address) {
+        ByteBuffer segment = segments.get((int) (address >>> 32));
+        int position = (int) address + 4;
+        String[] strings = new String[3];
+        for (int i = 0; i < 3; i++) {
+            int length = segment.getInt(position);
+            strings[i] = decode(segment, position + 4, length);
+            position += 4 + Math.max(0, length);
+        }
+        int images = segment.getShort(position);
+        position += 2;
+        long[] imageIds = new long[images];
+        String[] imageUrls = new String[images];
+        for (int i = 0; i < images; i++) {
+            imageIds[i] = segment.getLong(position);
+            int length = segment.getInt(position + 8);
+            imageUrls[i] = decode(segment, position + 12, length);
+            position += 12 + Math.max(0, length);
+        }
+        return new ProductPayload(strings[0], strings[1], strings[2], imageIds, imageUrls);
+    }
+
+    // name only, without decoding the rest of the record
+    public String readName(long address) {
+        ByteBuffer segment = segments.get((int) (address >>> 32));
+        int position = (int) address + 4;
+        return decode(segment, position + 4, segment.getInt(position));
+    }
+
+    public void release(long address) {
+        deadBytes += segments.get((int) (address >>> 32)).getInt((int) address);
+    }
+
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public long getDeadBytes() {
+        return deadBytes;
+    }
+
+    public long getAllocatedBytes() {
+        long allocated = 0;
+        for (ByteBuffer segment : segments) {
+            allocated += segment.capacity();
+        }
+        return allocated;
+    }
+
+    private ByteBuffer segmentFor(int length) {
+        if (current == null || current.remaining() < length) {
+            // a record larger than a segment gets a segment of its own
+            current = ByteBuffer.allocateDirect(Math.max(segmentBytes, length));
+            segments.add(current);
+        }
+        return current;
+    }
+
+    private static byte[] encode(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putString(ByteBuffer segment, byte[] bytes) {
+        if (bytes == null) {
+            segment.putInt(-1);
+            return;
+        }
+        segment.putInt(bytes.length);
+        segment.put(bytes);
+    }
+
+    private static String decode(ByteBuffer segment, int position, int length) {
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        segment.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
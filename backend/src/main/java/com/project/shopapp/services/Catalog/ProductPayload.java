@@ -0,0 +1,15 @@
+package com.project.shopapp.services.Catalog;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// the variable-length part of a catalog row: everything except the primitive columns
+@Getter
+@AllArgsConstructor
+public class ProductPayload {
+    private final String name;
+    private final String thumbnail;
+    private final String description;
+    private final long[] imageIds;
+    private final String[] imageUrls;
+}
@@ -0,0 +1,42 @@
+package com.project.shopapp.services.Catalog;
+
+import org.springframework.data.domain.Sort;
+
+// orders offered by GET /products?sort=
+public enum ProductSort {
+    ID("id"),
+    PRICE_ASC("price_asc"),
+    PRICE_DESC("price_desc"),
+    NEWEST("newest"),
+    POPULAR("popular");
+
+    private final String param;
+
+    ProductSort(String param) {
+        this.param = param;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    // unknown or empty values fall back to id order
+    public static ProductSort fromParam(String value) {
+        for (ProductSort sort : values()) {
+            if (sort.param.equalsIgnoreCase(value)) {
+                return sort;
+            }
+        }
+        return ID;
+    }
+
+    // the same order for the database fallback; popularity is not a column, so it falls back to id
+    public Sort toSort() {
+        return switch (this) {
+            case PRICE_ASC -> Sort.by("price").ascending().and(Sort.by("id").ascending());
+            case PRICE_DESC -> Sort.by("price").descending().and(Sort.by("id").descending());
+            case NEWEST -> Sort.by("createdAt").descending().and(Sort.by("id").descending());
+            default -> Sort.by("id").ascending();
+        };
+    }
+}
@@ -0,0 +1,210 @@
+package com.project.shopapp.services.Catalog;
+
+import java.util.Arrays;
+
+/**
+ * Fixed set of snapshot row numbers, either as a plain bitmap or, for small sets, as a sorted slice
+ * of row numbers (a bitmap costs capacity / 8 bytes however few rows it holds). Unlike
+ * java.util.BitSet the bitmap can jump to the n-th member by popcounting whole words, which is what
+ * paging deep into a category needs.
+ */
+public final class RowSet {
+    // a set is kept sparse while 4 bytes per member is less than the bitmap's capacity / 8 bytes
+    private static final int SPARSE_RATIO = 32;
+
+    private final long[] words;
+    // sparse form: members are rows[from .. to), ascending
+    private final int[] rows;
+    private final int from;
+    private final int to;
+    private final int sparseCapacity;
+    private int cardinality;
+
+    public RowSet(int capacity) {
+        this(new long[(capacity + 63) >>> 6], 0);
+    }
+
+    private RowSet(long[] words, int cardinality) {
+        this.words = words;
+        this.cardinality = cardinality;
+        this.rows = null;
+        this.from = 0;
+        this.to = 0;
+        this.sparseCapacity = 0;
+    }
+
+    private RowSet(int[] rows, int from, int to, int capacity) {
+        this.words = null;
+        this.rows = rows;
+        this.from = from;
+        this.to = to;
+        this.sparseCapacity = capacity;
+        this.cardinality = to - from;
+    }
+
+    // sortedRows[from .. to) (ascending, no duplicates, not copied) as a sparse or bitmap set
+    static RowSet of(int[] sortedRows, int from, int to, int capacity) {
+        if ((long) (to - from) * SPARSE_RATIO < capacity) {
+            return new RowSet(sortedRows, from, to, capacity);
+        }
+        RowSet bitmap = new RowSet(capacity);
+        for (int k = from; k < to; k++) {
+            bitmap.add(sortedRows[k]);
+        }
+        return bitmap;
+    }
+
+    // only while building a snapshot; published sets are never modified
+    void add(int row) {
+        long mask = 1L << row;
+        int index = row >>> 6;
+        if ((words[index] & mask) == 0) {
+            words[index] |= mask;
+            cardinality++;
+        }
+    }
+
+    boolean isSparse() {
+        return words == null;
+    }
+
+    public boolean contains(int row) {
+        if (words == null) {
+            return Arrays.binarySearch(rows, from, to, row) >= 0;
+        }
+        int index = row >>> 6;
+        return row >= 0 && index < words.length && (words[index] & (1L << row)) != 0;
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public int capacity() {
+        return words == null ? sparseCapacity : words.length << 6;
+    }
+
+    // row of the n-th member (0-based) in ascending order, or -1
+    public int nth(int n) {
+        if (n < 0 || n >= cardinality) {
+            return -1;
+        }
+        if (words == null) {
+            return rows[from + n];
+        }
+        int remaining = n;
+        for (int i = 0; i < words.length; i++) {
+            int count = Long.bitCount(words[i]);
+            if (remaining < count) {
+                long word = words[i];
+                for (int k = 0; k < remaining; k++) {
+                    word &= word - 1;
+                }
+                return (i << 6) + Long.numberOfTrailingZeros(word);
+            }
+            remaining -= count;
+        }
+        return -1;
+    }
+
+    public int next(int fromRow) {
+        if (fromRow < 0) {
+            fromRow = 0;
+        }
+        if (words == null) {
+            int position = lowerBound(fromRow);
+            return position < to ? rows[position] : -1;
+        }
+        int index = fromRow >>> 6;
+        if (index >= words.length) {
+            return -1;
+        }
+        long word = words[index] & (-1L << fromRow);
+        while (true) {
+            if (word != 0) {
+                return (index << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++index == words.length) {
+                return -1;
+            }
+            word = words[index];
+        }
+    }
+
+    public int previous(int fromRow) {
+        if (fromRow < 0) {
+            return -1;
+        }
+        if (words == null) {
+            int position = fromRow == Integer.MAX_VALUE ? to : lowerBound(fromRow + 1);
+            return position > from ? rows[position - 1] : -1;
+        }
+        int index = fromRow >>> 6;
+        if (index >= words.length) {
+            index = words.length - 1;
+            fromRow = (index << 6) + 63;
+        }
+        if (index < 0) {
+            return -1;
+        }
+        long word = words[index] & (-1L >>> (63 - (fromRow & 63)));
+        while (true) {
+            if (word != 0) {
+                return (index << 6) + 63 - Long.numberOfLeadingZeros(word);
+            }
+            if (index-- == 0) {
+                return -1;
+            }
+            word = words[index];
+        }
+    }
+
+    public RowSet and(RowSet other) {
+        if (words == null || other.words == null) {
+            RowSet sparse = words == null ? this : other;
+            RowSet probe = sparse == this ? other : this;
+            int[] result = new int[Math.min(sparse.cardinality, probe.cardinality)];
+            int count = 0;
+            for (int k = sparse.from; k < sparse.to && count < result.length; k++) {
+                if (probe.contains(sparse.rows[k])) {
+                    result[count++] = sparse.rows[k];
+                }
+            }
+            return new RowSet(result, 0, count, Math.min(capacity(), other.capacity()));
+        }
+        int length = Math.min(words.length, other.words.length);
+        long[] result = new long[length];
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            result[i] = words[i] & other.words[i];
+            count += Long.bitCount(result[i]);
+        }
+        return new RowSet(result, count);
+    }
+
+    public int andCardinality(RowSet other) {
+        if (words == null || other.words == null) {
+            RowSet sparse = words == null ? this : other;
+            RowSet probe = sparse == this ? other : this;
+            int count = 0;
+            for (int k = sparse.from; k < sparse.to; k++) {
+                if (probe.contains(sparse.rows[k])) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        int length = Math.min(words.length, other.words.length);
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            count += Long.bitCount(words[i] & other.words[i]);
+        }
+        return count;
+    }
+
+    // first position in [from, to) whose row is >= row
+    private int lowerBound(int row) {
+        int position = Arrays.binarySearch(rows, from, to, row);
+        return position >= 0 ? position : -position - 1;
+    }
+}
@@ -4,6 +4,7 @@ import com.project.shopapp.dtos.CategoryDTO;
 import com.project.shopapp.exceptions.DataNotFoundException;
 import com.project.shopapp.models.Category;
 import com.project.shopapp.repositories.CategoryRepository;
+import com.project.shopapp.services.Suggest.ISuggestService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,6 +15,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CategoryService implements ICategoryService {
     private final CategoryRepository categoryRepository;
+    private final ISuggestService suggestService;
     @Override
     @Transactional
     public Category createCategory(CategoryDTO categoryDTO) {
@@ -21,7 +23,9 @@ public class CategoryService implements ICategoryService {
                 .builder()
                 .name(categoryDTO.getName())
                 .build();
-        return categoryRepository.save(newCategory);
+        Category saved = categoryRepository.save(newCategory);
+        suggestService.categoriesChanged();
+        return saved;
     }
 
     @Override
@@ -42,6 +46,7 @@ public class CategoryService implements ICategoryService {
         Category existingCategory = getCategoryById(categoryId);
         existingCategory.setName(categoryDTO.getName());
         categoryRepository.save(existingCategory);
+        suggestService.categoriesChanged();
         return existingCategory;
     }
 
@@ -57,6 +62,7 @@ public class CategoryService implements ICategoryService {
             }
         }
         categoryRepository.deleteById(id);
+        suggestService.categoriesChanged();
 
     }
 }
@@ -0,0 +1,284 @@
+package com.project.shopapp.services.Image;
+
+import com.project.shopapp.dtos.ChunkedUploadDTO;
+import com.project.shopapp.dtos.ProductImageDTO;
+import com.project.shopapp.exceptions.DataNotFoundException;
+import com.project.shopapp.exceptions.InvalidParamException;
+import com.project.shopapp.exceptions.TooManyRequestsException;
+import com.project.shopapp.exceptions.UploadOffsetMismatchException;
+import com.project.shopapp.models.ProductImage;
+import com.project.shopapp.repositories.ProductImageRepository;
+import com.project.shopapp.repositories.ProductRepository;
+import com.project.shopapp.responses.Product.ChunkedUploadResponse;
+import com.project.shopapp.services.Product.IProductService;
+import com.project.shopapp.utils.HashUtils;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resumable upload for large product images: the client declares size and SHA-256, sends the bytes
+ * as Content-Range chunks (re-sending from the last acknowledged offset after a dropped connection)
+ * and completes. The temp file is preallocated to the full size and each chunk is written in place
+ * with positional FileChannel writes; a chunk cut off halfway still counts up to the last byte received.
+ * Sessions live in memory on the node that created them and expire after image.chunked-upload.ttl-hours.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChunkedUploadService implements IChunkedUploadService {
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedUploadService.class);
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+)");
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final IImageStore imageStore;
+    private final IImageUploadService imageUploadService;
+    private final IImageVariantService imageVariantService;
+    private final IProductService productService;
+    private final ProductRepository productRepository;
+    private final ProductImageRepository productImageRepository;
+
+    @Value("${image.chunked-upload.max-bytes:104857600}")
+    private long maxBytes;
+    @Value("${image.chunked-upload.max-chunk-bytes:8388608}")
+    private long maxChunkBytes;
+    @Value("${image.chunked-upload.max-sessions:200}")
+    private int maxSessions;
+    @Value("${image.chunked-upload.ttl-hours:24}")
+    private long ttlHours;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    private static final class UploadSession {
+        private final String id;
+        private final Long productId;
+        private final String fileName;
+        private final long size;
+        private final String sha256;
+        private final Path file;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile long offset;
+        private volatile LocalDateTime expiresAt;
+
+        private UploadSession(String id, Long productId, String fileName, long size, String sha256,
+                              Path file, LocalDateTime expiresAt) {
+            this.id = id;
+            this.productId = productId;
+            this.fileName = fileName;
+            this.size = size;
+            this.sha256 = sha256;
+            this.file = file;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    @Override
+    public ChunkedUploadResponse initiate(Long productId, ChunkedUploadDTO chunkedUploadDTO) throws Exception {
+        if (!productRepository.existsById(productId)) {
+            throw new DataNotFoundException("Cannot find product with id: " + productId);
+        }
+        if (!chunkedUploadDTO.getContentType().startsWith("image/")) {
+            throw new InvalidParamException("File must be an image");
+        }
+        if (chunkedUploadDTO.getSize() > maxBytes) {
+            throw new InvalidParamException("File must be <= " + maxBytes + " bytes");
+        }
+        // fail before any byte is sent; the real check happens again on complete
+        if (productImageRepository.countByProductId(productId) >= ProductImage.MAXIMUM_IMAGES_PER_PRODUCT) {
+            throw new InvalidParamException(
+                    "Number of images must be <= " + ProductImage.MAXIMUM_IMAGES_PER_PRODUCT);
+        }
+        if (sessions.size() >= maxSessions) {
+            throw new TooManyRequestsException("Too many uploads in progress");
+        }
+        String id = UUID.randomUUID().toString().replace("-", "");
+        Path directory = imageStore.getRootDirectory().resolve(".tmp").resolve("chunked");
+        Files.createDirectories(directory);
+        Path file = directory.resolve(id + ".part");
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(chunkedUploadDTO.getSize());
+        }
+        UploadSession session = new UploadSession(id, productId, chunkedUploadDTO.getFileName(),
+                chunkedUploadDTO.getSize(), chunkedUploadDTO.getSha256().toLowerCase(Locale.ROOT), file,
+                LocalDateTime.now().plusHours(ttlHours));
+        sessions.put(id, session);
+        return toResponse(session);
+    }
+
+    @Override
+    public ChunkedUploadResponse getStatus(String uploadId) throws Exception {
+        return toResponse(find(uploadId));
+    }
+
+    @Override
+    public ChunkedUploadResponse writeChunk(String uploadId, String contentRange, InputStream body) throws Exception {
+        UploadSession session = find(uploadId);
+        Matcher matcher = contentRange == null ? null : CONTENT_RANGE.matcher(contentRange.trim());
+        if (matcher == null || !matcher.matches()) {
+            throw new InvalidParamException("Content-Range must be 'bytes start-end/total'");
+        }
+        long start = Long.parseLong(matcher.group(1));
+        long end = Long.parseLong(matcher.group(2));
+        long total = Long.parseLong(matcher.group(3));
+        if (total != session.size || start > end || end >= session.size) {
+            throw new InvalidParamException("Content-Range does not match the upload size " + session.size);
+        }
+        if (end - start + 1 > maxChunkBytes) {
+            throw new InvalidParamException("Chunk must be <= " + maxChunkBytes + " bytes");
+        }
+        // one writer per session; a second connection for the same upload is told where to resume
+        if (!session.lock.tryLock()) {
+            throw new UploadOffsetMismatchException("Another chunk of this upload is being written", session.offset);
+        }
+        try {
+            if (start > session.offset) {
+                throw new UploadOffsetMismatchException("Chunk must start at " + session.offset, session.offset);
+            }
+            session.expiresAt = LocalDateTime.now().plusHours(ttlHours);
+            write(session, start, end - start + 1, body);
+            return toResponse(session);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    @Override
+    public ProductImage complete(String uploadId) throws Exception {
+        UploadSession session = find(uploadId);
+        if (!session.lock.tryLock()) {
+            throw new UploadOffsetMismatchException("A chunk of this upload is still being written", session.offset);
+        }
+        try {
+            if (session.offset != session.size) {
+                throw new UploadOffsetMismatchException("Upload is incomplete", session.offset);
+            }
+            if (!session.sha256.equals(sha256Of(session.file))) {
+                discardSession(session);
+                throw new InvalidParamException("Checksum mismatch, upload discarded");
+            }
+            StoredImage stored;
+            try (InputStream content = Files.newInputStream(session.file)) {
+                stored = imageStore.store(content, session.fileName);
+            }
+            ProductImage productImage;
+            try {
+                productImage = productService.createProductImage(session.productId, ProductImageDTO.builder()
+                        .productId(session.productId)
+                        .imageUrl(stored.getName())
+                        .build());
+            } catch (Exception e) {
+                imageUploadService.discard(List.of(stored));
+                throw e;
+            }
+            imageVariantService.enqueue(stored.getName());
+            discardSession(session);
+            return productImage;
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    @Override
+    public void abort(String uploadId) throws IOException {
+        UploadSession session = sessions.get(uploadId);
+        if (session != null) {
+            discardSession(session);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${image.chunked-upload.cleanup-interval-ms:600000}")
+    public void expireSessions() {
+        LocalDateTime now = LocalDateTime.now();
+        for (UploadSession session : sessions.values()) {
+            if (session.expiresAt.isBefore(now) && session.lock.tryLock()) {
+                try {
+                    discardSession(session);
+                } catch (IOException e) {
+                    logger.warn("Cannot delete expired upload {}: {}", session.id, e.getMessage());
+                } finally {
+                    session.lock.unlock();
+                }
+            }
+        }
+    }
+
+    private UploadSession find(String uploadId) throws DataNotFoundException {
+        UploadSession session = sessions.get(uploadId);
+        if (session == null) {
+            throw new DataNotFoundException("Upload not found or expired: " + uploadId);
+        }
+        return session;
+    }
+
+    // positional writes: a re-sent overlapping chunk simply overwrites the same bytes.
+    // The offset advances after every buffer, so bytes that arrived before a dropped connection are kept.
+    private void write(UploadSession session, long position, long length, InputStream body) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(session.file, StandardOpenOption.WRITE)) {
+            while (written < length) {
+                int read = body.read(buffer, 0, (int) Math.min(buffer.length, length - written));
+                if (read < 0) {
+                    break;
+                }
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    channel.write(chunk, position + written + chunk.position());
+                }
+                written += read;
+                session.offset = Math.max(session.offset, position + written);
+            }
+        }
+    }
+
+    private String sha256Of(Path file) throws IOException {
+        MessageDigest digest = HashUtils.sha256();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(COPY_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void discardSession(UploadSession session) throws IOException {
+        sessions.remove(session.id);
+        Files.deleteIfExists(session.file);
+    }
+
+    private ChunkedUploadResponse toResponse(UploadSession session) {
+        return ChunkedUploadResponse.builder()
+                .uploadId(session.id)
+                .productId(session.productId)
+                .offset(session.offset)
+                .size(session.size)
+                .maxChunkSize(maxChunkBytes)
+                .expiresAt(session.expiresAt)
+                .build();
+    }
+}
@@ -0,0 +1,214 @@
+package com.project.shopapp.services.Image;
+
+import com.project.shopapp.models.ProductImage;
+import com.project.shopapp.utils.HashUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Stores each distinct image once, named by the SHA-256 of its bytes and fanned out into
+ * two directory levels: uploads/ab/cd/abcd...ef.jpg. Identical uploads map to the same file,
+ * so the image name is shared by every row that uses it and the file may only be released once
+ * the last product_images / products.thumbnail reference is gone (see ProductService).
+ * An upload that deduplicated to a file is not referenced until its transaction commits, so every
+ * store() is recorded in a marker next to the file (.abcd...ef.jpg.stored: a generation counter, its
+ * mtime the time of the last store) and the release methods check it under the same lock as store().
+ * The extension comes from the detected image type, so a.jpg and a.jpeg with the same bytes are one file.
+ * Files from before this store (UUID_name in the flat uploads/ directory) are still resolved.
+ */
+@Service
+public class ContentAddressedImageStore implements IImageStore {
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,5}");
+    private static final int LOCK_STRIPES = 64;
+    private static final String MARKER_SUFFIX = ".stored";
+
+    private final Path root;
+    private final Path tempDirectory;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public ContentAddressedImageStore(@Value("${image.store.root:uploads}") String root) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.tempDirectory = this.root.resolve(".tmp");
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @Override
+    public StoredImage store(InputStream content, String originalFilename) throws IOException {
+        Files.createDirectories(tempDirectory);
+        Path temp = Files.createTempFile(tempDirectory, "upload", ".tmp");
+        try {
+            MessageDigest digest = HashUtils.sha256();
+            long size;
+            try (InputStream in = new DigestInputStream(content, digest);
+                 OutputStream out = Files.newOutputStream(temp)) {
+                size = in.transferTo(out);
+            }
+            String name = HexFormat.of().formatHex(digest.digest()) + "." + extensionOf(temp, originalFilename);
+            Path target = resolve(name);
+            synchronized (lockFor(name)) {
+                if (Files.exists(target)) {
+                    return new StoredImage(name, size, false, markStored(target));
+                }
+                Files.createDirectories(target.getParent());
+                // same file system as the temp dir, so the file appears complete or not at all
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                return new StoredImage(name, size, true, markStored(target));
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Path resolve(String imageName) {
+        if (imageName == null || imageName.isEmpty() || imageName.startsWith(".")
+                || imageName.contains("/") || imageName.contains("\\")) {
+            return null;
+        }
+        if (ImageNames.isHashedName(imageName)) {
+            return root.resolve(imageName.substring(0, 2)).resolve(imageName.substring(2, 4)).resolve(imageName);
+        }
+        Path legacy = root.resolve(imageName).normalize();
+        return legacy.getParent().equals(root) ? legacy : null;
+    }
+
+    @Override
+    public Path variantPath(String imageName, int width) {
+        if (ImageNames.isHashedName(imageName)) {
+            return resolve(imageName).resolveSibling(ImageNames.variantName(imageName, width));
+        }
+        return root.resolve("variants").resolve(String.valueOf(width)).resolve(ImageNames.baseName(imageName) + ".jpg");
+    }
+
+    @Override
+    public boolean releaseIfUnchanged(StoredImage image) throws IOException {
+        Path path = resolve(image.getName());
+        if (path == null) {
+            return false;
+        }
+        synchronized (lockFor(image.getName())) {
+            if (readGeneration(markerOf(path)) != image.getGeneration()) {
+                return false;
+            }
+            delete(image.getName(), path);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean releaseIfUnused(String imageName, Instant storedBefore, BooleanSupplier referenced) throws IOException {
+        return reclaimIfUnused(imageName, storedBefore, referenced, path -> delete(imageName, path));
+    }
+
+    @Override
+    public boolean reclaimIfUnused(String imageName, Instant storedBefore, BooleanSupplier referenced,
+                                   FileAction reclaim) throws IOException {
+        Path path = resolve(imageName);
+        if (path == null) {
+            return false;
+        }
+        synchronized (lockFor(imageName)) {
+            Instant lastStored = lastStoredAt(path);
+            if (lastStored == null || !lastStored.isBefore(storedBefore) || referenced.getAsBoolean()) {
+                return false;
+            }
+            reclaim.apply(path);
+            Files.deleteIfExists(markerOf(path));
+            return true;
+        }
+    }
+
+    // a marker whose image is gone (deleted by hand, or a crash between the two deletes)
+    public static boolean isStaleMarker(Path marker) {
+        String name = marker.getFileName().toString();
+        if (!name.startsWith(".") || !name.endsWith(MARKER_SUFFIX)) {
+            return false;
+        }
+        String imageName = name.substring(1, name.length() - MARKER_SUFFIX.length());
+        return ImageNames.isHashedName(imageName) && !Files.exists(marker.resolveSibling(imageName));
+    }
+
+    @Override
+    public Path getRootDirectory() {
+        return root;
+    }
+
+    private Object lockFor(String imageName) {
+        return locks[(imageName.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
+    }
+
+    private void delete(String imageName, Path path) throws IOException {
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(markerOf(path));
+        for (int width : ProductImage.VARIANT_WIDTHS) {
+            Files.deleteIfExists(variantPath(imageName, width));
+        }
+    }
+
+    // last store() of the file: the marker's mtime, or the file's own for files stored before markers
+    private static Instant lastStoredAt(Path path) throws IOException {
+        Path marker = markerOf(path);
+        if (Files.exists(marker)) {
+            return Files.getLastModifiedTime(marker).toInstant();
+        }
+        return Files.exists(path) ? Files.getLastModifiedTime(path).toInstant() : null;
+    }
+
+    // caller holds the name's lock
+    private static long markStored(Path path) throws IOException {
+        Path marker = markerOf(path);
+        long generation = readGeneration(marker) + 1;
+        Files.writeString(marker, Long.toString(generation));
+        return generation;
+    }
+
+    private static long readGeneration(Path marker) {
+        try {
+            return Long.parseLong(Files.readString(marker).trim());
+        } catch (IOException | NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // dot-prefixed, so directory walks that skip hidden names skip it
+    private static Path markerOf(Path path) {
+        return path.resolveSibling("." + path.getFileName() + MARKER_SUFFIX);
+    }
+
+    // the detected image type, else the upload's own extension
+    private static String extensionOf(Path file, String originalFilename) throws IOException {
+        String sniffed = ImageNames.sniffExtension(file);
+        if (sniffed != null) {
+            return sniffed;
+        }
+        String extension = extensionOf(originalFilename);
+        return extension.equals("jpeg") ? "jpg" : extension;
+    }
+
+    private static String extensionOf(String filename) {
+        if (filename != null) {
+            int dot = filename.lastIndexOf('.');
+            if (dot >= 0) {
+                String extension = filename.substring(dot + 1).toLowerCase(Locale.ROOT);
+                if (EXTENSION.matcher(extension).matches()) {
+                    return extension;
+                }
+            }
+        }
+        return "img";
+    }
+}
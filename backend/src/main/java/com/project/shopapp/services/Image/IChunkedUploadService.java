@@ -0,0 +1,22 @@
+package com.project.shopapp.services.Image;
+
+import com.project.shopapp.dtos.ChunkedUploadDTO;
+import com.project.shopapp.models.ProductImage;
+import com.project.shopapp.responses.Product.ChunkedUploadResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface IChunkedUploadService {
+    ChunkedUploadResponse initiate(Long productId, ChunkedUploadDTO chunkedUploadDTO) throws Exception;
+
+    ChunkedUploadResponse getStatus(String uploadId) throws Exception;
+
+    // contentRange is the Content-Range header: "bytes start-end/total"
+    ChunkedUploadResponse writeChunk(String uploadId, String contentRange, InputStream body) throws Exception;
+
+    // verifies the checksum and creates the ProductImage
+    ProductImage complete(String uploadId) throws Exception;
+
+    void abort(String uploadId) throws IOException;
+}
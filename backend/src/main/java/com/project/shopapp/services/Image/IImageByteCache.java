@@ -0,0 +1,17 @@
+package com.project.shopapp.services.Image;
+
+import com.project.shopapp.responses.Metrics.ImageCacheMetricsResponse;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+public interface IImageByteCache {
+    // read-only view of the cached bytes of this version of the file (content hash, or mtime and
+    // length for legacy names), or null on a miss / bypass
+    ByteBuffer get(String imageName, Path file, String version, long size) throws IOException;
+
+    void recordServed(long bytes, boolean fromCache);
+
+    ImageCacheMetricsResponse getMetrics();
+}
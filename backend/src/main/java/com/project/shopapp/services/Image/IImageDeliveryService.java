@@ -0,0 +1,12 @@
+package com.project.shopapp.services.Image;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+public interface IImageDeliveryService {
+    // size: requested display width in px, null for the original upload
+    void serveImage(String imageName, Integer size,
+                    HttpServletRequest request, HttpServletResponse response) throws IOException;
+}
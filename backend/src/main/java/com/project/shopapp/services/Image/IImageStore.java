@@ -0,0 +1,33 @@
+package com.project.shopapp.services.Image;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.function.BooleanSupplier;
+
+public interface IImageStore {
+    interface FileAction {
+        void apply(Path file) throws IOException;
+    }
+
+    StoredImage store(InputStream content, String originalFilename) throws IOException;
+
+    // file of an image name, or null when the name is not a valid image name
+    Path resolve(String imageName);
+
+    Path variantPath(String imageName, int width);
+
+    // deletes the file and its variants unless it was stored again since, e.g. an upload that failed
+    boolean releaseIfUnchanged(StoredImage image) throws IOException;
+
+    // deletes the file and its variants unless it was stored at or after storedBefore or referenced
+    // (checked under the lock that store() takes) says it is still used
+    boolean releaseIfUnused(String imageName, Instant storedBefore, BooleanSupplier referenced) throws IOException;
+
+    // same checks, but hands the file to reclaim (delete or quarantine) instead of deleting it
+    boolean reclaimIfUnused(String imageName, Instant storedBefore, BooleanSupplier referenced,
+                            FileAction reclaim) throws IOException;
+
+    Path getRootDirectory();
+}
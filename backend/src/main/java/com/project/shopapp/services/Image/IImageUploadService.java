@@ -0,0 +1,14 @@
+package com.project.shopapp.services.Image;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.List;
+
+public interface IImageUploadService {
+    // stores all files or none: on failure the files created by this call are removed again
+    List<StoredImage> storeAll(List<MultipartFile> files) throws IOException;
+
+    // removes the files this batch created (deduplicated ones belong to other rows)
+    void discard(List<StoredImage> images);
+}
@@ -0,0 +1,11 @@
+package com.project.shopapp.services.Image;
+
+import java.nio.file.Path;
+
+public interface IImageVariantService {
+    // schedule resizing of an uploaded image; returns immediately
+    void enqueue(String imageName);
+
+    // the generated variant closest to requestedWidth, or null while it does not exist yet
+    Path findVariant(String imageName, int requestedWidth);
+}
@@ -0,0 +1,223 @@
+package com.project.shopapp.services.Image;
+
+import com.project.shopapp.responses.Metrics.ImageCacheMetricsResponse;
+import com.project.shopapp.utils.FrequencySketch;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the bytes of small, frequently requested images in direct (off-heap) buffers so hot images
+ * are served without opening the file. The total size is capped by image.cache.max-bytes.
+ * A new file is only admitted when the frequency sketch says it is requested more often than a
+ * sampled victim (TinyLFU), so a crawler walking the whole catalog once cannot flush the hot set.
+ * Keys include the file's version (the content hash of hashed names, mtime and length of legacy
+ * ones): a rewritten legacy file is simply a different key, and the stale entry ages out through eviction.
+ */
+@Service
+public class ImageByteCache implements IImageByteCache {
+    @Value("${image.cache.enabled:true}")
+    private boolean enabled;
+    @Value("${image.cache.max-bytes:67108864}")
+    private long maxBytes;
+    @Value("${image.cache.max-entry-bytes:262144}")
+    private long maxEntryBytes;
+    @Value("${image.cache.eviction-sample:8}")
+    private int evictionSample;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // dense copy of the entries, only touched under the lock, for O(1) random eviction sampling;
+    // grows while the bytes allow it, up to maxSlots
+    private Entry[] slots;
+    private int slotCount;
+    private int maxSlots;
+    // slots promised to reserve() calls whose file is still being read
+    private int reservedSlots;
+    private long usedBytes;
+    private FrequencySketch sketch;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+    private final LongAdder admissions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder bytesFromCache = new LongAdder();
+    private final LongAdder bytesFromDisk = new LongAdder();
+
+    private static final class Entry {
+        private final String key;
+        private final ByteBuffer bytes;
+        private int slot;
+
+        private Entry(String key, ByteBuffer bytes) {
+            this.key = key;
+            this.bytes = bytes;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        // sized for entries of ~16 KB on average; the sketch tracks a few times more keys than fit
+        int expectedEntries = (int) Math.min(1 << 20, Math.max(64, maxBytes / 16_384));
+        slots = new Entry[expectedEntries];
+        // small icons are far below the average
+        maxSlots = (int) Math.min(1 << 22, Math.max(expectedEntries, maxBytes / 1024));
+        sketch = new FrequencySketch(Math.max(expectedEntries * 4, maxSlots));
+    }
+
+    @Override
+    public ByteBuffer get(String imageName, Path file, String version, long size) throws IOException {
+        if (!enabled || size > maxEntryBytes || size == 0) {
+            bypassed.increment();
+            return null;
+        }
+        String key = imageName + '@' + version;
+        sketch.increment(key);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            hits.increment();
+            return entry.bytes.asReadOnlyBuffer();
+        }
+        misses.increment();
+        if (!reserve(key, size)) {
+            rejections.increment();
+            return null;
+        }
+        ByteBuffer bytes;
+        try {
+            bytes = read(file, size);
+        } catch (IOException e) {
+            release(size);
+            throw e;
+        }
+        if (bytes == null) {
+            // file changed size under us: do not cache this version
+            release(size);
+            return null;
+        }
+        insert(new Entry(key, bytes));
+        admissions.increment();
+        return bytes.asReadOnlyBuffer();
+    }
+
+    @Override
+    public void recordServed(long bytes, boolean fromCache) {
+        (fromCache ? bytesFromCache : bytesFromDisk).add(bytes);
+    }
+
+    @Override
+    public synchronized ImageCacheMetricsResponse getMetrics() {
+        long hitCount = hits.sum();
+        long lookups = hitCount + misses.sum();
+        return ImageCacheMetricsResponse.builder()
+                .entries(slotCount)
+                .usedBytes(usedBytes)
+                .maxBytes(maxBytes)
+                .hits(hitCount)
+                .misses(misses.sum())
+                .hitRatio(lookups == 0 ? 0 : (double) hitCount / lookups)
+                .bypassed(bypassed.sum())
+                .admissions(admissions.sum())
+                .rejections(rejections.sum())
+                .evictions(evictions.sum())
+                .bytesServedFromCache(bytesFromCache.sum())
+                .bytesServedFromDisk(bytesFromDisk.sum())
+                .build();
+    }
+
+    // makes room for size bytes and a slot, evicting sampled entries that are less popular than the candidate
+    private synchronized boolean reserve(String key, long size) {
+        if (entries.containsKey(key)) {
+            return false;
+        }
+        if (slotCount + reservedSlots == slots.length && slots.length < maxSlots && usedBytes + size <= maxBytes) {
+            slots = Arrays.copyOf(slots, (int) Math.min(maxSlots, slots.length * 2L));
+        }
+        int candidateFrequency = sketch.frequency(key);
+        // a full slot table goes through the same admission test as a full byte budget
+        while (usedBytes + size > maxBytes || slotCount + reservedSlots >= slots.length) {
+            Entry victim = sampleVictim();
+            if (victim == null || sketch.frequency(victim.key) >= candidateFrequency) {
+                return false;
+            }
+            remove(victim);
+            evictions.increment();
+        }
+        usedBytes += size;
+        reservedSlots++;
+        return true;
+    }
+
+    private synchronized void release(long size) {
+        usedBytes -= size;
+        reservedSlots--;
+    }
+
+    private synchronized void insert(Entry entry) {
+        reservedSlots--;
+        // another request loaded the same key meanwhile
+        if (entries.containsKey(entry.key)) {
+            usedBytes -= entry.bytes.capacity();
+            return;
+        }
+        entry.slot = slotCount;
+        slots[slotCount++] = entry;
+        entries.put(entry.key, entry);
+    }
+
+    private Entry sampleVictim() {
+        if (slotCount == 0) {
+            return null;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Entry victim = null;
+        int victimFrequency = Integer.MAX_VALUE;
+        for (int i = 0; i < evictionSample; i++) {
+            Entry candidate = slots[random.nextInt(slotCount)];
+            int frequency = sketch.frequency(candidate.key);
+            if (frequency < victimFrequency) {
+                victim = candidate;
+                victimFrequency = frequency;
+            }
+        }
+        return victim;
+    }
+
+    // swap-remove from the dense array; the buffer's memory is returned when the last reader drops it
+    private void remove(Entry entry) {
+        entries.remove(entry.key);
+        Entry last = slots[--slotCount];
+        slots[entry.slot] = last;
+        last.slot = entry.slot;
+        slots[slotCount] = null;
+        usedBytes -= entry.bytes.capacity();
+    }
+
+    private ByteBuffer read(Path file, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != size) {
+                return null;
+            }
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    return null;
+                }
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
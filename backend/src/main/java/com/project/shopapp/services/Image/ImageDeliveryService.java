@@ -0,0 +1,237 @@
+package com.project.shopapp.services.Image;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves uploaded images with validators (ETag / Last-Modified), single-range requests and
+ * long-lived cache headers. Upload names are unique (UUID or content hash) and never rewritten,
+ * so a response can be cached by browsers for a year.
+ * Small hot files are written from IImageByteCache; everything else goes through Tomcat's sendfile
+ * when the connector supports it, otherwise through FileChannel.transferTo, never through a heap buffer.
+ */
+@Service
+@RequiredArgsConstructor
+public class ImageDeliveryService implements IImageDeliveryService {
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+    // a variant URL answered with the original must not be cached for long: the variant is on its way
+    private static final String FALLBACK_CACHE_CONTROL = "public, max-age=60";
+    private static final int MAX_CACHED_MEDIA_TYPES = 100_000;
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final IImageStore imageStore;
+    private final IImageVariantService imageVariantService;
+    private final IImageByteCache imageByteCache;
+    private final Map<String, String> mediaTypes = new ConcurrentHashMap<>();
+
+    @Override
+    public void serveImage(String imageName, Integer size,
+                           HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path imagePath = imageStore.resolve(imageName);
+        if (imagePath == null || !Files.isRegularFile(imagePath)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String cacheControl = CACHE_CONTROL;
+        if (size != null && size > 0) {
+            Path variant = imageVariantService.findVariant(imageName, size);
+            if (variant != null) {
+                serveFile(variant.toAbsolutePath(), "image/jpeg", CACHE_CONTROL, request, response);
+                return;
+            }
+            cacheControl = FALLBACK_CACHE_CONTROL;
+        }
+        serveFile(imagePath, mediaTypeOf(imageName, imagePath), cacheControl, request, response);
+    }
+
+    private void serveFile(Path imagePath, String mediaType, String cacheControl,
+                           HttpServletRequest request, HttpServletResponse response) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(imagePath, BasicFileAttributes.class);
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        // hashed names already identify their bytes; only legacy files fall back to mtime and length
+        String contentTag = ImageNames.contentTag(imagePath.getFileName().toString());
+        String version = contentTag != null
+                ? contentTag : Long.toHexString(lastModified) + "-" + Long.toHexString(length);
+        String etag = "\"" + version + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(mediaType);
+
+        if (isNotModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && isRangeApplicable(request, etag, lastModified)) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        ByteBuffer cached = imageByteCache.get(imagePath.toString(), imagePath, version, length);
+        if (cached != null) {
+            cached.limit((int) end + 1).position((int) start);
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            while (cached.hasRemaining()) {
+                target.write(cached);
+            }
+            imageByteCache.recordServed(count, true);
+            return;
+        }
+        imageByteCache.recordServed(count, false);
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat writes the file straight from the page cache to the socket after we return
+            request.setAttribute(SENDFILE_FILENAME, imagePath.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(imagePath, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                long sent = channel.transferTo(position, end + 1 - position, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+        }
+    }
+
+    private boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+            // If-Modified-Since is ignored when If-None-Match is present
+            return false;
+        }
+        long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    // If-Range: only honour the range if the client's copy is still the current one
+    private boolean isRangeApplicable(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        long date = dateHeader(request, HttpHeaders.IF_RANGE);
+        return date >= 0 && lastModified / 1000 == date / 1000;
+    }
+
+    /**
+     * Returns {start, end} for one satisfiable range, an empty array when the header should be
+     * ignored (malformed or several ranges: the full file is sent), or null when unsatisfiable.
+     */
+    private long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = header.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            long start;
+            long end;
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                end = dash == spec.length() - 1 ? length - 1 : Long.parseLong(spec.substring(dash + 1));
+                end = Math.min(end, length - 1);
+            }
+            if (start >= length || start > end) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    private long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    // sniffed from the file's magic bytes once, then remembered (file contents never change)
+    private String mediaTypeOf(String imageName, Path imagePath) throws IOException {
+        String cached = mediaTypes.get(imageName);
+        if (cached != null) {
+            return cached;
+        }
+        String extension = ImageNames.sniffExtension(imagePath);
+        String mediaType = extension != null
+                ? ImageNames.mediaTypeOf(extension) : URLConnection.guessContentTypeFromName(imageName);
+        if (mediaType == null) {
+            mediaType = "application/octet-stream";
+        }
+        if (mediaTypes.size() >= MAX_CACHED_MEDIA_TYPES) {
+            mediaTypes.clear();
+        }
+        mediaTypes.put(imageName, mediaType);
+        return mediaType;
+    }
+}
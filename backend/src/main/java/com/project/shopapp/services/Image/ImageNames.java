@@ -0,0 +1,89 @@
+package com.project.shopapp.services.Image;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+/**
+ * Naming rules of stored images, shared by the store, delivery and the orphan collector.
+ * An original is stored as "<sha256>.<ext>" and its resized copies as "<sha256>_w<width>.jpg";
+ * anything else is a legacy upload (UUID_name). The extension is the type sniffed from the bytes.
+ */
+public final class ImageNames {
+    public static final int HASH_LENGTH = 64;
+    private static final Pattern HASHED_NAME = Pattern.compile("[0-9a-f]{64}\\.[a-z0-9]{1,5}");
+
+    private ImageNames() {
+    }
+
+    // "<sha256>.<ext>": a content-addressed original
+    public static boolean isHashedName(String name) {
+        return HASHED_NAME.matcher(name).matches();
+    }
+
+    // a content-addressed original or one of its variants
+    public static boolean hasHashPrefix(String name) {
+        if (name.length() < HASH_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            char c = name.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // "<hash>" for a stored original, "<hash>_w400" for its variant; null for legacy names
+    public static String contentTag(String fileName) {
+        if (fileName.length() <= HASH_LENGTH || !hasHashPrefix(fileName)) {
+            return null;
+        }
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+
+    // file name of a hashed original's resized copy
+    public static String variantName(String hashedName, int width) {
+        return baseName(hashedName) + "_w" + width + ".jpg";
+    }
+
+    public static String baseName(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    // jpg, png, gif, webp or bmp from the file's magic bytes; null when none matches
+    public static String sniffExtension(Path file) throws IOException {
+        byte[] header = new byte[12];
+        int read;
+        try (InputStream in = Files.newInputStream(file)) {
+            read = in.readNBytes(header, 0, header.length);
+        }
+        if (read >= 3 && (header[0] & 0xFF) == 0xFF && (header[1] & 0xFF) == 0xD8 && (header[2] & 0xFF) == 0xFF) {
+            return "jpg";
+        }
+        if (read >= 8 && (header[0] & 0xFF) == 0x89 && header[1] == 'P' && header[2] == 'N' && header[3] == 'G') {
+            return "png";
+        }
+        if (read >= 6 && header[0] == 'G' && header[1] == 'I' && header[2] == 'F' && header[3] == '8') {
+            return "gif";
+        }
+        if (read >= 12 && header[0] == 'R' && header[1] == 'I' && header[2] == 'F' && header[3] == 'F'
+                && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+            return "webp";
+        }
+        if (read >= 2 && header[0] == 'B' && header[1] == 'M') {
+            return "bmp";
+        }
+        return null;
+    }
+
+    // media type of an extension returned by sniffExtension
+    public static String mediaTypeOf(String extension) {
+        return "image/" + (extension.equals("jpg") ? "jpeg" : extension);
+    }
+}
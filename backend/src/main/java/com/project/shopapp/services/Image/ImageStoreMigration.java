@@ -0,0 +1,83 @@
+package com.project.shopapp.services.Image;
+
+import com.project.shopapp.models.ProductImage;
+import com.project.shopapp.repositories.ProductImageRepository;
+import com.project.shopapp.repositories.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * One-off move of the flat uploads/UUID_name files into the content-addressed layout.
+ * Each file is copied into the store first, then the rows are renamed, then the old file is removed,
+ * so an interrupted run leaves every row pointing at an existing file and can simply be restarted.
+ * Enabled with image.store.migrate-on-startup=true.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "image.store.migrate-on-startup", havingValue = "true")
+public class ImageStoreMigration implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(ImageStoreMigration.class);
+
+    private final IImageStore imageStore;
+    private final ProductImageRepository productImageRepository;
+    private final ProductRepository productRepository;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        Path root = imageStore.getRootDirectory();
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        List<Path> legacyFiles;
+        try (Stream<Path> files = Files.list(root)) {
+            legacyFiles = files
+                    .filter(Files::isRegularFile)
+                    .filter(path -> !ImageNames.isHashedName(path.getFileName().toString()))
+                    .toList();
+        }
+        int migrated = 0;
+        int deduplicated = 0;
+        for (Path legacy : legacyFiles) {
+            String oldName = legacy.getFileName().toString();
+            try {
+                StoredImage stored;
+                try (InputStream in = Files.newInputStream(legacy)) {
+                    stored = imageStore.store(in, oldName);
+                }
+                LocalDateTime now = LocalDateTime.now();
+                productRepository.touchProductsWithImage(oldName, now);
+                productImageRepository.renameImage(oldName, stored.getName());
+                productRepository.renameThumbnail(oldName, stored.getName(), now);
+                deleteLegacy(oldName);
+                migrated++;
+                if (!stored.isCreated()) {
+                    deduplicated++;
+                }
+            } catch (IOException e) {
+                logger.warn("Cannot migrate image {}: {}", oldName, e.getMessage());
+            }
+        }
+        logger.info("Image store migration: {} files moved, {} were duplicates", migrated, deduplicated);
+    }
+
+    // the old variants are regenerated under the new name on first request
+    private void deleteLegacy(String oldName) throws IOException {
+        for (int width : ProductImage.VARIANT_WIDTHS) {
+            Files.deleteIfExists(imageStore.variantPath(oldName, width));
+        }
+        Files.deleteIfExists(imageStore.resolve(oldName));
+    }
+}
@@ -0,0 +1,108 @@
+package com.project.shopapp.services.Image;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes the parts of one upload request into the image store in parallel. Each part is streamed
+ * from the container's multipart storage straight into the store (hash + temp file + move), never
+ * copied into a heap buffer. The pool is shared by all requests and small; when it is busy the
+ * request thread writes its own files (CallerRunsPolicy) instead of failing.
+ */
+@Service
+@RequiredArgsConstructor
+public class ImageUploadService implements IImageUploadService {
+    private static final Logger logger = LoggerFactory.getLogger(ImageUploadService.class);
+
+    private final IImageStore imageStore;
+
+    @Value("${image.upload.parallel-writes:4}")
+    private int parallelWrites;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(parallelWrites, parallelWrites, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(parallelWrites * 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-upload-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    @Override
+    public List<StoredImage> storeAll(List<MultipartFile> files) throws IOException {
+        List<Future<StoredImage>> futures = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            futures.add(executor.submit(() -> store(file)));
+        }
+        List<StoredImage> stored = new ArrayList<>(files.size());
+        IOException failure = null;
+        // wait for every write, even after a failure, so nothing is left behind half-created
+        for (Future<StoredImage> future : futures) {
+            try {
+                stored.add(future.get());
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (failure == null) {
+                    failure = new IOException("Upload interrupted", e);
+                }
+            }
+        }
+        if (failure != null) {
+            discard(stored);
+            throw failure;
+        }
+        return stored;
+    }
+
+    @Override
+    public void discard(List<StoredImage> images) {
+        for (StoredImage image : images) {
+            if (!image.isCreated()) {
+                continue;
+            }
+            try {
+                // another upload may have deduplicated to this file meanwhile
+                imageStore.releaseIfUnchanged(image);
+            } catch (IOException e) {
+                logger.warn("Cannot remove image {} of a failed upload: {}", image.getName(), e.getMessage());
+            }
+        }
+    }
+
+    private StoredImage store(MultipartFile file) throws IOException {
+        String originalFilename = file.getOriginalFilename() == null
+                ? "" : StringUtils.cleanPath(file.getOriginalFilename());
+        try (InputStream content = file.getInputStream()) {
+            return imageStore.store(content, originalFilename);
+        }
+    }
+}
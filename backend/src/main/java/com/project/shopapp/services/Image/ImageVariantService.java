@@ -0,0 +1,211 @@
+package com.project.shopapp.services.Image;
+
+import com.project.shopapp.models.ProductImage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.*;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates fixed-width JPEG variants (ProductImage.VARIANT_WIDTHS) of uploaded images on a small
+ * bounded pool, using only javax.imageio / java.awt. Variants are placed by IImageStore.variantPath.
+ * Until a variant exists the original is served instead.
+ */
+@Service
+@RequiredArgsConstructor
+public class ImageVariantService implements IImageVariantService {
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    private final IImageStore imageStore;
+
+    @Value("${image.variants.threads:2}")
+    private int threads;
+    @Value("${image.variants.queue-capacity:500}")
+    private int queueCapacity;
+    @Value("${image.variants.jpeg-quality:0.8}")
+    private float jpegQuality;
+
+    private ThreadPoolExecutor executor;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void enqueue(String imageName) {
+        if (!pending.add(imageName)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generateVariants(imageName);
+                } catch (Exception e) {
+                    logger.warn("Cannot generate variants for {}: {}", imageName, e.getMessage());
+                } finally {
+                    pending.remove(imageName);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // queue is full: the image keeps being served in full size and is retried on the next request
+            pending.remove(imageName);
+        }
+    }
+
+    @Override
+    public Path findVariant(String imageName, int requestedWidth) {
+        int width = selectWidth(requestedWidth);
+        Path variant = imageStore.variantPath(imageName, width);
+        if (Files.isRegularFile(variant)) {
+            return variant;
+        }
+        enqueue(imageName);
+        return null;
+    }
+
+    // smallest variant at least as wide as requested, or the largest one
+    private int selectWidth(int requestedWidth) {
+        for (int width : ProductImage.VARIANT_WIDTHS) {
+            if (width >= requestedWidth) {
+                return width;
+            }
+        }
+        return ProductImage.VARIANT_WIDTHS[ProductImage.VARIANT_WIDTHS.length - 1];
+    }
+
+    private void generateVariants(String imageName) throws IOException {
+        Path original = imageStore.resolve(imageName);
+        if (original == null || !Files.isRegularFile(original)) {
+            return;
+        }
+        int largestWidth = ProductImage.VARIANT_WIDTHS[ProductImage.VARIANT_WIDTHS.length - 1];
+        BufferedImage source = read(original, largestWidth);
+        if (source == null) {
+            return;
+        }
+        // widths descending so every step downscales from the closest larger image
+        BufferedImage current = toRgb(source);
+        for (int i = ProductImage.VARIANT_WIDTHS.length - 1; i >= 0; i--) {
+            int width = ProductImage.VARIANT_WIDTHS[i];
+            Path target = imageStore.variantPath(imageName, width);
+            current = scaleToWidth(current, width);
+            if (!Files.exists(target)) {
+                writeJpeg(current, target);
+            }
+        }
+    }
+
+    // decodes with source subsampling so a 6000px upload is never fully materialised in memory
+    private BufferedImage read(Path path, int largestWidth) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(path.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int subsampling = Math.max(1, sourceWidth / (largestWidth * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // JPEG has no alpha channel: flatten onto white
+    private BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        graphics.drawImage(image, 0, 0, null);
+        graphics.dispose();
+        return rgb;
+    }
+
+    // halves repeatedly before the final bilinear step, which keeps quality close to bicubic at a fraction of the cost
+    private BufferedImage scaleToWidth(BufferedImage image, int width) {
+        BufferedImage current = image;
+        while (current.getWidth() / 2 >= width) {
+            current = resize(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        if (current.getWidth() > width) {
+            int height = Math.max(1, (int) Math.round((double) current.getHeight() * width / current.getWidth()));
+            current = resize(current, width, height);
+        }
+        return current;
+    }
+
+    private BufferedImage resize(BufferedImage image, int width, int height) {
+        BufferedImage resized = new BufferedImage(Math.max(1, width), Math.max(1, height), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        graphics.drawImage(image, 0, 0, resized.getWidth(), resized.getHeight(), null);
+        graphics.dispose();
+        return resized;
+    }
+
+    // written to a temp file and moved into place so a half-written variant is never served
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), "variant", ".tmp");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.project.shopapp.services.Image;
+
+import com.project.shopapp.repositories.ProductImageRepository;
+import com.project.shopapp.repositories.ProductRepository;
+import com.project.shopapp.responses.Metrics.ImageGcMetricsResponse;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+/**
+ * Removes image files nothing points at any more (products deleted with their rows, aborted uploads).
+ * The store is walked a slice at a time: each run handles a bounded number of ab/cd shard directories
+ * at a bounded file rate, and the position is kept in uploads/.gc-cursor so a restart resumes the cycle.
+ * References (product_images.image_url, products.thumbnail) are loaded once per cycle into a sorted
+ * long[] of 64-bit keys; a file is a candidate only when its key is absent and it is older than the
+ * grace period, and every candidate is re-checked against the database before it is touched.
+ * For stored (hashed) images "older" means the last store() of the name as recorded by the image store,
+ * which is also re-checked under the store's lock: the file's own mtime is never touched after creation,
+ * so it can feed the ETag / Last-Modified validators and the byte cache.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrphanImageCollector {
+    private static final Logger logger = LoggerFactory.getLogger(OrphanImageCollector.class);
+    private static final int SHARDS = 1 << 16;
+    // after the hashed shards: legacy flat files, legacy variants, temp files and the quarantine
+    private static final int CYCLE_END = SHARDS;
+    private static final String CURSOR_FILE = ".gc-cursor";
+    private static final String QUARANTINE_DIR = ".quarantine";
+    private static final int PAGE_SIZE = 5000;
+
+    private final IImageStore imageStore;
+    private final ProductImageRepository productImageRepository;
+    private final ProductRepository productRepository;
+
+    @Value("${image.gc.enabled:true}")
+    private boolean enabled;
+    // delete | quarantine
+    @Value("${image.gc.mode:quarantine}")
+    private String mode;
+    @Value("${image.gc.grace-hours:24}")
+    private long graceHours;
+    @Value("${image.gc.quarantine-retention-days:7}")
+    private long quarantineRetentionDays;
+    @Value("${image.gc.shards-per-run:512}")
+    private int shardsPerRun;
+    @Value("${image.gc.max-files-per-second:500}")
+    private int maxFilesPerSecond;
+
+    private int cursor = -1;
+    private long[] referenced;
+    private long completedCycles;
+    private LocalDateTime lastRunAt;
+    private final AtomicLong filesScanned = new AtomicLong();
+    private final AtomicLong orphansDeleted = new AtomicLong();
+    private final AtomicLong orphansQuarantined = new AtomicLong();
+    private final AtomicLong reclaimedBytes = new AtomicLong();
+
+    private long throttleWindowStart;
+    private int filesInWindow;
+
+    @Scheduled(initialDelayString = "${image.gc.initial-delay-ms:120000}",
+            fixedDelayString = "${image.gc.interval-ms:300000}")
+    public synchronized void collect() {
+        if (!enabled) {
+            return;
+        }
+        Path root = imageStore.getRootDirectory();
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try {
+            if (cursor < 0) {
+                cursor = readCursor(root);
+            }
+            if (referenced == null) {
+                referenced = loadReferences();
+            }
+            Instant cutoff = Instant.now().minus(Duration.ofHours(graceHours));
+            int processed = 0;
+            while (cursor < CYCLE_END && processed < shardsPerRun) {
+                Path top = root.resolve(String.format("%02x", cursor >>> 8));
+                if (!Files.isDirectory(top)) {
+                    cursor = (cursor | 0xFF) + 1;
+                    continue;
+                }
+                Path shard = top.resolve(String.format("%02x", cursor & 0xFF));
+                if (Files.isDirectory(shard)) {
+                    collectDirectory(root, shard, cutoff);
+                    processed++;
+                }
+                cursor++;
+            }
+            if (cursor >= CYCLE_END) {
+                finishCycle(root, cutoff);
+            }
+            writeCursor(root);
+        } catch (IOException e) {
+            logger.warn("Image GC stopped at shard {}: {}", cursor, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lastRunAt = LocalDateTime.now();
+    }
+
+    public synchronized ImageGcMetricsResponse getMetrics() {
+        return ImageGcMetricsResponse.builder()
+                .mode(mode)
+                .cursor(cursor < 0 ? null : cursor >= CYCLE_END ? "end" : String.format("%02x/%02x", cursor >>> 8, cursor & 0xFF))
+                .completedCycles(completedCycles)
+                .referencedImages(referenced == null ? 0 : referenced.length)
+                .filesScanned(filesScanned.get())
+                .orphansDeleted(orphansDeleted.get())
+                .orphansQuarantined(orphansQuarantined.get())
+                .reclaimedBytes(reclaimedBytes.get())
+                .lastRunAt(lastRunAt)
+                .build();
+    }
+
+    private void finishCycle(Path root, Instant cutoff) throws IOException, InterruptedException {
+        collectDirectory(root, root, cutoff);
+        Path variants = root.resolve("variants");
+        if (Files.isDirectory(variants)) {
+            try (DirectoryStream<Path> widths = Files.newDirectoryStream(variants)) {
+                for (Path width : widths) {
+                    if (Files.isDirectory(width)) {
+                        collectDirectory(root, width, cutoff);
+                    }
+                }
+            }
+        }
+        // temp files of crashed writes are never referenced
+        Path temp = root.resolve(".tmp");
+        if (Files.isDirectory(temp)) {
+            purgeOlderThan(temp, cutoff);
+        }
+        Path quarantine = root.resolve(QUARANTINE_DIR);
+        if (Files.isDirectory(quarantine)) {
+            purgeOlderThan(quarantine, Instant.now().minus(Duration.ofDays(quarantineRetentionDays)));
+        }
+        completedCycles++;
+        logger.info("Image GC cycle {} done: {} bytes reclaimed so far", completedCycles, reclaimedBytes.get());
+        cursor = 0;
+        referenced = null;
+    }
+
+    private void collectDirectory(Path root, Path directory, Instant cutoff) throws IOException, InterruptedException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, Files::isRegularFile)) {
+            for (Path file : files) {
+                throttle();
+                filesScanned.incrementAndGet();
+                String name = file.getFileName().toString();
+                if (name.startsWith(".")) {
+                    if (ContentAddressedImageStore.isStaleMarker(file)
+                            && Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                        Files.deleteIfExists(file);
+                    }
+                    continue;
+                }
+                if (isReferenced(referenceKey(name))) {
+                    continue;
+                }
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                if (ImageNames.isHashedName(name)) {
+                    imageStore.reclaimIfUnused(name, cutoff, () -> isStillReferenced(root, file),
+                            path -> reclaim(root, path, attributes.size()));
+                    continue;
+                }
+                if (attributes.lastModifiedTime().toInstant().isAfter(cutoff) || isStillReferenced(root, file)) {
+                    continue;
+                }
+                reclaim(root, file, attributes.size());
+            }
+        }
+    }
+
+    // the key set is a cycle old: confirm with the database before removing anything
+    private boolean isStillReferenced(Path root, Path file) {
+        String name = file.getFileName().toString();
+        if (!file.getParent().equals(root) && !ImageNames.isHashedName(name)) {
+            // a variant: removable only when its original is gone
+            return hasOriginal(root, file);
+        }
+        return productImageRepository.countByImageUrl(name) > 0 || productRepository.existsByThumbnail(name);
+    }
+
+    private boolean hasOriginal(Path root, Path variant) {
+        String name = variant.getFileName().toString();
+        String prefix;
+        Path directory;
+        if (ImageNames.contentTag(name) != null) {
+            // <hash>_w400.jpg next to <hash>.<ext>
+            prefix = name.substring(0, ImageNames.HASH_LENGTH) + ".";
+            directory = variant.getParent();
+        } else {
+            // legacy uploads/variants/{width}/{base}.jpg for uploads/{base}.<ext>
+            int dot = name.lastIndexOf('.');
+            prefix = (dot > 0 ? name.substring(0, dot) : name) + ".";
+            directory = root;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.anyMatch(path -> path.getFileName().toString().startsWith(prefix)
+                    && Files.isRegularFile(path));
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private void reclaim(Path root, Path file, long size) throws IOException {
+        if ("delete".equalsIgnoreCase(mode)) {
+            if (Files.deleteIfExists(file)) {
+                orphansDeleted.incrementAndGet();
+                reclaimedBytes.addAndGet(size);
+            }
+            return;
+        }
+        Path target = root.resolve(QUARANTINE_DIR).resolve(LocalDate.now().toString())
+                .resolve(root.relativize(file).toString().replace(root.getFileSystem().getSeparator(), "_"));
+        Files.createDirectories(target.getParent());
+        Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+        // mtime marks when it entered the quarantine, for the retention purge
+        Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+        orphansQuarantined.incrementAndGet();
+        reclaimedBytes.addAndGet(size);
+    }
+
+    private void purgeOlderThan(Path directory, Instant cutoff) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted((a, b) -> b.getNameCount() - a.getNameCount()).toList()) {
+                if (file.equals(directory)) {
+                    continue;
+                }
+                if (Files.isDirectory(file)) {
+                    try (Stream<Path> children = Files.list(file)) {
+                        if (children.findAny().isEmpty()) {
+                            Files.delete(file);
+                        }
+                    }
+                } else if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private void throttle() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        if (now - throttleWindowStart >= 1000) {
+            throttleWindowStart = now;
+            filesInWindow = 0;
+        }
+        if (++filesInWindow > maxFilesPerSecond) {
+            Thread.sleep(Math.max(1, 1000 - (now - throttleWindowStart)));
+            throttleWindowStart = System.currentTimeMillis();
+            filesInWindow = 1;
+        }
+    }
+
+    private long[] loadReferences() {
+        long[] keys = new long[1024];
+        int count = 0;
+        List<BiFunction<Long, PageRequest, List<Object[]>>> sources = List.of(
+                productImageRepository::findImageUrlsAfter,
+                productRepository::findThumbnailsAfter);
+        for (BiFunction<Long, PageRequest, List<Object[]>> source : sources) {
+            long afterId = 0;
+            List<Object[]> page;
+            do {
+                page = source.apply(afterId, PageRequest.of(0, PAGE_SIZE));
+                for (Object[] row : page) {
+                    afterId = (Long) row[0];
+                    String name = (String) row[1];
+                    if (name == null || name.isEmpty()) {
+                        continue;
+                    }
+                    if (count == keys.length) {
+                        keys = Arrays.copyOf(keys, count * 2);
+                    }
+                    keys[count++] = referenceKey(name);
+                }
+            } while (page.size() == PAGE_SIZE);
+        }
+        long[] sorted = Arrays.copyOf(keys, count);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private boolean isReferenced(long key) {
+        return Arrays.binarySearch(referenced, key) >= 0;
+    }
+
+    /**
+     * 64-bit key shared by an image and its variants: the first 16 hex digits for hashed names,
+     * a hash of the name without extension for legacy ones. A collision only keeps a file alive.
+     */
+    static long referenceKey(String name) {
+        if (ImageNames.hasHashPrefix(name)) {
+            return Long.parseUnsignedLong(name.substring(0, 16), 16);
+        }
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        long h = 0xcbf29ce484222325L;
+        for (byte b : base.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private int readCursor(Path root) {
+        try {
+            return Integer.parseInt(Files.readString(root.resolve(CURSOR_FILE)).trim());
+        } catch (IOException | NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void writeCursor(Path root) throws IOException {
+        Path temp = root.resolve(CURSOR_FILE + ".tmp");
+        Files.writeString(temp, Integer.toString(cursor));
+        Files.move(temp, root.resolve(CURSOR_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,16 @@
+package com.project.shopapp.services.Image;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class StoredImage {
+    // name to save in product_images.image_url / products.thumbnail
+    private final String name;
+    private final long size;
+    // false when identical bytes were already stored and the upload was deduplicated
+    private final boolean created;
+    // which store() of the name this was, see IImageStore.releaseIfUnchanged
+    private final long generation;
+}
@@ -10,6 +10,8 @@ import com.project.shopapp.repositories.OrderDetailRepository;
 import com.project.shopapp.repositories.OrderRepository;
 import com.project.shopapp.repositories.ProductRepository;
 import com.project.shopapp.repositories.UserRepository;
+import com.project.shopapp.services.Recommendation.IRecommendationService;
+import com.project.shopapp.services.Trending.ITrendingService;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
@@ -27,6 +29,8 @@ public class OrderService implements IOrderService {
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
     private final OrderDetailRepository orderDetailRepository;
+    private final IRecommendationService recommendationService;
+    private final ITrendingService trendingService;
 
     private final ModelMapper modelMapper;
 
@@ -86,6 +90,14 @@ public class OrderService implements IOrderService {
 
         // Lưu danh sách OrderDetail vào cơ sở dữ liệu
         orderDetailRepository.saveAll(orderDetails);
+        recommendationService.orderPlaced(order.getId(), orderDetails.stream()
+                .map(orderDetail -> orderDetail.getProduct().getId())
+                .toList());
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (OrderDetail orderDetail : orderDetails) {
+            quantities.merge(orderDetail.getProduct().getId(), orderDetail.getNumberOfProducts(), Integer::sum);
+        }
+        trendingService.productsSold(quantities);
         return order;
     }
 
@@ -0,0 +1,21 @@
+package com.project.shopapp.services.Product;
+
+import com.project.shopapp.responses.Metrics.JsonCacheMetricsResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+public interface IJsonResponseCache {
+    /**
+     * Writes the JSON of key: 304 when If-None-Match names the hash of the current bytes, otherwise
+     * the bytes (gzip when accepted), serializing body only when this version is not cached yet or
+     * its entry expired. A revalidation of a version whose tag is still known needs no body at all.
+     * 404 when body returns null.
+     */
+    void serve(HttpServletRequest request, HttpServletResponse response,
+               String key, String version, Supplier<?> body) throws IOException;
+
+    JsonCacheMetricsResponse getMetrics();
+}
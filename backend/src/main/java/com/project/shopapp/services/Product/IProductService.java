@@ -1,24 +1,35 @@
 package com.project.shopapp.services.Product;
 import com.project.shopapp.dtos.ProductDTO;
 import com.project.shopapp.dtos.ProductImageDTO;
+import com.project.shopapp.responses.Product.ProductListResponse;
 import com.project.shopapp.responses.Product.ProductResponse;
+import com.project.shopapp.services.Catalog.ProductSort;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import com.project.shopapp.models.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 
 public interface IProductService {
     Product createProduct(ProductDTO productDTO) throws Exception;
     Product getProductById(long id) throws Exception;
+    // từ catalog trong bộ nhớ nếu có, nếu không thì từ DB
+    ProductResponse getProductResponse(long id) throws Exception;
     public Page<ProductResponse> getAllProducts(String keyword,
                                                 Long categoryId, PageRequest pageRequest);
+    // như getAllProducts, kèm số lượng theo danh mục và khoảng giá khi catalog trong bộ nhớ sẵn sàng;
+    // cursor (next_cursor của trang trước) thay cho số trang khi duyệt sâu
+    ProductListResponse searchProducts(String keyword, Long categoryId, ProductSort sort,
+                                       String cursor, PageRequest pageRequest);
     Product updateProduct(long id, ProductDTO productDTO) throws Exception;
     void deleteProduct(long id);
     boolean existsByName(String name);
     ProductImage createProductImage(
             Long productId,
             ProductImageDTO productImageDTO) throws Exception;
+    // lưu cả lô ảnh: file được ghi song song, các dòng product_images insert một lần
+    List<ProductImage> createProductImages(Long productId, List<MultipartFile> files) throws Exception;
     // Trong IProductService
     void deleteProductImage(Long imageId) throws Exception;
 
@@ -0,0 +1,310 @@
+package com.project.shopapp.services.Product;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.shopapp.responses.Metrics.JsonCacheMetricsResponse;
+import com.project.shopapp.utils.HashUtils;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoded JSON of catalog responses, keyed by resource and tagged with the version it was built
+ * from. The version only decides whether the stored bytes are still fresh (together with
+ * response-cache.ttl-ms, for listings whose ids come from the database); the ETag is a hash of the
+ * bytes themselves, so it means the same thing after a restart and on every node. The stored bytes
+ * (and their gzip form, made once) go straight to the servlet output stream, so Jackson and
+ * ProductResponse mapping only run once per version.
+ * The last tag of each key is also kept on its own, small and outliving the bytes: a revalidation of
+ * an unchanged version is answered with 304 even after the bytes expired or were evicted.
+ * Lookups never lock: entries live in a ConcurrentHashMap and, once over max-bytes, one thread at a
+ * time evicts the least recently used entries of samples.
+ */
+@Service
+public class JsonResponseCache implements IJsonResponseCache {
+    private static final String GZIP = "gzip";
+    private static final int EVICTION_SAMPLE = 64;
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final long maxBytes;
+    private final int minGzipBytes;
+    private final long ttlMillis;
+    private final int maxTags;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Tag> tags = new ConcurrentHashMap<>();
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder gzipResponses = new LongAdder();
+
+    // gzip == null when the body is too small to be worth compressing; tag is a hash of json
+    private static final class Entry {
+        private final String version;
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String tag;
+        private final long createdAt;
+        private volatile long lastUsed;
+
+        private Entry(String version, byte[] json, byte[] gzip, String tag, long createdAt) {
+            this.version = version;
+            this.json = json;
+            this.gzip = gzip;
+            this.tag = tag;
+            this.createdAt = createdAt;
+            this.lastUsed = createdAt;
+        }
+
+        long size() {
+            return json.length + (gzip == null ? 0 : gzip.length);
+        }
+    }
+
+    // the validator of the version last built for a key, and whether a gzip form exists
+    private record Tag(String version, String tag, boolean gzip) {
+    }
+
+    public JsonResponseCache(ObjectMapper objectMapper,
+                             @Value("${response-cache.enabled:true}") boolean enabled,
+                             @Value("${response-cache.max-bytes:33554432}") long maxBytes,
+                             @Value("${response-cache.min-gzip-bytes:1024}") int minGzipBytes,
+                             @Value("${response-cache.ttl-ms:60000}") long ttlMillis,
+                             @Value("${response-cache.max-tags:100000}") int maxTags) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.minGzipBytes = minGzipBytes;
+        this.ttlMillis = ttlMillis;
+        this.maxTags = Math.max(1, maxTags);
+    }
+
+    @Override
+    public void serve(HttpServletRequest request, HttpServletResponse response,
+                      String key, String version, Supplier<?> body) throws IOException {
+        long now = System.currentTimeMillis();
+        boolean acceptsGzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        Entry entry = enabled ? lookup(key, version, now) : null;
+        if (entry == null && ifNoneMatch != null && enabled) {
+            // the bytes are gone but the version is unchanged: the client's copy is still current
+            Tag known = tags.get(key);
+            if (known != null && known.version().equals(version)
+                    && notModified(response, ifNoneMatch, known.tag(), acceptsGzip && known.gzip())) {
+                return;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            Object value = body.get();
+            if (value == null) {
+                // gone between the version lookup and serialization
+                tags.remove(key);
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            entry = new Entry(version, json, json.length >= minGzipBytes ? gzip(json) : null, tag(json), now);
+            if (enabled) {
+                store(key, entry);
+            }
+        } else {
+            hits.increment();
+            entry.lastUsed = now;
+        }
+        if (notModified(response, ifNoneMatch, entry.tag, acceptsGzip && entry.gzip != null)) {
+            return;
+        }
+        byte[] bytes = entry.json;
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (acceptsGzip && entry.gzip != null) {
+            bytes = entry.gzip;
+            gzipResponses.increment();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+            response.setHeader(HttpHeaders.ETAG, etag(entry.tag, true));
+        } else {
+            response.setHeader(HttpHeaders.ETAG, etag(entry.tag, false));
+        }
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+    }
+
+    @Override
+    public JsonCacheMetricsResponse getMetrics() {
+        return JsonCacheMetricsResponse.builder()
+                .entries(entries.size())
+                .usedBytes(usedBytes.get())
+                .maxBytes(maxBytes)
+                .hits(hits.sum())
+                .misses(misses.sum())
+                .notModified(notModified.sum())
+                .gzipResponses(gzipResponses.sum())
+                .build();
+    }
+
+    // 304 with the validator of the representation this client gets, when If-None-Match names either one
+    private boolean notModified(HttpServletResponse response, String ifNoneMatch, String tag, boolean gzip) {
+        if (!matches(ifNoneMatch, etag(tag, false), etag(tag, true))) {
+            return false;
+        }
+        notModified.increment();
+        response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        response.setHeader(HttpHeaders.ETAG, etag(tag, gzip));
+        return true;
+    }
+
+    private Entry lookup(String key, String version, long now) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (now - entry.createdAt > ttlMillis) {
+            remove(key, entry);
+            return null;
+        }
+        return entry.version.equals(version) ? entry : null;
+    }
+
+    private void store(String key, Entry entry) {
+        tags.put(key, new Tag(entry.version, entry.tag, entry.gzip != null));
+        if (tags.size() > maxTags) {
+            trimTags();
+        }
+        if (entry.size() > maxBytes / 8) {
+            return;
+        }
+        Entry previous = entries.put(key, entry);
+        usedBytes.addAndGet(entry.size() - (previous == null ? 0 : previous.size()));
+        if (usedBytes.get() > maxBytes) {
+            evict();
+        }
+    }
+
+    private void remove(String key, Entry entry) {
+        if (entries.remove(key, entry)) {
+            usedBytes.addAndGet(-entry.size());
+        }
+    }
+
+    // down to nine tenths of max-bytes: expired entries, then the least recently used half of each sample
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            long target = maxBytes - maxBytes / 10;
+            List<Map.Entry<String, Entry>> sample = new ArrayList<>(EVICTION_SAMPLE);
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            while (usedBytes.get() > target && iterator.hasNext()) {
+                Map.Entry<String, Entry> entry = iterator.next();
+                if (now - entry.getValue().createdAt > ttlMillis) {
+                    remove(entry.getKey(), entry.getValue());
+                } else {
+                    sample.add(entry);
+                }
+                if (sample.size() == EVICTION_SAMPLE || !iterator.hasNext()) {
+                    sample.sort(Comparator.comparingLong(candidate -> candidate.getValue().lastUsed));
+                    for (int k = 0; k < Math.max(1, sample.size() / 2) && k < sample.size()
+                            && usedBytes.get() > target; k++) {
+                        remove(sample.get(k).getKey(), sample.get(k).getValue());
+                    }
+                    sample.clear();
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    // tags are tiny and only save work, so dropping an arbitrary tenth (hash order) is good enough
+    private void trimTags() {
+        int excess = tags.size() - maxTags + Math.max(1, maxTags / 10);
+        Iterator<String> iterator = tags.keySet().iterator();
+        while (excess-- > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    // the gzip body is a different representation, so it gets its own strong validator
+    private static String etag(String tag, boolean gzip) {
+        return "\"" + tag + (gzip ? "-gz" : "") + "\"";
+    }
+
+    // 128 bits of SHA-256 of the plain JSON
+    private static String tag(byte[] json) {
+        return HexFormat.of().formatHex(HashUtils.sha256().digest(json), 0, 16);
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag, String gzipEtag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag) || tag.equals(gzipEtag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // gzip (or x-gzip) with q > 0, or * with q > 0 when gzip is not listed: "gzip;q=0" refuses it
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzip = -1;
+        double any = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim().toLowerCase(Locale.ROOT);
+                if (param.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals(GZIP) || coding.equals("x-gzip")) {
+                gzip = Math.max(gzip, quality);
+            } else if (coding.equals("*")) {
+                any = Math.max(any, quality);
+            }
+        }
+        return gzip >= 0 ? gzip > 0 : any > 0;
+    }
+
+    private static byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        }
+        return out.toByteArray();
+    }
+}
@@ -10,24 +10,70 @@ import com.project.shopapp.models.ProductImage;
 import com.project.shopapp.repositories.CategoryRepository;
 import com.project.shopapp.repositories.ProductImageRepository;
 import com.project.shopapp.repositories.ProductRepository;
+import com.project.shopapp.responses.Product.ProductListResponse;
 import com.project.shopapp.responses.Product.ProductResponse;
+import com.project.shopapp.services.Catalog.CatalogPage;
+import com.project.shopapp.services.Catalog.CatalogQuery;
+import com.project.shopapp.services.Catalog.ICatalogService;
+import com.project.shopapp.services.Catalog.ProductSort;
+import com.project.shopapp.services.Image.IImageStore;
+import com.project.shopapp.services.Image.IImageUploadService;
+import com.project.shopapp.services.Image.IImageVariantService;
+import com.project.shopapp.services.Image.StoredImage;
+import com.project.shopapp.services.Search.IProductSearchService;
+import com.project.shopapp.services.Search.ISearchResultCache;
+import com.project.shopapp.services.Search.SearchWindow;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService implements IProductService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final ProductImageRepository productImageRepository;
+    private final IImageStore imageStore;
+    private final IImageUploadService imageUploadService;
+    private final IImageVariantService imageVariantService;
+    private final ICatalogService catalogService;
+    private final IProductSearchService productSearchService;
+    private final ISearchResultCache searchResultCache;
+
+    @Value("${search.fuzzy.max-results:500}")
+    private int maxFuzzyResults;
+
+    // a keyword as common as "a" must not pull every product id into one request
+    @Value("${search.keyword.max-results:10000}")
+    private int maxKeywordResults;
+
+    @Value("${search.keyword.page-size:2000}")
+    private int keywordPageSize;
+
+    @Value("${search.cache.max-window-ids:1000}")
+    private int maxCachedIds;
+
+    // a file stored (or deduplicated to) this recently may belong to an upload that has not committed yet
+    @Value("${image.gc.grace-hours:24}")
+    private long imageGraceHours;
 
     @Override
     @Transactional
@@ -48,7 +94,18 @@ public class ProductService implements IProductService {
                 .category(existingCategory)
                 .build();
 
-        return productRepository.save(newProduct);
+        Product savedProduct = productRepository.save(newProduct);
+        catalogService.productChanged(savedProduct.getId());
+        return savedProduct;
+    }
+
+    @Override
+    public ProductResponse getProductResponse(long productId) throws Exception {
+        ProductResponse cached = catalogService.findProduct(productId);
+        if (cached != null) {
+            return cached;
+        }
+        return ProductResponse.fromProduct(getProductById(productId));
     }
 
     @Override
@@ -69,15 +126,161 @@ public class ProductService implements IProductService {
     @Override
     public Page<ProductResponse> getAllProducts(String keyword,
                                                 Long categoryId, PageRequest pageRequest) {
+        // lọc theo danh mục + phân trang: trả từ catalog trong bộ nhớ, không truy vấn DB
+        if (keyword == null || keyword.isBlank()) {
+            CatalogPage cachedPage = catalogService.findProducts(CatalogQuery.builder()
+                    .categoryId(categoryId)
+                    .page(pageRequest.getPageNumber())
+                    .limit(pageRequest.getPageSize())
+                    .build());
+            if (cachedPage != null) {
+                return new PageImpl<>(cachedPage.getProducts(), pageRequest, cachedPage.getTotalElements());
+            }
+        }
         // Truy vấn DB và map về DTO
         Page<Product> productsPage =
                 productRepository.searchProducts(categoryId, keyword, pageRequest);
         Page<ProductResponse> responsePage =
                 productsPage.map(ProductResponse::fromProduct);
-
+        // LIKE không tìm thấy gì (sai dấu, gõ sai chính tả): thử tìm gần đúng
+        if (productsPage.getTotalElements() == 0 && keyword != null && !keyword.isBlank()
+                && productSearchService.isReady()) {
+            return fuzzySearch(keyword, categoryId, pageRequest);
+        }
         return responsePage;
     }
 
+    @Override
+    public ProductListResponse searchProducts(String keyword, Long categoryId, ProductSort sort,
+                                              String cursor, PageRequest pageRequest) {
+        if (catalogService.isReady()) {
+            ProductListResponse response = cursor == null || cursor.isBlank()
+                    ? cachedSearch(keyword, categoryId, sort, pageRequest.getPageNumber(), pageRequest.getPageSize())
+                    : catalogSearch(keyword, categoryId, sort, cursor, pageRequest);
+            if (response != null) {
+                return response;
+            }
+        }
+        Page<ProductResponse> page = getAllProducts(keyword, categoryId,
+                pageRequest.withSort(sort.toSort()));
+        return ProductListResponse.builder()
+                .products(page.getContent())
+                .totalPages(page.getTotalPages())
+                .build();
+    }
+
+    // trang theo số: tính cả cửa sổ vài trang một lần rồi cache danh sách id
+    private ProductListResponse cachedSearch(String keyword, Long categoryId, ProductSort sort, int page, int limit) {
+        SearchWindow window = searchResultCache.find(keyword, categoryId, sort, page, limit);
+        if (window == null) {
+            long generation = searchResultCache.generation();
+            MatchingIds matching = matchingIds(keyword);
+            int pages = searchResultCache.pagesPerWindow(limit);
+            CatalogPage result = catalogService.findProducts(CatalogQuery.builder()
+                    .productIds(matching.ids())
+                    .ranked(matching.ranked())
+                    .categoryId(categoryId)
+                    .sort(sort)
+                    .page(page / pages)
+                    .limit((int) Math.min((long) limit * pages, Math.max(limit, maxCachedIds)))
+                    .build());
+            if (result == null) {
+                return null;
+            }
+            long[] ids = result.getProducts().stream().mapToLong(ProductResponse::getId).toArray();
+            window = new SearchWindow(ids, page / pages * pages, result.getTotalElements(), matching.ranked(),
+                    catalogService.getFacets(matching.ids(), categoryId));
+            searchResultCache.put(keyword, categoryId, sort, page, limit, window, generation);
+        }
+        long[] ids = window.getProductIds();
+        int from = (page - window.getFirstPage()) * limit;
+        List<ProductResponse> products = new ArrayList<>(Math.max(0, Math.min(limit, ids.length - from)));
+        for (int k = from; k < ids.length && k < from + limit; k++) {
+            ProductResponse product = catalogService.findProduct(ids[k]);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        boolean more = (long) (page + 1) * limit < window.getTotalElements();
+        String nextCursor = more && !window.isRanked() && from + limit <= ids.length
+                ? catalogService.cursorAfter(sort, ids[from + limit - 1])
+                : null;
+        return ProductListResponse.builder()
+                .products(products)
+                .totalPages((int) ((window.getTotalElements() + limit - 1) / limit))
+                .nextCursor(nextCursor)
+                .facets(window.getFacets())
+                .build();
+    }
+
+    // trang theo cursor (duyệt sâu): không cache
+    private ProductListResponse catalogSearch(String keyword, Long categoryId, ProductSort sort,
+                                              String cursor, PageRequest pageRequest) {
+        MatchingIds matching = matchingIds(keyword);
+        CatalogPage page = catalogService.findProducts(CatalogQuery.builder()
+                .productIds(matching.ids())
+                .ranked(matching.ranked())
+                .categoryId(categoryId)
+                .sort(sort)
+                .cursor(cursor)
+                .page(pageRequest.getPageNumber())
+                .limit(pageRequest.getPageSize())
+                .build());
+        if (page == null) {
+            return null;
+        }
+        return ProductListResponse.builder()
+                .products(page.getProducts())
+                .totalPages(page.getTotalPages())
+                .nextCursor(page.getNextCursor())
+                .facets(catalogService.getFacets(matching.ids(), categoryId))
+                .build();
+    }
+
+    // ids == null: không có keyword, mọi sản phẩm; ranked: kết quả tìm gần đúng, đã xếp theo độ giống
+    private record MatchingIds(List<Long> ids, boolean ranked) {
+    }
+
+    // chỉ lấy id từ DB (một truy vấn), sắp xếp, phân trang và đếm facet trên catalog
+    private MatchingIds matchingIds(String keyword) {
+        if (keyword == null || keyword.isBlank()) {
+            return new MatchingIds(null, false);
+        }
+        List<Long> ids = findIdsByKeyword(keyword);
+        if (ids.isEmpty() && productSearchService.isReady()) {
+            return new MatchingIds(productSearchService.fuzzySearch(keyword, null, maxFuzzyResults), true);
+        }
+        return new MatchingIds(ids, false);
+    }
+
+    // the first max-results matches in id order, fetched page by page
+    private List<Long> findIdsByKeyword(String keyword) {
+        List<Long> ids = new ArrayList<>();
+        long afterId = 0;
+        while (ids.size() < maxKeywordResults) {
+            int pageSize = Math.min(keywordPageSize, maxKeywordResults - ids.size());
+            List<Long> page = productRepository.findIdsByKeywordAfter(keyword, afterId, PageRequest.of(0, pageSize));
+            ids.addAll(page);
+            if (page.size() < pageSize) {
+                break;
+            }
+            afterId = page.get(page.size() - 1);
+        }
+        return ids;
+    }
+
+    private Page<ProductResponse> fuzzySearch(String keyword, Long categoryId, PageRequest pageRequest) {
+        List<Long> ids = productSearchService.fuzzySearch(keyword, categoryId, maxFuzzyResults);
+        List<ProductResponse> content = new ArrayList<>(Math.min(pageRequest.getPageSize(), ids.size()));
+        for (long k = pageRequest.getOffset(); k < ids.size() && content.size() < pageRequest.getPageSize(); k++) {
+            ProductResponse product = catalogService.findProduct(ids.get((int) k));
+            if (product != null) {
+                content.add(product);
+            }
+        }
+        return new PageImpl<>(content, pageRequest, ids.size());
+    }
+
     @Override
     @Transactional
     public Product updateProduct(long id, ProductDTO productDTO) throws Exception {
@@ -103,6 +306,7 @@ public class ProductService implements IProductService {
         }
         // Lưu thay đổi
         Product savedProduct = productRepository.save(existingProduct);
+        catalogService.productChanged(id);
 
         return savedProduct;
     }
@@ -113,6 +317,7 @@ public class ProductService implements IProductService {
         Optional<Product> optional = productRepository.findById(id);
         if (optional.isPresent()) {
             productRepository.delete(optional.get());
+            catalogService.productChanged(id);
         }
     }
 
@@ -136,12 +341,44 @@ public class ProductService implements IProductService {
                 .imageUrl(productImageDTO.getImageUrl())
                 .build();
         //không cho insert quá 5 ảnh cho 1 sản phẩm
-        int size = productImageRepository.findByProductId(productId).size();
+        long size = productImageRepository.countByProductId(productId);
         if(size >= ProductImage.MAXIMUM_IMAGES_PER_PRODUCT) {
             throw new InvalidParamException(
                     "Number of images must be <= " + ProductImage.MAXIMUM_IMAGES_PER_PRODUCT);
         }
-        return productImageRepository.save(newProductImage);
+        ProductImage savedImage = productImageRepository.save(newProductImage);
+        existingProduct.setUpdatedAt(LocalDateTime.now());
+        catalogService.productChanged(existingProduct.getId());
+        return savedImage;
+    }
+
+    @Override
+    @Transactional
+    public List<ProductImage> createProductImages(Long productId, List<MultipartFile> files) throws Exception {
+        Product existingProduct = productRepository.findById(productId)
+                .orElseThrow(() -> new DataNotFoundException("Cannot find product with id: " + productId));
+        // một lần đếm cho cả lô thay vì load toàn bộ ảnh cho mỗi file
+        long existingImages = productImageRepository.countByProductId(productId);
+        if (existingImages + files.size() > ProductImage.MAXIMUM_IMAGES_PER_PRODUCT) {
+            throw new InvalidParamException(
+                    "Number of images must be <= " + ProductImage.MAXIMUM_IMAGES_PER_PRODUCT);
+        }
+        List<StoredImage> storedImages = imageUploadService.storeAll(files);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    storedImages.forEach(image -> imageVariantService.enqueue(image.getName()));
+                } else {
+                    imageUploadService.discard(storedImages);
+                }
+            }
+        });
+        List<ProductImage> savedImages = productImageRepository.insertAll(existingProduct,
+                storedImages.stream().map(StoredImage::getName).toList());
+        existingProduct.setUpdatedAt(LocalDateTime.now());
+        catalogService.productChanged(productId);
+        return savedImages;
     }
 
     @Override
@@ -150,11 +387,28 @@ public class ProductService implements IProductService {
         ProductImage image = productImageRepository.findById(imageId)
                 .orElseThrow(() -> new DataNotFoundException("Image not found with id = " + imageId));
 
-        Path imagePath = Paths.get("uploads/" + image.getImageUrl());
-        if (Files.exists(imagePath)) {
-            Files.delete(imagePath);
-        }
-
         productImageRepository.deleteById(imageId);
+        // ảnh thay đổi cũng tính là sản phẩm thay đổi (catalog snapshot bắt kịp theo updated_at)
+        image.getProduct().setUpdatedAt(LocalDateTime.now());
+        catalogService.productChanged(image.getProduct().getId());
+        releaseAfterCommit(image.getImageUrl());
+    }
+
+    // stored files are shared by identical uploads: the file goes only with its last reference,
+    // and only once the delete is committed. Files stored within the grace period are left to
+    // OrphanImageCollector, since an upload deduplicated to them may still be uncommitted.
+    private void releaseAfterCommit(String imageName) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    imageStore.releaseIfUnused(imageName, Instant.now().minus(Duration.ofHours(imageGraceHours)),
+                            () -> productImageRepository.countByImageUrl(imageName) > 0
+                                    || productRepository.existsByThumbnail(imageName));
+                } catch (IOException e) {
+                    logger.warn("Cannot delete image file {}: {}", imageName, e.getMessage());
+                }
+            }
+        });
     }
 }
@@ -0,0 +1,150 @@
+package com.project.shopapp.services.Recommendation;
+
+import java.util.Arrays;
+
+/**
+ * "Bought together" neighbours of every product, built once from order history. Products are
+ * numbered densely (position in the sorted productIds array); neighbours, co-purchase counts and
+ * scores are kept top-N per product in CSR arrays, so a lookup is one binary search and a slice.
+ * Score is cosine similarity over orders: together / sqrt(orders(a) * orders(b)), so best sellers
+ * do not end up as everybody's neighbour.
+ */
+final class CoPurchaseIndex {
+    private final long[] productIds;
+    private final int[] orderCounts;
+    private final int[] offsets;
+    private final int[] neighbors;
+    private final int[] counts;
+    private final float[] scores;
+    private final long maxOrderId;
+
+    private CoPurchaseIndex(long[] productIds, int[] orderCounts, int[] offsets, int[] neighbors,
+                            int[] counts, float[] scores, long maxOrderId) {
+        this.productIds = productIds;
+        this.orderCounts = orderCounts;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+        this.counts = counts;
+        this.scores = scores;
+        this.maxOrderId = maxOrderId;
+    }
+
+    static CoPurchaseIndex empty() {
+        return new CoPurchaseIndex(new long[0], new int[0], new int[1], new int[0], new int[0], new float[0], 0);
+    }
+
+    // orders up to this id are included
+    long maxOrderId() {
+        return maxOrderId;
+    }
+
+    int productCount() {
+        return productIds.length;
+    }
+
+    int pairCount() {
+        return neighbors.length;
+    }
+
+    // orders containing the product
+    int orderCount(long productId) {
+        int index = Arrays.binarySearch(productIds, productId);
+        return index < 0 ? 0 : orderCounts[index];
+    }
+
+    // calls consumer for each stored neighbour of productId with the co-purchase count
+    void forEachNeighbor(long productId, NeighborConsumer consumer) {
+        int index = Arrays.binarySearch(productIds, productId);
+        if (index < 0) {
+            return;
+        }
+        for (int k = offsets[index]; k < offsets[index + 1]; k++) {
+            consumer.accept(productIds[neighbors[k]], counts[k], scores[k]);
+        }
+    }
+
+    interface NeighborConsumer {
+        void accept(long neighborId, int count, float score);
+    }
+
+    static float score(int together, int ordersA, int ordersB) {
+        return ordersA == 0 || ordersB == 0 ? 0 : (float) (together / Math.sqrt((double) ordersA * ordersB));
+    }
+
+    /**
+     * pairKeys holds one (a << 32 | b), a < b, per order containing both dense products a and b, in
+     * any order; it is sorted in place (in parallel) and run-length counted.
+     */
+    static CoPurchaseIndex build(long[] productIds, int[] orderCounts, long[] pairKeys, int pairCount,
+                                 int minTogether, int topN, long maxOrderId) {
+        Arrays.parallelSort(pairKeys, 0, pairCount);
+        int products = productIds.length;
+        // pass 1: neighbours per product, both directions, pairs below the support threshold dropped
+        int[] degree = new int[products + 1];
+        forEachPair(pairKeys, pairCount, minTogether, (a, b, together) -> {
+            degree[a + 1]++;
+            degree[b + 1]++;
+        });
+        for (int i = 0; i < products; i++) {
+            degree[i + 1] += degree[i];
+        }
+        int[] allNeighbors = new int[degree[products]];
+        int[] allCounts = new int[degree[products]];
+        int[] fill = Arrays.copyOf(degree, products);
+        forEachPair(pairKeys, pairCount, minTogether, (a, b, together) -> {
+            allNeighbors[fill[a]] = b;
+            allCounts[fill[a]++] = together;
+            allNeighbors[fill[b]] = a;
+            allCounts[fill[b]++] = together;
+        });
+
+        // pass 2: keep the best topN of each product
+        int[] offsets = new int[products + 1];
+        for (int i = 0; i < products; i++) {
+            offsets[i + 1] = offsets[i] + Math.min(topN, degree[i + 1] - degree[i]);
+        }
+        int[] neighbors = new int[offsets[products]];
+        int[] counts = new int[offsets[products]];
+        float[] scores = new float[offsets[products]];
+        for (int a = 0; a < products; a++) {
+            int from = degree[a];
+            int size = degree[a + 1] - from;
+            if (size == 0) {
+                continue;
+            }
+            float[] candidateScores = new float[size];
+            Integer[] order = new Integer[size];
+            for (int k = 0; k < size; k++) {
+                candidateScores[k] = score(allCounts[from + k], orderCounts[a], orderCounts[allNeighbors[from + k]]);
+                order[k] = k;
+            }
+            Arrays.sort(order, (x, y) -> Float.compare(candidateScores[y], candidateScores[x]));
+            for (int k = 0; k < offsets[a + 1] - offsets[a]; k++) {
+                int position = offsets[a] + k;
+                neighbors[position] = allNeighbors[from + order[k]];
+                counts[position] = allCounts[from + order[k]];
+                scores[position] = candidateScores[order[k]];
+            }
+        }
+        return new CoPurchaseIndex(productIds, orderCounts, offsets, neighbors, counts, scores, maxOrderId);
+    }
+
+    private interface PairConsumer {
+        void accept(int a, int b, int together);
+    }
+
+    private static void forEachPair(long[] pairKeys, int pairCount, int minTogether, PairConsumer consumer) {
+        int k = 0;
+        while (k < pairCount) {
+            long key = pairKeys[k];
+            int run = 1;
+            while (k + run < pairCount && pairKeys[k + run] == key) {
+                run++;
+            }
+            if (run >= minTogether) {
+                consumer.accept((int) (key >>> 32), (int) key, run);
+            }
+            k += run;
+        }
+    }
+}
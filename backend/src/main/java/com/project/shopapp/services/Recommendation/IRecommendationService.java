@@ -0,0 +1,13 @@
+package com.project.shopapp.services.Recommendation;
+
+import com.project.shopapp.responses.Product.ProductResponse;
+
+import java.util.List;
+
+public interface IRecommendationService {
+    // products most often bought together with productId, best match first
+    List<ProductResponse> findRelated(long productId, int limit);
+
+    // call after an order was placed; applied once the transaction commits
+    void orderPlaced(long orderId, List<Long> productIds);
+}
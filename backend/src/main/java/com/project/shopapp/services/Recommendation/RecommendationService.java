@@ -0,0 +1,355 @@
+package com.project.shopapp.services.Recommendation;
+
+import com.project.shopapp.repositories.OrderDetailRepository;
+import com.project.shopapp.repositories.OrderRepository;
+import com.project.shopapp.repositories.ProductRepository;
+import com.project.shopapp.responses.Product.ProductResponse;
+import com.project.shopapp.services.Catalog.CatalogLoader;
+import com.project.shopapp.services.Catalog.ICatalogService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * "Frequently bought together" for GET /products/{id}/related. A CoPurchaseIndex is built from
+ * order_details on a background thread: recommendation.build-threads workers take turns reading
+ * spans of order ids, each turning its baskets into (a, b) pair keys, and the merged keys are sorted
+ * and counted in one go. Orders placed after the build are kept as recent orders whose pair counts
+ * are added at query time, until the next rebuild (daily, or once there are too many of them).
+ */
+@Service
+@RequiredArgsConstructor
+public class RecommendationService implements IRecommendationService {
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationService.class);
+
+    private final OrderRepository orderRepository;
+    private final OrderDetailRepository orderDetailRepository;
+    private final ProductRepository productRepository;
+    private final CatalogLoader catalogLoader;
+    private final ICatalogService catalogService;
+
+    @Value("${recommendation.enabled:true}")
+    private boolean enabled;
+    @Value("${recommendation.build-threads:4}")
+    private int buildThreads;
+    // order ids read per query while building
+    @Value("${recommendation.scan-span:20000}")
+    private int scanSpan;
+    @Value("${recommendation.max-basket:50}")
+    private int maxBasket;
+    @Value("${recommendation.min-support:2}")
+    private int minSupport;
+    @Value("${recommendation.top-n:20}")
+    private int topN;
+    @Value("${recommendation.max-recent-orders:10000}")
+    private int maxRecentOrders;
+
+    private volatile CoPurchaseIndex index;
+    // orders placed since the index was built, guarded by this
+    private final List<RecentOrder> recentOrders = new ArrayList<>();
+    private final Map<Long, Integer> recentOrderCounts = new HashMap<>();
+    private final Map<Long, Map<Long, Integer>> recentPairs = new HashMap<>();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "recommendation-build");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private record RecentOrder(long orderId, long[] productIds) {
+    }
+
+    private record Candidate(long productId, int together, float score) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        scheduleRebuild();
+    }
+
+    @PreDestroy
+    public void stop() {
+        builder.shutdownNow();
+    }
+
+    @Override
+    public List<ProductResponse> findRelated(long productId, int limit) {
+        CoPurchaseIndex current = index;
+        if (current == null || limit <= 0) {
+            return List.of();
+        }
+        Map<Long, Integer> together = new HashMap<>();
+        current.forEachNeighbor(productId, (neighborId, count, score) -> together.put(neighborId, count));
+        Map<Long, Integer> orders = new HashMap<>();
+        synchronized (this) {
+            Map<Long, Integer> recent = recentPairs.get(productId);
+            if (recent != null) {
+                recent.forEach((neighborId, count) -> together.merge(neighborId, count, Integer::sum));
+            }
+            orders.put(productId, recentOrderCounts.getOrDefault(productId, 0));
+            for (Long neighborId : together.keySet()) {
+                orders.put(neighborId, recentOrderCounts.getOrDefault(neighborId, 0));
+            }
+        }
+        int productOrders = current.orderCount(productId) + orders.get(productId);
+        List<Candidate> candidates = new ArrayList<>(together.size());
+        together.forEach((neighborId, count) -> {
+            if (count >= minSupport) {
+                int neighborOrders = current.orderCount(neighborId) + orders.get(neighborId);
+                candidates.add(new Candidate(neighborId, count,
+                        CoPurchaseIndex.score(count, productOrders, neighborOrders)));
+            }
+        });
+        candidates.sort(Comparator.comparingDouble(Candidate::score).reversed()
+                .thenComparing(Comparator.comparingInt(Candidate::together).reversed()));
+
+        List<ProductResponse> related = new ArrayList<>(Math.min(limit, candidates.size()));
+        boolean fromCatalog = catalogService.isReady();
+        for (Candidate candidate : candidates) {
+            if (related.size() == limit) {
+                break;
+            }
+            // products deleted since the build are skipped
+            ProductResponse product = fromCatalog
+                    ? catalogService.findProduct(candidate.productId())
+                    : productRepository.findById(candidate.productId()).map(ProductResponse::fromProduct).orElse(null);
+            if (product != null) {
+                related.add(product);
+            }
+        }
+        return related;
+    }
+
+    @Override
+    public void orderPlaced(long orderId, List<Long> productIds) {
+        if (!enabled) {
+            return;
+        }
+        long[] distinct = productIds.stream().mapToLong(Long::longValue).distinct().sorted().toArray();
+        if (distinct.length == 0 || distinct.length > maxBasket) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addRecentOrder(new RecentOrder(orderId, distinct));
+                }
+            });
+        } else {
+            addRecentOrder(new RecentOrder(orderId, distinct));
+        }
+    }
+
+    @Scheduled(initialDelayString = "${recommendation.rebuild-interval-ms:86400000}",
+            fixedDelayString = "${recommendation.rebuild-interval-ms:86400000}")
+    public void scheduledRebuild() {
+        if (index != null) {
+            scheduleRebuild();
+        }
+    }
+
+    private void addRecentOrder(RecentOrder order) {
+        int size;
+        synchronized (this) {
+            CoPurchaseIndex current = index;
+            if (current != null && order.orderId() <= current.maxOrderId()) {
+                return;
+            }
+            recentOrders.add(order);
+            count(order);
+            size = recentOrders.size();
+        }
+        if (size > maxRecentOrders) {
+            scheduleRebuild();
+        }
+    }
+
+    // caller holds the lock
+    private void count(RecentOrder order) {
+        long[] ids = order.productIds();
+        for (int i = 0; i < ids.length; i++) {
+            recentOrderCounts.merge(ids[i], 1, Integer::sum);
+            for (int j = 0; j < ids.length; j++) {
+                if (i != j) {
+                    recentPairs.computeIfAbsent(ids[i], id -> new HashMap<>()).merge(ids[j], 1, Integer::sum);
+                }
+            }
+        }
+    }
+
+    private void scheduleRebuild() {
+        if (enabled && rebuildScheduled.compareAndSet(false, true)) {
+            builder.execute(this::rebuild);
+        }
+    }
+
+    private void rebuild() {
+        rebuildScheduled.set(false);
+        try {
+            long started = System.currentTimeMillis();
+            CoPurchaseIndex built = build();
+            synchronized (this) {
+                index = built;
+                // orders up to maxOrderId are in the index now
+                recentOrders.removeIf(order -> order.orderId() <= built.maxOrderId());
+                recentOrderCounts.clear();
+                recentPairs.clear();
+                recentOrders.forEach(this::count);
+            }
+            logger.info("Co-purchase index built: {} products, {} neighbours in {} ms",
+                    built.productCount(), built.pairCount(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            logger.warn("Cannot build the co-purchase index: {}", e.getMessage());
+        }
+    }
+
+    private CoPurchaseIndex build() {
+        List<Object[]> bounds = orderRepository.findIdBounds();
+        Object[] bound = bounds.isEmpty() ? null : bounds.get(0);
+        if (bound == null || bound[0] == null || bound[1] == null) {
+            return CoPurchaseIndex.empty();
+        }
+        long minOrderId = ((Number) bound[0]).longValue();
+        long maxOrderId = ((Number) bound[1]).longValue();
+        long[] productIds = catalogLoader.loadAllIds();
+
+        AtomicLong nextFrom = new AtomicLong(minOrderId - 1);
+        int threads = Math.max(1, buildThreads);
+        ExecutorService scanners = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "recommendation-scan");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<BasketScan> scans = new ArrayList<>(threads);
+        try {
+            List<Future<BasketScan>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                futures.add(scanners.submit(() -> scan(productIds, nextFrom, maxOrderId)));
+            }
+            for (Future<BasketScan> future : futures) {
+                scans.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Co-purchase build interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+        } finally {
+            scanners.shutdownNow();
+        }
+
+        int[] orderCounts = new int[productIds.length];
+        long totalPairs = 0;
+        for (BasketScan scan : scans) {
+            totalPairs += scan.pairCount;
+            for (int i = 0; i < orderCounts.length; i++) {
+                orderCounts[i] += scan.orderCounts[i];
+            }
+        }
+        if (totalPairs > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many co-purchase pairs: " + totalPairs);
+        }
+        long[] pairKeys = new long[(int) totalPairs];
+        int pairCount = 0;
+        for (int i = 0; i < scans.size(); i++) {
+            BasketScan scan = scans.get(i);
+            System.arraycopy(scan.pairs, 0, pairKeys, pairCount, scan.pairCount);
+            pairCount += scan.pairCount;
+            // let the worker buffer go before sorting
+            scans.set(i, null);
+        }
+        return CoPurchaseIndex.build(productIds, orderCounts, pairKeys, pairCount, minSupport, topN, maxOrderId);
+    }
+
+    // runs on a scan thread until every span of order ids has been taken
+    private BasketScan scan(long[] productIds, AtomicLong nextFrom, long maxOrderId) {
+        BasketScan scan = new BasketScan(productIds, maxBasket);
+        long from;
+        while ((from = nextFrom.getAndAdd(scanSpan)) < maxOrderId) {
+            long to = Math.min(from + scanSpan, maxOrderId);
+            for (Object[] line : orderDetailRepository.findOrderLinesBetween(from, to)) {
+                if (line[0] != null && line[1] != null) {
+                    scan.add(((Number) line[0]).longValue(), ((Number) line[1]).longValue());
+                }
+            }
+            scan.flush();
+        }
+        return scan;
+    }
+
+    // pair keys and order counts of the baskets one scan thread has seen; lines come grouped by order
+    private static final class BasketScan {
+        private final long[] productIds;
+        private final int maxBasket;
+        private final int[] orderCounts;
+        private long[] pairs = new long[1 << 16];
+        private int pairCount;
+        private int[] basket = new int[16];
+        private int basketSize;
+        private long orderId = -1;
+
+        BasketScan(long[] productIds, int maxBasket) {
+            this.productIds = productIds;
+            this.maxBasket = maxBasket;
+            this.orderCounts = new int[productIds.length];
+        }
+
+        void add(long lineOrderId, long productId) {
+            if (lineOrderId != orderId) {
+                flush();
+                orderId = lineOrderId;
+            }
+            // products deleted since the order are left out
+            int product = Arrays.binarySearch(productIds, productId);
+            if (product >= 0) {
+                if (basketSize == basket.length) {
+                    basket = Arrays.copyOf(basket, basketSize * 2);
+                }
+                basket[basketSize++] = product;
+            }
+        }
+
+        void flush() {
+            Arrays.sort(basket, 0, basketSize);
+            int distinct = 0;
+            for (int i = 0; i < basketSize; i++) {
+                if (distinct == 0 || basket[distinct - 1] != basket[i]) {
+                    basket[distinct++] = basket[i];
+                }
+            }
+            basketSize = 0;
+            orderId = -1;
+            // bulk orders say little about what goes together and would add n^2 pairs
+            if (distinct == 0 || distinct > maxBasket) {
+                return;
+            }
+            long needed = pairCount + (long) distinct * (distinct - 1) / 2;
+            if (needed > pairs.length) {
+                pairs = Arrays.copyOf(pairs, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(needed, pairs.length * 2L)));
+            }
+            for (int i = 0; i < distinct; i++) {
+                orderCounts[basket[i]]++;
+                for (int j = i + 1; j < distinct; j++) {
+                    pairs[pairCount++] = (long) basket[i] << 32 | basket[j];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.project.shopapp.services.Search;
+
+import java.util.List;
+
+public interface IProductSearchService {
+    // false until the index is built: callers keep the database result
+    boolean isReady();
+
+    // ids of products whose name approximately contains keyword (diacritics and a few typos ignored), best first
+    List<Long> fuzzySearch(String keyword, Long categoryId, int maxResults);
+}
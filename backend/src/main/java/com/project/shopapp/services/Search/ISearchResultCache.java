@@ -0,0 +1,19 @@
+package com.project.shopapp.services.Search;
+
+import com.project.shopapp.responses.Metrics.SearchCacheMetricsResponse;
+import com.project.shopapp.services.Catalog.ProductSort;
+
+public interface ISearchResultCache {
+    // the cached window holding this page, or null
+    SearchWindow find(String keyword, Long categoryId, ProductSort sort, int page, int limit);
+
+    // read before computing a window and pass to put: a window computed across a product change is not stored
+    long generation();
+
+    void put(String keyword, Long categoryId, ProductSort sort, int page, int limit, SearchWindow window, long generation);
+
+    // pages of this size cached together; at most search.cache.max-window-ids ids per window
+    int pagesPerWindow(int limit);
+
+    SearchCacheMetricsResponse getMetrics();
+}
@@ -0,0 +1,255 @@
+package com.project.shopapp.services.Search;
+
+import com.project.shopapp.services.Catalog.CatalogListener;
+import com.project.shopapp.services.Catalog.CatalogRow;
+import com.project.shopapp.services.Catalog.CatalogSnapshot;
+import com.project.shopapp.utils.TextNormalizer;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Typo and diacritic tolerant name search, used when the SQL LIKE finds nothing. Candidates come
+ * from a TrigramIndex (a name within k edits of the query shares all but about 3k of its trigrams),
+ * are verified with a bounded substring edit distance and ranked by distance, then trigram overlap.
+ * Like SuggestService, products changed since the last build sit in a small overlay that is
+ * checked directly, and the index is rebuilt off-thread once the overlay grows.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductSearchService implements IProductSearchService, CatalogListener {
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchService.class);
+
+    @Value("${search.fuzzy.enabled:true}")
+    private boolean enabled;
+    @Value("${search.fuzzy.max-edits:2}")
+    private int maxEdits;
+    // trigram candidates verified per query, best overlap first
+    @Value("${search.fuzzy.max-candidates:2000}")
+    private int maxCandidates;
+    @Value("${search.fuzzy.max-delta:2000}")
+    private int maxDelta;
+
+    private volatile TrigramIndex index;
+    private CatalogSnapshot catalog;
+    private final Map<Long, ChangedProduct> delta = new ConcurrentHashMap<>();
+    private long sequence;
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final ThreadLocal<int[][]> scratch = new ThreadLocal<>();
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-index-build");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // foldedName == null when the product was deleted
+    private record ChangedProduct(long sequence, long id, long categoryId, String foldedName) {
+    }
+
+    private record Match(long id, int distance, double overlap) {
+    }
+
+    @PreDestroy
+    public void stop() {
+        builder.shutdownNow();
+    }
+
+    @Override
+    public boolean isReady() {
+        return index != null;
+    }
+
+    @Override
+    public List<Long> fuzzySearch(String keyword, Long categoryId, int maxResults) {
+        TrigramIndex current = index;
+        String query = TextNormalizer.fold(keyword);
+        if (current == null || query.isEmpty()) {
+            return List.of();
+        }
+        long category = categoryId == null ? 0 : categoryId;
+        int limit = editLimit(query);
+        int[] queryTrigrams = TrigramIndex.trigrams(query);
+        // each edit breaks at most 3 trigrams, and a match inside a word loses the 2 padded ones
+        int threshold = Math.max(1, queryTrigrams.length - 3 * limit - 2);
+
+        int[][] buffers = buffers(current.size());
+        int[] counts = buffers[0];
+        int[] touched = buffers[1];
+        int touchedSize = 0;
+        for (int code : queryTrigrams) {
+            touchedSize = current.accumulate(code, counts, touched, touchedSize);
+        }
+        int candidates = 0;
+        for (int k = 0; k < touchedSize; k++) {
+            int doc = touched[k];
+            if (counts[doc] >= threshold) {
+                touched[candidates++] = doc;
+            } else {
+                counts[doc] = 0;
+            }
+        }
+        int[] docs = Arrays.copyOf(touched, candidates);
+        int[] overlaps = new int[candidates];
+        for (int k = 0; k < candidates; k++) {
+            overlaps[k] = counts[docs[k]];
+            counts[docs[k]] = 0;
+        }
+        int[] order = byOverlap(docs, overlaps);
+
+        List<Match> matches = new ArrayList<>();
+        for (int k = 0; k < order.length && k < maxCandidates; k++) {
+            int doc = docs[order[k]];
+            long id = current.idAt(doc);
+            if ((category != 0 && current.categoryAt(doc) != category) || delta.containsKey(id)) {
+                continue;
+            }
+            String name = current.nameAt(doc);
+            int distance = TrigramIndex.substringDistance(query, name, limit);
+            if (distance <= limit) {
+                matches.add(new Match(id, distance, overlap(overlaps[order[k]], queryTrigrams.length, name)));
+            }
+        }
+        for (ChangedProduct changed : delta.values()) {
+            if (changed.foldedName() == null || (category != 0 && changed.categoryId() != category)) {
+                continue;
+            }
+            int distance = TrigramIndex.substringDistance(query, changed.foldedName(), limit);
+            if (distance <= limit) {
+                int shared = sharedTrigrams(queryTrigrams, TrigramIndex.trigrams(changed.foldedName()));
+                matches.add(new Match(changed.id(), distance, overlap(shared, queryTrigrams.length, changed.foldedName())));
+            }
+        }
+        matches.sort(Comparator.comparingInt(Match::distance)
+                .thenComparing(Comparator.comparingDouble(Match::overlap).reversed())
+                .thenComparingLong(Match::id));
+        List<Long> ids = new ArrayList<>(Math.min(maxResults, matches.size()));
+        for (int k = 0; k < matches.size() && k < maxResults; k++) {
+            ids.add(matches.get(k).id());
+        }
+        return ids;
+    }
+
+    @Override
+    public void catalogLoaded(CatalogSnapshot snapshot) {
+        synchronized (this) {
+            catalog = snapshot;
+        }
+        scheduleRebuild();
+    }
+
+    @Override
+    public void catalogChanged(CatalogSnapshot snapshot, List<CatalogRow> upserts, Set<Long> deletedIds) {
+        synchronized (this) {
+            catalog = snapshot;
+            for (CatalogRow row : upserts) {
+                long categoryId = row.getCategoryId() == null ? 0 : row.getCategoryId();
+                delta.put(row.getId(), new ChangedProduct(++sequence, row.getId(), categoryId,
+                        TextNormalizer.fold(row.getName())));
+            }
+            for (Long id : deletedIds) {
+                delta.put(id, new ChangedProduct(++sequence, id, 0, null));
+            }
+        }
+        if (delta.size() > maxDelta) {
+            scheduleRebuild();
+        }
+    }
+
+    private void scheduleRebuild() {
+        if (enabled && rebuildScheduled.compareAndSet(false, true)) {
+            builder.execute(this::rebuild);
+        }
+    }
+
+    private void rebuild() {
+        rebuildScheduled.set(false);
+        CatalogSnapshot snapshot;
+        long builtUpTo;
+        synchronized (this) {
+            snapshot = catalog;
+            builtUpTo = sequence;
+        }
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            TrigramIndex.Builder indexBuilder = new TrigramIndex.Builder();
+            for (int row = 0; row < snapshot.size(); row++) {
+                indexBuilder.add(snapshot.idAt(row), snapshot.categoryAt(row), TextNormalizer.fold(snapshot.nameAt(row)));
+            }
+            TrigramIndex built = indexBuilder.build();
+            synchronized (this) {
+                index = built;
+                delta.values().removeIf(changed -> changed.sequence() <= builtUpTo);
+            }
+            logger.info("Search index built: {} products, {} KB of postings in {} ms",
+                    built.size(), built.postingBytes() / 1024, System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            logger.warn("Cannot build the search index: {}", e.getMessage());
+        }
+    }
+
+    // short words tolerate fewer typos, or every 3-letter query would match half the catalog
+    private int editLimit(String query) {
+        int length = query.length();
+        int limit = length <= 3 ? 0 : length <= 6 ? 1 : 2;
+        return Math.min(limit, maxEdits);
+    }
+
+    // counts (all zero between queries) and the list of touched documents, per thread
+    private int[][] buffers(int size) {
+        int[][] buffers = scratch.get();
+        if (buffers == null || buffers[0].length < size) {
+            buffers = new int[][]{new int[size], new int[size]};
+            scratch.set(buffers);
+        }
+        return buffers;
+    }
+
+    private static int[] byOverlap(int[] docs, int[] overlaps) {
+        Integer[] order = new Integer[docs.length];
+        for (int k = 0; k < order.length; k++) {
+            order[k] = k;
+        }
+        Arrays.sort(order, (a, b) -> overlaps[b] != overlaps[a]
+                ? Integer.compare(overlaps[b], overlaps[a])
+                : Integer.compare(docs[a], docs[b]));
+        int[] sorted = new int[order.length];
+        for (int k = 0; k < order.length; k++) {
+            sorted[k] = order[k];
+        }
+        return sorted;
+    }
+
+    // Jaccard-like: shared trigrams over the union, with the name's trigram count taken as its length
+    private static double overlap(int shared, int queryTrigrams, String name) {
+        int union = queryTrigrams + name.length() - shared;
+        return union <= 0 ? 0 : (double) shared / union;
+    }
+
+    private static int sharedTrigrams(int[] a, int[] b) {
+        int shared = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return shared;
+    }
+}
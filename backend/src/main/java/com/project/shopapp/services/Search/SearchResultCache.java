@@ -0,0 +1,262 @@
+package com.project.shopapp.services.Search;
+
+import com.project.shopapp.responses.Metrics.SearchCacheClassMetricsResponse;
+import com.project.shopapp.responses.Metrics.SearchCacheMetricsResponse;
+import com.project.shopapp.services.Catalog.CatalogListener;
+import com.project.shopapp.services.Catalog.CatalogRow;
+import com.project.shopapp.services.Catalog.CatalogSnapshot;
+import com.project.shopapp.services.Catalog.ProductSort;
+import com.project.shopapp.utils.TextNormalizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Product listing results (id windows, totals, facets) keyed by the exact keyword, category, sort and
+ * page window; the ids come from a LIKE on that exact keyword, so two spellings that fold alike are
+ * still separate entries. When the catalog applies a batch of product changes, only entries the
+ * changed products could belong to are dropped: for keyword entries, a folded name or description
+ * containing the folded keyword before or after the change, and the same category (or no category
+ * filter) unless the entry carries facets, whose category counts cover every category.
+ * Sales-driven orders (sort=popular) are bounded by the TTL instead.
+ * Lookups never lock: entries live in a ConcurrentHashMap and, once it is full, one thread at a time
+ * evicts the least recently used entries of a sample.
+ */
+@Service
+public class SearchResultCache implements ISearchResultCache, CatalogListener {
+    private static final String[] QUERY_CLASSES = {"browse", "category", "keyword", "keyword_category"};
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final int pagesPerWindow;
+    private final int maxWindowIds;
+
+    private final Map<SearchKey, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder[] hits = new LongAdder[QUERY_CLASSES.length];
+    private final LongAdder[] misses = new LongAdder[QUERY_CLASSES.length];
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private CatalogSnapshot lastSnapshot;
+
+    // folded is derived from keyword; it is only kept for invalidation
+    private record SearchKey(String keyword, String folded, long categoryId, ProductSort sort, int window, int limit) {
+    }
+
+    private static final class Entry {
+        private final SearchWindow window;
+        private final long createdAt;
+        private volatile long lastUsed;
+
+        private Entry(SearchWindow window, long createdAt) {
+            this.window = window;
+            this.createdAt = createdAt;
+            this.lastUsed = createdAt;
+        }
+    }
+
+    // the old and new folded text and category of one changed product
+    private record Change(long oldCategoryId, long newCategoryId, String oldText, String newText) {
+    }
+
+    public SearchResultCache(@Value("${search.cache.enabled:true}") boolean enabled,
+                             @Value("${search.cache.max-entries:10000}") int maxEntries,
+                             @Value("${search.cache.ttl-ms:60000}") long ttlMillis,
+                             @Value("${search.cache.pages-per-window:5}") int pagesPerWindow,
+                             @Value("${search.cache.max-window-ids:1000}") int maxWindowIds) {
+        this.enabled = enabled;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMillis = ttlMillis;
+        this.pagesPerWindow = Math.max(1, pagesPerWindow);
+        this.maxWindowIds = Math.max(1, maxWindowIds);
+        for (int i = 0; i < QUERY_CLASSES.length; i++) {
+            hits[i] = new LongAdder();
+            misses[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public SearchWindow find(String keyword, Long categoryId, ProductSort sort, int page, int limit) {
+        if (!enabled) {
+            return null;
+        }
+        SearchKey key = key(keyword, categoryId, sort, page, limit);
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(key);
+        if (entry != null && now - entry.createdAt > ttlMillis) {
+            if (entries.remove(key, entry)) {
+                expirations.increment();
+            }
+            entry = null;
+        }
+        int queryClass = queryClass(key);
+        if (entry == null) {
+            misses[queryClass].increment();
+            return null;
+        }
+        hits[queryClass].increment();
+        entry.lastUsed = now;
+        return entry.window;
+    }
+
+    @Override
+    public long generation() {
+        return generation.get();
+    }
+
+    @Override
+    public void put(String keyword, Long categoryId, ProductSort sort, int page, int limit,
+                    SearchWindow window, long generation) {
+        if (!enabled || this.generation.get() != generation) {
+            return;
+        }
+        SearchKey key = key(keyword, categoryId, sort, page, limit);
+        Entry entry = new Entry(window, System.currentTimeMillis());
+        entries.put(key, entry);
+        // an invalidation that scanned the map just before this put bumped the generation first
+        if (this.generation.get() != generation) {
+            entries.remove(key, entry);
+            return;
+        }
+        if (entries.size() > maxEntries) {
+            evict();
+        }
+    }
+
+    @Override
+    public int pagesPerWindow(int limit) {
+        return (int) Math.max(1, Math.min(pagesPerWindow, maxWindowIds / Math.max(1, limit)));
+    }
+
+    @Override
+    public SearchCacheMetricsResponse getMetrics() {
+        List<SearchCacheClassMetricsResponse> classes = new ArrayList<>(QUERY_CLASSES.length);
+        for (int i = 0; i < QUERY_CLASSES.length; i++) {
+            long hitCount = hits[i].sum();
+            long missCount = misses[i].sum();
+            classes.add(SearchCacheClassMetricsResponse.builder()
+                    .queryClass(QUERY_CLASSES[i])
+                    .hits(hitCount)
+                    .misses(missCount)
+                    .hitRatio(hitCount + missCount == 0 ? 0 : (double) hitCount / (hitCount + missCount))
+                    .build());
+        }
+        return SearchCacheMetricsResponse.builder()
+                .entries(entries.size())
+                .maxEntries(maxEntries)
+                .invalidations(invalidations.sum())
+                .expirations(expirations.sum())
+                .evictions(evictions.sum())
+                .queryClasses(classes)
+                .build();
+    }
+
+    @Override
+    public void catalogLoaded(CatalogSnapshot snapshot) {
+        generation.incrementAndGet();
+        entries.clear();
+        lastSnapshot = snapshot;
+    }
+
+    @Override
+    public void catalogChanged(CatalogSnapshot snapshot, List<CatalogRow> upserts, Set<Long> deletedIds) {
+        CatalogSnapshot previous = lastSnapshot;
+        lastSnapshot = snapshot;
+        List<Change> changes = new ArrayList<>(upserts.size() + deletedIds.size());
+        for (CatalogRow row : upserts) {
+            changes.add(change(previous, row.getId(), row.getCategoryId() == null ? 0 : row.getCategoryId(),
+                    TextNormalizer.fold(row.getName()) + " " + TextNormalizer.fold(row.getDescription())));
+        }
+        for (Long id : deletedIds) {
+            changes.add(change(previous, id, -1, ""));
+        }
+        // windows being computed right now may predate this batch
+        generation.incrementAndGet();
+        Iterator<Map.Entry<SearchKey, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<SearchKey, Entry> entry = iterator.next();
+            if (affected(entry.getKey(), entry.getValue().window, changes)) {
+                iterator.remove();
+                invalidations.increment();
+            }
+        }
+    }
+
+    // drops expired entries, then the least recently used tenth of a sample of the rest
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            int excess = entries.size() - maxEntries + Math.max(1, maxEntries / 10);
+            List<Map.Entry<SearchKey, Entry>> sample = new ArrayList<>(Math.min(entries.size(), excess * 4));
+            Iterator<Map.Entry<SearchKey, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext() && excess > 0) {
+                Map.Entry<SearchKey, Entry> entry = iterator.next();
+                if (now - entry.getValue().createdAt > ttlMillis) {
+                    iterator.remove();
+                    expirations.increment();
+                    excess--;
+                } else if (sample.size() < excess * 4) {
+                    sample.add(entry);
+                }
+            }
+            sample.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsed));
+            for (int k = 0; k < sample.size() && excess > 0; k++) {
+                if (entries.remove(sample.get(k).getKey(), sample.get(k).getValue())) {
+                    evictions.increment();
+                    excess--;
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static Change change(CatalogSnapshot previous, long id, long newCategoryId, String newText) {
+        int row = previous == null ? -1 : previous.rowOf(id);
+        if (row < 0) {
+            return new Change(-1, newCategoryId, "", newText);
+        }
+        String oldText = TextNormalizer.fold(previous.nameAt(row)) + " "
+                + TextNormalizer.fold(previous.payloadAt(row).getDescription());
+        return new Change(previous.categoryAt(row), newCategoryId, oldText, newText);
+    }
+
+    private static boolean affected(SearchKey key, SearchWindow window, List<Change> changes) {
+        for (Change change : changes) {
+            // fuzzy matches do not contain the keyword literally, so any change counts
+            boolean matches = key.folded().isEmpty() || window.isRanked()
+                    || change.oldText().contains(key.folded()) || change.newText().contains(key.folded());
+            if (!matches) {
+                continue;
+            }
+            // category facet counts span every category, whatever the entry filters on
+            if (window.getFacets() != null || key.categoryId() == 0
+                    || key.categoryId() == change.oldCategoryId()
+                    || key.categoryId() == change.newCategoryId()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private SearchKey key(String keyword, Long categoryId, ProductSort sort, int page, int limit) {
+        String exact = keyword == null || keyword.isBlank() ? "" : keyword;
+        return new SearchKey(exact, TextNormalizer.fold(exact), categoryId == null ? 0 : categoryId,
+                sort, page / pagesPerWindow(limit), limit);
+    }
+
+    private static int queryClass(SearchKey key) {
+        return (key.keyword().isEmpty() ? 0 : 2) + (key.categoryId() == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,17 @@
+package com.project.shopapp.services.Search;
+
+import com.project.shopapp.responses.Product.ProductFacetsResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// a few consecutive pages of one product listing, as ids; products are read from the catalog when served
+@Getter
+@AllArgsConstructor
+public class SearchWindow {
+    private final long[] productIds;
+    private final int firstPage;
+    private final long totalElements;
+    // relevance-ordered fuzzy matches: no keyset cursor
+    private final boolean ranked;
+    private final ProductFacetsResponse facets;
+}
@@ -0,0 +1,167 @@
+package com.project.shopapp.services.Search;
+
+import java.util.Arrays;
+
+/**
+ * Inverted index from character trigrams of folded product names to the products containing them.
+ * Posting lists are one int[] in CSR layout (offsets per trigram code, then ascending document
+ * numbers); documents are positions in the id-sorted ids array. Built once, then only read.
+ */
+final class TrigramIndex {
+    // space, a-z, 0-9, and one bucket for anything else folding left behind
+    private static final int ALPHABET = 38;
+    static final int CODES = ALPHABET * ALPHABET * ALPHABET;
+
+    private final long[] ids;
+    private final long[] categoryIds;
+    private final String[] names;
+    private final int[] offsets;
+    private final int[] postings;
+
+    private TrigramIndex(long[] ids, long[] categoryIds, String[] names, int[] offsets, int[] postings) {
+        this.ids = ids;
+        this.categoryIds = categoryIds;
+        this.names = names;
+        this.offsets = offsets;
+        this.postings = postings;
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    long idAt(int doc) {
+        return ids[doc];
+    }
+
+    long categoryAt(int doc) {
+        return categoryIds[doc];
+    }
+
+    // folded name
+    String nameAt(int doc) {
+        return names[doc];
+    }
+
+    long postingBytes() {
+        return 4L * (offsets.length + postings.length);
+    }
+
+    // adds 1 to counts[doc] for every document containing trigram code; returns how many there were
+    int accumulate(int code, int[] counts, int[] touched, int touchedSize) {
+        for (int k = offsets[code]; k < offsets[code + 1]; k++) {
+            int doc = postings[k];
+            if (counts[doc]++ == 0) {
+                touched[touchedSize++] = doc;
+            }
+        }
+        return touchedSize;
+    }
+
+    int postingLength(int code) {
+        return offsets[code + 1] - offsets[code];
+    }
+
+    // distinct trigram codes of " " + folded + " ", so word starts and ends count as trigrams too
+    static int[] trigrams(String folded) {
+        if (folded.isEmpty()) {
+            return new int[0];
+        }
+        String padded = " " + folded + " ";
+        int[] codes = new int[Math.max(0, padded.length() - 2)];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = (symbol(padded.charAt(i)) * ALPHABET + symbol(padded.charAt(i + 1))) * ALPHABET
+                    + symbol(padded.charAt(i + 2));
+        }
+        Arrays.sort(codes);
+        int distinct = 0;
+        for (int i = 0; i < codes.length; i++) {
+            if (i == 0 || codes[i] != codes[i - 1]) {
+                codes[distinct++] = codes[i];
+            }
+        }
+        return Arrays.copyOf(codes, distinct);
+    }
+
+    private static int symbol(char c) {
+        if (c == ' ') {
+            return 0;
+        }
+        if (c >= 'a' && c <= 'z') {
+            return 1 + c - 'a';
+        }
+        if (c >= '0' && c <= '9') {
+            return 27 + c - '0';
+        }
+        return ALPHABET - 1;
+    }
+
+    // smallest edit distance between pattern and any substring of text (Sellers), capped at limit + 1
+    static int substringDistance(String pattern, String text, int limit) {
+        int m = pattern.length();
+        int[] column = new int[m + 1];
+        for (int i = 0; i <= m; i++) {
+            column[i] = i;
+        }
+        int best = column[m];
+        for (int j = 0; j < text.length() && best > 0; j++) {
+            char c = text.charAt(j);
+            int diagonal = column[0];
+            for (int i = 1; i <= m; i++) {
+                int above = column[i];
+                int value = Math.min(Math.min(above + 1, column[i - 1] + 1),
+                        diagonal + (pattern.charAt(i - 1) == c ? 0 : 1));
+                diagonal = above;
+                column[i] = value;
+            }
+            best = Math.min(best, column[m]);
+        }
+        return best > limit ? limit + 1 : best;
+    }
+
+    static final class Builder {
+        private long[] ids = new long[1024];
+        private long[] categoryIds = new long[1024];
+        private String[] names = new String[1024];
+        private int[][] docTrigrams = new int[1024][];
+        private int count;
+
+        // products must be added in ascending id order
+        Builder add(long id, long categoryId, String foldedName) {
+            if (count == ids.length) {
+                int capacity = count * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                categoryIds = Arrays.copyOf(categoryIds, capacity);
+                names = Arrays.copyOf(names, capacity);
+                docTrigrams = Arrays.copyOf(docTrigrams, capacity);
+            }
+            ids[count] = id;
+            categoryIds[count] = categoryId;
+            names[count] = foldedName;
+            docTrigrams[count++] = trigrams(foldedName);
+            return this;
+        }
+
+        TrigramIndex build() {
+            int[] offsets = new int[CODES + 1];
+            for (int doc = 0; doc < count; doc++) {
+                for (int code : docTrigrams[doc]) {
+                    offsets[code + 1]++;
+                }
+            }
+            for (int code = 0; code < CODES; code++) {
+                offsets[code + 1] += offsets[code];
+            }
+            int[] postings = new int[offsets[CODES]];
+            int[] next = Arrays.copyOf(offsets, CODES);
+            for (int doc = 0; doc < count; doc++) {
+                for (int code : docTrigrams[doc]) {
+                    postings[next[code]++] = doc;
+                }
+                docTrigrams[doc] = null;
+            }
+            return new TrigramIndex(Arrays.copyOf(ids, count), Arrays.copyOf(categoryIds, count),
+                    Arrays.copyOf(names, count), offsets, postings);
+        }
+    }
+}
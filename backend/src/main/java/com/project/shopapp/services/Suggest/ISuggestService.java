@@ -0,0 +1,13 @@
+package com.project.shopapp.services.Suggest;
+
+import com.project.shopapp.responses.Product.SuggestionResponse;
+
+import java.util.List;
+
+public interface ISuggestService {
+    // product and category names starting with query (or with one of its words), most popular first
+    List<SuggestionResponse> suggest(String query, int limit);
+
+    // call after a category was created, renamed or deleted; applied once the transaction commits
+    void categoriesChanged();
+}
@@ -0,0 +1,303 @@
+package com.project.shopapp.services.Suggest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable radix tree (path-compressed trie) over folded suggestion keys. Every node keeps the
+ * best entries of its subtree, ordered by weight, so a prefix lookup is a walk down at most
+ * |prefix| characters followed by reading a precomputed list: no subtree scan at query time.
+ * Nodes, edges and top lists live in flat int arrays; edge labels point into the sorted key array.
+ */
+final class SuggestIndex {
+    private static final int[] NONE = new int[0];
+
+    // entries: what a key resolves to (a product or a category)
+    private final long[] entryIds;
+    private final boolean[] entryIsCategory;
+    private final long[] entryWeights;
+    private final String[] categoryNames;
+
+    private final String[] keys;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    private final int[] labelKey;
+    private final int[] labelStart;
+    private final int[] labelEnd;
+    private final int[] topStart;
+    private final int[] topEnd;
+    private final int[] topEntries;
+    private final int nodeCount;
+
+    private SuggestIndex(Builder builder, String[] keys, int[] keyEntries) {
+        this.entryIds = Arrays.copyOf(builder.entryIds, builder.entryCount);
+        this.entryIsCategory = Arrays.copyOf(builder.entryIsCategory, builder.entryCount);
+        this.entryWeights = Arrays.copyOf(builder.entryWeights, builder.entryCount);
+        this.categoryNames = Arrays.copyOf(builder.categoryNames, builder.entryCount);
+        this.keys = keys;
+        int maxNodes = 2 * keys.length + 1;
+        this.firstChild = new int[maxNodes];
+        this.nextSibling = new int[maxNodes];
+        this.labelKey = new int[maxNodes];
+        this.labelStart = new int[maxNodes];
+        this.labelEnd = new int[maxNodes];
+        this.topStart = new int[maxNodes];
+        this.topEnd = new int[maxNodes];
+        Arrays.fill(firstChild, -1);
+        Arrays.fill(nextSibling, -1);
+        TreeBuilder tree = new TreeBuilder(keyEntries, builder.topK);
+        tree.nodes = 1;
+        tree.build(0, 0, keys.length, 0);
+        this.nodeCount = tree.nodes;
+        this.topEntries = Arrays.copyOf(tree.top, tree.topSize);
+    }
+
+    int size() {
+        return entryIds.length;
+    }
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    long idOf(int entry) {
+        return entryIds[entry];
+    }
+
+    boolean isCategory(int entry) {
+        return entryIsCategory[entry];
+    }
+
+    long weightOf(int entry) {
+        return entryWeights[entry];
+    }
+
+    String categoryName(int entry) {
+        return categoryNames[entry];
+    }
+
+    // entries under prefix, best first (at most topK of them); prefix must already be folded
+    int[] lookup(String prefix) {
+        int node = 0;
+        int depth = 0;
+        while (depth < prefix.length()) {
+            char c = prefix.charAt(depth);
+            int child = firstChild[node];
+            while (child >= 0 && keys[labelKey[child]].charAt(labelStart[child]) != c) {
+                child = nextSibling[child];
+            }
+            if (child < 0) {
+                return NONE;
+            }
+            String label = keys[labelKey[child]];
+            for (int k = labelStart[child]; k < labelEnd[child] && depth < prefix.length(); k++, depth++) {
+                if (label.charAt(k) != prefix.charAt(depth)) {
+                    return NONE;
+                }
+            }
+            node = child;
+        }
+        return Arrays.copyOfRange(topEntries, topStart[node], topEnd[node]);
+    }
+
+    // node ids are assigned in pre-order and top lists written post-order, so each node keeps its own range
+    private final class TreeBuilder {
+        private final int[] keyEntries;
+        private final int topK;
+        private int nodes;
+        private int[] top;
+        private int topSize;
+
+        TreeBuilder(int[] keyEntries, int topK) {
+            this.keyEntries = keyEntries;
+            this.topK = topK;
+            this.top = new int[Math.max(16, keys.length)];
+        }
+
+        void build(int node, int lo, int hi, int depth) {
+            List<int[]> candidates = new ArrayList<>();
+            int[] terminals = new int[0];
+            int i = lo;
+            while (i < hi && keys[i].length() == depth) {
+                i++;
+            }
+            if (i > lo) {
+                terminals = new int[i - lo];
+                for (int k = lo; k < i; k++) {
+                    terminals[k - lo] = keyEntries[k];
+                }
+                candidates.add(terminals);
+            }
+            int lastChild = -1;
+            while (i < hi) {
+                char c = keys[i].charAt(depth);
+                int j = upperBound(i, hi, depth, c);
+                int end = depth + commonPrefix(keys[i], keys[j - 1], depth);
+                int child = nodes++;
+                labelKey[child] = i;
+                labelStart[child] = depth;
+                labelEnd[child] = end;
+                if (lastChild < 0) {
+                    firstChild[node] = child;
+                } else {
+                    nextSibling[lastChild] = child;
+                }
+                lastChild = child;
+                build(child, i, j, end);
+                candidates.add(Arrays.copyOfRange(top, topStart[child], topEnd[child]));
+                i = j;
+            }
+            int[] best = selectBest(candidates);
+            ensureTopCapacity(best.length);
+            topStart[node] = topSize;
+            System.arraycopy(best, 0, top, topSize, best.length);
+            topSize += best.length;
+            topEnd[node] = topSize;
+        }
+
+        // first index in [from, hi) whose key has a different character than c at depth (keys are sorted)
+        private int upperBound(int from, int hi, int depth, char c) {
+            int low = from + 1;
+            int high = hi;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].charAt(depth) == c) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int[] selectBest(List<int[]> candidates) {
+            int total = 0;
+            for (int[] list : candidates) {
+                total += list.length;
+            }
+            int[] all = new int[total];
+            int n = 0;
+            for (int[] list : candidates) {
+                System.arraycopy(list, 0, all, n, list.length);
+                n += list.length;
+            }
+            Integer[] boxed = new Integer[n];
+            for (int k = 0; k < n; k++) {
+                boxed[k] = all[k];
+            }
+            Arrays.sort(boxed, (a, b) -> entryWeights[b] != entryWeights[a]
+                    ? Long.compare(entryWeights[b], entryWeights[a])
+                    : Integer.compare(a, b));
+            int[] best = new int[Math.min(topK, n)];
+            int size = 0;
+            for (int k = 0; k < n && size < best.length; k++) {
+                // one entry can reach a node through several of its keys
+                if (size == 0 || best[size - 1] != boxed[k]) {
+                    best[size++] = boxed[k];
+                }
+            }
+            return size == best.length ? best : Arrays.copyOf(best, size);
+        }
+
+        private void ensureTopCapacity(int extra) {
+            if (topSize + extra > top.length) {
+                top = Arrays.copyOf(top, Math.max(top.length * 2, topSize + extra));
+            }
+        }
+    }
+
+    private static int commonPrefix(String a, String b, int from) {
+        int max = Math.min(a.length(), b.length());
+        int k = from;
+        while (k < max && a.charAt(k) == b.charAt(k)) {
+            k++;
+        }
+        return k - from;
+    }
+
+    /**
+     * Collects entries and their keys. A product is reachable by its whole folded name and by the
+     * name starting at each of its next few words ("iphone 15 pro" also under "15 pro" and "pro").
+     */
+    static final class Builder {
+        private final int maxKeyLength;
+        private final int wordStarts;
+        private final int topK;
+        private long[] entryIds = new long[1024];
+        private boolean[] entryIsCategory = new boolean[1024];
+        private long[] entryWeights = new long[1024];
+        private String[] categoryNames = new String[1024];
+        private int entryCount;
+        private final List<String> keys = new ArrayList<>();
+        private final List<Integer> keyEntries = new ArrayList<>();
+
+        Builder(int maxKeyLength, int wordStarts, int topK) {
+            this.maxKeyLength = maxKeyLength;
+            this.wordStarts = wordStarts;
+            this.topK = topK;
+        }
+
+        Builder addProduct(long id, String foldedName, long weight) {
+            add(id, false, null, foldedName, weight);
+            return this;
+        }
+
+        Builder addCategory(long id, String name, String foldedName, long weight) {
+            add(id, true, name, foldedName, weight);
+            return this;
+        }
+
+        private void add(long id, boolean category, String name, String foldedName, long weight) {
+            if (foldedName.isEmpty()) {
+                return;
+            }
+            if (entryCount == entryIds.length) {
+                int capacity = entryCount * 2;
+                entryIds = Arrays.copyOf(entryIds, capacity);
+                entryIsCategory = Arrays.copyOf(entryIsCategory, capacity);
+                entryWeights = Arrays.copyOf(entryWeights, capacity);
+                categoryNames = Arrays.copyOf(categoryNames, capacity);
+            }
+            int entry = entryCount++;
+            entryIds[entry] = id;
+            entryIsCategory[entry] = category;
+            entryWeights[entry] = weight;
+            categoryNames[entry] = name;
+            for (String key : keysOf(foldedName, maxKeyLength, wordStarts)) {
+                keys.add(key);
+                keyEntries.add(entry);
+            }
+        }
+
+        SuggestIndex build() {
+            Integer[] order = new Integer[keys.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> keys.get(a).compareTo(keys.get(b)));
+            String[] sortedKeys = new String[order.length];
+            int[] sortedEntries = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedKeys[i] = keys.get(order[i]);
+                sortedEntries[i] = keyEntries.get(order[i]);
+            }
+            return new SuggestIndex(this, sortedKeys, sortedEntries);
+        }
+    }
+
+    // the folded name and the name from each of its next words on, cut to maxKeyLength
+    static List<String> keysOf(String foldedName, int maxKeyLength, int wordStarts) {
+        List<String> keys = new ArrayList<>(1 + wordStarts);
+        int start = 0;
+        for (int n = 0; n <= wordStarts && start < foldedName.length(); n++) {
+            keys.add(foldedName.substring(start, Math.min(foldedName.length(), start + maxKeyLength)));
+            int space = foldedName.indexOf(' ', start);
+            if (space < 0) {
+                break;
+            }
+            start = space + 1;
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,224 @@
+package com.project.shopapp.services.Suggest;
+
+import com.project.shopapp.models.Category;
+import com.project.shopapp.repositories.CategoryRepository;
+import com.project.shopapp.responses.Product.SuggestionResponse;
+import com.project.shopapp.services.Catalog.CatalogListener;
+import com.project.shopapp.services.Catalog.CatalogLoader;
+import com.project.shopapp.services.Catalog.CatalogRow;
+import com.project.shopapp.services.Catalog.CatalogSnapshot;
+import com.project.shopapp.services.Catalog.LongLongHashIndex;
+import com.project.shopapp.utils.TextNormalizer;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Type-ahead suggestions for GET /products/suggest. A SuggestIndex is built from the catalog
+ * snapshot on a background thread; products changed afterwards are kept in a small overlay (the
+ * delta) that is consulted next to the index until the next rebuild folds them in. Rebuilds happen
+ * when the delta grows past suggest.max-delta, when categories change, and periodically to pick up
+ * new sales counts.
+ */
+@Service
+@RequiredArgsConstructor
+public class SuggestService implements ISuggestService, CatalogListener {
+    private static final Logger logger = LoggerFactory.getLogger(SuggestService.class);
+    private static final String PRODUCT = "product";
+    private static final String CATEGORY = "category";
+
+    private final CategoryRepository categoryRepository;
+    private final CatalogLoader catalogLoader;
+
+    @Value("${suggest.enabled:true}")
+    private boolean enabled;
+    @Value("${suggest.max-key-length:40}")
+    private int maxKeyLength;
+    // a name is also reachable from this many of its following words
+    @Value("${suggest.word-starts:2}")
+    private int wordStarts;
+    @Value("${suggest.top-k:16}")
+    private int topK;
+    @Value("${suggest.max-delta:2000}")
+    private int maxDelta;
+
+    private volatile SuggestIndex index;
+    private volatile CatalogSnapshot catalog;
+    private volatile LongLongHashIndex unitsSold;
+    private final Map<Long, ChangedProduct> delta = new ConcurrentHashMap<>();
+    private long sequence;
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "suggest-build");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // a product created, renamed or deleted since the index was built; name == null when deleted
+    private record ChangedProduct(long sequence, long id, String name, List<String> keys) {
+    }
+
+    @PreDestroy
+    public void stop() {
+        builder.shutdownNow();
+    }
+
+    @Override
+    public List<SuggestionResponse> suggest(String query, int limit) {
+        String prefix = TextNormalizer.fold(query);
+        SuggestIndex current = index;
+        CatalogSnapshot snapshot = catalog;
+        if (prefix.isEmpty() || current == null || snapshot == null || limit <= 0) {
+            return List.of();
+        }
+        if (prefix.length() > maxKeyLength) {
+            prefix = prefix.substring(0, maxKeyLength);
+        }
+        List<SuggestionResponse> found = new ArrayList<>();
+        for (int entry : current.lookup(prefix)) {
+            long id = current.idOf(entry);
+            if (current.isCategory(entry)) {
+                found.add(suggestion(current.categoryName(entry), CATEGORY, id, current.weightOf(entry)));
+            } else if (!delta.containsKey(id)) {
+                int row = snapshot.rowOf(id);
+                if (row >= 0) {
+                    found.add(suggestion(snapshot.nameAt(row), PRODUCT, id, current.weightOf(entry)));
+                }
+            }
+        }
+        for (ChangedProduct changed : delta.values()) {
+            if (changed.name() != null && matches(changed.keys(), prefix)) {
+                found.add(suggestion(changed.name(), PRODUCT, changed.id(), unitsSold(changed.id())));
+            }
+        }
+        found.sort(Comparator.comparingLong(SuggestionResponse::getWeight).reversed());
+        return found.size() > limit ? new ArrayList<>(found.subList(0, limit)) : found;
+    }
+
+    @Override
+    public void categoriesChanged() {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    scheduleRebuild();
+                }
+            });
+        } else {
+            scheduleRebuild();
+        }
+    }
+
+    @Override
+    public void catalogLoaded(CatalogSnapshot snapshot) {
+        synchronized (this) {
+            catalog = snapshot;
+        }
+        scheduleRebuild();
+    }
+
+    @Override
+    public void catalogChanged(CatalogSnapshot snapshot, List<CatalogRow> upserts, Set<Long> deletedIds) {
+        synchronized (this) {
+            catalog = snapshot;
+            for (CatalogRow row : upserts) {
+                String folded = TextNormalizer.fold(row.getName());
+                delta.put(row.getId(), new ChangedProduct(++sequence, row.getId(), row.getName(),
+                        SuggestIndex.keysOf(folded, maxKeyLength, wordStarts)));
+            }
+            for (Long id : deletedIds) {
+                delta.put(id, new ChangedProduct(++sequence, id, null, List.of()));
+            }
+        }
+        if (delta.size() > maxDelta) {
+            scheduleRebuild();
+        }
+    }
+
+    // sales counts only change the order of suggestions, so they are refreshed lazily
+    @Scheduled(initialDelayString = "${suggest.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${suggest.rebuild-interval-ms:3600000}")
+    public void scheduledRebuild() {
+        if (index != null) {
+            scheduleRebuild();
+        }
+    }
+
+    private void scheduleRebuild() {
+        if (enabled && rebuildScheduled.compareAndSet(false, true)) {
+            builder.execute(this::rebuild);
+        }
+    }
+
+    private void rebuild() {
+        rebuildScheduled.set(false);
+        CatalogSnapshot snapshot;
+        long builtUpTo;
+        synchronized (this) {
+            snapshot = catalog;
+            builtUpTo = sequence;
+        }
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            LongLongHashIndex sold = catalogLoader.loadUnitsSold();
+            unitsSold = sold;
+            SuggestIndex.Builder indexBuilder = new SuggestIndex.Builder(maxKeyLength, wordStarts, topK);
+            Map<Long, Long> categoryWeights = new HashMap<>();
+            for (int row = 0; row < snapshot.size(); row++) {
+                long id = snapshot.idAt(row);
+                long weight = Math.max(0, sold.get(id));
+                indexBuilder.addProduct(id, TextNormalizer.fold(snapshot.nameAt(row)), weight);
+                categoryWeights.merge(snapshot.categoryAt(row), 1 + weight, Long::sum);
+            }
+            for (Category category : categoryRepository.findAll()) {
+                indexBuilder.addCategory(category.getId(), category.getName(),
+                        TextNormalizer.fold(category.getName()), categoryWeights.getOrDefault(category.getId(), 0L));
+            }
+            SuggestIndex built = indexBuilder.build();
+            synchronized (this) {
+                index = built;
+                delta.values().removeIf(changed -> changed.sequence() <= builtUpTo);
+            }
+            logger.info("Suggest index built: {} entries, {} nodes in {} ms",
+                    built.size(), built.nodeCount(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            logger.warn("Cannot build the suggest index: {}", e.getMessage());
+        }
+    }
+
+    private long unitsSold(long productId) {
+        LongLongHashIndex sold = unitsSold;
+        return sold == null ? 0 : Math.max(0, sold.get(productId));
+    }
+
+    private static boolean matches(List<String> keys, String prefix) {
+        for (String key : keys) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static SuggestionResponse suggestion(String text, String type, long id, long weight) {
+        return SuggestionResponse.builder().text(text).type(type).id(id).weight(weight).build();
+    }
+}
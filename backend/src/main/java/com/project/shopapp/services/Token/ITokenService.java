@@ -9,4 +9,6 @@ import org.springframework.stereotype.Service;
 public interface ITokenService {
 
     Token addToken(User user, String token);
+
+    Token refreshToken(String refreshToken) throws Exception;
 }
@@ -1,52 +1,157 @@
 package com.project.shopapp.services.Token;
 
 import com.project.shopapp.components.JwtTokenUtils;
+import com.project.shopapp.components.TokenRevocationStore;
+import com.project.shopapp.repositories.RetiredRefreshTokenRepository;
 import com.project.shopapp.repositories.TokenRepository;
+import com.project.shopapp.repositories.UserRepository;
 import com.project.shopapp.exceptions.DataNotFoundException;
 import com.project.shopapp.exceptions.ExpiredTokenException;
+import com.project.shopapp.exceptions.PermissionDenyException;
+import com.project.shopapp.models.RetiredRefreshToken;
 import com.project.shopapp.models.Token;
 import com.project.shopapp.models.User;
+import com.project.shopapp.utils.HashUtils;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import java.security.SecureRandom;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.Base64;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class TokenService implements ITokenService {
     private static final int MAX_TOKENS = 3;
+    private static final SecureRandom REFRESH_TOKEN_RANDOM = new SecureRandom();
     private final TokenRepository tokenRepository;
+    private final UserRepository userRepository;
     private final JwtTokenUtils jwtTokenUtil;
+    private final TokenRevocationStore tokenRevocationStore;
+    private final UserSessionRegistry userSessionRegistry;
+    private final RetiredRefreshTokenRepository retiredRefreshTokenRepository;
     @Value("${jwt.expiration}")
     private int expiration;
+    @Value("${jwt.expiration-refresh-token}")
+    private int expirationRefreshToken;
 
     @Override
+    @Transactional
     public Token addToken(User user, String token) {
-        List<Token> userTokens = tokenRepository.findByUser(user);
-        int tokenCount = userTokens.size();
-        // Số lượng token vượt quá giới hạn, xóa một token cũ
-        if (tokenCount >= MAX_TOKENS) {
-            // Xóa token đầu tiên trong danh sách
-            Token tokenToDelete = userTokens.get(0);
-            tokenRepository.delete(tokenToDelete);
+        UserSessionRegistry.Sessions sessions = userSessionRegistry.sessionsOf(user.getId());
+        synchronized (sessions) {
+            // sessions opened on other nodes count as well: the database decides, under a lock on the user
+            userRepository.lockById(user.getId());
+            if (tokenRepository.countLiveSessions(user.getId(), LocalDateTime.now()) != sessions.size()) {
+                userSessionRegistry.reload(user.getId(), sessions);
+            }
+            // Số lượng token vượt quá giới hạn, xóa token được cấp sớm nhất
+            while (sessions.size() >= MAX_TOKENS) {
+                UserSessionRegistry.Session oldest = sessions.removeOldest();
+                tokenRepository.deleteById(oldest.tokenId());
+                // the deleted token is still signed and unexpired, so it has to be revoked explicitly
+                tokenRevocationStore.revoke(oldest.jti(), oldest.expirationDate());
+            }
+            long expirationInSeconds = expiration;
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime expirationDateTime = now.plusSeconds(expirationInSeconds);
+            // Tạo mới một token cho người dùng
+            Token newToken = Token.builder()
+                    .user(user)
+                    .token(token)
+                    .tokenHash(HashUtils.sha256Hex(token))
+                    .jti(jwtTokenUtil.extractJti(token))
+                    .revoked(false)
+                    .expired(false)
+                    .tokenType("Bearer")
+                    .expirationDate(expirationDateTime)
+                    .issuedAt(now)
+                    .refreshExpirationDate(now.plusSeconds(expirationRefreshToken))
+                    .build();
+            assignRefreshToken(newToken);
+
+            tokenRepository.save(newToken);
+            sessions.add(UserSessionRegistry.Session.of(newToken));
+
+            return newToken;
+        }
+    }
+
+    // Rotates the refresh token: each one can be used exactly once and is replaced by a new one.
+    // Only hashes are stored, so no password check and no BCrypt is involved.
+    @Override
+    @Transactional
+    public Token refreshToken(String refreshToken) throws Exception {
+        String refreshTokenHash = HashUtils.sha256Hex(refreshToken);
+        Token existingToken = tokenRepository.findByRefreshToken(refreshTokenHash);
+        if (existingToken == null) {
+            RetiredRefreshToken retired = retiredRefreshTokenRepository.findByRefreshTokenHash(refreshTokenHash);
+            if (retired != null) {
+                // any already rotated token came back, however many rotations ago: it was copied,
+                // end the whole session
+                tokenRepository.findById(retired.getTokenId())
+                        .filter(token -> !token.isRevoked())
+                        .ifPresent(this::revokeSession);
+                throw new PermissionDenyException("Refresh token has already been used");
+            }
+            throw new DataNotFoundException("Refresh token does not exist");
+        }
+        if (existingToken.isRevoked()
+                || existingToken.getRefreshExpirationDate().isBefore(LocalDateTime.now())) {
+            throw new ExpiredTokenException("Refresh token is expired");
+        }
+        User user = existingToken.getUser();
+        if (!user.isActive()) {
+            throw new PermissionDenyException("User is locked");
+        }
+
+        // claim the refresh token before touching the entity, a flush would otherwise change the row first
+        String plainRefreshToken = newPlainRefreshToken();
+        String nextRefreshTokenHash = HashUtils.sha256Hex(plainRefreshToken);
+        if (tokenRepository.rotateRefreshToken(existingToken.getId(), refreshTokenHash, nextRefreshTokenHash) != 1) {
+            throw new PermissionDenyException("Refresh token has already been used");
+        }
+        retiredRefreshTokenRepository.save(RetiredRefreshToken.builder()
+                .refreshTokenHash(refreshTokenHash)
+                .tokenId(existingToken.getId())
+                .expirationDate(existingToken.getRefreshExpirationDate())
+                .build());
+        // the access token issued with the old refresh token is still signed and unexpired
+        tokenRevocationStore.revoke(existingToken.getJti(), existingToken.getExpirationDate());
+
+        String newToken = jwtTokenUtil.generateToken(user);
+        existingToken.setToken(newToken);
+        existingToken.setTokenHash(HashUtils.sha256Hex(newToken));
+        existingToken.setJti(jwtTokenUtil.extractJti(newToken));
+        existingToken.setExpirationDate(LocalDateTime.now().plusSeconds(expiration));
+        existingToken.setPlainRefreshToken(plainRefreshToken);
+        existingToken.setRefreshToken(nextRefreshTokenHash);
+        Token savedToken = tokenRepository.save(existingToken);
+        UserSessionRegistry.Sessions sessions = userSessionRegistry.sessionsOf(user.getId());
+        synchronized (sessions) {
+            sessions.replace(UserSessionRegistry.Session.of(savedToken));
         }
-        long expirationInSeconds = expiration;
-        LocalDateTime expirationDateTime = LocalDateTime.now().plusSeconds(expirationInSeconds);
-        // Tạo mới một token cho người dùng
-        Token newToken = Token.builder()
-                .user(user)
-                .token(token)
-                .revoked(false)
-                .expired(false)
-                .tokenType("Bearer")
-                .expirationDate(expirationDateTime)
-                .build();
-
-        tokenRepository.save(newToken);
-
-        return newToken;
+        return savedToken;
+    }
+
+    private static String newPlainRefreshToken() {
+        byte[] bytes = new byte[32];
+        REFRESH_TOKEN_RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private void assignRefreshToken(Token token) {
+        String plainRefreshToken = newPlainRefreshToken();
+        token.setPlainRefreshToken(plainRefreshToken);
+        token.setRefreshToken(HashUtils.sha256Hex(plainRefreshToken));
+    }
+
+    private void revokeSession(Token token) {
+        token.setRevoked(true);
+        tokenRepository.save(token);
+        tokenRevocationStore.revoke(token.getJti(), token.getExpirationDate());
+        userSessionRegistry.forget(token.getUser().getId(), token.getId());
     }
 }
@@ -0,0 +1,91 @@
+package com.project.shopapp.services.Token;
+
+import com.project.shopapp.models.Token;
+import com.project.shopapp.repositories.RetiredRefreshTokenRepository;
+import com.project.shopapp.repositories.TokenRepository;
+import com.project.shopapp.utils.HashUtils;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the tokens table bounded: deletes revoked and expired sessions in small batches
+ * (so no long-running delete locks the table) and fills in token_hash for rows written before it existed.
+ * Retired refresh tokens are kept until their session's refresh expiry, then deleted as well.
+ * Revoked access tokens stay rejected through TokenRevocationStore after their row is gone.
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenSweeper {
+    private static final Logger logger = LoggerFactory.getLogger(TokenSweeper.class);
+
+    private final TokenRepository tokenRepository;
+    private final RetiredRefreshTokenRepository retiredRefreshTokenRepository;
+
+    @Value("${jwt.sweeper.batch-size:500}")
+    private int batchSize;
+    @Value("${jwt.sweeper.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Scheduled(fixedDelayString = "${jwt.sweeper.interval-ms:300000}")
+    public void sweep() {
+        int deleted = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<Long> ids = tokenRepository.findDeadTokenIds(LocalDateTime.now(), PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            tokenRepository.deleteAllByIdInBatch(ids);
+            deleted += ids.size();
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<Token> unhashed = tokenRepository.findByTokenHashIsNull(PageRequest.of(0, batchSize));
+            if (unhashed.isEmpty()) {
+                break;
+            }
+            backfillTokenHashes(unhashed);
+        }
+        if (deleted > 0) {
+            logger.info("Deleted {} expired or revoked tokens", deleted);
+        }
+        int retired = retiredRefreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (retired > 0) {
+            logger.info("Deleted {} expired retired refresh tokens", retired);
+        }
+    }
+
+    // legacy rows may repeat a token: token_hash is unique, so only the first row of a token keeps it
+    // and the copies are deleted. They carry the same token, so the session itself stays valid.
+    private void backfillTokenHashes(List<Token> unhashed) {
+        Map<String, Token> byHash = new LinkedHashMap<>();
+        List<Long> duplicates = new ArrayList<>();
+        for (Token token : unhashed) {
+            String hash = HashUtils.sha256Hex(token.getToken());
+            if (byHash.putIfAbsent(hash, token) != null) {
+                duplicates.add(token.getId());
+            }
+        }
+        for (String existing : tokenRepository.findExistingTokenHashes(byHash.keySet())) {
+            duplicates.add(byHash.remove(existing).getId());
+        }
+        if (!duplicates.isEmpty()) {
+            tokenRepository.deleteAllByIdInBatch(duplicates);
+            logger.info("Deleted {} duplicate legacy tokens", duplicates.size());
+        }
+        byHash.forEach((hash, token) -> token.setTokenHash(hash));
+        tokenRepository.saveAll(byHash.values());
+    }
+}
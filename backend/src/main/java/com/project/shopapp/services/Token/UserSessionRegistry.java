@@ -0,0 +1,115 @@
+package com.project.shopapp.services.Token;
+
+import com.project.shopapp.models.Token;
+import com.project.shopapp.repositories.TokenRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Open sessions (rows of the tokens table) per user, ordered by issue time.
+ * A user's sessions are loaded from the database the first time they are needed and reloaded
+ * after reload-seconds, so sessions opened on other nodes are eventually seen as well.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserSessionRegistry {
+    private final TokenRepository tokenRepository;
+
+    @Value("${jwt.session-registry.reload-seconds:600}")
+    private long reloadSeconds;
+
+    private final Map<Long, Sessions> sessionsByUser = new ConcurrentHashMap<>();
+
+    public record Session(Long tokenId, String jti, LocalDateTime issuedAt,
+                          LocalDateTime expirationDate, LocalDateTime sessionExpirationDate) {
+        static Session of(Token token) {
+            LocalDateTime sessionEnd = token.getRefreshExpirationDate() != null
+                    ? token.getRefreshExpirationDate() : token.getExpirationDate();
+            return new Session(token.getId(), token.getJti(),
+                    token.getIssuedAt() != null ? token.getIssuedAt() : LocalDateTime.MIN,
+                    token.getExpirationDate(), sessionEnd);
+        }
+    }
+
+    // callers synchronize on the returned object while they read or modify it
+    public static class Sessions {
+        private final List<Session> entries = new ArrayList<>();
+        private long loadedAt = System.currentTimeMillis();
+
+        public int size() {
+            return entries.size();
+        }
+
+        public Session removeOldest() {
+            return entries.isEmpty() ? null : entries.remove(0);
+        }
+
+        public void add(Session session) {
+            entries.add(session);
+            entries.sort(Comparator.comparing(Session::issuedAt));
+        }
+
+        public void replace(Session session) {
+            entries.removeIf(entry -> entry.tokenId().equals(session.tokenId()));
+            add(session);
+        }
+
+        public void remove(Long tokenId) {
+            entries.removeIf(entry -> entry.tokenId().equals(tokenId));
+        }
+
+        void removeEnded(LocalDateTime now) {
+            entries.removeIf(entry -> entry.sessionExpirationDate() != null
+                    && entry.sessionExpirationDate().isBefore(now));
+        }
+    }
+
+    public Sessions sessionsOf(Long userId) {
+        Sessions sessions = sessionsByUser.get(userId);
+        if (sessions == null || System.currentTimeMillis() - sessions.loadedAt > reloadSeconds * 1000) {
+            // read outside the map: a query inside compute() would block every key of its bin meanwhile
+            Sessions loaded = new Sessions();
+            loadInto(userId, loaded);
+            Sessions stale = sessions;
+            sessions = sessionsByUser.compute(userId, (id, current) ->
+                    current == null || current == stale ? loaded : current);
+        }
+        synchronized (sessions) {
+            sessions.removeEnded(LocalDateTime.now());
+        }
+        return sessions;
+    }
+
+    public void forget(Long userId, Long tokenId) {
+        Sessions sessions = sessionsByUser.get(userId);
+        if (sessions != null) {
+            synchronized (sessions) {
+                sessions.remove(tokenId);
+            }
+        }
+    }
+
+    // replaces the entries with the rows of the database; the caller holds the lock on sessions
+    public void reload(Long userId, Sessions sessions) {
+        sessions.entries.clear();
+        loadInto(userId, sessions);
+        sessions.removeEnded(LocalDateTime.now());
+    }
+
+    private void loadInto(Long userId, Sessions sessions) {
+        for (Token token : tokenRepository.findByUserId(userId)) {
+            if (!token.isRevoked()) {
+                sessions.add(Session.of(token));
+            }
+        }
+        sessions.loadedAt = System.currentTimeMillis();
+    }
+}
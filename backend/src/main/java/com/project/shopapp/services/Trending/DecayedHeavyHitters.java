@@ -0,0 +1,176 @@
+package com.project.shopapp.services.Trending;
+
+import java.util.*;
+
+/**
+ * Exponentially decayed activity per product: a count-min sketch (conservative update) plus a
+ * top-k min-heap per scope (0 = all products, otherwise a category id). Decay is applied forward:
+ * a weight added at time t is stored as weight * e^(lambda * (t - landmark)), so stored values
+ * never have to be aged and an entry that received nothing lately keeps the right rank. Reported
+ * scores divide by e^(lambda * (now - landmark)); when that factor gets large everything is rescaled
+ * and the landmark moves to now. Not thread safe: the caller serializes access.
+ */
+final class DecayedHeavyHitters {
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+    };
+    // rescale before e^exponent loses too much precision next to fresh weights
+    private static final double MAX_EXPONENT = 20;
+
+    private final double[][] counters;
+    private final int mask;
+    private final double lambda;
+    private final int globalK;
+    private final int categoryK;
+    private final Map<Long, TopK> scopes = new HashMap<>();
+    private long landmark;
+
+    record Ranked(long productId, double score) {
+    }
+
+    DecayedHeavyHitters(int width, long halfLifeMillis, int globalK, int categoryK, long now) {
+        int size = Integer.highestOneBit(Math.max(16, width - 1)) << 1;
+        this.counters = new double[SEEDS.length][size];
+        this.mask = size - 1;
+        this.lambda = Math.log(2) / Math.max(1, halfLifeMillis);
+        this.globalK = globalK;
+        this.categoryK = categoryK;
+        this.landmark = now;
+    }
+
+    // adds weight for the product at time now; categoryId == null only updates the global list
+    void add(long productId, Long categoryId, double weight, long now) {
+        if (lambda * (now - landmark) > MAX_EXPONENT) {
+            rescale(now);
+        }
+        double scaled = weight * Math.exp(lambda * (now - landmark));
+        double estimate = Double.MAX_VALUE;
+        for (int i = 0; i < SEEDS.length; i++) {
+            estimate = Math.min(estimate, counters[i][indexOf(productId, i)]);
+        }
+        estimate += scaled;
+        // conservative update: no counter is raised past the new estimate
+        for (int i = 0; i < SEEDS.length; i++) {
+            int index = indexOf(productId, i);
+            counters[i][index] = Math.max(counters[i][index], estimate);
+        }
+        scopes.computeIfAbsent(0L, scope -> new TopK(globalK)).offer(productId, estimate);
+        if (categoryId != null && categoryId != 0) {
+            scopes.computeIfAbsent(categoryId, scope -> new TopK(categoryK)).offer(productId, estimate);
+        }
+    }
+
+    // every scope's products, highest decayed score first
+    Map<Long, List<Ranked>> ranked(long now) {
+        double decay = Math.exp(-lambda * (now - landmark));
+        Map<Long, List<Ranked>> ranked = new HashMap<>(scopes.size() * 2);
+        scopes.forEach((scope, topK) -> ranked.put(scope, topK.sorted(decay)));
+        return ranked;
+    }
+
+    private void rescale(long now) {
+        double decay = Math.exp(-lambda * (now - landmark));
+        for (double[] row : counters) {
+            for (int k = 0; k < row.length; k++) {
+                row[k] *= decay;
+            }
+        }
+        scopes.values().forEach(topK -> topK.scale(decay));
+        landmark = now;
+    }
+
+    private int indexOf(long productId, int row) {
+        long hash = (productId ^ SEEDS[row]) * 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return (int) hash & mask;
+    }
+
+    // min-heap of the k highest scores, with positions so an entry can be raised in place
+    private static final class TopK {
+        private final long[] ids;
+        private final double[] scores;
+        private final Map<Long, Integer> positions;
+        private int size;
+
+        TopK(int k) {
+            this.ids = new long[Math.max(1, k)];
+            this.scores = new double[ids.length];
+            this.positions = new HashMap<>(ids.length * 2);
+        }
+
+        // scores of a product only grow, so an entry already in the heap only moves down
+        void offer(long id, double score) {
+            Integer position = positions.get(id);
+            if (position != null) {
+                scores[position] = Math.max(scores[position], score);
+                siftDown(position);
+            } else if (size < ids.length) {
+                set(size, id, score);
+                siftUp(size++);
+            } else if (score > scores[0]) {
+                positions.remove(ids[0]);
+                set(0, id, score);
+                siftDown(0);
+            }
+        }
+
+        void scale(double factor) {
+            for (int k = 0; k < size; k++) {
+                scores[k] *= factor;
+            }
+        }
+
+        List<Ranked> sorted(double decay) {
+            List<Ranked> sorted = new ArrayList<>(size);
+            for (int k = 0; k < size; k++) {
+                sorted.add(new Ranked(ids[k], scores[k] * decay));
+            }
+            sorted.sort(Comparator.comparingDouble(Ranked::score).reversed());
+            return sorted;
+        }
+
+        private void siftUp(int position) {
+            while (position > 0) {
+                int parent = (position - 1) / 2;
+                if (scores[parent] <= scores[position]) {
+                    return;
+                }
+                swap(position, parent);
+                position = parent;
+            }
+        }
+
+        private void siftDown(int position) {
+            while (true) {
+                int smallest = position;
+                int left = 2 * position + 1;
+                if (left < size && scores[left] < scores[smallest]) {
+                    smallest = left;
+                }
+                if (left + 1 < size && scores[left + 1] < scores[smallest]) {
+                    smallest = left + 1;
+                }
+                if (smallest == position) {
+                    return;
+                }
+                swap(position, smallest);
+                position = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long id = ids[a];
+            double score = scores[a];
+            set(a, ids[b], scores[b]);
+            set(b, id, score);
+        }
+
+        private void set(int position, long id, double score) {
+            ids[position] = id;
+            scores[position] = score;
+            positions.put(id, position);
+        }
+    }
+}
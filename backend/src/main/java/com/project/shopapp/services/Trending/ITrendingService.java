@@ -0,0 +1,17 @@
+package com.project.shopapp.services.Trending;
+
+import com.project.shopapp.responses.Product.TrendingProductResponse;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ITrendingService {
+    // products with the most recent views and sales; categoryId == null or 0 for all products
+    List<TrendingProductResponse> findTrending(Long categoryId, int limit);
+
+    // call when a product detail was served; only bumps an in-memory counter
+    void productViewed(long productId);
+
+    // product id -> quantity of an order; applied once the transaction commits
+    void productsSold(Map<Long, Integer> quantities);
+}
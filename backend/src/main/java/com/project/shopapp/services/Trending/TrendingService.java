@@ -0,0 +1,128 @@
+package com.project.shopapp.services.Trending;
+
+import com.project.shopapp.repositories.ProductRepository;
+import com.project.shopapp.responses.Product.ProductResponse;
+import com.project.shopapp.responses.Product.TrendingProductResponse;
+import com.project.shopapp.services.Catalog.ICatalogService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * "Trending now" for GET /products/trending. Request threads only bump striped counters (one pair
+ * of LongAdders per product); every trending.flush-interval-ms the counters are drained into a
+ * DecayedHeavyHitters and the ranked lists are republished, so reads never touch the sketch.
+ */
+@Service
+@RequiredArgsConstructor
+public class TrendingService implements ITrendingService {
+    private final ICatalogService catalogService;
+    private final ProductRepository productRepository;
+
+    @Value("${trending.enabled:true}")
+    private boolean enabled;
+    @Value("${trending.half-life-ms:3600000}")
+    private long halfLifeMillis;
+    @Value("${trending.view-weight:1}")
+    private double viewWeight;
+    @Value("${trending.sale-weight:10}")
+    private double saleWeight;
+    @Value("${trending.sketch-width:65536}")
+    private int sketchWidth;
+    @Value("${trending.top-k:100}")
+    private int topK;
+    @Value("${trending.category-top-k:50}")
+    private int categoryTopK;
+
+    private final Map<Long, Counts> pending = new ConcurrentHashMap<>();
+    private DecayedHeavyHitters hitters;
+    private volatile Map<Long, List<DecayedHeavyHitters.Ranked>> ranked = Map.of();
+
+    private static final class Counts {
+        private final LongAdder views = new LongAdder();
+        private final LongAdder sales = new LongAdder();
+    }
+
+    @Override
+    public List<TrendingProductResponse> findTrending(Long categoryId, int limit) {
+        long scope = categoryId == null ? 0 : categoryId;
+        List<DecayedHeavyHitters.Ranked> products = ranked.getOrDefault(scope, List.of());
+        boolean fromCatalog = catalogService.isReady();
+        List<TrendingProductResponse> trending = new ArrayList<>(Math.min(limit, products.size()));
+        for (DecayedHeavyHitters.Ranked entry : products) {
+            if (trending.size() >= limit) {
+                break;
+            }
+            ProductResponse product = fromCatalog
+                    ? catalogService.findProduct(entry.productId())
+                    : productRepository.findById(entry.productId()).map(ProductResponse::fromProduct).orElse(null);
+            // deleted, or moved to another category since it was counted
+            if (product == null || (scope != 0 && !Objects.equals(product.getCategoryId(), scope))) {
+                continue;
+            }
+            trending.add(TrendingProductResponse.builder().product(product).score(entry.score()).build());
+        }
+        return trending;
+    }
+
+    @Override
+    public void productViewed(long productId) {
+        if (enabled) {
+            counts(productId).views.increment();
+        }
+    }
+
+    @Override
+    public void productsSold(Map<Long, Integer> quantities) {
+        if (!enabled || quantities.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    quantities.forEach((productId, quantity) -> counts(productId).sales.add(quantity));
+                }
+            });
+        } else {
+            quantities.forEach((productId, quantity) -> counts(productId).sales.add(quantity));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${trending.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (hitters == null) {
+            hitters = new DecayedHeavyHitters(sketchWidth, halfLifeMillis, topK, categoryTopK, now);
+        }
+        for (Map.Entry<Long, Counts> entry : pending.entrySet()) {
+            Counts counts = entry.getValue();
+            long views = counts.views.sumThenReset();
+            long sales = counts.sales.sumThenReset();
+            if (views == 0 && sales == 0) {
+                // idle for a whole interval; a count racing with this removal is lost, which is fine here
+                pending.remove(entry.getKey(), counts);
+                continue;
+            }
+            long productId = entry.getKey();
+            hitters.add(productId, catalogService.categoryOf(productId), views * viewWeight + sales * saleWeight, now);
+        }
+        // republished even when idle so that the scores keep decaying
+        ranked = hitters.ranked(now);
+    }
+
+    private Counts counts(long productId) {
+        Counts counts = pending.get(productId);
+        return counts != null ? counts : pending.computeIfAbsent(productId, id -> new Counts());
+    }
+}
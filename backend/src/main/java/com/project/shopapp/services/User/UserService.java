@@ -2,6 +2,8 @@ package com.project.shopapp.services.User;
 
 import com.project.shopapp.components.JwtTokenUtils;
 import com.project.shopapp.components.LocalizationUtils;
+import com.project.shopapp.components.PasswordHashingExecutor;
+import com.project.shopapp.components.UserDetailsCache;
 import com.project.shopapp.dtos.UpdateUserDTO;
 import com.project.shopapp.dtos.UserDTO;
 import com.project.shopapp.exceptions.DataNotFoundException;
@@ -14,12 +16,11 @@ import com.project.shopapp.repositories.UserRepository;
 import com.project.shopapp.utils.MessageKeys;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Optional;
 
@@ -28,15 +29,20 @@ import java.util.Optional;
 public class UserService implements IUserService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor passwordHashingExecutor;
     private final JwtTokenUtils jwtTokenUtil;
-    private final AuthenticationManager authenticationManager;
     private final LocalizationUtils localizationUtils;
     private final TokenRepository tokenRepository;
+    private final UserDetailsCache userDetailsCache;
 
     @Override
-    @Transactional
     public User createUser(UserDTO userDTO) throws Exception {
+        // not @Transactional and BCrypt first: under open-in-view the first query takes a pooled
+        // connection until the request ends, so nothing may touch the database before the hash is done.
+        // The checks and the insert below are each a short repository transaction.
+        String encodedPassword = userDTO.getFacebookAccountId() == 0 && userDTO.getGoogleAccountId() == 0
+                ? passwordHashingExecutor.encode(userDTO.getPassword())
+                : userDTO.getPassword();
         //register user
         String phoneNumber = userDTO.getPhoneNumber();
         // Kiểm tra xem số điện thoại đã tồn tại hay chưa
@@ -53,7 +59,7 @@ public class UserService implements IUserService {
         User newUser = User.builder()
                 .fullName(userDTO.getFullName())
                 .phoneNumber(userDTO.getPhoneNumber())
-                .password(userDTO.getPassword())
+                .password(encodedPassword)
                 .address(userDTO.getAddress())
                 .dateOfBirth(userDTO.getDateOfBirth())
                 .facebookAccountId(userDTO.getFacebookAccountId())
@@ -62,21 +68,16 @@ public class UserService implements IUserService {
                 .build();
 
         newUser.setRole(role);
-
-        // Kiểm tra nếu có accountId, không yêu cầu password
-        if (userDTO.getFacebookAccountId() == 0 && userDTO.getGoogleAccountId() == 0) {
-            String password = userDTO.getPassword();
-            String encodedPassword = passwordEncoder.encode(password);
-            newUser.setPassword(encodedPassword);
-        }
         return userRepository.save(newUser);
     }
 
     @Override
     public String login(String phoneNumber, String password, Long roleId) throws Exception {
+        // not @Transactional: the lookup commits and returns its connection before BCrypt runs
         Optional<User> optionalUser = userRepository.findByPhoneNumber(phoneNumber);
         if(optionalUser.isEmpty()) {
-            throw new DataNotFoundException(localizationUtils.getLocalizedMessage(MessageKeys.WRONG_PHONE_PASSWORD));
+            // same outcome as a wrong password: counted by the login throttle
+            throw new BadCredentialsException(localizationUtils.getLocalizedMessage(MessageKeys.WRONG_PHONE_PASSWORD));
         }
 
         User existingUser = optionalUser.get();
@@ -84,7 +85,7 @@ public class UserService implements IUserService {
         //check password
         if (existingUser.getFacebookAccountId() == 0
                 && existingUser.getGoogleAccountId() == 0) {
-            if(!passwordEncoder.matches(password, existingUser.getPassword())) {
+            if(!passwordHashingExecutor.matches(password, existingUser.getPassword())) {
                 throw new BadCredentialsException(localizationUtils.getLocalizedMessage(MessageKeys.WRONG_PHONE_PASSWORD));
             }
         }
@@ -98,13 +99,7 @@ public class UserService implements IUserService {
             throw new DataNotFoundException(localizationUtils.getLocalizedMessage(MessageKeys.USER_IS_LOCKED));
         }
 
-        UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                phoneNumber, password,
-                existingUser.getAuthorities()
-        );
-
-
-        authenticationManager.authenticate(authenticationToken);
+        // the password was verified above; going through AuthenticationManager would run BCrypt a second time
         return jwtTokenUtil.generateToken(existingUser);
     }
     @Transactional
@@ -116,6 +111,7 @@ public class UserService implements IUserService {
 
         // Check if the phone number is being changed and if it already exists for another user
         String newPhoneNumber = updatedUserDTO.getPhoneNumber();
+        String oldPhoneNumber = existingUser.getPhoneNumber();
         if (!existingUser.getPhoneNumber().equals(newPhoneNumber) &&
                 userRepository.existsByPhoneNumber(newPhoneNumber)) {
             throw new DataIntegrityViolationException("Phone number already exists");
@@ -148,12 +144,33 @@ public class UserService implements IUserService {
                 throw new DataNotFoundException("Password and retype password not the same");
             }
             String newPassword = updatedUserDTO.getPassword();
-            String encodedPassword = passwordEncoder.encode(newPassword);
+            String encodedPassword = passwordHashingExecutor.encode(newPassword);
             existingUser.setPassword(encodedPassword);
         }
         //existingUser.setRole(updatedRole);
         // Save the updated user
-        return userRepository.save(existingUser);
+        User savedUser = userRepository.save(existingUser);
+        // the JWT filter caches principals by phone number, drop both the old and the new key
+        invalidateAfterCommit(oldPhoneNumber, savedUser.getPhoneNumber());
+        return savedUser;
+    }
+
+    // before the commit a concurrent request would reload the old row and cache it again
+    private void invalidateAfterCommit(String... phoneNumbers) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    for (String phoneNumber : phoneNumbers) {
+                        userDetailsCache.invalidate(phoneNumber);
+                    }
+                }
+            });
+        } else {
+            for (String phoneNumber : phoneNumbers) {
+                userDetailsCache.invalidate(phoneNumber);
+            }
+        }
     }
 
 
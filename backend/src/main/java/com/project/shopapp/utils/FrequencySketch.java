@@ -0,0 +1,86 @@
+package com.project.shopapp.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Approximate access counts (count-min sketch of 4-bit counters, 16 per long) used for cache admission.
+ * Counters saturate at 15 and are all halved once the sample reaches ten times the table size,
+ * so the popularity of old keys fades instead of pinning them forever.
+ */
+public class FrequencySketch {
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private final AtomicLongArray table;
+    private final int tableMask;
+    private final int sampleSize;
+    // racy on purpose: a lost increment only delays the next halving a little, and a plain int is
+    // far cheaper than summing a LongAdder on every hit
+    private int additions;
+
+    public FrequencySketch(int expectedKeys) {
+        int size = Integer.highestOneBit(Math.max(16, expectedKeys - 1)) << 1;
+        this.table = new AtomicLongArray(size);
+        this.tableMask = size - 1;
+        this.sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * size);
+    }
+
+    public void increment(String key) {
+        int hash = spread(key.hashCode());
+        // four counters, each in a different long and a different nibble of it
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int shift = nibbleOf(hash, i) << 2;
+            long mask = 0xFL << shift;
+            long current;
+            do {
+                current = table.get(index);
+                if (((current & mask) >>> shift) == MAX_COUNT) {
+                    break;
+                }
+            } while (!table.compareAndSet(index, current, current + (1L << shift)));
+        }
+        if (++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    public int frequency(String key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < 4; i++) {
+            int shift = nibbleOf(hash, i) << 2;
+            int count = (int) ((table.get(indexOf(hash, i)) >>> shift) & 0xFL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    private synchronized void reset() {
+        if (additions < sampleSize) {
+            return;
+        }
+        for (int i = 0; i < table.length(); i++) {
+            long current;
+            do {
+                current = table.get(i);
+            } while (!table.compareAndSet(i, current, (current >>> 1) & RESET_MASK));
+        }
+        additions = 0;
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + (long) i * 0x9E3779B97F4A7C15L) * 0xBF58476D1CE4E5B9L;
+        return (int) (h ^ (h >>> 32)) & tableMask;
+    }
+
+    private int nibbleOf(int hash, int i) {
+        return (hash >>> (i << 3)) & 0xF;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
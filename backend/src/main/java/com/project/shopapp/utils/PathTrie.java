@@ -0,0 +1,118 @@
+package com.project.shopapp.utils;
+
+import java.util.*;
+
+/**
+ * Method-aware trie of ant-style path patterns, built once at startup.
+ * Supported segments: literals, "*" (one segment), "**" (any number of segments)
+ * and "prefix*" / "prefix**" (one segment starting with prefix).
+ * When several patterns match, the one added first wins, like an ordered list of matchers.
+ */
+public class PathTrie<T> {
+    private static final String ANY_METHOD = "*";
+
+    private final Node root = new Node();
+    private final List<T> values = new ArrayList<>();
+    private final List<String> methods = new ArrayList<>();
+
+    private static class Node {
+        final Map<String, Node> literals = new HashMap<>();
+        final List<Map.Entry<String, Node>> prefixes = new ArrayList<>();
+        Node star;
+        Node doubleStar;
+        // indexes (into values) of the patterns ending at this node, in declaration order
+        final List<Integer> terminals = new ArrayList<>();
+    }
+
+    // method == null matches every method
+    public PathTrie<T> add(String method, String pattern, T value) {
+        int index = values.size();
+        values.add(value);
+        methods.add(method == null ? ANY_METHOD : method.toUpperCase());
+        Node node = root;
+        for (String segment : split(pattern)) {
+            if (segment.equals("**")) {
+                node = node.doubleStar != null ? node.doubleStar : (node.doubleStar = new Node());
+            } else if (segment.equals("*")) {
+                node = node.star != null ? node.star : (node.star = new Node());
+            } else if (segment.endsWith("*")) {
+                String prefix = segment.substring(0, segment.indexOf('*'));
+                Node child = null;
+                for (Map.Entry<String, Node> entry : node.prefixes) {
+                    if (entry.getKey().equals(prefix)) {
+                        child = entry.getValue();
+                    }
+                }
+                if (child == null) {
+                    child = new Node();
+                    node.prefixes.add(Map.entry(prefix, child));
+                }
+                node = child;
+            } else {
+                node = node.literals.computeIfAbsent(segment, k -> new Node());
+            }
+        }
+        node.terminals.add(index);
+        return this;
+    }
+
+    public T find(String method, String path) {
+        String[] segments = split(path);
+        int best = search(root, segments, 0, method, Integer.MAX_VALUE);
+        return best == Integer.MAX_VALUE ? null : values.get(best);
+    }
+
+    private int search(Node node, String[] segments, int position, String method, int best) {
+        if (node.doubleStar != null) {
+            // "**" may swallow zero or more of the remaining segments
+            for (int next = position; next <= segments.length; next++) {
+                best = search(node.doubleStar, segments, next, method, best);
+            }
+        }
+        if (position == segments.length) {
+            for (int index : node.terminals) {
+                if (index < best && methodMatches(index, method)) {
+                    best = index;
+                    break;
+                }
+            }
+            return best;
+        }
+        String segment = segments[position];
+        Node literal = node.literals.get(segment);
+        if (literal != null) {
+            best = search(literal, segments, position + 1, method, best);
+        }
+        for (Map.Entry<String, Node> entry : node.prefixes) {
+            if (segment.startsWith(entry.getKey())) {
+                best = search(entry.getValue(), segments, position + 1, method, best);
+            }
+        }
+        if (node.star != null) {
+            best = search(node.star, segments, position + 1, method, best);
+        }
+        return best;
+    }
+
+    private boolean methodMatches(int index, String method) {
+        String expected = methods.get(index);
+        return ANY_METHOD.equals(expected) || expected.equals(method);
+    }
+
+    private static String[] split(String path) {
+        List<String> segments = new ArrayList<>(8);
+        int start = 0;
+        int length = path.length();
+        while (start < length) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                segments.add(path.substring(start, end));
+            }
+            start = end + 1;
+        }
+        return segments.toArray(new String[0]);
+    }
+}
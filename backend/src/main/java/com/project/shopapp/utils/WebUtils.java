@@ -8,4 +8,9 @@ public class WebUtils {
     public static HttpServletRequest getCurrentRequest() {
         return ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
     }
+
+    // remote address as seen by Tomcat; X-Forwarded-For is not trusted since clients can forge it
+    public static String getClientIp(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
 }
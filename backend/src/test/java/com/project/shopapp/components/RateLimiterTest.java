@@ -0,0 +1,74 @@
+package com.project.shopapp.components;
+
+import com.project.shopapp.Configurations.RateLimitProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+    // refills a fraction of a token per minute, so the capacity is all a test can take
+    private static final RateLimitProperties.Limit NO_REFILL = new RateLimitProperties.Limit(1000, 0.0001);
+
+    private final RateLimiter rateLimiter = new RateLimiter(new RateLimitProperties());
+
+    @Test
+    void concurrentCallersNeverTakeMoreThanTheCapacity() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger granted = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 500; i++) {
+                        if (rateLimiter.tryAcquire("ip:1", NO_REFILL) >= 0) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1000, granted.get());
+        assertTrue(rateLimiter.tryAcquire("ip:1", NO_REFILL) < 0);
+    }
+
+    @Test
+    void reportsRemainingTokensAndWaitWhenEmpty() {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit(2, 1);
+
+        assertEquals(1, rateLimiter.tryAcquire("k", limit));
+        assertEquals(0, rateLimiter.tryAcquire("k", limit));
+        long wait = rateLimiter.tryAcquire("k", limit);
+        assertTrue(wait < 0 && wait >= -1000, "wait " + wait);
+    }
+
+    @Test
+    void refundGivesBackOneTokenUpToTheCapacity() {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit(2, 0.0001);
+        rateLimiter.tryAcquire("k", limit);
+        rateLimiter.tryAcquire("k", limit);
+
+        rateLimiter.refund("k", limit);
+        rateLimiter.refund("k", limit);
+        rateLimiter.refund("k", limit);
+
+        assertEquals(1, rateLimiter.tryAcquire("k", limit));
+        assertEquals(0, rateLimiter.tryAcquire("k", limit));
+        assertTrue(rateLimiter.tryAcquire("k", limit) < 0);
+    }
+}
@@ -0,0 +1,101 @@
+package com.project.shopapp.components;
+
+import com.project.shopapp.models.TokenRevocation;
+import com.project.shopapp.repositories.TokenRevocationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationStoreTest {
+    private static final LocalDateTime EXPIRES = LocalDateTime.now().plusHours(1);
+
+    private TokenRevocationRepository repository;
+    private TokenRevocationStore store;
+
+    private static TokenRevocation entry(long id, String jti) {
+        return TokenRevocation.builder().id(id).jti(jti).expirationDate(EXPIRES).createdAt(LocalDateTime.now()).build();
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(TokenRevocationRepository.class);
+        when(repository.findByExpirationDateAfter(any())).thenReturn(List.of());
+        when(repository.findByCreatedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(any(), any(), any()))
+                .thenReturn(List.of());
+        store = new TokenRevocationStore(repository);
+        ReflectionTestUtils.setField(store, "expectedRevocations", 1000);
+        ReflectionTestUtils.setField(store, "pollOverlapSeconds", 120L);
+        store.load();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void pollSeesALowerIdCommittedAfterAHigherOne() {
+        // id 7 became visible first; id 5 belonged to a transaction that committed later
+        when(repository.findByCreatedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(any(), eq(0L), any()))
+                .thenReturn(List.of(entry(7, "b")))
+                .thenReturn(List.of(entry(5, "a"), entry(7, "b")));
+
+        store.pollRevocationLog();
+        assertTrue(store.isRevoked("b"));
+        assertFalse(store.isRevoked("a"));
+
+        store.pollRevocationLog();
+        assertTrue(store.isRevoked("a"));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void pollReadsAnOverlapWindowBeforeThePreviousPoll() {
+        LocalDateTime before = LocalDateTime.now();
+        store.pollRevocationLog();
+        store.pollRevocationLog();
+
+        verify(repository, times(2)).findByCreatedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(
+                argThat(since -> since.isBefore(before.minusSeconds(100))), eq(0L), any());
+    }
+
+    @Test
+    void revocationInATransactionIsAppliedOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        store.revoke("c", EXPIRES);
+        assertFalse(store.isRevoked("c"));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertTrue(store.isRevoked("c"));
+        verify(repository).save(argThat(revocation -> revocation.getJti().equals("c")));
+    }
+
+    @Test
+    void rolledBackRevocationIsNeverApplied() {
+        TransactionSynchronizationManager.initSynchronization();
+        store.revoke("d", EXPIRES);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertFalse(store.isRevoked("d"));
+    }
+
+    @Test
+    void revocationOutsideATransactionIsAppliedRightAway() {
+        store.revoke("e", null);
+        assertTrue(store.isRevoked("e"));
+    }
+}
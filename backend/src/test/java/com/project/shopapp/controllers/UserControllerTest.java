@@ -0,0 +1,68 @@
+package com.project.shopapp.controllers;
+
+import com.project.shopapp.components.LocalizationUtils;
+import com.project.shopapp.components.LoginAttemptThrottler;
+import com.project.shopapp.dtos.UserLoginDTO;
+import com.project.shopapp.exceptions.DataNotFoundException;
+import com.project.shopapp.services.Token.ITokenService;
+import com.project.shopapp.services.User.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserControllerTest {
+    private UserService userService;
+    private LoginAttemptThrottler throttler;
+    private UserController controller;
+    private final UserLoginDTO login = UserLoginDTO.builder().phoneNumber("0900000001").password("secret").roleId(1L).build();
+
+    @BeforeEach
+    void setUp() {
+        userService = mock(UserService.class);
+        throttler = mock(LoginAttemptThrottler.class);
+        controller = new UserController(userService, mock(LocalizationUtils.class), mock(ITokenService.class), throttler);
+    }
+
+    private MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/users/login");
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+
+    @Test
+    void wrongCredentialsCountAgainstPhoneAndIp() throws Exception {
+        when(userService.login(any(), any(), any())).thenThrow(new BadCredentialsException("wrong"));
+
+        assertEquals(400, controller.login(login, request()).getStatusCode().value());
+
+        verify(throttler).recordFailure("0900000001", "10.0.0.1");
+    }
+
+    @Test
+    void infrastructureErrorsPropagateWithoutTouchingTheThrottle() throws Exception {
+        when(userService.login(any(), any(), any())).thenThrow(new DataAccessResourceFailureException("database down"));
+        assertThrows(DataAccessResourceFailureException.class, () -> controller.login(login, request()));
+
+        reset(userService);
+        when(userService.login(any(), any(), any())).thenThrow(new CannotCreateTransactionException("pool timeout"));
+        assertThrows(CannotCreateTransactionException.class, () -> controller.login(login, request()));
+
+        verify(throttler, never()).recordFailure(any(), any());
+    }
+
+    @Test
+    void otherRejectionsAreNotCountedEither() throws Exception {
+        when(userService.login(any(), any(), any())).thenThrow(new DataNotFoundException("user is locked"));
+
+        assertEquals(400, controller.login(login, request()).getStatusCode().value());
+
+        verify(throttler, never()).recordFailure(any(), any());
+    }
+}
@@ -0,0 +1,139 @@
+package com.project.shopapp.filters;
+
+import com.project.shopapp.Configurations.RateLimitProperties;
+import com.project.shopapp.components.RateLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.FilterChain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+    private RateLimitProperties properties;
+    private RateLimitFilter filter;
+
+    private static RateLimitProperties.RouteGroup group(String name, String pattern, int capacity) {
+        RateLimitProperties.RouteGroup group = new RateLimitProperties.RouteGroup();
+        group.setName(name);
+        group.setMethod("GET");
+        group.setPattern(pattern);
+        group.setCapacity(capacity);
+        group.setRefillPerSecond(0.0001);
+        return group;
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        properties = new RateLimitProperties();
+        properties.setPerIp(new RateLimitProperties.Limit(3, 0.0001));
+        properties.setRoutes(List.of(
+                group("catalog-list", "/api/v1/products", 100),
+                group("detail", "/api/v1/products/*", 1)));
+        filter = new RateLimitFilter(new RateLimiter(properties), properties);
+        filter.afterPropertiesSet();
+    }
+
+    private MockHttpServletResponse get(String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    void routeRejectionDoesNotSpendTheClientBucket() throws Exception {
+        assertEquals(200, get("/api/v1/products/1").getStatus());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(429, get("/api/v1/products/2").getStatus());
+        }
+
+        // the rejected requests left the per-ip bucket at 2 tokens
+        MockHttpServletResponse response = get("/api/v1/products");
+        assertEquals(200, response.getStatus());
+        assertEquals("1", response.getHeader("RateLimit-Remaining"));
+        assertEquals(200, get("/api/v1/products").getStatus());
+        assertEquals(429, get("/api/v1/products").getStatus());
+    }
+
+    // mvn test -Dtest=RateLimitFilterTest -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkThroughputUnderManyThreadsAndClients() throws Exception {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        int clients = 100_000;
+        int requestsPerThread = 500_000;
+        // limits high enough that nothing is rejected: this measures the bookkeeping only
+        properties.setPerIp(new RateLimitProperties.Limit(RateLimiter.MAX_CAPACITY, 1_000_000));
+        RateLimitProperties.RouteGroup catalog = group("catalog", "/api/v1/products/**", RateLimiter.MAX_CAPACITY);
+        catalog.setRefillPerSecond(1_000_000);
+        properties.setRoutes(List.of(group("auth", "/api/v1/users/*", 10), catalog));
+        filter = new RateLimitFilter(new RateLimiter(properties), properties);
+        filter.afterPropertiesSet();
+
+        for (int pass = 0; pass < 3; pass++) {
+            properties.setEnabled(false);
+            long baseline = run(threads, clients, requestsPerThread);
+            properties.setEnabled(true);
+            long limited = run(threads, clients, requestsPerThread);
+            long total = (long) threads * requestsPerThread;
+            System.out.printf("pass %d, %d threads, %d clients: filter off %d ns/request, on %d ns/request "
+                            + "(+%d ns), %,d req/s%n", pass, threads, clients,
+                    baseline * threads / total, limited * threads / total,
+                    (limited - baseline) * threads / total, total * 1_000_000_000L / limited);
+        }
+    }
+
+    // wall-clock nanoseconds for every thread to send its requests, spread over the clients
+    private long run(int threads, int clients, int requestsPerThread) throws Exception {
+        FilterChain chain = (request, response) -> {
+        };
+        AtomicLong rejected = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    MockHttpServletRequest[] requests = new MockHttpServletRequest[16_384];
+                    for (int k = 0; k < requests.length; k++) {
+                        int client = (thread * 7919 + k * 104_729) % clients;
+                        requests[k] = new MockHttpServletRequest("GET", "/api/v1/products/" + k);
+                        requests[k].setServletPath("/api/v1/products/" + k);
+                        requests[k].setRemoteAddr("10." + (client >> 16) + "." + ((client >> 8) & 255) + "." + (client & 255));
+                    }
+                    MockHttpServletResponse response = new MockHttpServletResponse();
+                    start.await();
+                    for (int i = 0; i < requestsPerThread; i++) {
+                        filter.doFilter(requests[i & (requests.length - 1)], response, chain);
+                    }
+                    if (response.getStatus() != 200) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.MINUTES);
+            }
+            long elapsed = System.nanoTime() - begin;
+            assertEquals(0, rejected.get());
+            return elapsed;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
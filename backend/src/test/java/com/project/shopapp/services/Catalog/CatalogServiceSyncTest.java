@@ -0,0 +1,173 @@
+package com.project.shopapp.services.Catalog;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CatalogServiceSyncTest {
+    private static final LocalDateTime WRITTEN = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @TempDir
+    Path directory;
+
+    private CatalogLoader loader;
+    private CatalogService service;
+
+    private static CatalogRow row(long id, String name, LocalDateTime updatedAt) {
+        return CatalogRow.builder().id(id).name(name).price(1f).stockQuantity(1).categoryId(1L)
+                .createdAt(WRITTEN).updatedAt(updatedAt).build();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        loader = mock(CatalogLoader.class);
+        service = new CatalogService(loader, List.of());
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "storage", "heap");
+        ReflectionTestUtils.setField(service, "snapshotFileEnabled", true);
+        ReflectionTestUtils.setField(service, "snapshotPath", directory.resolve("catalog.snapshot").toString());
+        ReflectionTestUtils.setField(service, "catchUpMarginSeconds", 300L);
+        ReflectionTestUtils.setField(service, "reconcileIntervalMillis", 600_000L);
+        // keep changes queued so the test can look at them
+        ReflectionTestUtils.setField(service, "refreshDelayMillis", 60_000L);
+        ReflectionTestUtils.setField(service, "priceBounds", new float[]{100f});
+        // retries stay out of the way; tests call reload themselves
+        ReflectionTestUtils.setField(service, "retryInitialMillis", 600_000L);
+        ReflectionTestUtils.setField(service, "retryMaxMillis", 600_000L);
+
+        CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder(4, null);
+        for (long id = 1; id <= 4; id++) {
+            builder.add(row(id, "p" + id, WRITTEN));
+        }
+        CatalogSnapshotFile.write(builder.build(), directory.resolve("catalog.snapshot"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void catchUpAppliesUpdatesInsertsAndDeletionsSinceTheFile() {
+        LocalDateTime edited = WRITTEN.plusMinutes(5);
+        when(loader.loadUpdateTimesSince(WRITTEN.minusSeconds(300))).thenReturn(Map.of(
+                2L, CatalogSnapshot.toMillis(edited),
+                3L, CatalogSnapshot.toMillis(WRITTEN)));
+        // 4 was deleted, 6 inserted without updated_at
+        when(loader.loadAllIds()).thenReturn(new long[]{1, 2, 3, 6});
+        when(loader.loadByIds(any())).thenReturn(List.of(row(2, "p2 edited", edited), row(6, "p6", null)));
+
+        ReflectionTestUtils.invokeMethod(service, "reload");
+
+        verify(loader).loadByIds((Collection<Long>) argThat(ids -> new HashSet<>((Collection<Long>) ids)
+                .equals(Set.of(2L, 4L, 6L))));
+        assertEquals("p2 edited", service.findProduct(2).getName());
+        assertEquals("p3", service.findProduct(3).getName());
+        assertNull(service.findProduct(4));
+        assertEquals("p6", service.findProduct(6).getName());
+    }
+
+    @Test
+    void syncQueuesOnlyRowsThatDifferFromTheSnapshot() {
+        when(loader.loadAllIds()).thenReturn(new long[]{1, 2, 3, 4});
+        when(loader.loadByIds(any())).thenReturn(List.of());
+        ReflectionTestUtils.invokeMethod(service, "reload");
+        clearInvocations(loader);
+
+        when(loader.loadUpdateTimesSince(any())).thenReturn(Map.of(
+                1L, CatalogSnapshot.toMillis(WRITTEN),
+                3L, CatalogSnapshot.toMillis(WRITTEN.plusMinutes(1)),
+                9L, CatalogSnapshot.toMillis(WRITTEN.plusMinutes(1))));
+        ReflectionTestUtils.invokeMethod(service, "sync");
+
+        assertEquals(Set.of(3L, 9L), ReflectionTestUtils.getField(service, "pendingChanges"));
+        // reconciled at startup, so the full id scan waits for reconcile-interval-ms
+        verify(loader, never()).loadAllIds();
+
+        ReflectionTestUtils.setField(service, "lastReconcileMillis", 0L);
+        when(loader.loadUpdateTimesSince(any())).thenReturn(Map.of());
+        when(loader.loadAllIds()).thenReturn(new long[]{1, 3, 4});
+        ReflectionTestUtils.invokeMethod(service, "sync");
+
+        assertEquals(Set.of(2L, 3L, 9L), ReflectionTestUtils.getField(service, "pendingChanges"));
+    }
+
+    @Test
+    void failedCatchUpPublishesNothing() {
+        when(loader.loadUpdateTimesSince(any())).thenThrow(new IllegalStateException("database down"));
+
+        ReflectionTestUtils.invokeMethod(service, "reload");
+
+        assertFalse(service.isReady());
+        assertNull(service.findProduct(1));
+        assertNull(service.productVersion(1));
+        assertNull(ReflectionTestUtils.getField(service, "sortIndex"));
+        assertNull(ReflectionTestUtils.getField(service, "lastSyncStarted"));
+        assertEquals(1, ReflectionTestUtils.getField(service, "reloadFailures"));
+
+        // the database is back: the retry publishes a caught-up catalog
+        reset(loader);
+        when(loader.loadUpdateTimesSince(any())).thenReturn(Map.of());
+        when(loader.loadAllIds()).thenReturn(new long[]{1, 2, 3});
+        when(loader.loadByIds(any())).thenReturn(List.of());
+        ReflectionTestUtils.invokeMethod(service, "reload");
+
+        assertTrue(service.isReady());
+        assertNull(service.findProduct(4));
+        assertNotNull(ReflectionTestUtils.getField(service, "sortIndex"));
+        assertNotNull(ReflectionTestUtils.getField(service, "lastSyncStarted"));
+        assertEquals(0, ReflectionTestUtils.getField(service, "reloadFailures"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedRefreshKeepsItsChangesAndBacksOff() {
+        when(loader.loadUpdateTimesSince(any())).thenReturn(Map.of());
+        when(loader.loadAllIds()).thenReturn(new long[]{1, 2, 3, 4});
+        when(loader.loadByIds(any())).thenReturn(List.of());
+        ReflectionTestUtils.invokeMethod(service, "reload");
+        when(loader.loadByIds(any())).thenThrow(new IllegalStateException("database down"));
+        Set<Long> pending = (Set<Long>) ReflectionTestUtils.getField(service, "pendingChanges");
+        pending.add(2L);
+
+        ReflectionTestUtils.invokeMethod(service, "applyChanges");
+        ReflectionTestUtils.invokeMethod(service, "applyChanges");
+
+        assertEquals(Set.of(2L), pending);
+        assertEquals(2, ReflectionTestUtils.getField(service, "refreshFailures"));
+        assertEquals(600_000L, (long) ReflectionTestUtils.invokeMethod(service, "retryDelay", 3));
+        // a new change does not schedule an attempt before the backoff is over
+        assertTrue(((AtomicBoolean) ReflectionTestUtils.getField(service, "refreshScheduled")).get());
+
+        reset(loader);
+        when(loader.loadByIds(any())).thenReturn(List.of(row(2, "p2 edited", WRITTEN.plusMinutes(1))));
+        ReflectionTestUtils.invokeMethod(service, "applyChanges");
+
+        assertEquals("p2 edited", service.findProduct(2).getName());
+        assertEquals(0, ReflectionTestUtils.getField(service, "refreshFailures"));
+        assertTrue(pending.isEmpty());
+    }
+
+    @Test
+    void retryDelayDoublesUpToTheCap() {
+        ReflectionTestUtils.setField(service, "retryInitialMillis", 200L);
+        ReflectionTestUtils.setField(service, "retryMaxMillis", 5_000L);
+
+        assertEquals(200L, (long) ReflectionTestUtils.invokeMethod(service, "retryDelay", 0));
+        assertEquals(1_600L, (long) ReflectionTestUtils.invokeMethod(service, "retryDelay", 3));
+        assertEquals(5_000L, (long) ReflectionTestUtils.invokeMethod(service, "retryDelay", 10));
+        assertEquals(5_000L, (long) ReflectionTestUtils.invokeMethod(service, "retryDelay", 1000));
+    }
+}
@@ -0,0 +1,109 @@
+package com.project.shopapp.services.Catalog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotFileTest {
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+    @TempDir
+    Path directory;
+
+    private static CatalogRow row(long id, String name, long categoryId, LocalDateTime updatedAt, String... images) {
+        CatalogRow row = CatalogRow.builder()
+                .id(id).name(name).price(id * 1000f).thumbnail(name + ".jpg").description("mô tả " + name)
+                .stockQuantity((int) id).categoryId(categoryId).createdAt(CREATED).updatedAt(updatedAt)
+                .build();
+        for (int i = 0; i < images.length; i++) {
+            row.getImageIds().add(id * 100 + i);
+            row.getImageUrls().add(images[i]);
+        }
+        return row;
+    }
+
+    private static CatalogSnapshot snapshot(OffHeapRecordStore records, CatalogRow... rows) {
+        CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder(rows.length, records);
+        for (CatalogRow row : rows) {
+            builder.add(row);
+        }
+        return builder.build();
+    }
+
+    private static void assertSameProducts(CatalogSnapshot expected, CatalogSnapshot actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int row = 0; row < expected.size(); row++) {
+            assertEquals(expected.toResponse(row), actual.toResponse(row));
+            assertEquals(expected.updatedAtMillis(row), actual.updatedAtMillis(row));
+        }
+        assertEquals(expected.categoryIds(), actual.categoryIds());
+        assertEquals(expected.getMaxUpdatedAt(), actual.getMaxUpdatedAt());
+    }
+
+    @Test
+    void roundTripsHeapAndOffHeapSnapshots() throws Exception {
+        CatalogSnapshot written = snapshot(null,
+                row(1, "Áo thun", 3, CREATED.plusDays(1), "a.jpg", "b.jpg"),
+                row(2, "Quần jean", 3, null),
+                row(7, "Giày", 5, CREATED.plusDays(2), "c.png"));
+        Path file = directory.resolve("catalog.snapshot");
+        CatalogSnapshotFile.write(written, file);
+
+        assertSameProducts(written, CatalogSnapshotFile.read(file, null));
+        assertSameProducts(written, CatalogSnapshotFile.read(file, new OffHeapRecordStore(1 << 16)));
+    }
+
+    @Test
+    void rejectsATruncatedFile() throws Exception {
+        Path file = directory.resolve("catalog.snapshot");
+        CatalogSnapshotFile.write(snapshot(null, row(1, "a", 1, CREATED)), file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+
+        assertThrows(Exception.class, () -> CatalogSnapshotFile.read(file, null));
+    }
+
+    @Test
+    void withChangesMergesUpsertsAndDeletions() throws Exception {
+        Path file = directory.resolve("catalog.snapshot");
+        CatalogSnapshotFile.write(snapshot(null,
+                row(1, "a", 1, CREATED), row(2, "b", 1, CREATED), row(4, "d", 2, CREATED)), file);
+        CatalogSnapshot fromFile = CatalogSnapshotFile.read(file, null);
+
+        CatalogSnapshot next = fromFile.withChanges(
+                List.of(row(2, "b2", 2, CREATED.plusHours(1), "x.jpg"), row(3, "c", 1, CREATED)), Set.of(4L));
+
+        assertSameProducts(snapshot(null,
+                row(1, "a", 1, CREATED), row(2, "b2", 2, CREATED.plusHours(1), "x.jpg"), row(3, "c", 1, CREATED)), next);
+        assertEquals(2, next.rowsOfCategory(1).cardinality());
+        assertNull(next.rowsOfCategory(7));
+        // the published snapshot is never modified
+        assertEquals("b", fromFile.nameAt(fromFile.rowOf(2)));
+    }
+
+    @Test
+    void smallCategoriesAreKeptAsSparseRows() {
+        CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder(1000, null);
+        for (int i = 0; i < 1000; i++) {
+            // category 1 holds every product but ten, category 2 the other ten
+            builder.addProduct(i + 1, "p" + i, 1f, null, null, 1, i % 100 == 0 ? 2 : 1, 0, 0);
+        }
+        CatalogSnapshot snapshot = builder.build();
+
+        RowSet small = snapshot.rowsOfCategory(2);
+        assertTrue(small.isSparse());
+        assertFalse(snapshot.rowsOfCategory(1).isSparse());
+        assertEquals(10, small.cardinality());
+        assertEquals(990, snapshot.rowsOfCategory(1).cardinality());
+        for (int n = 0; n < 10; n++) {
+            assertEquals(n * 100, small.nth(n));
+        }
+        assertEquals(0, small.andCardinality(snapshot.rowsOfCategory(1)));
+    }
+}
@@ -0,0 +1,171 @@
+package com.project.shopapp.services.Catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSortIndexTest {
+    private static final ProductSort[] SORTS = {
+            ProductSort.PRICE_ASC, ProductSort.PRICE_DESC, ProductSort.NEWEST, ProductSort.POPULAR
+    };
+
+    private static CatalogSnapshot snapshot(int size, long seed) {
+        Random random = new Random(seed);
+        CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder(size, null);
+        for (int i = 0; i < size; i++) {
+            // few distinct values, so ties (broken by id) are common
+            float price = random.nextInt(20) * 1000f - (i % 50 == 0 ? 5000f : 0f);
+            builder.addProduct(10 + i * 3L, "p" + i, price, null, null, 1, 1 + random.nextInt(40),
+                    1_600_000_000_000L + random.nextInt(30) * 1000L, 0);
+        }
+        return builder.build();
+    }
+
+    private static LongLongHashIndex unitsSold(CatalogSnapshot snapshot, long seed) {
+        Random random = new Random(seed);
+        long[] ids = new long[snapshot.size()];
+        long[] units = new long[snapshot.size()];
+        for (int row = 0; row < snapshot.size(); row++) {
+            ids[row] = snapshot.idAt(row);
+            units[row] = random.nextInt(5);
+        }
+        return new LongLongHashIndex(ids, units, ids.length);
+    }
+
+    // expected order by sorting the filtered rows with a comparator on the raw columns
+    private static List<Integer> expected(CatalogSnapshot snapshot, LongLongHashIndex sold, ProductSort sort, RowSet filter) {
+        List<Integer> rows = new ArrayList<>();
+        for (int row = 0; row < snapshot.size(); row++) {
+            if (filter == null || filter.contains(row)) {
+                rows.add(row);
+            }
+        }
+        Comparator<Integer> byKey = switch (sort) {
+            case PRICE_ASC -> Comparator.comparingDouble(snapshot::priceAt);
+            case PRICE_DESC -> Comparator.<Integer>comparingDouble(snapshot::priceAt).reversed();
+            case NEWEST -> Comparator.<Integer>comparingLong(snapshot::createdAtMillis).reversed();
+            default -> Comparator.<Integer>comparingLong(row -> sold.get(snapshot.idAt(row))).reversed();
+        };
+        boolean reversedIds = sort == ProductSort.PRICE_DESC || sort == ProductSort.NEWEST;
+        Comparator<Integer> byId = Comparator.comparingLong(snapshot::idAt);
+        rows.sort(byKey.thenComparing(reversedIds ? byId.reversed() : byId));
+        return rows;
+    }
+
+    private static List<Integer> pageByOffset(CatalogSortIndex index, ProductSort sort, RowSet filter, int limit) {
+        List<Integer> all = new ArrayList<>();
+        int[] page = new int[limit];
+        for (int skip = 0; ; skip += limit) {
+            int count = index.collect(sort, filter, 0, 0, false, skip, page);
+            for (int k = 0; k < count; k++) {
+                all.add(page[k]);
+            }
+            if (count < limit) {
+                return all;
+            }
+        }
+    }
+
+    private static List<Integer> pageByCursor(CatalogSortIndex index, CatalogSnapshot snapshot, ProductSort sort,
+                                              RowSet filter, int limit) {
+        List<Integer> all = new ArrayList<>();
+        int[] page = new int[limit];
+        int count = index.collect(sort, filter, 0, 0, false, 0, page);
+        while (count > 0) {
+            for (int k = 0; k < count; k++) {
+                all.add(page[k]);
+            }
+            int last = page[count - 1];
+            count = index.collect(sort, filter, index.keyOf(sort, last), snapshot.idAt(last), true, 0, page);
+        }
+        return all;
+    }
+
+    @Test
+    void walksEveryOrderLikeAComparatorSort() {
+        CatalogSnapshot snapshot = snapshot(2000, 1);
+        LongLongHashIndex sold = unitsSold(snapshot, 2);
+        CatalogSortIndex index = CatalogSortIndex.build(snapshot, sold);
+        for (ProductSort sort : SORTS) {
+            assertEquals(expected(snapshot, sold, sort, null), pageByOffset(index, sort, null, 7), sort.name());
+            assertEquals(expected(snapshot, sold, sort, null), pageByCursor(index, snapshot, sort, null, 7), sort.name());
+        }
+    }
+
+    @Test
+    void denseAndSparseFiltersGiveTheSamePages() {
+        CatalogSnapshot snapshot = snapshot(3000, 3);
+        LongLongHashIndex sold = unitsSold(snapshot, 4);
+        CatalogSortIndex index = CatalogSortIndex.build(snapshot, sold);
+        // one category is about 1/40 of the rows (sparse path); every other row is the dense path
+        RowSet sparse = snapshot.rowsOfCategory(snapshot.categoryAt(0));
+        RowSet dense = new RowSet(snapshot.size());
+        for (int row = 0; row < snapshot.size(); row += 2) {
+            dense.add(row);
+        }
+        for (ProductSort sort : SORTS) {
+            for (RowSet filter : List.of(sparse, dense)) {
+                List<Integer> expected = expected(snapshot, sold, sort, filter);
+                assertEquals(expected, pageByOffset(index, sort, filter, 5), sort.name());
+                assertEquals(expected, pageByCursor(index, snapshot, sort, filter, 5), sort.name());
+            }
+        }
+    }
+
+    @Test
+    void cursorOfADeletedRowStillContinuesInOrder() {
+        CatalogSnapshot snapshot = snapshot(500, 5);
+        CatalogSortIndex index = CatalogSortIndex.build(snapshot, null);
+        int[] page = new int[10];
+        index.collect(ProductSort.PRICE_ASC, null, 0, 0, false, 0, page);
+        long key = index.keyOf(ProductSort.PRICE_ASC, page[9]);
+        long id = snapshot.idAt(page[9]);
+
+        CatalogSnapshot next = snapshot.withChanges(List.of(), Set.of(id));
+        CatalogSortIndex nextIndex = index.withChanges(next, Set.of(id));
+        int[] rest = new int[1];
+        assertEquals(1, nextIndex.collect(ProductSort.PRICE_ASC, null, key, id, true, 0, rest));
+        List<Integer> expected = expected(next, null, ProductSort.PRICE_ASC, null);
+        assertEquals(next.idAt(expected.get(9)), next.idAt(rest[0]));
+    }
+
+    @Test
+    void incrementalChangesMatchAFullBuild() {
+        CatalogSnapshot snapshot = snapshot(1000, 6);
+        LongLongHashIndex sold = unitsSold(snapshot, 7);
+        CatalogSortIndex index = CatalogSortIndex.build(snapshot, sold);
+        List<CatalogRow> upserts = new ArrayList<>();
+        Set<Long> changed = new HashSet<>();
+        for (long id : new long[]{10, 13, 1000, 2005}) {
+            upserts.add(CatalogRow.builder().id(id).name("changed" + id).price(42f).categoryId(3L)
+                    .stockQuantity(1).imageIds(new ArrayList<>()).imageUrls(new ArrayList<>()).build());
+            changed.add(id);
+        }
+        upserts.sort(Comparator.comparing(CatalogRow::getId));
+        Set<Long> deleted = Set.of(16L, 19L);
+        changed.addAll(deleted);
+
+        CatalogSnapshot next = snapshot.withChanges(upserts, deleted);
+        CatalogSortIndex incremental = index.withChanges(next, changed);
+        CatalogSortIndex full = CatalogSortIndex.build(next, sold);
+        for (ProductSort sort : SORTS) {
+            assertEquals(pageByOffset(full, sort, null, 50), pageByOffset(incremental, sort, null, 50), sort.name());
+        }
+    }
+
+    @Test
+    void negativeAndPositivePricesSortNumerically() {
+        CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder(4, null);
+        float[] prices = {5f, -1f, 0f, -30f};
+        for (int i = 0; i < prices.length; i++) {
+            builder.addProduct(i + 1, "p" + i, prices[i], null, null, 0, 1, 0, 0);
+        }
+        CatalogSnapshot snapshot = builder.build();
+        CatalogSortIndex index = CatalogSortIndex.build(snapshot, null);
+        int[] page = new int[4];
+        index.collect(ProductSort.PRICE_ASC, null, 0, 0, false, 0, page);
+        assertArrayEquals(new int[]{3, 1, 2, 0}, page);
+    }
+}
@@ -0,0 +1,63 @@
+package com.project.shopapp.services.Catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongLongHashIndexTest {
+
+    @Test
+    void findsEveryKeyAndMissesOthers() {
+        Random random = new Random(42);
+        Map<Long, Long> expected = new HashMap<>();
+        while (expected.size() < 10_000) {
+            expected.put(random.nextLong() >>> 1, (long) expected.size());
+        }
+        long[] keys = new long[expected.size()];
+        long[] values = new long[expected.size()];
+        int n = 0;
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            keys[n] = entry.getKey();
+            values[n++] = entry.getValue();
+        }
+
+        LongLongHashIndex index = new LongLongHashIndex(keys, values, n);
+
+        expected.forEach((key, value) -> assertEquals(value, index.get(key)));
+        for (int i = 0; i < 10_000; i++) {
+            long key = -(random.nextLong() >>> 1) - 1;
+            assertEquals(-1, index.get(key));
+        }
+    }
+
+    @Test
+    void handlesSequentialIdsThatShareLowBits() {
+        long[] keys = new long[4096];
+        long[] values = new long[4096];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (long) i << 20;
+            values[i] = i;
+        }
+
+        LongLongHashIndex index = new LongLongHashIndex(keys, values, keys.length);
+
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i, index.get(keys[i]));
+        }
+        assertEquals(-1, index.get(1));
+    }
+
+    @Test
+    void onlyTheFirstCountEntriesAreIndexed() {
+        LongLongHashIndex index = new LongLongHashIndex(new long[]{7, 8, 9}, new long[]{70, 80, 90}, 2);
+
+        assertEquals(70, index.get(7));
+        assertEquals(80, index.get(8));
+        assertEquals(-1, index.get(9));
+        assertEquals(-1, new LongLongHashIndex(new long[0], new long[0], 0).get(7));
+    }
+}
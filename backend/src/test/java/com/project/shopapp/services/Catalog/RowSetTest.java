@@ -0,0 +1,104 @@
+package com.project.shopapp.services.Catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowSetTest {
+    private static final int CAPACITY = 10_000;
+
+    private static int[] randomRows(Random random, int count) {
+        TreeSet<Integer> rows = new TreeSet<>();
+        while (rows.size() < count) {
+            rows.add(random.nextInt(CAPACITY));
+        }
+        return rows.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static RowSet bitmap(int[] rows) {
+        RowSet set = new RowSet(CAPACITY);
+        for (int row : rows) {
+            set.add(row);
+        }
+        return set;
+    }
+
+    private static List<Integer> members(RowSet set) {
+        List<Integer> members = new ArrayList<>();
+        for (int row = set.next(0); row >= 0; row = set.next(row + 1)) {
+            members.add(row);
+        }
+        return members;
+    }
+
+    @Test
+    void ofPicksSparseOnlyForSmallSets() {
+        Random random = new Random(1);
+        assertTrue(RowSet.of(randomRows(random, 10), 0, 10, CAPACITY).isSparse());
+        assertFalse(RowSet.of(randomRows(random, 5000), 0, 5000, CAPACITY).isSparse());
+    }
+
+    @Test
+    void sparseAndBitmapAnswerTheSame() {
+        Random random = new Random(2);
+        int[] rows = randomRows(random, 200);
+        // a slice in the middle of a larger array, as the snapshot's shared category array is used
+        int[] padded = new int[rows.length + 6];
+        padded[0] = padded[1] = padded[2] = -7;
+        System.arraycopy(rows, 0, padded, 3, rows.length);
+        RowSet sparse = RowSet.of(padded, 3, 3 + rows.length, CAPACITY);
+        RowSet bitmap = bitmap(rows);
+        assertTrue(sparse.isSparse());
+
+        assertEquals(bitmap.cardinality(), sparse.cardinality());
+        assertEquals(members(bitmap), members(sparse));
+        for (int n = -1; n <= rows.length; n++) {
+            assertEquals(bitmap.nth(n), sparse.nth(n), "nth " + n);
+        }
+        for (int row = -1; row <= CAPACITY + 70; row++) {
+            assertEquals(bitmap.contains(row), sparse.contains(row), "contains " + row);
+            assertEquals(bitmap.next(row), sparse.next(row), "next " + row);
+            assertEquals(bitmap.previous(row), sparse.previous(row), "previous " + row);
+        }
+        assertEquals(bitmap.previous(Integer.MAX_VALUE), sparse.previous(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void intersectionsAgreeAcrossForms() {
+        Random random = new Random(3);
+        int[] small = randomRows(random, 150);
+        int[] large = randomRows(random, 4000);
+        RowSet smallSparse = RowSet.of(small, 0, small.length, CAPACITY);
+        RowSet largeBitmap = RowSet.of(large, 0, large.length, CAPACITY);
+        RowSet otherSparse = RowSet.of(randomRows(random, 250), 0, 250, CAPACITY);
+
+        List<Integer> expected = members(bitmap(small).and(bitmap(large)));
+        assertEquals(expected, members(smallSparse.and(largeBitmap)));
+        assertEquals(expected, members(largeBitmap.and(smallSparse)));
+        assertEquals(expected.size(), smallSparse.andCardinality(largeBitmap));
+        assertEquals(expected.size(), largeBitmap.andCardinality(smallSparse));
+        assertEquals(expected.size(), smallSparse.and(largeBitmap).cardinality());
+
+        RowSet both = smallSparse.and(otherSparse);
+        assertTrue(both.isSparse());
+        assertEquals(members(bitmap(small).and(bitmap(rowsOf(otherSparse)))), members(both));
+        assertEquals(both.cardinality(), otherSparse.andCardinality(smallSparse));
+    }
+
+    @Test
+    void emptySetsAreHarmless() {
+        RowSet empty = RowSet.of(new int[0], 0, 0, CAPACITY);
+        assertEquals(0, empty.cardinality());
+        assertEquals(-1, empty.next(0));
+        assertEquals(-1, empty.previous(CAPACITY));
+        assertEquals(-1, empty.nth(0));
+        assertEquals(0, empty.and(bitmap(new int[]{1, 2, 3})).cardinality());
+        assertEquals(0, new RowSet(0).andCardinality(empty));
+    }
+
+    private static int[] rowsOf(RowSet set) {
+        return members(set).stream().mapToInt(Integer::intValue).toArray();
+    }
+}
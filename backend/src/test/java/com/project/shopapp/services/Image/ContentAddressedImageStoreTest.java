@@ -0,0 +1,87 @@
+package com.project.shopapp.services.Image;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentAddressedImageStoreTest {
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 16, 'J', 'F', 'I', 'F', 0, 1};
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 13};
+
+    @TempDir
+    Path root;
+
+    private ContentAddressedImageStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ContentAddressedImageStore(root.toString());
+    }
+
+    private StoredImage store(byte[] bytes, String filename) throws Exception {
+        return store.store(new ByteArrayInputStream(bytes), filename);
+    }
+
+    @Test
+    void extensionComesFromTheDetectedType() throws Exception {
+        StoredImage jpg = store(JPEG, "photo.jpg");
+        StoredImage jpeg = store(JPEG, "photo.JPEG");
+        StoredImage mislabelled = store(PNG, "photo.jpg");
+
+        assertTrue(jpg.getName().endsWith(".jpg"));
+        assertEquals(jpg.getName(), jpeg.getName());
+        assertTrue(jpg.isCreated());
+        assertFalse(jpeg.isCreated());
+        assertTrue(mislabelled.getName().endsWith(".png"));
+        assertEquals("txt", store.store(new ByteArrayInputStream("plain".getBytes()), "a.TXT").getName()
+                .substring(65));
+    }
+
+    @Test
+    void deduplicationDoesNotTouchTheFile() throws Exception {
+        StoredImage first = store(JPEG, "a.jpg");
+        Path file = store.resolve(first.getName());
+        FileTime created = FileTime.from(Instant.parse("2024-01-01T00:00:00Z"));
+        Files.setLastModifiedTime(file, created);
+
+        store(JPEG, "b.jpg");
+
+        assertEquals(created, Files.getLastModifiedTime(file));
+    }
+
+    @Test
+    void failedUploadKeepsAFileAnotherUploadDeduplicatedTo() throws Exception {
+        StoredImage failed = store(JPEG, "a.jpg");
+        StoredImage other = store(JPEG, "b.jpg");
+
+        assertFalse(store.releaseIfUnchanged(failed));
+        assertTrue(Files.exists(store.resolve(failed.getName())));
+        assertTrue(store.releaseIfUnchanged(other));
+        assertFalse(Files.exists(store.resolve(failed.getName())));
+    }
+
+    @Test
+    void releaseIfUnusedRespectsRecentStoresAndReferences() throws Exception {
+        StoredImage image = store(JPEG, "a.jpg");
+        Path file = store.resolve(image.getName());
+
+        // just stored: maybe an upload that has not committed yet
+        assertFalse(store.releaseIfUnused(image.getName(), Instant.now().minusSeconds(3600), () -> false));
+        // old enough, but still referenced
+        assertFalse(store.releaseIfUnused(image.getName(), Instant.now().plusSeconds(1), () -> true));
+        assertTrue(Files.exists(file));
+
+        assertTrue(store.releaseIfUnused(image.getName(), Instant.now().plusSeconds(1), () -> false));
+        assertFalse(Files.exists(file));
+        // a later upload of the same bytes starts over
+        assertTrue(store(JPEG, "a.jpg").isCreated());
+    }
+}
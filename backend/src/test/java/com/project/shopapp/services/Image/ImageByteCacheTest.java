@@ -0,0 +1,79 @@
+package com.project.shopapp.services.Image;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageByteCacheTest {
+    private static final int FILE_BYTES = 100;
+
+    @TempDir
+    Path directory;
+
+    private ImageByteCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ImageByteCache();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        // 64 initial slots, at most 1024; 1024 files of 100 bytes use a tenth of the bytes
+        ReflectionTestUtils.setField(cache, "maxBytes", 1L << 20);
+        ReflectionTestUtils.setField(cache, "maxEntryBytes", 4096L);
+        ReflectionTestUtils.setField(cache, "evictionSample", 8);
+        cache.init();
+    }
+
+    private ByteBuffer get(String name) throws Exception {
+        Path file = directory.resolve(name);
+        if (!Files.exists(file)) {
+            Files.write(file, new byte[FILE_BYTES]);
+        }
+        return cache.get(name, file, "v1", FILE_BYTES);
+    }
+
+    @Test
+    void slotTableGrowsWhileTheBytesAllowIt() throws Exception {
+        for (int i = 0; i < 500; i++) {
+            assertNotNull(get("small-" + i));
+        }
+        assertEquals(500, cache.getMetrics().getEntries());
+    }
+
+    @Test
+    void fullSlotTableStillAdmitsAHotImage() throws Exception {
+        for (int i = 0; i < 1500; i++) {
+            get("cold-" + i);
+        }
+        assertEquals(1024, cache.getMetrics().getEntries());
+
+        for (int i = 0; i < 20; i++) {
+            get("hot");
+        }
+        long hits = cache.getMetrics().getHits();
+        get("hot");
+
+        assertEquals(hits + 1, cache.getMetrics().getHits());
+        assertTrue(cache.getMetrics().getEvictions() > 0);
+        assertEquals(1024, cache.getMetrics().getEntries());
+    }
+
+    @Test
+    void coldImageDoesNotDisplaceWhatIsCached() throws Exception {
+        for (int i = 0; i < 1024; i++) {
+            get("warm-" + i);
+            get("warm-" + i);
+        }
+        long evictions = cache.getMetrics().getEvictions();
+        get("crawled-once");
+
+        assertEquals(evictions, cache.getMetrics().getEvictions());
+        assertEquals(1, cache.getMetrics().getRejections());
+    }
+}
@@ -0,0 +1,72 @@
+package com.project.shopapp.services.Image;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ImageDeliveryServiceTest {
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 1, 2, 3, 4, 5, 6, 7, 8};
+
+    @TempDir
+    Path root;
+
+    private ContentAddressedImageStore store;
+    private IImageByteCache byteCache;
+    private ImageDeliveryService service;
+
+    @BeforeEach
+    void setUp() {
+        store = new ContentAddressedImageStore(root.toString());
+        byteCache = mock(IImageByteCache.class);
+        service = new ImageDeliveryService(store, mock(IImageVariantService.class), byteCache);
+    }
+
+    private MockHttpServletResponse serve(String name, String ifNoneMatch) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/images/" + name);
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service.serveImage(name, null, request, response);
+        return response;
+    }
+
+    @Test
+    void storedImagesAreValidatedByTheirContentHash() throws Exception {
+        StoredImage image = store.store(new ByteArrayInputStream(JPEG), "a.jpg");
+        String hash = image.getName().substring(0, 64);
+
+        MockHttpServletResponse first = serve(image.getName(), null);
+        assertEquals("\"" + hash + "\"", first.getHeader("ETag"));
+        assertArrayEquals(JPEG, first.getContentAsByteArray());
+        verify(byteCache).get(anyString(), any(), eq(hash), eq((long) JPEG.length));
+
+        // neither a deduplicated upload nor any other mtime change invalidates it
+        store.store(new ByteArrayInputStream(JPEG), "b.jpeg");
+        Files.setLastModifiedTime(store.resolve(image.getName()), FileTime.from(Instant.now().plusSeconds(60)));
+        assertEquals(304, serve(image.getName(), "\"" + hash + "\"").getStatus());
+    }
+
+    @Test
+    void legacyFilesStillUseMtimeAndLength() throws Exception {
+        Path legacy = root.resolve("0b5c6e1a_photo.jpg");
+        Files.write(legacy, JPEG);
+        Files.setLastModifiedTime(legacy, FileTime.fromMillis(0x1000));
+
+        MockHttpServletResponse response = serve("0b5c6e1a_photo.jpg", null);
+
+        assertEquals("\"1000-" + Integer.toHexString(JPEG.length) + "\"", response.getHeader("ETag"));
+    }
+}
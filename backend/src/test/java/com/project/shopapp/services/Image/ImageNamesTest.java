@@ -0,0 +1,42 @@
+package com.project.shopapp.services.Image;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageNamesTest {
+    private static final String HASH = "ab".repeat(32);
+
+    @TempDir
+    Path root;
+
+    @Test
+    void originalsVariantsAndLegacyNamesAreTold() {
+        assertTrue(ImageNames.isHashedName(HASH + ".png"));
+        assertFalse(ImageNames.isHashedName(HASH + "_w400.jpg"));
+        assertFalse(ImageNames.isHashedName("0b1e7a5c_photo.png"));
+
+        assertEquals(HASH, ImageNames.contentTag(HASH + ".png"));
+        assertEquals(HASH + "_w400", ImageNames.contentTag(HASH + "_w400.jpg"));
+        assertNull(ImageNames.contentTag("0b1e7a5c_photo.png"));
+        assertNull(ImageNames.contentTag(HASH.toUpperCase() + ".png"));
+
+        assertEquals(HASH + "_w150.jpg", ImageNames.variantName(HASH + ".png", 150));
+    }
+
+    @Test
+    void typeComesFromTheMagicBytes() throws Exception {
+        Path png = Files.write(root.resolve("photo.jpg"),
+                new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 13});
+        Path text = Files.writeString(root.resolve("notes.png"), "not an image");
+
+        assertEquals("png", ImageNames.sniffExtension(png));
+        assertEquals("image/png", ImageNames.mediaTypeOf("png"));
+        assertEquals("image/jpeg", ImageNames.mediaTypeOf("jpg"));
+        assertNull(ImageNames.sniffExtension(text));
+    }
+}
@@ -0,0 +1,92 @@
+package com.project.shopapp.services.Image;
+
+import com.project.shopapp.repositories.ProductImageRepository;
+import com.project.shopapp.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class OrphanImageCollectorTest {
+    private static final FileTime OLD = FileTime.from(Instant.now().minus(Duration.ofDays(3)));
+
+    @TempDir
+    Path root;
+
+    private ContentAddressedImageStore store;
+    private ProductImageRepository productImageRepository;
+    private OrphanImageCollector collector;
+
+    @BeforeEach
+    void setUp() {
+        store = new ContentAddressedImageStore(root.toString());
+        productImageRepository = mock(ProductImageRepository.class);
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productImageRepository.findImageUrlsAfter(any(), any())).thenReturn(List.of());
+        when(productRepository.findThumbnailsAfter(any(), any())).thenReturn(List.of());
+        collector = new OrphanImageCollector(store, productImageRepository, productRepository);
+        ReflectionTestUtils.setField(collector, "enabled", true);
+        ReflectionTestUtils.setField(collector, "mode", "delete");
+        ReflectionTestUtils.setField(collector, "graceHours", 24L);
+        ReflectionTestUtils.setField(collector, "quarantineRetentionDays", 7L);
+        ReflectionTestUtils.setField(collector, "shardsPerRun", 1 << 16);
+        ReflectionTestUtils.setField(collector, "maxFilesPerSecond", 1_000_000);
+    }
+
+    private Path marker(Path file) {
+        return file.resolveSibling("." + file.getFileName() + ".stored");
+    }
+
+    @Test
+    void recentDeduplicationKeepsAnOldFileAlive() throws Exception {
+        byte[] bytes = {1, 2, 3};
+        StoredImage image = store.store(new ByteArrayInputStream(bytes), "a.png");
+        Path file = store.resolve(image.getName());
+        Files.setLastModifiedTime(file, OLD);
+        // deduplicated a moment ago: the upload may not have committed its row yet
+        store.store(new ByteArrayInputStream(bytes), "b.png");
+
+        collector.collect();
+
+        assertTrue(Files.exists(file));
+        assertEquals(OLD, Files.getLastModifiedTime(file));
+    }
+
+    @Test
+    void unreferencedFileIsReclaimedOnceItsLastStoreIsOld() throws Exception {
+        StoredImage image = store.store(new ByteArrayInputStream(new byte[]{4, 5, 6}), "a.png");
+        Path file = store.resolve(image.getName());
+        Files.setLastModifiedTime(marker(file), OLD);
+
+        collector.collect();
+
+        assertFalse(Files.exists(file));
+        assertFalse(Files.exists(marker(file)));
+        assertEquals(1, collector.getMetrics().getOrphansDeleted());
+    }
+
+    @Test
+    void referencedFileIsKept() throws Exception {
+        StoredImage image = store.store(new ByteArrayInputStream(new byte[]{7, 8, 9}), "a.png");
+        Path file = store.resolve(image.getName());
+        Files.setLastModifiedTime(marker(file), OLD);
+        when(productImageRepository.countByImageUrl(anyString())).thenReturn(1L);
+
+        collector.collect();
+
+        assertTrue(Files.exists(file));
+    }
+}
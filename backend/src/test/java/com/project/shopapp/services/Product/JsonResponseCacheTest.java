@@ -0,0 +1,138 @@
+package com.project.shopapp.services.Product;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonResponseCacheTest {
+    private static JsonResponseCache cache() {
+        return new JsonResponseCache(new ObjectMapper(), true, 1 << 20, 64, 60_000, 1000);
+    }
+
+    private static MockHttpServletResponse serve(JsonResponseCache cache, String version, Object body,
+                                                 String ifNoneMatch, boolean gzip) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/products");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        if (gzip) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        cache.serve(request, response, "list", version, () -> body);
+        return response;
+    }
+
+    @Test
+    void etagDependsOnTheBytesNotOnTheVersion() throws Exception {
+        Map<String, Object> body = Map.of("products", List.of(1, 2, 3));
+        MockHttpServletResponse first = serve(cache(), "1", body, null, false);
+        assertEquals(200, first.getStatus());
+        String etag = first.getHeader(HttpHeaders.ETAG);
+
+        // another node, or this one after a restart, with an unrelated version counter
+        MockHttpServletResponse again = serve(cache(), "7", body, etag, false);
+        assertEquals(304, again.getStatus());
+
+        MockHttpServletResponse changed = serve(cache(), "1", Map.of("products", List.of(4)), etag, false);
+        assertEquals(200, changed.getStatus());
+        assertNotEquals(etag, changed.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void bodyIsSerializedOncePerVersion() throws Exception {
+        JsonResponseCache cache = cache();
+        AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            cache.serve(request, new MockHttpServletResponse(), "list", "1", () -> {
+                calls.incrementAndGet();
+                return List.of(1);
+            });
+        }
+        assertEquals(1, calls.get());
+        cache.serve(new MockHttpServletRequest(), new MockHttpServletResponse(), "list", "2", () -> {
+            calls.incrementAndGet();
+            return List.of(1);
+        });
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void gzipHasItsOwnValidator() throws Exception {
+        JsonResponseCache cache = cache();
+        String big = "x".repeat(500);
+        MockHttpServletResponse gzip = serve(cache, "1", List.of(big), null, true);
+        assertEquals("gzip", gzip.getHeader(HttpHeaders.CONTENT_ENCODING));
+        String gzipEtag = gzip.getHeader(HttpHeaders.ETAG);
+        assertTrue(gzipEtag.endsWith("-gz\""));
+        MockHttpServletResponse plain = serve(cache, "1", List.of(big), null, false);
+        assertNull(plain.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(gzipEtag.replace("-gz", ""), plain.getHeader(HttpHeaders.ETAG));
+        assertEquals(304, serve(cache, "1", List.of(big), gzipEtag, true).getStatus());
+    }
+
+    @Test
+    void missingBodyIsNotFoundAndNotCached() throws Exception {
+        JsonResponseCache cache = cache();
+        MockHttpServletResponse missing = serve(cache, "1", null, null, false);
+        assertEquals(404, missing.getStatus());
+        assertEquals(0, missing.getContentAsByteArray().length);
+        assertEquals(0, cache.getMetrics().getEntries());
+    }
+
+    @Test
+    void revalidationOfAnUnchangedVersionNeedsNoBodyAfterTheBytesExpired() throws Exception {
+        // ttl 0: the bytes are never reused, only the tag
+        JsonResponseCache cache = new JsonResponseCache(new ObjectMapper(), true, 1 << 20, 64, -1, 1000);
+        String etag = serve(cache, "1", List.of(1, 2), null, false).getHeader(HttpHeaders.ETAG);
+        AtomicInteger calls = new AtomicInteger();
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        cache.serve(request, response, "list", "1", () -> {
+            calls.incrementAndGet();
+            return List.of(1, 2);
+        });
+
+        assertEquals(304, response.getStatus());
+        assertEquals(etag, response.getHeader(HttpHeaders.ETAG));
+        assertEquals(0, calls.get());
+        // a new version is built again, and a changed body is a full response
+        assertEquals(200, serve(cache, "2", List.of(3), etag, false).getStatus());
+    }
+
+    @Test
+    void staysWithinMaxBytes() throws Exception {
+        JsonResponseCache cache = new JsonResponseCache(new ObjectMapper(), true, 8 * 1024, 1 << 20, 60_000, 1000);
+        String body = "y".repeat(500);
+        for (int i = 0; i < 200; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            cache.serve(new MockHttpServletRequest(), response, "product:" + i, "1", () -> List.of(body));
+            assertEquals(200, response.getStatus());
+        }
+        assertTrue(cache.getMetrics().getUsedBytes() <= 8 * 1024);
+        assertTrue(cache.getMetrics().getEntries() > 0);
+    }
+
+    @Test
+    void gzipWithQualityZeroIsRefused() {
+        assertTrue(JsonResponseCache.acceptsGzip("gzip, deflate, br"));
+        assertTrue(JsonResponseCache.acceptsGzip("deflate;q=0.5, GZIP;q=0.8"));
+        assertTrue(JsonResponseCache.acceptsGzip("*"));
+        assertFalse(JsonResponseCache.acceptsGzip("gzip;q=0"));
+        assertFalse(JsonResponseCache.acceptsGzip("gzip; q=0.000, *"));
+        assertFalse(JsonResponseCache.acceptsGzip("identity, *;q=0"));
+        assertFalse(JsonResponseCache.acceptsGzip("br"));
+        assertFalse(JsonResponseCache.acceptsGzip(null));
+    }
+}
@@ -0,0 +1,56 @@
+package com.project.shopapp.services.Product;
+
+import com.project.shopapp.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProductServiceKeywordTest {
+    private ProductRepository productRepository;
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        productService = new ProductService(productRepository, null, null, null, null, null, null, null, null);
+        ReflectionTestUtils.setField(productService, "maxKeywordResults", 25);
+        ReflectionTestUtils.setField(productService, "keywordPageSize", 10);
+        // 1..40 match; every page starts after the given id
+        when(productRepository.findIdsByKeywordAfter(eq("áo"), anyLong(), any(Pageable.class))).thenAnswer(call -> {
+            long afterId = call.getArgument(1);
+            int size = call.<Pageable>getArgument(2).getPageSize();
+            return LongStream.rangeClosed(afterId + 1, Math.min(40, afterId + size)).boxed().toList();
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> findIds(String keyword) {
+        return (List<Long>) ReflectionTestUtils.invokeMethod(productService, "findIdsByKeyword", keyword);
+    }
+
+    @Test
+    void pagesThroughMatchesUpToTheCap() {
+        List<Long> ids = findIds("áo");
+
+        assertEquals(LongStream.rangeClosed(1, 25).boxed().toList(), ids);
+        verify(productRepository).findIdsByKeywordAfter(eq("áo"), eq(0L), argThat(p -> p.getPageSize() == 10));
+        verify(productRepository).findIdsByKeywordAfter(eq("áo"), eq(10L), argThat(p -> p.getPageSize() == 10));
+        verify(productRepository).findIdsByKeywordAfter(eq("áo"), eq(20L), argThat(p -> p.getPageSize() == 5));
+    }
+
+    @Test
+    void stopsAtAShortPage() {
+        ReflectionTestUtils.setField(productService, "maxKeywordResults", 100);
+
+        assertEquals(40, findIds("áo").size());
+        verify(productRepository, times(5)).findIdsByKeywordAfter(any(), anyLong(), any());
+    }
+}
@@ -0,0 +1,119 @@
+package com.project.shopapp.services.Search;
+
+import com.project.shopapp.responses.Product.ProductFacetsResponse;
+import com.project.shopapp.services.Catalog.CatalogRow;
+import com.project.shopapp.services.Catalog.CatalogSnapshot;
+import com.project.shopapp.services.Catalog.ProductSort;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchResultCacheTest {
+    private static SearchWindow window(long... ids) {
+        return new SearchWindow(ids, 0, ids.length, false, null);
+    }
+
+    private static CatalogRow row(long id, String name, long categoryId) {
+        return CatalogRow.builder().id(id).name(name).description("").categoryId(categoryId).price(1f).build();
+    }
+
+    private static CatalogSnapshot snapshot(CatalogRow... rows) {
+        CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder(rows.length, null);
+        for (CatalogRow row : rows) {
+            builder.add(row);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void spellingsThatFoldAlikeAreSeparateEntries() {
+        SearchResultCache cache = new SearchResultCache(true, 100, 60_000, 5, 1000);
+        cache.put("điện thoại", null, ProductSort.ID, 0, 10, window(1, 2), cache.generation());
+        assertNull(cache.find("dien thoai", null, ProductSort.ID, 0, 10));
+        assertNull(cache.find("c", null, ProductSort.ID, 0, 10));
+        assertArrayEquals(new long[]{1, 2}, cache.find("điện thoại", null, ProductSort.ID, 0, 10).getProductIds());
+        // pages of the same window share the entry
+        assertNotNull(cache.find("điện thoại", null, ProductSort.ID, 4, 10));
+        assertNull(cache.find("điện thoại", null, ProductSort.ID, 5, 10));
+    }
+
+    @Test
+    void windowComputedAcrossAChangeIsNotStored() {
+        SearchResultCache cache = new SearchResultCache(true, 100, 60_000, 5, 1000);
+        CatalogSnapshot before = snapshot(row(1, "Laptop", 1));
+        cache.catalogLoaded(before);
+        long generation = cache.generation();
+        cache.catalogChanged(snapshot(row(1, "Laptop Pro", 1)), List.of(row(1, "Laptop Pro", 1)), Set.of());
+        cache.put("laptop", null, ProductSort.ID, 0, 10, window(1), generation);
+        assertNull(cache.find("laptop", null, ProductSort.ID, 0, 10));
+    }
+
+    @Test
+    void onlyEntriesAChangedProductCanBelongToAreDropped() {
+        SearchResultCache cache = new SearchResultCache(true, 100, 60_000, 5, 1000);
+        CatalogSnapshot before = snapshot(row(1, "Áo sơ mi", 1), row(2, "Quần jean", 2));
+        cache.catalogLoaded(before);
+        long generation = cache.generation();
+        cache.put("Áo", null, ProductSort.ID, 0, 10, window(1), generation);
+        cache.put("quan", null, ProductSort.ID, 0, 10, window(2), generation);
+        cache.put("", 2L, ProductSort.ID, 0, 10, window(2), generation);
+        cache.put("", 1L, ProductSort.ID, 0, 10, window(1), generation);
+
+        CatalogRow renamed = row(1, "Áo thun", 1);
+        cache.catalogChanged(snapshot(renamed, row(2, "Quần jean", 2)), List.of(renamed), Set.of());
+        assertNull(cache.find("Áo", null, ProductSort.ID, 0, 10));
+        assertNull(cache.find("", 1L, ProductSort.ID, 0, 10));
+        assertNotNull(cache.find("quan", null, ProductSort.ID, 0, 10));
+        assertNotNull(cache.find("", 2L, ProductSort.ID, 0, 10));
+    }
+
+    @Test
+    void entriesWithFacetsAreDroppedByMatchingChangesInOtherCategories() {
+        SearchResultCache cache = new SearchResultCache(true, 100, 60_000, 5, 1000);
+        CatalogSnapshot before = snapshot(row(1, "Áo sơ mi", 1), row(2, "Áo khoác", 2));
+        cache.catalogLoaded(before);
+        long generation = cache.generation();
+        ProductFacetsResponse facets = ProductFacetsResponse.builder().build();
+        cache.put("ao", 2L, ProductSort.ID, 0, 10, new SearchWindow(new long[]{2}, 0, 1, false, facets), generation);
+        cache.put("quan", 2L, ProductSort.ID, 0, 10, new SearchWindow(new long[0], 0, 0, false, facets), generation);
+
+        CatalogRow added = row(3, "Áo len", 1);
+        cache.catalogChanged(snapshot(row(1, "Áo sơ mi", 1), row(2, "Áo khoác", 2), added), List.of(added), Set.of());
+        assertNull(cache.find("ao", 2L, ProductSort.ID, 0, 10));
+        assertNotNull(cache.find("quan", 2L, ProductSort.ID, 0, 10));
+    }
+
+    @Test
+    void staysBoundedAndEvictsLeastRecentlyUsedFirst() throws InterruptedException {
+        SearchResultCache cache = new SearchResultCache(true, 50, 60_000, 1, 1000);
+        long generation = cache.generation();
+        cache.put("hot", null, ProductSort.ID, 0, 10, window(1), generation);
+        for (int i = 0; i < 45; i++) {
+            cache.put("old" + i, null, ProductSort.ID, 0, 10, window(i), generation);
+        }
+        Thread.sleep(5);
+        assertNotNull(cache.find("hot", null, ProductSort.ID, 0, 10));
+        Thread.sleep(5);
+        for (int i = 0; i < 200; i++) {
+            cache.put("new" + i, null, ProductSort.ID, 0, 10, window(i), generation);
+            assertTrue(cache.getMetrics().getEntries() <= 50);
+            if (i == 10) {
+                // every entry evicted so far was older than the hot one
+                assertNotNull(cache.find("hot", null, ProductSort.ID, 0, 10));
+            }
+        }
+        assertTrue(cache.getMetrics().getEvictions() > 0);
+    }
+
+    @Test
+    void largeLimitsShrinkTheWindowInsteadOfOverflowing() {
+        SearchResultCache cache = new SearchResultCache(true, 100, 60_000, 5, 1000);
+        assertEquals(5, cache.pagesPerWindow(10));
+        assertEquals(2, cache.pagesPerWindow(400));
+        assertEquals(1, cache.pagesPerWindow(500_000_000));
+        assertEquals(1, cache.pagesPerWindow(Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,57 @@
+package com.project.shopapp.services.Search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    @Test
+    void trigramsIncludeWordBoundariesAndAreDistinct() {
+        // " aa", "aaa", "aa "
+        assertEquals(3, TrigramIndex.trigrams("aaaa").length);
+        // " ab", "abc", "bcd", "cd "
+        assertEquals(4, TrigramIndex.trigrams("abcd").length);
+        assertEquals(0, TrigramIndex.trigrams("").length);
+        int[] codes = TrigramIndex.trigrams("iphone 15");
+        int[] sorted = codes.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(sorted, codes);
+        assertEquals(Arrays.stream(codes).distinct().count(), codes.length);
+    }
+
+    @Test
+    void postingsListTheDocumentsContainingEachTrigram() {
+        TrigramIndex index = new TrigramIndex.Builder()
+                .add(10, 1, "ao thun")
+                .add(20, 1, "ao khoac")
+                .add(30, 2, "quan jean")
+                .build();
+        int[] counts = new int[index.size()];
+        int[] touched = new int[index.size()];
+
+        int touchedSize = 0;
+        for (int code : TrigramIndex.trigrams("ao")) {
+            touchedSize = index.accumulate(code, counts, touched, touchedSize);
+        }
+
+        assertEquals(2, touchedSize);
+        // " ao" and "ao "
+        assertArrayEquals(new int[]{2, 2, 0}, counts);
+        assertEquals(10, index.idAt(touched[0]));
+        assertEquals(20, index.idAt(touched[1]));
+        assertEquals(2, index.categoryAt(2));
+        assertEquals("quan jean", index.nameAt(2));
+        assertEquals(2, index.postingLength(TrigramIndex.trigrams("ao")[0]));
+    }
+
+    @Test
+    void substringDistanceFindsTheClosestPart() {
+        assertEquals(0, TrigramIndex.substringDistance("thun", "ao thun nam", 2));
+        assertEquals(1, TrigramIndex.substringDistance("thum", "ao thun nam", 2));
+        assertEquals(1, TrigramIndex.substringDistance("iphome", "op lung iphone 15", 2));
+        assertEquals(3, TrigramIndex.substringDistance("xyzw", "ao thun", 2));
+    }
+}
@@ -0,0 +1,67 @@
+package com.project.shopapp.services.Suggest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestIndexTest {
+
+    private static List<Long> ids(SuggestIndex index, String prefix) {
+        List<Long> ids = new ArrayList<>();
+        for (int entry : index.lookup(prefix)) {
+            ids.add(index.idOf(entry));
+        }
+        return ids;
+    }
+
+    @Test
+    void keysStartAtTheNameAndItsNextWords() {
+        assertEquals(List.of("iphone 15 pro", "15 pro", "pro"), SuggestIndex.keysOf("iphone 15 pro", 40, 2));
+        assertEquals(List.of("iphone 15 pro", "15 pro"), SuggestIndex.keysOf("iphone 15 pro", 40, 1));
+        assertEquals(List.of("ipho", "15 p", "pro"), SuggestIndex.keysOf("iphone 15 pro", 4, 2));
+    }
+
+    @Test
+    void prefixLookupReturnsTheHeaviestEntriesFirst() {
+        SuggestIndex index = new SuggestIndex.Builder(40, 2, 2)
+                .addProduct(1, "iphone 15 pro", 50)
+                .addProduct(2, "iphone 15", 80)
+                .addProduct(3, "ipad air", 10)
+                .addProduct(4, "op lung iphone", 30)
+                .build();
+
+        assertEquals(List.of(2L, 1L), ids(index, "iph"));
+        assertEquals(List.of(2L, 1L), ids(index, "i"));
+        assertEquals(List.of(3L), ids(index, "ipad"));
+        assertEquals(List.of(1L), ids(index, "pro"));
+        assertEquals(List.of(4L), ids(index, "lung"));
+        assertEquals(List.of(), ids(index, "iphone 16"));
+        assertEquals(List.of(), ids(index, "x"));
+    }
+
+    @Test
+    void anEntryReachableByTwoKeysIsListedOnce() {
+        SuggestIndex index = new SuggestIndex.Builder(40, 2, 5)
+                .addProduct(1, "sua sua chua", 10)
+                .addCategory(9, "Sữa", "sua", 5)
+                .build();
+
+        int[] entries = index.lookup("sua");
+        assertEquals(2, entries.length);
+        assertEquals(1, index.idOf(entries[0]));
+        assertTrue(index.isCategory(entries[1]));
+        assertEquals("Sữa", index.categoryName(entries[1]));
+        assertEquals(5, index.weightOf(entries[1]));
+    }
+
+    @Test
+    void emptyNamesAreSkipped() {
+        SuggestIndex index = new SuggestIndex.Builder(40, 2, 5).addProduct(1, "", 10).build();
+
+        assertEquals(0, index.size());
+        assertEquals(0, index.lookup("").length);
+    }
+}
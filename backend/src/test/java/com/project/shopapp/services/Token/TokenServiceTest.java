@@ -0,0 +1,129 @@
+package com.project.shopapp.services.Token;
+
+import com.project.shopapp.components.JwtTokenUtils;
+import com.project.shopapp.components.TokenRevocationStore;
+import com.project.shopapp.exceptions.PermissionDenyException;
+import com.project.shopapp.models.RetiredRefreshToken;
+import com.project.shopapp.models.Token;
+import com.project.shopapp.models.User;
+import com.project.shopapp.repositories.RetiredRefreshTokenRepository;
+import com.project.shopapp.repositories.TokenRepository;
+import com.project.shopapp.repositories.UserRepository;
+import com.project.shopapp.utils.HashUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TokenServiceTest {
+    private static final String REFRESH_TOKEN = "refresh-token";
+    private static final LocalDateTime OLD_EXPIRATION = LocalDateTime.now().plusMinutes(10);
+
+    private TokenRepository tokenRepository;
+    private RetiredRefreshTokenRepository retiredRepository;
+    private TokenRevocationStore revocationStore;
+    private TokenService tokenService;
+    private Token token;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tokenRepository = mock(TokenRepository.class);
+        revocationStore = mock(TokenRevocationStore.class);
+        retiredRepository = mock(RetiredRefreshTokenRepository.class);
+        JwtTokenUtils jwtTokenUtils = mock(JwtTokenUtils.class);
+        UserSessionRegistry sessionRegistry = mock(UserSessionRegistry.class);
+        when(sessionRegistry.sessionsOf(any())).thenReturn(new UserSessionRegistry.Sessions());
+        when(jwtTokenUtils.generateToken(any())).thenReturn("new-access-token");
+        when(jwtTokenUtils.extractJti("new-access-token")).thenReturn("new-jti");
+        when(tokenRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        tokenService = new TokenService(tokenRepository, mock(UserRepository.class), jwtTokenUtils, revocationStore,
+                sessionRegistry, retiredRepository);
+        ReflectionTestUtils.setField(tokenService, "expiration", 3600);
+
+        User user = User.builder().id(5L).active(true).build();
+        token = Token.builder().id(9L).user(user).jti("old-jti").expirationDate(OLD_EXPIRATION)
+                .refreshToken(HashUtils.sha256Hex(REFRESH_TOKEN))
+                .refreshExpirationDate(LocalDateTime.now().plusDays(1)).build();
+        when(tokenRepository.findByRefreshToken(HashUtils.sha256Hex(REFRESH_TOKEN))).thenReturn(token);
+    }
+
+    @Test
+    void rotationRevokesTheOldAccessToken() throws Exception {
+        when(tokenRepository.rotateRefreshToken(eq(9L), eq(HashUtils.sha256Hex(REFRESH_TOKEN)), anyString()))
+                .thenReturn(1);
+
+        Token rotated = tokenService.refreshToken(REFRESH_TOKEN);
+
+        verify(revocationStore).revoke("old-jti", OLD_EXPIRATION);
+        assertEquals("new-jti", rotated.getJti());
+        assertEquals(HashUtils.sha256Hex(rotated.getPlainRefreshToken()), rotated.getRefreshToken());
+        verify(retiredRepository).save(argThat(retired -> retired.getTokenId() == 9L
+                && retired.getRefreshTokenHash().equals(HashUtils.sha256Hex(REFRESH_TOKEN))
+                && retired.getExpirationDate().equals(token.getRefreshExpirationDate())));
+    }
+
+    @Test
+    void anyRetiredRefreshTokenRevokesTheSession() {
+        String stolen = "refresh-token-from-two-rotations-ago";
+        when(retiredRepository.findByRefreshTokenHash(HashUtils.sha256Hex(stolen))).thenReturn(
+                RetiredRefreshToken.builder().refreshTokenHash(HashUtils.sha256Hex(stolen)).tokenId(9L)
+                        .expirationDate(token.getRefreshExpirationDate()).build());
+        when(tokenRepository.findById(9L)).thenReturn(Optional.of(token));
+
+        assertThrows(PermissionDenyException.class, () -> tokenService.refreshToken(stolen));
+
+        assertTrue(token.isRevoked());
+        verify(revocationStore).revoke("old-jti", OLD_EXPIRATION);
+        verify(tokenRepository, never()).rotateRefreshToken(any(), any(), any());
+    }
+
+    @Test
+    void losingTheRotationRaceIssuesNothing() {
+        when(tokenRepository.rotateRefreshToken(any(), any(), any())).thenReturn(0);
+
+        assertThrows(PermissionDenyException.class, () -> tokenService.refreshToken(REFRESH_TOKEN));
+
+        verify(tokenRepository, never()).save(any());
+        verifyNoInteractions(revocationStore, retiredRepository);
+        assertEquals("old-jti", token.getJti());
+    }
+
+    @Test
+    void sessionsOpenedOnOtherNodesCountTowardsTheLimit() throws Exception {
+        UserRepository userRepository = mock(UserRepository.class);
+        JwtTokenUtils jwtTokenUtils = mock(JwtTokenUtils.class);
+        when(jwtTokenUtils.extractJti("access")).thenReturn("jti-new");
+        UserSessionRegistry registry = new UserSessionRegistry(tokenRepository);
+        TokenService service = new TokenService(tokenRepository, userRepository, jwtTokenUtils, revocationStore,
+                registry, retiredRepository);
+        ReflectionTestUtils.setField(service, "expiration", 3600);
+        ReflectionTestUtils.setField(service, "expirationRefreshToken", 86400);
+        User user = User.builder().id(7L).active(true).build();
+        LocalDateTime now = LocalDateTime.now();
+        List<Token> elsewhere = List.of(
+                live(1L, "jti-1", now.minusHours(3)), live(2L, "jti-2", now.minusHours(2)),
+                live(3L, "jti-3", now.minusHours(1)));
+        // this node cached the user before the other node's logins
+        when(tokenRepository.findByUserId(7L)).thenReturn(List.of(), elsewhere);
+        when(tokenRepository.countLiveSessions(eq(7L), any())).thenReturn(3L);
+
+        service.addToken(user, "access");
+
+        verify(userRepository).lockById(7L);
+        verify(tokenRepository).deleteById(1L);
+        verify(revocationStore).revoke(eq("jti-1"), any());
+        verify(tokenRepository, never()).deleteById(2L);
+    }
+
+    private static Token live(long id, String jti, LocalDateTime issuedAt) {
+        return Token.builder().id(id).jti(jti).issuedAt(issuedAt).expirationDate(issuedAt.plusHours(4))
+                .refreshExpirationDate(issuedAt.plusDays(1)).build();
+    }
+}
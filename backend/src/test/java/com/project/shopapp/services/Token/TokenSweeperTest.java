@@ -0,0 +1,46 @@
+package com.project.shopapp.services.Token;
+
+import com.project.shopapp.models.Token;
+import com.project.shopapp.repositories.RetiredRefreshTokenRepository;
+import com.project.shopapp.repositories.TokenRepository;
+import com.project.shopapp.utils.HashUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TokenSweeperTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void duplicateLegacyTokensAreDeletedBeforeTheBackfill() {
+        TokenRepository tokenRepository = mock(TokenRepository.class);
+        TokenSweeper sweeper = new TokenSweeper(tokenRepository, mock(RetiredRefreshTokenRepository.class));
+        ReflectionTestUtils.setField(sweeper, "batchSize", 10);
+        ReflectionTestUtils.setField(sweeper, "maxBatchesPerRun", 1);
+        Token first = Token.builder().id(1L).token("a").build();
+        Token copy = Token.builder().id(2L).token("a").build();
+        Token alreadyHashedElsewhere = Token.builder().id(3L).token("b").build();
+        Token other = Token.builder().id(4L).token("c").build();
+        when(tokenRepository.findDeadTokenIds(any(), any())).thenReturn(List.of());
+        when(tokenRepository.findByTokenHashIsNull(any())).thenReturn(List.of(first, copy, alreadyHashedElsewhere, other));
+        when(tokenRepository.findExistingTokenHashes(any())).thenReturn(List.of(HashUtils.sha256Hex("b")));
+
+        sweeper.sweep();
+
+        verify(tokenRepository).deleteAllByIdInBatch(argThat(ids -> new ArrayList<>((List<Long>) ids).equals(List.of(2L, 3L))));
+        verify(tokenRepository).saveAll(argThat(saved -> {
+            List<Token> tokens = new ArrayList<>();
+            saved.forEach(tokens::add);
+            return tokens.equals(List.of(first, other));
+        }));
+        assertEquals(HashUtils.sha256Hex("a"), first.getTokenHash());
+        assertEquals(HashUtils.sha256Hex("c"), other.getTokenHash());
+        assertNull(copy.getTokenHash());
+    }
+}
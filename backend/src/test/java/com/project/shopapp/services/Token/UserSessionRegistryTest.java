@@ -0,0 +1,65 @@
+package com.project.shopapp.services.Token;
+
+import com.project.shopapp.models.Token;
+import com.project.shopapp.repositories.TokenRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserSessionRegistryTest {
+    private final TokenRepository tokenRepository = mock(TokenRepository.class);
+    private final UserSessionRegistry registry = new UserSessionRegistry(tokenRepository);
+
+    private static Token token(long id, boolean revoked, LocalDateTime sessionEnd) {
+        return Token.builder().id(id).jti("jti-" + id).revoked(revoked).issuedAt(LocalDateTime.now().minusHours(id))
+                .expirationDate(sessionEnd).refreshExpirationDate(sessionEnd).build();
+    }
+
+    @Test
+    void loadsOnceAndKeepsLiveSessionsOnly() {
+        LocalDateTime tomorrow = LocalDateTime.now().plusDays(1);
+        when(tokenRepository.findByUserId(1L)).thenReturn(List.of(
+                token(1, false, tomorrow), token(2, true, tomorrow), token(3, false, LocalDateTime.now().minusDays(1))));
+        ReflectionTestUtils.setField(registry, "reloadSeconds", 600L);
+
+        UserSessionRegistry.Sessions first = registry.sessionsOf(1L);
+
+        assertSame(first, registry.sessionsOf(1L));
+        assertEquals(1, first.size());
+        verify(tokenRepository, times(1)).findByUserId(1L);
+    }
+
+    @Test
+    void staleSessionsAreReplacedByAFreshLoad() {
+        when(tokenRepository.findByUserId(1L)).thenReturn(List.of(),
+                List.of(token(4, false, LocalDateTime.now().plusDays(1))));
+        ReflectionTestUtils.setField(registry, "reloadSeconds", -1L);
+
+        UserSessionRegistry.Sessions first = registry.sessionsOf(1L);
+        UserSessionRegistry.Sessions second = registry.sessionsOf(1L);
+
+        assertNotSame(first, second);
+        assertEquals(1, second.size());
+    }
+
+    @Test
+    void reloadRefillsTheSameInstance() {
+        when(tokenRepository.findByUserId(1L)).thenReturn(List.of(),
+                List.of(token(5, false, LocalDateTime.now().plusDays(1)), token(6, false, LocalDateTime.now().plusDays(1))));
+        ReflectionTestUtils.setField(registry, "reloadSeconds", 600L);
+        UserSessionRegistry.Sessions sessions = registry.sessionsOf(1L);
+
+        synchronized (sessions) {
+            registry.reload(1L, sessions);
+        }
+
+        assertEquals(2, sessions.size());
+        assertSame(sessions, registry.sessionsOf(1L));
+        assertEquals(6L, sessions.removeOldest().tokenId());
+    }
+}
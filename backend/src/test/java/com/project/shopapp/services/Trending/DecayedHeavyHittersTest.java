@@ -0,0 +1,59 @@
+package com.project.shopapp.services.Trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecayedHeavyHittersTest {
+    private static final long HOUR = 3_600_000L;
+
+    @Test
+    void ranksByDecayedWeightPerScope() {
+        DecayedHeavyHitters hitters = new DecayedHeavyHitters(1024, HOUR, 10, 10, 0);
+        hitters.add(1, 5L, 3, 0);
+        hitters.add(2, 5L, 1, 0);
+        hitters.add(3, 6L, 2, 0);
+
+        Map<Long, List<DecayedHeavyHitters.Ranked>> ranked = hitters.ranked(HOUR);
+
+        List<DecayedHeavyHitters.Ranked> global = ranked.get(0L);
+        assertEquals(List.of(1L, 3L, 2L), global.stream().map(DecayedHeavyHitters.Ranked::productId).toList());
+        // one half-life later every score is halved
+        assertEquals(1.5, global.get(0).score(), 1e-9);
+        assertEquals(List.of(1L, 2L), ranked.get(5L).stream().map(DecayedHeavyHitters.Ranked::productId).toList());
+        assertEquals(1, ranked.get(6L).size());
+    }
+
+    @Test
+    void recentActivityOutranksOlderActivityOfTheSameSize() {
+        DecayedHeavyHitters hitters = new DecayedHeavyHitters(1024, HOUR, 10, 10, 0);
+        hitters.add(1, null, 4, 0);
+        hitters.add(2, null, 3, 2 * HOUR);
+
+        List<DecayedHeavyHitters.Ranked> global = hitters.ranked(2 * HOUR).get(0L);
+
+        assertEquals(2, global.get(0).productId());
+        assertEquals(1.0, global.get(1).score(), 1e-9);
+    }
+
+    @Test
+    void keepsOnlyTheTopKAndSurvivesRescaling() {
+        DecayedHeavyHitters hitters = new DecayedHeavyHitters(1024, 1000, 3, 3, 0);
+        long now = 0;
+        for (int round = 0; round < 50; round++) {
+            // 50 half-lives per round force several rescales
+            now += 50_000;
+            for (long id = 1; id <= 10; id++) {
+                hitters.add(id, null, id, now);
+            }
+        }
+
+        List<DecayedHeavyHitters.Ranked> global = hitters.ranked(now).get(0L);
+
+        assertEquals(List.of(10L, 9L, 8L), global.stream().map(DecayedHeavyHitters.Ranked::productId).toList());
+        assertEquals(10, global.get(0).score(), 1e-6);
+    }
+}
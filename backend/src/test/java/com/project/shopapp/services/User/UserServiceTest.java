@@ -0,0 +1,99 @@
+package com.project.shopapp.services.User;
+
+import com.project.shopapp.components.LocalizationUtils;
+import com.project.shopapp.components.PasswordHashingExecutor;
+import com.project.shopapp.components.UserDetailsCache;
+import com.project.shopapp.dtos.UpdateUserDTO;
+import com.project.shopapp.dtos.UserDTO;
+import com.project.shopapp.models.Role;
+import com.project.shopapp.models.User;
+import com.project.shopapp.repositories.RoleRepository;
+import com.project.shopapp.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UserServiceTest {
+    private UserRepository userRepository;
+    private RoleRepository roleRepository;
+    private PasswordHashingExecutor passwordHashingExecutor;
+    private UserDetailsCache userDetailsCache;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        roleRepository = mock(RoleRepository.class);
+        passwordHashingExecutor = mock(PasswordHashingExecutor.class);
+        userDetailsCache = mock(UserDetailsCache.class);
+        userService = new UserService(userRepository, roleRepository, passwordHashingExecutor, null,
+                mock(LocalizationUtils.class), null, userDetailsCache);
+        User user = User.builder().id(1L).phoneNumber("0900000001").build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void cachedPrincipalsAreDroppedOnlyAfterTheCommit() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+
+        userService.updateUser(1L, UpdateUserDTO.builder().phoneNumber("0900000002").build());
+
+        verifyNoInteractions(userDetailsCache);
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        verify(userDetailsCache).invalidate("0900000001");
+        verify(userDetailsCache).invalidate("0900000002");
+    }
+
+    @Test
+    void withoutATransactionTheyAreDroppedRightAway() throws Exception {
+        userService.updateUser(1L, UpdateUserDTO.builder().fullName("Nguyễn Văn A").build());
+
+        verify(userDetailsCache, times(2)).invalidate("0900000001");
+    }
+
+    @Test
+    void registrationHashesBeforeTouchingTheDatabase() throws Exception {
+        when(passwordHashingExecutor.encode("secret")).thenReturn("hashed");
+        when(roleRepository.findById(1L)).thenReturn(Optional.of(new Role(1L, Role.USER)));
+
+        User created = userService.createUser(UserDTO.builder()
+                .phoneNumber("0900000009").password("secret").retypePassword("secret").roleId(1L).build());
+
+        assertEquals("hashed", created.getPassword());
+        InOrder order = inOrder(passwordHashingExecutor, userRepository, roleRepository);
+        order.verify(passwordHashingExecutor).encode("secret");
+        order.verify(userRepository).existsByPhoneNumber("0900000009");
+        order.verify(roleRepository).findById(1L);
+        order.verify(userRepository).save(any());
+        assertFalse(UserService.class.getMethod("createUser", UserDTO.class).isAnnotationPresent(Transactional.class));
+    }
+
+    @Test
+    void unknownPhoneIsABadCredential() {
+        when(userRepository.findByPhoneNumber("0900000404")).thenReturn(Optional.empty());
+
+        assertThrows(BadCredentialsException.class, () -> userService.login("0900000404", "secret", 1L));
+        verifyNoInteractions(passwordHashingExecutor);
+    }
+}
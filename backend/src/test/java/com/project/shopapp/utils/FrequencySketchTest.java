@@ -0,0 +1,46 @@
+package com.project.shopapp.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrequencySketchTest {
+
+    @Test
+    void countsUpToFifteen() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+        assertEquals(0, sketch.frequency("a"));
+        for (int i = 1; i <= 20; i++) {
+            sketch.increment("a");
+            assertEquals(Math.min(i, 15), sketch.frequency("a"));
+        }
+    }
+
+    @Test
+    void neverUnderestimatesBeforeAReset() {
+        FrequencySketch sketch = new FrequencySketch(4096);
+        for (int key = 0; key < 500; key++) {
+            for (int i = 0; i < key % 10; i++) {
+                sketch.increment("key-" + key);
+            }
+        }
+        for (int key = 0; key < 500; key++) {
+            assertTrue(sketch.frequency("key-" + key) >= key % 10, "key-" + key);
+        }
+    }
+
+    @Test
+    void halvesAllCountersAfterTenTimesTheTableSize() {
+        // 32 longs: reset after 320 additions
+        FrequencySketch sketch = new FrequencySketch(32);
+        for (int i = 0; i < 12; i++) {
+            sketch.increment("hot");
+        }
+        int before = sketch.frequency("hot");
+        for (int i = 0; i < 308; i++) {
+            sketch.increment("cold-" + (i % 3));
+        }
+        assertTrue(sketch.frequency("hot") <= before / 2 + 1,
+                "before " + before + ", after " + sketch.frequency("hot"));
+    }
+}
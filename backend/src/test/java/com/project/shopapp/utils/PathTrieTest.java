@@ -0,0 +1,165 @@
+package com.project.shopapp.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathTrieTest {
+    // the route rules of RoutePolicyRegistry, in declaration order
+    private static final String[][] RULES = {
+            {"POST", "/api/v1/users/register"},
+            {"POST", "/api/v1/users/login"},
+            {"POST", "/api/v1/users/refresh"},
+            {"GET", "/api/v1/products/chunked-uploads/**"},
+            {"GET", "/api/v1/products**"},
+            {"GET", "/api/v1/products/**"},
+            {"GET", "/api/v1/healthcheck/**"},
+            {"GET", "/api/v1/roles**"},
+            {"GET", "/api/v1/categories**"},
+            {"GET", "/api/v1/categories/**"},
+            {"POST", "/api/v1/categories/**"},
+            {"PUT", "/api/v1/categories/**"},
+            {"DELETE", "/api/v1/categories/**"},
+            {"POST", "/api/v1/products**"},
+            {"POST", "/api/v1/products/**"},
+            {"PUT", "/api/v1/products/**"},
+            {"DELETE", "/api/v1/products/**"},
+            {"POST", "/api/v1/orders/**"},
+            {"GET", "/api/v1/orders/**"},
+            {"PUT", "/api/v1/orders/**"},
+            {"DELETE", "/api/v1/orders/**"},
+            {"POST", "/api/v1/order_details/**"},
+            {"GET", "/api/v1/order_details/**"},
+            {"PUT", "/api/v1/order_details/**"},
+            {"DELETE", "/api/v1/order_details/**"},
+            {"GET", "/api/v1/coupons/**"},
+            {"GET", "/api/v1/metrics/**"},
+    };
+
+    private static final String[][] REQUESTS = {
+            {"POST", "/api/v1/users/login"},
+            {"GET", "/api/v1/users/login"},
+            {"POST", "/api/v1/users/details"},
+            {"GET", "/api/v1/products"},
+            {"GET", "/api/v1/products/12"},
+            {"GET", "/api/v1/products/images/abc.jpg"},
+            {"GET", "/api/v1/products/chunked-uploads/5"},
+            {"GET", "/api/v1/productsX"},
+            {"POST", "/api/v1/products"},
+            {"PUT", "/api/v1/products/12"},
+            {"GET", "/api/v1/categories"},
+            {"DELETE", "/api/v1/categories/3"},
+            {"GET", "/api/v1/orders/user/4"},
+            {"PUT", "/api/v1/order_details/9"},
+            {"GET", "/api/v1/coupons/calculate"},
+            {"GET", "/api/v1/metrics/image-cache"},
+            {"GET", "/api/v1/unknown/route"},
+            {"PATCH", "/api/v1/orders/1"},
+    };
+
+    private static PathTrie<Integer> trieOfRules() {
+        PathTrie<Integer> trie = new PathTrie<>();
+        for (int i = 0; i < RULES.length; i++) {
+            trie.add(RULES[i][0], RULES[i][1], i);
+        }
+        return trie;
+    }
+
+    // the matcher chain the trie replaced: the first rule whose method and ant pattern match
+    private static Integer firstMatch(AntPathMatcher matcher, String method, String path) {
+        for (int i = 0; i < RULES.length; i++) {
+            if (RULES[i][0].equals(method) && matcher.match(RULES[i][1], path)) {
+                return i;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    void singleStarMatchesExactlyOneSegment() {
+        PathTrie<String> trie = new PathTrie<String>().add(null, "/a/*/c", "x");
+
+        assertEquals("x", trie.find("GET", "/a/b/c"));
+        assertNull(trie.find("GET", "/a/c"));
+        assertNull(trie.find("GET", "/a/b/b/c"));
+    }
+
+    @Test
+    void doubleStarMatchesZeroOrMoreSegments() {
+        PathTrie<String> trie = new PathTrie<String>().add(null, "/a/**/z", "x");
+
+        assertEquals("x", trie.find("GET", "/a/z"));
+        assertEquals("x", trie.find("GET", "/a/b/z"));
+        assertEquals("x", trie.find("GET", "/a/b/c/z"));
+        assertNull(trie.find("GET", "/a/b/c"));
+    }
+
+    @Test
+    void prefixStarMatchesOneSegmentWithThatPrefix() {
+        PathTrie<String> trie = new PathTrie<String>().add(null, "/api/products**", "x");
+
+        assertEquals("x", trie.find("GET", "/api/products"));
+        assertEquals("x", trie.find("GET", "/api/productsX"));
+        assertNull(trie.find("GET", "/api/product"));
+        assertNull(trie.find("GET", "/api/products/1"));
+    }
+
+    @Test
+    void firstDeclaredPatternWinsRegardlessOfSpecificity() {
+        PathTrie<String> trie = new PathTrie<String>()
+                .add("GET", "/p/**", "wide")
+                .add("GET", "/p", "exact")
+                .add(null, "/q", "any-method")
+                .add("POST", "/q", "post");
+
+        assertEquals("wide", trie.find("GET", "/p"));
+        assertEquals("any-method", trie.find("POST", "/q"));
+        assertNull(trie.find("POST", "/p"));
+    }
+
+    @Test
+    void matchesLikeTheAntMatcherChainItReplaced() {
+        PathTrie<Integer> trie = trieOfRules();
+        AntPathMatcher matcher = new AntPathMatcher();
+        for (String[] request : REQUESTS) {
+            assertEquals(firstMatch(matcher, request[0], request[1]), trie.find(request[0], request[1]),
+                    request[0] + " " + request[1]);
+        }
+    }
+
+    // mvn test -Dtest=PathTrieTest -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkAgainstTheAntMatcherChain() {
+        PathTrie<Integer> trie = trieOfRules();
+        AntPathMatcher matcher = new AntPathMatcher();
+        int rounds = 200_000;
+        List<String> results = new ArrayList<>();
+        for (int pass = 0; pass < 5; pass++) {
+            long sink = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                String[] request = REQUESTS[i % REQUESTS.length];
+                Integer rule = trie.find(request[0], request[1]);
+                sink += rule == null ? -1 : rule;
+            }
+            long trieNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                String[] request = REQUESTS[i % REQUESTS.length];
+                Integer rule = firstMatch(matcher, request[0], request[1]);
+                sink -= rule == null ? -1 : rule;
+            }
+            long chainNanos = System.nanoTime() - start;
+            assertEquals(0, sink);
+            results.add(String.format("pass %d: trie %d ns/lookup, ant chain %d ns/lookup",
+                    pass, trieNanos / rounds, chainNanos / rounds));
+        }
+        results.forEach(System.out::println);
+    }
+}